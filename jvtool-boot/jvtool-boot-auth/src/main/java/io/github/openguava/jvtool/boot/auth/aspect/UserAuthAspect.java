@@ -5,6 +5,7 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+import io.github.openguava.jvtool.lang.auth.AuthScope;
 import io.github.openguava.jvtool.lang.auth.annotation.RequiresAnonymous;
 import io.github.openguava.jvtool.lang.auth.annotation.RequiresPermissions;
 import io.github.openguava.jvtool.lang.auth.annotation.RequiresRoles;
@@ -17,33 +18,42 @@ public class UserAuthAspect {
 
 	@Around("@annotation(requiresLogin)")
 	public Object requiresUserAround(ProceedingJoinPoint joinPoint, RequiresLogin requiresLogin) throws Throwable {
-		if(requiresLogin != null) {
-			AuthUtils.checkLogin();
+		// 同一请求内的多个校验及方法体共享已解析的令牌和用户
+		try (AuthScope scope = AuthUtils.openScope()) {
+			if(requiresLogin != null) {
+				AuthUtils.checkLogin();
+			}
+			return joinPoint.proceed();
 		}
-		return joinPoint.proceed();
 	}
 	
 	@Around("@annotation(requiresRoles)")
 	public Object requiresRolesAround(ProceedingJoinPoint joinPoint, RequiresRoles requiresRoles) throws Throwable {
-		if(requiresRoles != null) {
-			AuthUtils.checkRole(requiresRoles);
+		try (AuthScope scope = AuthUtils.openScope()) {
+			if(requiresRoles != null) {
+				AuthUtils.checkRole(requiresRoles);
+			}
+			return joinPoint.proceed();
 		}
-		return joinPoint.proceed();
 	}
 	
 	@Around("@annotation(requiresPermissions)")
 	public Object requiresPermissionsAround(ProceedingJoinPoint joinPoint, RequiresPermissions requiresPermissions) throws Throwable {
-		if(requiresPermissions != null) {
-			AuthUtils.checkPermission(requiresPermissions);
+		try (AuthScope scope = AuthUtils.openScope()) {
+			if(requiresPermissions != null) {
+				AuthUtils.checkPermission(requiresPermissions);
+			}
+			return joinPoint.proceed();
 		}
-		return joinPoint.proceed();
 	}
 	
 	@Around("@annotation(requiresAnonymous)")
 	public Object requiresAnonymousAround(ProceedingJoinPoint joinPoint, RequiresAnonymous requiresAnonymous) throws Throwable {
-		if(requiresAnonymous != null) {
-			AuthUtils.checkAnonymous(requiresAnonymous);
+		try (AuthScope scope = AuthUtils.openScope()) {
+			if(requiresAnonymous != null) {
+				AuthUtils.checkAnonymous(requiresAnonymous);
+			}
+			return joinPoint.proceed();
 		}
-		return joinPoint.proceed();
 	}
 }
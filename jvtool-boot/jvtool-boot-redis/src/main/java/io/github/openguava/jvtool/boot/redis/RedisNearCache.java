@@ -0,0 +1,448 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.alibaba.fastjson2.JSON;
+
+import io.github.openguava.jvtool.lang.cache.AbstractCache;
+import io.github.openguava.jvtool.lang.cache.CacheStats;
+import io.github.openguava.jvtool.lang.cache.timed.TimedCache;
+import io.github.openguava.jvtool.lang.util.ObjectUtils;
+import io.github.openguava.jvtool.lang.util.StringUtils;
+
+/**
+ * 两级近端缓存<br>
+ * 一级为进程内有界 {@link TimedCache}，二级为 {@link RedisTemplateCache}；
+ * 写入、删除时通过 redis 发布订阅通知其他节点失效本地缓存。<br>
+ * 本地缓存直接保存对象引用，调用方不应修改读取到的对象。
+ * @author openguava
+ *
+ */
+public class RedisNearCache extends AbstractCache implements Closeable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** 失效版本号分段数量，须为2的幂 */
+	private static final int VERSION_STRIPES = 1024;
+
+	/** 二级缓存 */
+	private final RedisTemplateCache remote;
+
+	public RedisTemplateCache getRemote() {
+		return this.remote;
+	}
+
+	/** 一级缓存 */
+	private final TimedCache local;
+
+	public TimedCache getLocal() {
+		return this.local;
+	}
+
+	/** redisTemplate */
+	private final RedisTemplate<String, Object> redisTemplate;
+
+	/** 失效消息频道 */
+	private final byte[] channel;
+
+	/** 当前节点标识 */
+	private final String source;
+
+	/** 本地缓存最长生存时间(毫秒)，小于1表示不限制 */
+	private final long localTtl;
+
+	/** 按 key 哈希分段的失效版本号，读取二级缓存期间同段 key 发生失效时不回填一级缓存 */
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+	/** 一级缓存命中次数 */
+	private final LongAdder l1HitCount = new LongAdder();
+
+	/** 二级缓存命中次数 */
+	private final LongAdder l2HitCount = new LongAdder();
+
+	/** 未命中次数 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 初始化
+	 * @param remote 二级缓存
+	 * @param local 一级缓存
+	 * @param redisTemplate 用于发布失效消息
+	 * @param channel 失效消息频道
+	 * @param source 当前节点标识
+	 * @param localTtl 本地缓存最长生存时间(毫秒)
+	 */
+	public RedisNearCache(RedisTemplateCache remote, TimedCache local, RedisTemplate<String, Object> redisTemplate,
+			String channel, String source, long localTtl) {
+		super(remote.getName());
+		this.remote = remote;
+		this.local = local;
+		this.redisTemplate = redisTemplate;
+		this.channel = StringUtils.toBytes(channel);
+		this.source = source;
+		this.localTtl = localTtl;
+	}
+
+	@Override
+	public Object get(String key) {
+		Object val = this.local.get(key);
+		if(val != null) {
+			this.l1HitCount.increment();
+			return val;
+		}
+		long version = this.version(key);
+		val = this.remote.get(key);
+		if(val == null) {
+			this.missCount.increment();
+			return null;
+		}
+		this.l2HitCount.increment();
+		this.putLocal(key, val, 0L, version);
+		return val;
+	}
+
+	@Override
+	public Object get(String key, Supplier<Object> valueLoader) {
+		return this.get(key, valueLoader, 0L);
+	}
+
+	@Override
+	public Object get(String key, Supplier<Object> valueLoader, long ttl) {
+		Object val = this.local.get(key);
+		if(val != null) {
+			this.l1HitCount.increment();
+			return val;
+		}
+		long version = this.version(key);
+		boolean[] loaded = new boolean[1];
+		val = this.remote.get(key, valueLoader == null ? null : () -> {
+			loaded[0] = true;
+			return valueLoader.get();
+		}, ttl);
+		if(loaded[0]) {
+			this.missCount.increment();
+			// 本节点加载并写入了二级缓存，通知其他节点
+			this.publish(Collections.singletonList(key), false);
+		} else if(val != null) {
+			this.l2HitCount.increment();
+		} else {
+			this.missCount.increment();
+		}
+		if(val != null) {
+			this.putLocal(key, val, ttl, version);
+		}
+		return val;
+	}
+
+	@Override
+	public Map<String, Object> getAll(Collection<String> keys) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		if(ObjectUtils.isEmpty(keys)) {
+			return result;
+		}
+		List<String> missingKeys = new ArrayList<>();
+		for (String key : keys) {
+			Object val = this.local.get(key);
+			if(val != null) {
+				this.l1HitCount.increment();
+				result.put(key, val);
+			} else {
+				missingKeys.add(key);
+			}
+		}
+		if(missingKeys.isEmpty()) {
+			return result;
+		}
+		long[] versions = new long[missingKeys.size()];
+		for (int i = 0; i < versions.length; i++) {
+			versions[i] = this.version(missingKeys.get(i));
+		}
+		Map<String, Object> remoteValues = this.remote.getAll(missingKeys);
+		this.l2HitCount.add(remoteValues.size());
+		this.missCount.add(missingKeys.size() - remoteValues.size());
+		for (int i = 0; i < versions.length; i++) {
+			Object val = remoteValues.get(missingKeys.get(i));
+			if(val != null) {
+				this.putLocal(missingKeys.get(i), val, 0L, versions[i]);
+			}
+		}
+		// 按传入顺序合并
+		Map<String, Object> merged = new LinkedHashMap<>();
+		for (String key : keys) {
+			Object val = result.get(key);
+			if(val == null) {
+				val = remoteValues.get(key);
+			}
+			if(val != null) {
+				merged.put(key, val);
+			}
+		}
+		return merged;
+	}
+
+	@Override
+	public byte[] getBytes(String key) {
+		return this.remote.getBytes(key);
+	}
+
+	@Override
+	public <T> T getItem(String key, Class<T> clazz) {
+		Object val = this.local.get(key);
+		if(clazz.isInstance(val)) {
+			this.l1HitCount.increment();
+			return clazz.cast(val);
+		}
+		long version = this.version(key);
+		T item = this.remote.getItem(key, clazz);
+		if(item == null) {
+			this.missCount.increment();
+			return null;
+		}
+		this.l2HitCount.increment();
+		// 一级缓存保存转换后的对象，再次读取同类型时不再访问二级缓存
+		this.putLocal(key, item, 0L, version);
+		return item;
+	}
+
+	@Override
+	public <T> List<T> getList(String key, Class<T> clazz) {
+		return this.remote.getList(key, clazz);
+	}
+
+	@Override
+	public void put(String key, Object value) {
+		this.put(key, value, 0L);
+	}
+
+	@Override
+	public void put(String key, Object value, long ttl) {
+		this.remote.put(key, value, ttl);
+		this.invalidate(key);
+		this.local.put(key, value, this.localTtl(ttl));
+		this.publish(Collections.singletonList(key), false);
+	}
+
+	@Override
+	public void putAll(Map<String, ?> map, long ttl) {
+		if(map == null || map.isEmpty()) {
+			return;
+		}
+		this.remote.putAll(map, ttl);
+		for (String key : map.keySet()) {
+			this.invalidate(key);
+		}
+		this.local.putAll(map, this.localTtl(ttl));
+		this.publish(new ArrayList<>(map.keySet()), false);
+	}
+
+	@Override
+	public boolean remove(String key) {
+		boolean removed = this.remote.remove(key);
+		this.invalidateLocal(Collections.singletonList(key));
+		this.publish(Collections.singletonList(key), false);
+		return removed;
+	}
+
+	@Override
+	public long removes(Collection<String> keys) {
+		if(ObjectUtils.isEmpty(keys)) {
+			return 0L;
+		}
+		long count = this.remote.removes(keys);
+		this.invalidateLocal(keys);
+		this.publish(new ArrayList<>(keys), false);
+		return count;
+	}
+
+	@Override
+	public boolean exists(String key) {
+		return this.local.exists(key) || this.remote.exists(key);
+	}
+
+	@Override
+	public Set<String> keys(String pattern) {
+		return this.remote.keys(pattern);
+	}
+
+	@Override
+	public long size(String pattern) {
+		return this.remote.size(pattern);
+	}
+
+	@Override
+	public void clear() {
+		this.remote.clear();
+		this.clearLocal();
+		this.publish(null, true);
+	}
+
+	/**
+	 * 失效本地缓存(收到失效消息时调用)
+	 * @param keys
+	 */
+	public void invalidateLocal(Collection<String> keys) {
+		for (String key : keys) {
+			this.invalidate(key);
+		}
+		this.local.removes(keys);
+	}
+
+	/**
+	 * 清空本地缓存(收到失效消息时调用)
+	 */
+	public void clearLocal() {
+		for (int i = 0; i < VERSION_STRIPES; i++) {
+			this.versions.incrementAndGet(i);
+		}
+		this.local.clear();
+	}
+
+	/**
+	 * 获取一级缓存命中次数
+	 * @return
+	 */
+	public long getL1HitCount() {
+		return this.l1HitCount.sum();
+	}
+
+	/**
+	 * 获取二级缓存命中次数
+	 * @return
+	 */
+	public long getL2HitCount() {
+		return this.l2HitCount.sum();
+	}
+
+	/**
+	 * 获取未命中次数
+	 * @return
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * 获取一级缓存命中率(占全部请求)
+	 * @return
+	 */
+	public double getL1HitRate() {
+		long l1 = this.l1HitCount.sum();
+		long total = l1 + this.l2HitCount.sum() + this.missCount.sum();
+		return total == 0L ? 0D : (double) l1 / total;
+	}
+
+	/**
+	 * 获取二级缓存命中率(占一级缓存未命中的请求)
+	 * @return
+	 */
+	public double getL2HitRate() {
+		long l2 = this.l2HitCount.sum();
+		long total = l2 + this.missCount.sum();
+		return total == 0L ? 0D : (double) l2 / total;
+	}
+
+	/**
+	 * 获取整体统计快照，命中次数为两级缓存命中之和，淘汰及过期统计来自一级缓存
+	 * @return
+	 */
+	public CacheStats stats() {
+		CacheStats localStats = this.local.stats();
+		return new CacheStats(this.l1HitCount.sum() + this.l2HitCount.sum(), this.missCount.sum(),
+				localStats.getEvictionCount(), localStats.getEvictionWeight(), localStats.getExpiredCount());
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.local.close();
+	}
+
+	/**
+	 * 回填本地缓存，读取期间发生失效时放弃回填<br>
+	 * 失效先递增版本号再删除本地缓存，回填后再次检查版本号，
+	 * 回填与失效交错时撤销回填，避免旧值覆盖失效结果
+	 * @param key
+	 * @param val
+	 * @param ttl
+	 * @param version 读取二级缓存前的版本号
+	 */
+	private void putLocal(String key, Object val, long ttl, long version) {
+		int index = stripe(key);
+		if(this.versions.get(index) != version) {
+			return;
+		}
+		this.local.put(key, val, this.localTtl(ttl));
+		if(this.versions.get(index) != version) {
+			this.local.remove(key);
+		}
+	}
+
+	/**
+	 * 获取 key 当前的失效版本号
+	 * @param key
+	 * @return
+	 */
+	private long version(String key) {
+		return this.versions.get(stripe(key));
+	}
+
+	/**
+	 * 递增 key 的失效版本号，须在删除或覆盖本地缓存之前调用
+	 * @param key
+	 */
+	private void invalidate(String key) {
+		this.versions.incrementAndGet(stripe(key));
+	}
+
+	/**
+	 * 计算 key 所在的版本号分段
+	 * @param key
+	 * @return
+	 */
+	private static int stripe(String key) {
+		int h = key == null ? 0 : key.hashCode();
+		return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+	}
+
+	/**
+	 * 计算本地缓存生存时间
+	 * @param ttl
+	 * @return
+	 */
+	private long localTtl(long ttl) {
+		if(ttl < 1L) {
+			return this.localTtl;
+		}
+		return this.localTtl < 1L ? ttl : Math.min(ttl, this.localTtl);
+	}
+
+	/**
+	 * 发布失效消息
+	 * @param keys
+	 * @param clear
+	 */
+	private void publish(List<String> keys, boolean clear) {
+		final byte[] message = JSON.toJSONBytes(new RedisNearCacheMessage(this.source, this.getName(), keys, clear));
+		this.redisTemplate.execute(new RedisCallback<Long>() {
+			@Override
+			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.publish(channel, message);
+			}
+		});
+	}
+}
@@ -0,0 +1,69 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 近端缓存失效消息
+ * @author openguava
+ *
+ */
+public class RedisNearCacheMessage implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** 发送节点标识 */
+	private String source;
+
+	/** 缓存名称 */
+	private String name;
+
+	/** 失效的键集合 */
+	private List<String> keys;
+
+	/** 是否清空缓存 */
+	private boolean clear;
+
+	public RedisNearCacheMessage() {
+
+	}
+
+	public RedisNearCacheMessage(String source, String name, List<String> keys, boolean clear) {
+		this.source = source;
+		this.name = name;
+		this.keys = keys;
+		this.clear = clear;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	public void setKeys(List<String> keys) {
+		this.keys = keys;
+	}
+
+	public boolean isClear() {
+		return clear;
+	}
+
+	public void setClear(boolean clear) {
+		this.clear = clear;
+	}
+}
@@ -0,0 +1,342 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.util.TypeUtils;
+
+import io.github.openguava.jvtool.lang.constant.CharsetConstants;
+
+/**
+ * redis 二进制序列化<br>
+ * 使用 JSONB 二进制格式编码，字段名按符号表压缩；
+ * 已在 {@link RedisTypeRegistry} 注册的类型只写入类型编号，不写入类名；
+ * 编码结果超过阈值时使用 deflate 压缩。<br>
+ * 数据格式：魔数(1字节) + 标志(1字节) + [类型编号(变长)] + [原始长度(变长)] + 数据。
+ * 非此格式的数据按 {@link RedisTemplateJsonSerializer} 的 JSON 文本解析，兼容已有缓存。
+ * @author openguava
+ *
+ * @param <T>
+ */
+public class RedisTemplateBinarySerializer<T> implements RedisSerializer<T> {
+
+	/** 魔数，JSON 文本不会以此字节开头 */
+	static final byte MAGIC = (byte) 0xB7;
+
+	/** 标志：deflate 压缩 */
+	static final int FLAG_DEFLATE = 0x01;
+
+	/** 标志：写入类型编号 */
+	static final int FLAG_TYPED = 0x04;
+
+	/** 默认压缩阈值(字节) */
+	public static final int DEFAULT_COMPRESS_THRESHOLD = 4096;
+
+	/** 未注册类型写入特性 */
+	private static final JSONWriter.Feature[] WRITE_FEATURES = {
+			JSONWriter.Feature.WriteClassName,
+			JSONWriter.Feature.WriteNameAsSymbol
+	};
+
+	/** 已注册类型写入特性，根对象类型由编号确定，下级属性仍写入类名以保留多态类型 */
+	private static final JSONWriter.Feature[] WRITE_TYPED_FEATURES = {
+			JSONWriter.Feature.WriteClassName,
+			JSONWriter.Feature.NotWriteRootClassName,
+			JSONWriter.Feature.WriteNameAsSymbol
+	};
+
+	/** 压缩器 */
+	private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+
+	/** 解压器 */
+	private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+	/** 类型 */
+	private final Class<T> clazz;
+
+	public Class<T> getClazz() {
+		return this.clazz;
+	}
+
+	/** 类型注册表 */
+	private final RedisTypeRegistry registry;
+
+	public RedisTypeRegistry getRegistry() {
+		return this.registry;
+	}
+
+	/** 压缩阈值(字节)，小于1表示不压缩 */
+	private int compressThreshold = DEFAULT_COMPRESS_THRESHOLD;
+
+	public int getCompressThreshold() {
+		return this.compressThreshold;
+	}
+
+	public void setCompressThreshold(int compressThreshold) {
+		this.compressThreshold = compressThreshold;
+	}
+
+	/** 兼容 JSON 文本字符集 */
+	private Charset charset = CharsetConstants.CHARSET_UTF_8;
+
+	public Charset getCharset() {
+		return this.charset;
+	}
+
+	public void setCharset(Charset charset) {
+		this.charset = charset;
+	}
+
+	public RedisTemplateBinarySerializer(Class<T> clazz) {
+		this(clazz, new RedisTypeRegistry());
+	}
+
+	public RedisTemplateBinarySerializer(Class<T> clazz, RedisTypeRegistry registry) {
+		this.clazz = clazz;
+		this.registry = registry;
+	}
+
+	@Override
+	public byte[] serialize(T t) throws SerializationException {
+		if(t == null) {
+			return new byte[0];
+		}
+		try {
+			int typeId = this.registry.getId(t.getClass());
+			byte[] payload = JSONB.toBytes(t, typeId > 0 ? WRITE_TYPED_FEATURES : WRITE_FEATURES);
+			int flags = typeId > 0 ? FLAG_TYPED : 0;
+			byte[] compressed = null;
+			if(this.compressThreshold > 0 && payload.length >= this.compressThreshold) {
+				compressed = deflate(payload);
+				if(compressed != null) {
+					flags |= FLAG_DEFLATE;
+				}
+			}
+			byte[] body = compressed != null ? compressed : payload;
+			int headerLength = 2 + (typeId > 0 ? varIntSize(typeId) : 0) + (compressed != null ? varIntSize(payload.length) : 0);
+			byte[] bytes = new byte[headerLength + body.length];
+			bytes[0] = MAGIC;
+			bytes[1] = (byte) flags;
+			int offset = 2;
+			if(typeId > 0) {
+				offset = writeVarInt(bytes, offset, typeId);
+			}
+			if(compressed != null) {
+				offset = writeVarInt(bytes, offset, payload.length);
+			}
+			System.arraycopy(body, 0, bytes, offset, body.length);
+			return bytes;
+		} catch (RuntimeException e) {
+			throw new SerializationException("Could not serialize: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public T deserialize(byte[] bytes) throws SerializationException {
+		return this.deserialize(bytes, this.clazz);
+	}
+
+	/**
+	 * 反序列化为指定类型
+	 * @param <E>
+	 * @param bytes
+	 * @param type
+	 * @return
+	 * @throws SerializationException
+	 */
+	public <E> E deserialize(byte[] bytes, Class<E> type) throws SerializationException {
+		if(bytes == null || bytes.length == 0) {
+			return null;
+		}
+		try {
+			if(bytes[0] != MAGIC) {
+				return JSON.parseObject(new String(bytes, this.charset), type, JSONReader.Feature.SupportAutoType);
+			}
+			int flags = bytes[1];
+			int[] offset = { 2 };
+			Class<?> targetType = type;
+			if((flags & FLAG_TYPED) != 0) {
+				int typeId = readVarInt(bytes, offset);
+				Class<?> registered = this.registry.getType(typeId);
+				if(registered == null) {
+					throw new SerializationException("Unknown type id: " + typeId);
+				}
+				targetType = registered;
+			}
+			byte[] payload;
+			if((flags & FLAG_DEFLATE) != 0) {
+				int length = readVarInt(bytes, offset);
+				payload = inflate(bytes, offset[0], length);
+			} else {
+				payload = Arrays.copyOfRange(bytes, offset[0], bytes.length);
+			}
+			Object value = JSONB.parseObject(payload, targetType, JSONReader.Feature.SupportAutoType);
+			return cast(value, type);
+		} catch (SerializationException e) {
+			throw e;
+		} catch (RuntimeException | DataFormatException e) {
+			throw new SerializationException("Could not deserialize: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 反序列化为指定元素类型的列表
+	 * @param <E>
+	 * @param bytes
+	 * @param elementType
+	 * @return
+	 * @throws SerializationException
+	 */
+	public <E> List<E> deserializeList(byte[] bytes, Class<E> elementType) throws SerializationException {
+		Object value = this.deserialize(bytes, Object.class);
+		if(value == null) {
+			return null;
+		}
+		if(!(value instanceof Collection)) {
+			throw new SerializationException("Not a collection: " + value.getClass().getName());
+		}
+		Collection<?> items = (Collection<?>) value;
+		List<E> list = new ArrayList<>(items.size());
+		for (Object item : items) {
+			list.add(cast(item, elementType));
+		}
+		return list;
+	}
+
+	/**
+	 * 转换类型
+	 * @param <E>
+	 * @param value
+	 * @param type
+	 * @return
+	 */
+	private static <E> E cast(Object value, Class<E> type) {
+		if(value == null || type.isInstance(value)) {
+			return type.cast(value);
+		}
+		return TypeUtils.cast(value, type);
+	}
+
+	/**
+	 * deflate 压缩
+	 * @param data
+	 * @return 压缩后未变小返回 null
+	 */
+	private static byte[] deflate(byte[] data) {
+		Deflater deflater = DEFLATER.get();
+		deflater.reset();
+		deflater.setInput(data);
+		deflater.finish();
+		byte[] buffer = new byte[data.length];
+		int length = 0;
+		while (!deflater.finished()) {
+			if(length == buffer.length) {
+				return null;
+			}
+			length += deflater.deflate(buffer, length, buffer.length - length);
+		}
+		return length < data.length ? Arrays.copyOf(buffer, length) : null;
+	}
+
+	/**
+	 * deflate 解压<br>
+	 * 原始长度来自数据头，不可信任，缓冲区按压缩数据大小分配，随解压数据增长，不超过原始长度
+	 * @param data
+	 * @param offset
+	 * @param length 原始长度
+	 * @return
+	 * @throws DataFormatException
+	 */
+	private static byte[] inflate(byte[] data, int offset, int length) throws DataFormatException {
+		if(length < 0) {
+			throw new DataFormatException("invalid length " + length);
+		}
+		Inflater inflater = INFLATER.get();
+		inflater.reset();
+		inflater.setInput(data, offset, data.length - offset);
+		byte[] buffer = new byte[(int) Math.min(length, Math.max(64L, (data.length - offset) * 4L))];
+		int read = 0;
+		while (read < length) {
+			if(read == buffer.length) {
+				buffer = Arrays.copyOf(buffer, (int) Math.min(length, buffer.length * 2L));
+			}
+			int n = inflater.inflate(buffer, read, buffer.length - read);
+			if(n == 0 && (inflater.finished() || inflater.needsInput())) {
+				throw new DataFormatException("truncated data, expected " + length + " bytes but got " + read);
+			}
+			read += n;
+		}
+		if(!inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+			throw new DataFormatException("data exceeds expected " + length + " bytes");
+		}
+		return buffer;
+	}
+
+	/**
+	 * 变长整数字节数
+	 * @param value
+	 * @return
+	 */
+	private static int varIntSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * 写入变长整数
+	 * @param bytes
+	 * @param offset
+	 * @param value
+	 * @return 写入后的位置
+	 */
+	private static int writeVarInt(byte[] bytes, int offset, int value) {
+		while ((value & ~0x7F) != 0) {
+			bytes[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[offset++] = (byte) value;
+		return offset;
+	}
+
+	/**
+	 * 读取变长整数
+	 * @param bytes
+	 * @param offset 读取位置，读取后更新
+	 * @return
+	 */
+	private static int readVarInt(byte[] bytes, int[] offset) {
+		int value = 0;
+		int shift = 0;
+		int pos = offset[0];
+		while (true) {
+			if(pos >= bytes.length || shift > 28) {
+				throw new SerializationException("Malformed var int");
+			}
+			byte b = bytes[pos++];
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				break;
+			}
+			shift += 7;
+		}
+		offset[0] = pos;
+		return value;
+	}
+}
@@ -2,18 +2,35 @@ package io.github.openguava.jvtool.boot.redis;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import io.github.openguava.jvtool.lang.cache.AbstractCache;
+import io.github.openguava.jvtool.lang.constant.CharsetConstants;
+import io.github.openguava.jvtool.lang.util.ByteUtils;
 import io.github.openguava.jvtool.lang.util.CollectionUtils;
+import io.github.openguava.jvtool.lang.util.IdUtils;
 import io.github.openguava.jvtool.lang.util.ObjectUtils;
 import io.github.openguava.jvtool.lang.util.StringUtils;
 
@@ -21,32 +38,131 @@ public class RedisTemplateCache extends AbstractCache {
 
 	private static final long serialVersionUID = 1L;
 	
+	/** 加载锁 key 前缀 */
+	private static final String LOAD_LOCK_PREFIX = "lock:load:";
+	
+	/** 等待加载锁的轮询间隔(毫秒) */
+	private static final long LOAD_LOCK_RETRY_INTERVAL = 50L;
+	
+	/** 缓存名称与键的分隔符 */
+	public static final String KEY_SEPARATOR = ":";
+	
+	/** SCAN 每批数量提示 */
+	private static final int SCAN_COUNT = 1000;
+	
+	/** 批量删除每批数量 */
+	private static final int UNLINK_BATCH_SIZE = 500;
+	
+	/** 释放加载锁脚本，仅删除自己持有的锁 */
+	private static final byte[] UNLOCK_SCRIPT = StringUtils.toBytes(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end");
+	
 	/** redisTemplate */
 	private RedisTemplate<String, Object> redisTemplate;	
 	
+	/** 键前缀，缓存名称为空时不加前缀 */
+	private final String keyPrefix;
+	
+	public String getKeyPrefix() {
+		return this.keyPrefix;
+	}
+	
+	/**
+	 * 是否启用跨节点加载锁，启用后集群内同一 key 同时只有一个节点执行加载
+	 */
+	private volatile boolean distributedLoad = false;
+	
+	public boolean isDistributedLoad() {
+		return this.distributedLoad;
+	}
+	
+	public void setDistributedLoad(boolean distributedLoad) {
+		this.distributedLoad = distributedLoad;
+	}
+	
+	/**
+	 * 加载锁超时时间(毫秒)，同时也是未获得锁时的最长等待时间
+	 */
+	private volatile long loadLockTimeout = 10000L;
+	
+	public long getLoadLockTimeout() {
+		return this.loadLockTimeout;
+	}
+	
+	public void setLoadLockTimeout(long loadLockTimeout) {
+		this.loadLockTimeout = loadLockTimeout;
+	}
+	
 	public RedisTemplateCache(String name, RedisTemplate<String, Object> redisTemplate) {
 		super(name);
 		this.redisTemplate = redisTemplate;
+		this.keyPrefix = StringUtils.isEmpty(name) ? "" : name + KEY_SEPARATOR;
 	}
 
 	@Override
 	public Object get(String key) {
-		return this.redisTemplate.opsForValue().get(key);
+		return this.redisTemplate.opsForValue().get(this.toRedisKey(key));
 	}
 
 	@Override
 	public Object get(String key, Supplier<Object> valueLoader) {
-		Object val = this.redisTemplate.opsForValue().get(key);
-		if(val == null && valueLoader != null) {
-			val = valueLoader.get();
-			this.redisTemplate.opsForValue().set(key, val);
+		return this.get(key, valueLoader, 0L);
+	}
+	
+	@Override
+	public Object get(String key, Supplier<Object> valueLoader, long ttl) {
+		Object val;
+		if(ttl > 0L && this.refreshAheadBeta > 0D) {
+			// 同一次往返获取值及剩余生存时间
+			final byte[] keyBytes = StringUtils.toBytes(this.toRedisKey(key));
+			List<Object> results = this.redisTemplate.executePipelined(new RedisCallback<Object>() {
+				@Override
+				public Object doInRedis(RedisConnection connection) throws DataAccessException {
+					connection.get(keyBytes);
+					connection.pTtl(keyBytes);
+					return null;
+				}
+			});
+			val = results.get(0);
+			Long remaining = (Long) results.get(1);
+			if(val != null && remaining != null && valueLoader != null && !this.singleFlight.isInFlight(key)
+					&& this.shouldRefreshAhead(remaining)) {
+				final Object oldVal = val;
+				return this.singleFlight.execute(key, () -> this.refreshAhead(key, valueLoader, ttl, oldVal));
+			}
+		} else {
+			val = this.get(key);
 		}
-		return val;
+		if(val != null || valueLoader == null) {
+			return val;
+		}
+		return this.singleFlight.execute(key, () -> this.distributedLoad ? this.loadWithLock(key, valueLoader, ttl) : this.loadAndPut(key, valueLoader, ttl));
+	}
+	
+	@Override
+	public Map<String, Object> getAll(Collection<String> keys) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		if(ObjectUtils.isEmpty(keys)) {
+			return result;
+		}
+		// MGET 一次往返获取全部值
+		List<String> keyList = CollectionUtils.toList(keys);
+		List<Object> values = this.redisTemplate.opsForValue().multiGet(CollectionUtils.toList(keyList, this::toRedisKey));
+		if(values == null) {
+			return result;
+		}
+		for (int i = 0; i < keyList.size() && i < values.size(); i++) {
+			Object value = values.get(i);
+			if(value != null) {
+				result.put(keyList.get(i), value);
+			}
+		}
+		return result;
 	}
 	
 	@Override
 	public byte[] getBytes(String key) {
-		final byte[] keyBytes = StringUtils.toBytes(key);
+		final byte[] keyBytes = StringUtils.toBytes(this.toRedisKey(key));
 		return this.redisTemplate.execute(new RedisCallback<byte[]>() {
 			@Override
 			public byte[] doInRedis(RedisConnection connection) throws DataAccessException {
@@ -58,6 +174,10 @@ public class RedisTemplateCache extends AbstractCache {
 	@Override
 	public <T> T getItem(String key, Class<T> clazz) {
 		byte[] data = this.getBytes(key);
+		RedisSerializer<?> valueSerializer = this.redisTemplate.getValueSerializer();
+		if(valueSerializer instanceof RedisTemplateBinarySerializer) {
+			return ((RedisTemplateBinarySerializer<?>) valueSerializer).deserialize(data, clazz);
+		}
 		return new RedisTemplateJsonSerializer<T>(clazz).deserialize(data);
 	}
 	
@@ -65,6 +185,10 @@ public class RedisTemplateCache extends AbstractCache {
 	@Override
 	public <T> List<T> getList(String key, Class<T> clazz) {
 		byte[] data = this.getBytes(key);
+		RedisSerializer<?> valueSerializer = this.redisTemplate.getValueSerializer();
+		if(valueSerializer instanceof RedisTemplateBinarySerializer) {
+			return ((RedisTemplateBinarySerializer<?>) valueSerializer).deserializeList(data, clazz);
+		}
 		ArrayList<T> list = new ArrayList<T>();
 		Class<? extends ArrayList> listClazz = list.getClass();
 		list = new RedisTemplateJsonSerializer<>(listClazz).deserialize(data);
@@ -73,56 +197,306 @@ public class RedisTemplateCache extends AbstractCache {
 
 	@Override
 	public void put(String key, Object value) {
-		this.redisTemplate.opsForValue().set(key, value);
+		this.redisTemplate.opsForValue().set(this.toRedisKey(key), value);
 	}
 
 	@Override
 	public void put(String key, Object value, long ttl) {
 		if(ttl > 0L) {
-			this.redisTemplate.opsForValue().set(key, value, ttl, TimeUnit.MILLISECONDS);
+			this.redisTemplate.opsForValue().set(this.toRedisKey(key), value, ttl, TimeUnit.MILLISECONDS);
 		} else {
-			this.redisTemplate.opsForValue().set(key, value);
+			this.redisTemplate.opsForValue().set(this.toRedisKey(key), value);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void putAll(Map<String, ?> map, long ttl) {
+		if(map == null || map.isEmpty()) {
+			return;
 		}
+		if(ttl < 1L) {
+			// 无生存时间时 MSET 一条命令写入
+			Map<String, Object> redisMap = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+			for (Map.Entry<String, ?> entry : map.entrySet()) {
+				redisMap.put(this.toRedisKey(entry.getKey()), entry.getValue());
+			}
+			this.redisTemplate.opsForValue().multiSet(redisMap);
+			return;
+		}
+		// 有生存时间时流水线批量执行 SET PX
+		final RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) this.redisTemplate.getValueSerializer();
+		final Expiration expiration = Expiration.milliseconds(ttl);
+		this.redisTemplate.executePipelined(new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				for (Map.Entry<String, ?> entry : map.entrySet()) {
+					connection.set(StringUtils.toBytes(toRedisKey(entry.getKey())), valueSerializer.serialize(entry.getValue()), expiration, SetOption.UPSERT);
+				}
+				return null;
+			}
+		});
 	}
 
 	@Override
 	public boolean remove(String key) {
-		return ObjectUtils.ifNull(this.redisTemplate.delete(key), false);
+		return ObjectUtils.ifNull(this.redisTemplate.delete(this.toRedisKey(key)), false);
 	}
 	
 	@Override
 	public long removes(Collection<String> keys) {
-		return ObjectUtils.ifNull(this.redisTemplate.delete(keys), 0L);
+		if(ObjectUtils.isEmpty(keys)) {
+			return 0L;
+		}
+		return this.unlink(CollectionUtils.toList(keys, this::toRedisKey));
 	}
 	
 	@Override
 	public boolean exists(String key) {
-		return ObjectUtils.ifNull(this.redisTemplate.hasKey(key), false);
+		return ObjectUtils.ifNull(this.redisTemplate.hasKey(this.toRedisKey(key)), false);
 	}
 
 	@Override
 	public Set<String> keys(String pattern) {
-		return this.redisTemplate.keys(pattern);
+		Set<String> keys = new LinkedHashSet<>();
+		try (Stream<String> stream = this.stream(pattern)) {
+			stream.forEach(keys::add);
+		}
+		return keys;
 	}
 
 	@Override
 	public long size(String pattern) {
-		return this.redisTemplate.execute(new RedisCallback<Long>() {
+		if(this.keyPrefix.isEmpty() && StringUtils.isEmpty(pattern)) {
+			return this.redisTemplate.execute(new RedisCallback<Long>() {
+				@Override
+				public Long doInRedis(RedisConnection connection) throws DataAccessException {
+					return connection.dbSize();
+				}
+			});
+		}
+		try (Stream<String> stream = this.stream(pattern)) {
+			return stream.count();
+		}
+	}
+	
+	/**
+	 * 以 SCAN 游标流式遍历当前缓存内匹配的键(不含缓存名称前缀)，使用完毕后必须关闭
+	 * @param pattern 匹配模式(redis glob 语法)，为空表示全部
+	 * @return
+	 */
+	public Stream<String> stream(String pattern) {
+		final ScanOptions options = ScanOptions.scanOptions().match(this.toRedisPattern(pattern)).count(SCAN_COUNT).build();
+		final Cursor<byte[]> cursor = this.redisTemplate.executeWithStickyConnection(new RedisCallback<Cursor<byte[]>>() {
 			@Override
-			public Long doInRedis(RedisConnection connection) throws DataAccessException {
-				return connection.dbSize();
+			public Cursor<byte[]> doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.scan(options);
 			}
 		});
+		final int prefixLength = this.keyPrefix.length();
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.NONNULL), false)
+				.map(x -> ByteUtils.bytesToString(x, CharsetConstants.CHARSET_UTF_8).substring(prefixLength))
+				.onClose(() -> closeCursor(cursor));
+	}
+	
+	/**
+	 * 以 SCAN 游标分批遍历当前缓存内匹配的键(不含缓存名称前缀)
+	 * @param pattern 匹配模式(redis glob 语法)，为空表示全部
+	 * @param batchSize 每批数量
+	 * @param consumer 批处理回调
+	 */
+	public void scan(String pattern, int batchSize, Consumer<List<String>> consumer) {
+		List<String> batch = new ArrayList<>(batchSize);
+		try (Stream<String> stream = this.stream(pattern)) {
+			stream.forEach(key -> {
+				batch.add(key);
+				if(batch.size() >= batchSize) {
+					consumer.accept(new ArrayList<>(batch));
+					batch.clear();
+				}
+			});
+		}
+		if(!batch.isEmpty()) {
+			consumer.accept(batch);
+		}
 	}
 
-	@Override
-	public void clear() {
+	/**
+	 * 调用加载方法并写入缓存
+	 * @param key
+	 * @param valueLoader
+	 * @param ttl
+	 * @return
+	 */
+	private Object loadAndPut(String key, Supplier<Object> valueLoader, long ttl) {
+		Object val = this.load(valueLoader);
+		this.put(key, val, ttl);
+		return val;
+	}
+	
+	/**
+	 * 提前刷新，启用跨节点加载锁时仅获得锁的节点刷新，其余节点返回旧值
+	 * @param key
+	 * @param valueLoader
+	 * @param ttl
+	 * @param oldVal
+	 * @return
+	 */
+	private Object refreshAhead(String key, Supplier<Object> valueLoader, long ttl, Object oldVal) {
+		if(!this.distributedLoad) {
+			return this.loadAndPut(key, valueLoader, ttl);
+		}
+		byte[] lockKey = StringUtils.toBytes(LOAD_LOCK_PREFIX + this.toRedisKey(key));
+		byte[] token = StringUtils.toBytes(IdUtils.fastSimpleUUID());
+		if(!this.tryLock(lockKey, token)) {
+			return oldVal;
+		}
+		try {
+			return this.loadAndPut(key, valueLoader, ttl);
+		} finally {
+			this.unlock(lockKey, token);
+		}
+	}
+	
+	/**
+	 * 持有跨节点加载锁时加载，未获得锁时等待其他节点加载完成，等待超时后自行加载
+	 * @param key
+	 * @param valueLoader
+	 * @param ttl
+	 * @return
+	 */
+	private Object loadWithLock(String key, Supplier<Object> valueLoader, long ttl) {
+		byte[] lockKey = StringUtils.toBytes(LOAD_LOCK_PREFIX + this.toRedisKey(key));
+		byte[] token = StringUtils.toBytes(IdUtils.fastSimpleUUID());
+		long deadline = System.currentTimeMillis() + this.loadLockTimeout;
+		while (true) {
+			if(this.tryLock(lockKey, token)) {
+				try {
+					// 获得锁前其他节点可能已完成加载
+					Object val = this.get(key);
+					return val != null ? val : this.loadAndPut(key, valueLoader, ttl);
+				} finally {
+					this.unlock(lockKey, token);
+				}
+			}
+			if(System.currentTimeMillis() > deadline) {
+				break;
+			}
+			try {
+				Thread.sleep(LOAD_LOCK_RETRY_INTERVAL);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			Object val = this.get(key);
+			if(val != null) {
+				return val;
+			}
+		}
+		return this.loadAndPut(key, valueLoader, ttl);
+	}
+	
+	/**
+	 * 尝试获取加载锁
+	 * @param lockKey
+	 * @param token
+	 * @return
+	 */
+	private boolean tryLock(final byte[] lockKey, final byte[] token) {
+		final long timeout = this.loadLockTimeout;
+		Boolean locked = this.redisTemplate.execute(new RedisCallback<Boolean>() {
+			@Override
+			public Boolean doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.set(lockKey, token, Expiration.milliseconds(timeout), SetOption.SET_IF_ABSENT);
+			}
+		});
+		return ObjectUtils.ifNull(locked, false);
+	}
+	
+	/**
+	 * 释放加载锁
+	 * @param lockKey
+	 * @param token
+	 */
+	private void unlock(final byte[] lockKey, final byte[] token) {
 		this.redisTemplate.execute(new RedisCallback<Object>() {
 			@Override
 			public Object doInRedis(RedisConnection connection) throws DataAccessException {
-				connection.flushDb();
-				return null;
+				return connection.eval(UNLOCK_SCRIPT, ReturnType.INTEGER, 1, lockKey, token);
 			}
 		});
 	}
+	
+	/**
+	 * 转换为 redis 键
+	 * @param key
+	 * @return
+	 */
+	protected String toRedisKey(String key) {
+		return this.keyPrefix.isEmpty() ? key : this.keyPrefix + key;
+	}
+	
+	/**
+	 * 转换为限定在当前缓存内的 SCAN 匹配模式
+	 * @param pattern
+	 * @return
+	 */
+	protected String toRedisPattern(String pattern) {
+		String match = StringUtils.isEmpty(pattern) ? "*" : pattern;
+		if(this.keyPrefix.isEmpty()) {
+			return match;
+		}
+		// 转义缓存名称中的通配符
+		StringBuilder sb = new StringBuilder(this.keyPrefix.length() + match.length() + 4);
+		for (int i = 0; i < this.keyPrefix.length(); i++) {
+			char c = this.keyPrefix.charAt(i);
+			if(c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.append(match).toString();
+	}
+	
+	/**
+	 * 分批 UNLINK 删除，由 redis 后台线程释放内存
+	 * @param redisKeys
+	 * @return 删除数量
+	 */
+	private long unlink(List<String> redisKeys) {
+		long count = 0L;
+		for (int from = 0; from < redisKeys.size(); from += UNLINK_BATCH_SIZE) {
+			List<String> batch = redisKeys.subList(from, Math.min(from + UNLINK_BATCH_SIZE, redisKeys.size()));
+			final byte[][] keyBytes = new byte[batch.size()][];
+			for (int i = 0; i < keyBytes.length; i++) {
+				keyBytes[i] = StringUtils.toBytes(batch.get(i));
+			}
+			Long deleted = this.redisTemplate.execute(new RedisCallback<Long>() {
+				@Override
+				public Long doInRedis(RedisConnection connection) throws DataAccessException {
+					return connection.unlink(keyBytes);
+				}
+			});
+			count += ObjectUtils.ifNull(deleted, 0L);
+		}
+		return count;
+	}
+	
+	/**
+	 * 关闭游标
+	 * @param cursor
+	 */
+	private static void closeCursor(Cursor<byte[]> cursor) {
+		try {
+			cursor.close();
+		} catch (Exception e) {
+			// ignore
+		}
+	}
+	
+	@Override
+	public void clear() {
+		// 仅删除当前缓存名称下的键，不再清空整个库
+		this.scan(null, UNLINK_BATCH_SIZE, keys -> this.unlink(CollectionUtils.toList(keys, this::toRedisKey)));
+	}
 }
@@ -0,0 +1,70 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * redis 序列化类型注册表<br>
+ * 为常用的缓存类型分配固定的数字编号，序列化时只写入编号而不写入完整类名。
+ * 编号一经使用不可更改，各节点必须保持一致。
+ * @author openguava
+ *
+ */
+public class RedisTypeRegistry {
+
+	/** 编号-类型 */
+	private final Map<Integer, Class<?>> types = new ConcurrentHashMap<>();
+
+	/** 类型-编号 */
+	private final Map<Class<?>, Integer> ids = new ConcurrentHashMap<>();
+
+	/**
+	 * 注册类型
+	 * @param id 类型编号(大于0)
+	 * @param clazz 类型
+	 * @return
+	 */
+	public synchronized RedisTypeRegistry register(int id, Class<?> clazz) {
+		if(id < 1) {
+			throw new IllegalArgumentException("type id must be positive: " + id);
+		}
+		Class<?> existing = this.types.get(id);
+		if(existing != null && existing != clazz) {
+			throw new IllegalArgumentException("type id " + id + " already registered for " + existing.getName());
+		}
+		Integer existingId = this.ids.get(clazz);
+		if(existingId != null && existingId != id) {
+			throw new IllegalArgumentException(clazz.getName() + " already registered with type id " + existingId);
+		}
+		this.types.put(id, clazz);
+		this.ids.put(clazz, id);
+		return this;
+	}
+
+	/**
+	 * 获取类型编号
+	 * @param clazz
+	 * @return 未注册返回0
+	 */
+	public int getId(Class<?> clazz) {
+		Integer id = this.ids.get(clazz);
+		return id == null ? 0 : id;
+	}
+
+	/**
+	 * 获取类型
+	 * @param id
+	 * @return 未注册返回 null
+	 */
+	public Class<?> getType(int id) {
+		return this.types.get(id);
+	}
+
+	/**
+	 * 获取注册数量
+	 * @return
+	 */
+	public int size() {
+		return this.types.size();
+	}
+}
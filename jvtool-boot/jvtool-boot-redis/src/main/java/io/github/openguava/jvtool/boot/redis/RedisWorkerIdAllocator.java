@@ -0,0 +1,133 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import io.github.openguava.jvtool.lang.id.AbstractWorkerIdAllocator;
+import io.github.openguava.jvtool.lang.util.ObjectUtils;
+import io.github.openguava.jvtool.lang.util.StringUtils;
+
+/**
+ * 基于 redis 的 Snowflake 机器标识分配器<br>
+ * 每个标识对应一个带过期时间的键，值为租用者标识；
+ * 节点异常退出未释放时，租期到期后标识自动回收。
+ * @author openguava
+ *
+ */
+public class RedisWorkerIdAllocator extends AbstractWorkerIdAllocator implements InitializingBean, DisposableBean {
+
+	/** 默认键前缀 */
+	public static final String DEFAULT_KEY_PREFIX = "jvtool:worker-id:";
+
+	/** 续租脚本 */
+	private static final byte[] RENEW_SCRIPT = StringUtils.toBytes(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end");
+
+	/** 释放脚本 */
+	private static final byte[] RELEASE_SCRIPT = StringUtils.toBytes(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end");
+
+	/** redisTemplate */
+	private final RedisTemplate<String, Object> redisTemplate;
+
+	/** 键前缀，不同应用可使用不同前缀隔离标识空间 */
+	private final String keyPrefix;
+
+	public String getKeyPrefix() {
+		return this.keyPrefix;
+	}
+
+	/**
+	 * 初始化
+	 * @param redisTemplate
+	 */
+	public RedisWorkerIdAllocator(RedisTemplate<String, Object> redisTemplate) {
+		this(redisTemplate, DEFAULT_KEY_PREFIX, DEFAULT_WORKER_ID_BITS, DEFAULT_DATACENTER_ID_BITS, DEFAULT_LEASE_MILLIS);
+	}
+
+	/**
+	 * 初始化
+	 * @param redisTemplate
+	 * @param keyPrefix 键前缀
+	 * @param workerIdBits 终端ID位数
+	 * @param datacenterIdBits 数据中心ID位数
+	 * @param leaseMillis 租期(毫秒)
+	 */
+	public RedisWorkerIdAllocator(RedisTemplate<String, Object> redisTemplate, String keyPrefix, int workerIdBits,
+			int datacenterIdBits, long leaseMillis) {
+		super(workerIdBits, datacenterIdBits, leaseMillis);
+		this.redisTemplate = redisTemplate;
+		this.keyPrefix = keyPrefix;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		this.allocate();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		this.release();
+	}
+
+	@Override
+	protected boolean tryAcquire(long id) {
+		final byte[] key = this.toKey(id);
+		final byte[] owner = StringUtils.toBytes(this.getOwner());
+		final long leaseMillis = this.getLeaseMillis();
+		Boolean acquired = this.redisTemplate.execute(new RedisCallback<Boolean>() {
+			@Override
+			public Boolean doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.set(key, owner, Expiration.milliseconds(leaseMillis), SetOption.SET_IF_ABSENT);
+			}
+		});
+		return ObjectUtils.ifNull(acquired, false);
+	}
+
+	@Override
+	protected boolean tryRenew(long id) {
+		Long renewed = this.eval(RENEW_SCRIPT, id, StringUtils.toBytes(String.valueOf(this.getLeaseMillis())));
+		return renewed != null && renewed > 0L;
+	}
+
+	@Override
+	protected void doRelease(long id) {
+		this.eval(RELEASE_SCRIPT, id);
+	}
+
+	/**
+	 * 执行比较租用者的脚本
+	 * @param script
+	 * @param id
+	 * @param args 租用者之后的参数
+	 * @return
+	 */
+	private Long eval(final byte[] script, long id, byte[]... args) {
+		final byte[][] keysAndArgs = new byte[args.length + 2][];
+		keysAndArgs[0] = this.toKey(id);
+		keysAndArgs[1] = StringUtils.toBytes(this.getOwner());
+		System.arraycopy(args, 0, keysAndArgs, 2, args.length);
+		return this.redisTemplate.execute(new RedisCallback<Long>() {
+			@Override
+			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.eval(script, ReturnType.INTEGER, 1, keysAndArgs);
+			}
+		});
+	}
+
+	/**
+	 * 标识对应的键
+	 * @param id
+	 * @return
+	 */
+	private byte[] toKey(long id) {
+		return StringUtils.toBytes(this.keyPrefix + id);
+	}
+}
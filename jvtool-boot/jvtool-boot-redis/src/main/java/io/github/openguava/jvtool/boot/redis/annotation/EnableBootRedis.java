@@ -10,6 +10,7 @@ import java.lang.annotation.Target;
 import org.springframework.context.annotation.Import;
 
 import io.github.openguava.jvtool.boot.redis.config.RedisConfig;
+import io.github.openguava.jvtool.boot.redis.service.RedisNearCacheManager;
 import io.github.openguava.jvtool.boot.redis.service.RedisTemplateCacheManager;
 
 /**
@@ -21,7 +22,7 @@ import io.github.openguava.jvtool.boot.redis.service.RedisTemplateCacheManager;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @Inherited
-@Import({ RedisConfig.class, RedisTemplateCacheManager.class })
+@Import({ RedisConfig.class, RedisTemplateCacheManager.class, RedisNearCacheManager.class })
 public @interface EnableBootRedis {
 
 }
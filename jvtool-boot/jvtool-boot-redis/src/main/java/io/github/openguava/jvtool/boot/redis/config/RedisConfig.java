@@ -3,19 +3,25 @@ package io.github.openguava.jvtool.boot.redis.config;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ClassUtils;
 
+import io.github.openguava.jvtool.boot.redis.RedisTemplateBinarySerializer;
 import io.github.openguava.jvtool.boot.redis.RedisTemplateJsonSerializer;
+import io.github.openguava.jvtool.boot.redis.RedisTypeRegistry;
 
 @Configuration
 @EnableCaching
 @AutoConfigureBefore(RedisAutoConfiguration.class)
+@EnableConfigurationProperties(RedisSerializerProperties.class)
 public class RedisConfig extends CachingConfigurerSupport {
 
 	/**
@@ -24,12 +30,12 @@ public class RedisConfig extends CachingConfigurerSupport {
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public RedisTemplate<String, Object> createRedisTemplate(RedisConnectionFactory connectionFactory) {
+	public RedisTemplate<String, Object> createRedisTemplate(RedisConnectionFactory connectionFactory, RedisSerializerProperties properties) {
 		RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
 		redisTemplate.setConnectionFactory(connectionFactory);
 		
 		// serializer
-		RedisTemplateJsonSerializer<Object> serializer = new RedisTemplateJsonSerializer<>(Object.class);
+		RedisSerializer<Object> serializer = createValueSerializer(properties);
 		
 		// Key/Value
 		redisTemplate.setKeySerializer(new StringRedisSerializer());
@@ -42,4 +48,23 @@ public class RedisConfig extends CachingConfigurerSupport {
 		redisTemplate.afterPropertiesSet();
 		return redisTemplate;
 	}
+	
+	/**
+	 * 创建值序列化
+	 * @param properties
+	 * @return
+	 */
+	private static RedisSerializer<Object> createValueSerializer(RedisSerializerProperties properties) {
+		if(!"binary".equalsIgnoreCase(properties.getFormat())) {
+			return new RedisTemplateJsonSerializer<>(Object.class);
+		}
+		RedisTypeRegistry registry = new RedisTypeRegistry();
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		properties.getTypes().forEach((id, className) -> {
+			registry.register(id, ClassUtils.resolveClassName(className, classLoader));
+		});
+		RedisTemplateBinarySerializer<Object> serializer = new RedisTemplateBinarySerializer<>(Object.class, registry);
+		serializer.setCompressThreshold(properties.getCompressThreshold());
+		return serializer;
+	}
 }
@@ -0,0 +1,77 @@
+package io.github.openguava.jvtool.boot.redis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * redis 近端缓存配置
+ * @author openguava
+ *
+ */
+@ConfigurationProperties("jvtool.redis.near-cache")
+public class RedisNearCacheProperties {
+
+	/**
+	 * 是否启用近端缓存
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 每个缓存的本地最大缓存数量
+	 */
+	private long maximumSize = 10000L;
+
+	/**
+	 * 本地缓存最长生存时间(毫秒)，作为丢失失效消息时的兜底，小于1表示不限制
+	 */
+	private long localTtl = 60000L;
+
+	/**
+	 * 本地缓存过期清理间隔(毫秒)
+	 */
+	private int cleanUpInterval = 1000;
+
+	/**
+	 * 失效消息发布订阅频道
+	 */
+	private String channel = "jvtool:near-cache:invalidate";
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public long getLocalTtl() {
+		return localTtl;
+	}
+
+	public void setLocalTtl(long localTtl) {
+		this.localTtl = localTtl;
+	}
+
+	public int getCleanUpInterval() {
+		return cleanUpInterval;
+	}
+
+	public void setCleanUpInterval(int cleanUpInterval) {
+		this.cleanUpInterval = cleanUpInterval;
+	}
+
+	public String getChannel() {
+		return channel;
+	}
+
+	public void setChannel(String channel) {
+		this.channel = channel;
+	}
+}
@@ -0,0 +1,57 @@
+package io.github.openguava.jvtool.boot.redis.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import io.github.openguava.jvtool.boot.redis.RedisTemplateBinarySerializer;
+
+/**
+ * redis 序列化配置
+ * @author openguava
+ *
+ */
+@ConfigurationProperties("jvtool.redis.serializer")
+public class RedisSerializerProperties {
+
+	/**
+	 * 序列化格式：json(JSON 文本，默认)、binary(JSONB 二进制)<br>
+	 * binary 格式只能由 {@link RedisTemplateBinarySerializer} 读取，所有读写同一 redis 的节点都支持后再启用
+	 */
+	private String format = "json";
+
+	/**
+	 * 二进制格式压缩阈值(字节)，小于1表示不压缩
+	 */
+	private int compressThreshold = RedisTemplateBinarySerializer.DEFAULT_COMPRESS_THRESHOLD;
+
+	/**
+	 * 二进制格式类型编号注册，key 为编号，value 为完整类名
+	 */
+	private Map<Integer, String> types = new LinkedHashMap<>();
+
+	public String getFormat() {
+		return format;
+	}
+
+	public void setFormat(String format) {
+		this.format = format;
+	}
+
+	public int getCompressThreshold() {
+		return compressThreshold;
+	}
+
+	public void setCompressThreshold(int compressThreshold) {
+		this.compressThreshold = compressThreshold;
+	}
+
+	public Map<Integer, String> getTypes() {
+		return types;
+	}
+
+	public void setTypes(Map<Integer, String> types) {
+		this.types = types;
+	}
+}
@@ -0,0 +1,117 @@
+package io.github.openguava.jvtool.boot.redis.service;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.alibaba.fastjson2.JSON;
+
+import io.github.openguava.jvtool.boot.redis.RedisNearCache;
+import io.github.openguava.jvtool.boot.redis.RedisNearCacheMessage;
+import io.github.openguava.jvtool.boot.redis.RedisTemplateCache;
+import io.github.openguava.jvtool.boot.redis.config.RedisNearCacheProperties;
+import io.github.openguava.jvtool.lang.cache.AbstractCacheManager;
+import io.github.openguava.jvtool.lang.cache.Cache;
+import io.github.openguava.jvtool.lang.cache.timed.TimedCache;
+import io.github.openguava.jvtool.lang.util.CacheUtils;
+import io.github.openguava.jvtool.lang.util.IdUtils;
+import io.github.openguava.jvtool.lang.util.LogUtils;
+
+/**
+ * redis 近端缓存管理器，配置 {@code jvtool.redis.near-cache.enabled=true} 时替代 {@link RedisTemplateCacheManager}
+ * @author openguava
+ *
+ */
+@Component
+@EnableConfigurationProperties(RedisNearCacheProperties.class)
+@ConditionalOnProperty(name = "jvtool.redis.near-cache.enabled", havingValue = "true")
+public class RedisNearCacheManager extends AbstractCacheManager implements InitializingBean, DisposableBean, MessageListener {
+
+	@Autowired
+	public RedisTemplate<String, Object> redisTemplate;
+
+	@Autowired
+	public RedisConnectionFactory redisConnectionFactory;
+
+	@Autowired
+	public RedisNearCacheProperties properties;
+
+	/** 当前节点标识 */
+	private final String source = IdUtils.fastSimpleUUID();
+
+	/** 失效消息监听容器 */
+	private RedisMessageListenerContainer listenerContainer;
+
+	@Override
+	protected Cache getMissingCache(String name) {
+		RedisTemplateCache remote = new RedisTemplateCache(name, this.redisTemplate);
+		TimedCache local = new TimedCache(name, this.properties.getMaximumSize());
+		if(this.properties.getCleanUpInterval() > 0) {
+			local.startSchedule(this.properties.getCleanUpInterval());
+		}
+		return new RedisNearCache(remote, local, this.redisTemplate, this.properties.getChannel(), this.source, this.properties.getLocalTtl());
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		RedisNearCacheMessage msg;
+		try {
+			msg = JSON.parseObject(message.getBody(), RedisNearCacheMessage.class);
+		} catch (Exception e) {
+			LogUtils.warn(RedisNearCacheManager.class, "近端缓存失效消息解析失败", e);
+			return;
+		}
+		if(msg == null || this.source.equals(msg.getSource())) {
+			return;
+		}
+		Cache cache = this.lookupCache(msg.getName());
+		if(!(cache instanceof RedisNearCache)) {
+			return;
+		}
+		RedisNearCache nearCache = (RedisNearCache) cache;
+		if(msg.isClear()) {
+			nearCache.clearLocal();
+		} else if(msg.getKeys() != null) {
+			nearCache.invalidateLocal(msg.getKeys());
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		this.listenerContainer = new RedisMessageListenerContainer();
+		this.listenerContainer.setConnectionFactory(this.redisConnectionFactory);
+		this.listenerContainer.addMessageListener(this, new ChannelTopic(this.properties.getChannel()));
+		this.listenerContainer.afterPropertiesSet();
+		this.listenerContainer.start();
+		LogUtils.info(RedisNearCacheManager.class, "启用 redis 近端缓存");
+		CacheUtils.setDefaultCacheManager(this);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(this.listenerContainer != null) {
+			this.listenerContainer.destroy();
+		}
+		for (String name : this.getCacheNames()) {
+			Cache cache = this.lookupCache(name);
+			if(cache instanceof RedisNearCache) {
+				try {
+					((RedisNearCache) cache).close();
+				} catch (IOException e) {
+					LogUtils.warn(RedisNearCacheManager.class, "关闭近端缓存失败", e);
+				}
+			}
+		}
+	}
+}
@@ -2,6 +2,7 @@ package io.github.openguava.jvtool.boot.redis.service;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +13,7 @@ import io.github.openguava.jvtool.lang.util.CacheUtils;
 import io.github.openguava.jvtool.lang.util.LogUtils;
 
 @Component
+@ConditionalOnProperty(name = "jvtool.redis.near-cache.enabled", havingValue = "false", matchIfMissing = true)
 public class RedisTemplateCacheManager extends AbstractCacheManager implements InitializingBean {
 
 	@Autowired
@@ -0,0 +1,102 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import io.github.openguava.jvtool.lang.cache.timed.TimedCache;
+
+/**
+ * {@link RedisNearCache} 测试，二级缓存以内存代替
+ * @author openguava
+ *
+ */
+public class RedisNearCacheTest {
+
+	@Test
+	public void testInvalidationDuringReadSkipsBackfill() throws Exception {
+		MemoryCache remote = new MemoryCache();
+		remote.values.put("a", "old");
+		try (RedisNearCache cache = nearCache(remote)) {
+			// 读取二级缓存期间收到失效消息
+			remote.onRead = () -> cache.invalidateLocal(Collections.singletonList("a"));
+			assertEquals("old", cache.get("a"));
+			assertFalse(cache.getLocal().exists("a"));
+		}
+	}
+
+	@Test
+	public void testInvalidationOfOtherKeyKeepsBackfill() throws Exception {
+		MemoryCache remote = new MemoryCache();
+		remote.values.put("a", "value");
+		try (RedisNearCache cache = nearCache(remote)) {
+			remote.onRead = () -> cache.invalidateLocal(Collections.singletonList("b"));
+			assertEquals("value", cache.get("a"));
+			assertTrue(cache.getLocal().exists("a"));
+			remote.onRead = null;
+			assertEquals("value", cache.get("a"));
+			assertEquals(1, remote.reads);
+			assertEquals(1L, cache.getL1HitCount());
+		}
+	}
+
+	@Test
+	public void testGetItemUsesLocal() throws Exception {
+		MemoryCache remote = new MemoryCache();
+		remote.values.put("a", 1);
+		try (RedisNearCache cache = nearCache(remote)) {
+			assertEquals(Integer.valueOf(1), cache.getItem("a", Integer.class));
+			assertEquals(Integer.valueOf(1), cache.getItem("a", Integer.class));
+			assertEquals(1, remote.reads);
+			assertEquals(1L, cache.getL1HitCount());
+			assertEquals(1L, cache.getL2HitCount());
+			assertNull(cache.getItem("b", Integer.class));
+			assertEquals(1L, cache.getMissCount());
+		}
+	}
+
+	private static RedisNearCache nearCache(MemoryCache remote) {
+		return new RedisNearCache(remote, new TimedCache("near", 100L), new RedisTemplate<>(), "channel", "node", 0L);
+	}
+
+	/**
+	 * 内存二级缓存
+	 */
+	private static class MemoryCache extends RedisTemplateCache {
+
+		private static final long serialVersionUID = 1L;
+
+		final Map<String, Object> values = new HashMap<>();
+
+		/** 读取时回调 */
+		Runnable onRead;
+
+		int reads;
+
+		MemoryCache() {
+			super("near", new RedisTemplate<>());
+		}
+
+		@Override
+		public Object get(String key) {
+			this.reads++;
+			if(this.onRead != null) {
+				this.onRead.run();
+			}
+			return this.values.get(key);
+		}
+
+		@Override
+		public <T> T getItem(String key, Class<T> clazz) {
+			return clazz.cast(this.get(key));
+		}
+	}
+}
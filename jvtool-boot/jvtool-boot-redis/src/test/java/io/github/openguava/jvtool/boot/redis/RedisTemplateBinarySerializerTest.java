@@ -0,0 +1,124 @@
+package io.github.openguava.jvtool.boot.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * {@link RedisTemplateBinarySerializer} 测试
+ * @author openguava
+ *
+ */
+public class RedisTemplateBinarySerializerTest {
+
+	@Test
+	public void testTypedNestedPolymorphicField() {
+		RedisTypeRegistry registry = new RedisTypeRegistry().register(1, Holder.class);
+		RedisTemplateBinarySerializer<Object> serializer = new RedisTemplateBinarySerializer<>(Object.class, registry);
+		Holder holder = new Holder();
+		holder.setName("a");
+		holder.setShape(new Circle(2));
+		byte[] bytes = serializer.serialize(holder);
+		assertEquals(RedisTemplateBinarySerializer.FLAG_TYPED, bytes[1] & RedisTemplateBinarySerializer.FLAG_TYPED);
+		Object value = serializer.deserialize(bytes);
+		assertTrue(value instanceof Holder);
+		assertEquals("a", ((Holder) value).getName());
+		assertTrue(((Holder) value).getShape() instanceof Circle);
+		assertEquals(2, ((Circle) ((Holder) value).getShape()).getRadius());
+	}
+
+	@Test
+	public void testCompressedRoundTrip() {
+		RedisTemplateBinarySerializer<Object> serializer = new RedisTemplateBinarySerializer<>(Object.class);
+		serializer.setCompressThreshold(64);
+		char[] chars = new char[10000];
+		Arrays.fill(chars, 'x');
+		String text = new String(chars);
+		byte[] bytes = serializer.serialize(text);
+		assertEquals(RedisTemplateBinarySerializer.FLAG_DEFLATE, bytes[1] & RedisTemplateBinarySerializer.FLAG_DEFLATE);
+		assertTrue(bytes.length < 1000);
+		assertEquals(text, serializer.deserialize(bytes));
+	}
+
+	@Test
+	public void testReadJsonText() {
+		RedisTemplateBinarySerializer<Object> serializer = new RedisTemplateBinarySerializer<>(Object.class);
+		assertEquals("abc", serializer.deserialize("\"abc\"".getBytes(StandardCharsets.UTF_8), String.class));
+	}
+
+	@Test
+	public void testRejectOversizedLength() {
+		RedisTemplateBinarySerializer<Object> serializer = new RedisTemplateBinarySerializer<>(Object.class);
+		serializer.setCompressThreshold(64);
+		char[] chars = new char[1000];
+		Arrays.fill(chars, 'x');
+		byte[] bytes = serializer.serialize(new String(chars));
+		// 篡改原始长度为 Integer.MAX_VALUE
+		byte[] header = { RedisTemplateBinarySerializer.MAGIC, (byte) RedisTemplateBinarySerializer.FLAG_DEFLATE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+		int lengthSize = 1;
+		while ((bytes[1 + lengthSize] & 0x80) != 0) {
+			lengthSize++;
+		}
+		byte[] forged = new byte[header.length + bytes.length - 2 - lengthSize];
+		System.arraycopy(header, 0, forged, 0, header.length);
+		System.arraycopy(bytes, 2 + lengthSize, forged, header.length, bytes.length - 2 - lengthSize);
+		try {
+			serializer.deserialize(forged);
+			fail();
+		} catch (SerializationException e) {
+			// expected
+		}
+	}
+
+	public static class Holder {
+
+		private String name;
+
+		private Shape shape;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Shape getShape() {
+			return shape;
+		}
+
+		public void setShape(Shape shape) {
+			this.shape = shape;
+		}
+	}
+
+	public interface Shape {
+	}
+
+	public static class Circle implements Shape {
+
+		private int radius;
+
+		public Circle() {
+		}
+
+		public Circle(int radius) {
+			this.radius = radius;
+		}
+
+		public int getRadius() {
+			return radius;
+		}
+
+		public void setRadius(int radius) {
+			this.radius = radius;
+		}
+	}
+}
@@ -142,4 +142,19 @@ public interface AuthLogic {
 	 * @return
 	 */
 	boolean matchesPassword(String rawPassword, String encryptedPassword);
+	
+	/**
+	 * 开启认证范围，范围内认证令牌及用户只解析一次；当前线程已开启时返回 {@link AuthScope#NONE}
+	 * @return
+	 */
+	default AuthScope openScope() {
+		return AuthScope.NONE;
+	}
+	
+	/**
+	 * 清除当前认证范围内已解析的令牌及用户
+	 */
+	default void resetScope() {
+		
+	}
 }
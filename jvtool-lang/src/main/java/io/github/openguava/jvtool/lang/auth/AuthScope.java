@@ -0,0 +1,88 @@
+package io.github.openguava.jvtool.lang.auth;
+
+/**
+ * 认证范围<br>
+ * 范围内认证令牌及用户只解析一次；
+ * 范围绑定开启它的线程(包括虚拟线程)，保存在不可继承的 {@link ThreadLocal} 中，子线程及线程池任务不会继承，
+ * 在其他线程上读取时视为未解析；使用 try-with-resources 确保结束时关闭，避免线程复用时串号。
+ * @author openguava
+ *
+ */
+public class AuthScope implements AutoCloseable {
+
+	/** 空范围，关闭时不做任何操作(未启用或嵌套开启时返回) */
+	public static final AuthScope NONE = new AuthScope(null);
+
+	/** 保存范围的线程变量 */
+	private final ThreadLocal<AuthScope> holder;
+
+	/** 开启范围的线程 */
+	private final Thread owner;
+
+	/** 认证令牌 */
+	private volatile AuthToken token;
+
+	/** 认证用户 */
+	private volatile AuthUser user;
+
+	/**
+	 * 初始化，范围属于当前线程
+	 * @param holder 保存范围的线程变量，关闭时从中移除
+	 */
+	public AuthScope(ThreadLocal<AuthScope> holder) {
+		this.holder = holder;
+		this.owner = Thread.currentThread();
+	}
+
+	/**
+	 * 当前线程是否为开启范围的线程
+	 * @return
+	 */
+	public boolean isOwner() {
+		return Thread.currentThread() == this.owner;
+	}
+
+	/**
+	 * 获取已解析的认证令牌
+	 * @return 未解析或不在开启范围的线程上返回 null
+	 */
+	public AuthToken getToken() {
+		return this.isOwner() ? this.token : null;
+	}
+
+	public void setToken(AuthToken token) {
+		if(this.isOwner()) {
+			this.token = token;
+		}
+	}
+
+	/**
+	 * 获取已解析的认证用户
+	 * @return 未解析或不在开启范围的线程上返回 null
+	 */
+	public AuthUser getUser() {
+		return this.isOwner() ? this.user : null;
+	}
+
+	public void setUser(AuthUser user) {
+		if(this.isOwner()) {
+			this.user = user;
+		}
+	}
+
+	/**
+	 * 清除已解析的令牌及用户(登录、注销后调用)
+	 */
+	public void reset() {
+		this.token = null;
+		this.user = null;
+	}
+
+	@Override
+	public void close() {
+		this.reset();
+		if(this.holder != null && this.isOwner() && this.holder.get() == this) {
+			this.holder.remove();
+		}
+	}
+}
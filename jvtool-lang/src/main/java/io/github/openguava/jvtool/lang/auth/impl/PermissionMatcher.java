@@ -0,0 +1,193 @@
+package io.github.openguava.jvtool.lang.auth.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.openguava.jvtool.lang.util.RegexUtils;
+import io.github.openguava.jvtool.lang.util.StringUtils;
+
+/**
+ * 预编译的权限(角色)匹配器<br>
+ * 不含通配符的权限代码放入哈希表精确匹配；含通配符的权限代码按通配符之前的完整段(以 ':' 分隔)挂到段前缀树上，
+ * 匹配时沿待校验权限的各段下行，只对前缀一致的通配权限执行 {@link RegexUtils#simpleMatch(String, String)}，
+ * 匹配结果与逐个通配匹配完全一致。<br>
+ * 编译后匹配规则不可变，可在多线程间共享。
+ * @author openguava
+ *
+ */
+public final class PermissionMatcher {
+
+	/** 段分隔符 */
+	private static final char SEPARATOR = ':';
+
+	/** 空匹配器 */
+	public static final PermissionMatcher EMPTY = new PermissionMatcher(Collections.emptySet(), null);
+
+	/** 是否拥有全部权限 */
+	private final boolean all;
+
+	/** 精确权限 */
+	private final Set<String> exact;
+
+	/** 通配权限前缀树，无通配权限时为 null */
+	private final Node root;
+
+	/** 编译来源的不可变副本 */
+	private final Set<String> source;
+
+	/** 全部权限代码 */
+	private final String allCode;
+
+	private PermissionMatcher(Collection<String> patterns, String allCode) {
+		boolean all = false;
+		Set<String> exact = new HashSet<>(Math.max(16, patterns.size() * 4 / 3 + 1));
+		Node root = null;
+		for (String pattern : patterns) {
+			if(StringUtils.isBlank(pattern)) {
+				continue;
+			}
+			if(allCode != null && allCode.equalsIgnoreCase(pattern)) {
+				all = true;
+				continue;
+			}
+			int wildcard = pattern.indexOf('*');
+			if(wildcard < 0) {
+				exact.add(pattern);
+				continue;
+			}
+			if(root == null) {
+				root = new Node();
+			}
+			// 通配符之前的完整段作为前缀树路径
+			Node node = root;
+			int start = 0;
+			int end;
+			while ((end = pattern.indexOf(SEPARATOR, start)) >= 0 && end < wildcard) {
+				node = node.child(pattern.substring(start, end));
+				start = end + 1;
+			}
+			node.patterns.add(pattern);
+		}
+		this.all = all;
+		this.exact = exact;
+		this.root = root;
+		this.source = Collections.unmodifiableSet(new HashSet<>(patterns));
+		this.allCode = allCode;
+	}
+
+	/**
+	 * 编译权限(角色)代码
+	 * @param patterns 权限代码，支持 '*' 通配
+	 * @param allCode 拥有全部权限的代码(忽略大小写)，可为 null
+	 * @return
+	 */
+	public static PermissionMatcher compile(Collection<String> patterns, String allCode) {
+		if(patterns == null || patterns.isEmpty()) {
+			return EMPTY;
+		}
+		return new PermissionMatcher(patterns, allCode);
+	}
+
+	/**
+	 * 是否拥有指定权限
+	 * @param permission
+	 * @return
+	 */
+	public boolean matches(String permission) {
+		if(this.all) {
+			return true;
+		}
+		if(permission == null) {
+			return false;
+		}
+		if(this.exact.contains(permission)) {
+			return true;
+		}
+		Node node = this.root;
+		int start = 0;
+		while (node != null) {
+			if(node.matches(permission)) {
+				return true;
+			}
+			if(node.children == null) {
+				return false;
+			}
+			int end = permission.indexOf(SEPARATOR, start);
+			if(end < 0) {
+				return false;
+			}
+			node = node.children.get(permission.substring(start, end));
+			start = end + 1;
+		}
+		return false;
+	}
+
+	/**
+	 * 是否拥有全部权限
+	 * @return
+	 */
+	public boolean isAll() {
+		return this.all;
+	}
+
+	/**
+	 * 是否由指定权限代码编译而来，权限变更(包括原地修改同一集合)后返回 {@code false}<br>
+	 * 与编译时保存的副本逐项比较
+	 * @param patterns
+	 * @param allCode
+	 * @return
+	 */
+	public boolean isCompiledFrom(Collection<String> patterns, String allCode) {
+		if(patterns == null || patterns.isEmpty()) {
+			return this == EMPTY;
+		}
+		if(!(this.allCode == null ? allCode == null : this.allCode.equals(allCode))) {
+			return false;
+		}
+		return this.source.equals(patterns instanceof Set ? patterns : new HashSet<>(patterns));
+	}
+
+	/**
+	 * 前缀树节点
+	 */
+	private static final class Node {
+
+		/** 子节点 */
+		Map<String, Node> children;
+
+		/** 在此节点开始出现通配符的权限代码 */
+		final List<String> patterns = new ArrayList<>(1);
+
+		/**
+		 * 获取或创建子节点
+		 * @param segment
+		 * @return
+		 */
+		Node child(String segment) {
+			if(this.children == null) {
+				this.children = new HashMap<>();
+			}
+			return this.children.computeIfAbsent(segment, x -> new Node());
+		}
+
+		/**
+		 * 当前节点的通配权限是否匹配
+		 * @param permission
+		 * @return
+		 */
+		boolean matches(String permission) {
+			for (int i = 0, size = this.patterns.size(); i < size; i++) {
+				if(RegexUtils.simpleMatch(this.patterns.get(i), permission)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
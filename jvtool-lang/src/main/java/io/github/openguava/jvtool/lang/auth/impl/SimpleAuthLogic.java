@@ -2,9 +2,11 @@ package io.github.openguava.jvtool.lang.auth.impl;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import io.github.openguava.jvtool.lang.auth.AuthLogic;
+import io.github.openguava.jvtool.lang.auth.AuthScope;
 import io.github.openguava.jvtool.lang.auth.AuthToken;
 import io.github.openguava.jvtool.lang.auth.AuthUser;
 import io.github.openguava.jvtool.lang.auth.annotation.Logical;
@@ -15,10 +17,8 @@ import io.github.openguava.jvtool.lang.auth.annotation.RequiresRoles;
 import io.github.openguava.jvtool.lang.auth.exception.LoginAuthException;
 import io.github.openguava.jvtool.lang.auth.exception.PermissionAuthException;
 import io.github.openguava.jvtool.lang.auth.exception.RoleAuthException;
-import io.github.openguava.jvtool.lang.util.CollectionUtils;
+import io.github.openguava.jvtool.lang.cache.timed.TimedCache;
 import io.github.openguava.jvtool.lang.util.CryptoUtils;
-import io.github.openguava.jvtool.lang.util.RegexUtils;
-import io.github.openguava.jvtool.lang.util.StringUtils;
 
 /**
  * 认证逻辑实现
@@ -33,6 +33,12 @@ public abstract class SimpleAuthLogic implements AuthLogic {
     /** 默认管理员角色代码 */
     private static final String DEFAULT_ADMIN_ROLE_CODE = "admin";
     
+    /** 默认匹配器缓存数量 */
+    private static final long DEFAULT_MATCHER_CACHE_SIZE = 10000L;
+    
+    /** 用户权限、角色匹配器缓存，按用户标识缓存，权限变更后自动重新编译 */
+    private final TimedCache matcherCache = new TimedCache(this.getClass().getSimpleName(), DEFAULT_MATCHER_CACHE_SIZE);
+    
     /** 所有权限标识 */
     private String allPermissionCode = DEFAULT_ALL_PERMISSION_CODE;
     
@@ -79,10 +85,73 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 		this.tokenSupplier = tokenSupplier;
 	}
 	
+	/** 提供者调用次数 */
+	private final LongAdder supplierCallCount = new LongAdder();
+	
+	/** 认证范围内复用结果而省去的提供者调用次数 */
+	private final LongAdder avoidedSupplierCallCount = new LongAdder();
+	
+	/**
+	 * 获取令牌、用户提供者调用次数
+	 * @return
+	 */
+	public long getSupplierCallCount() {
+		return this.supplierCallCount.sum();
+	}
+	
+	/**
+	 * 获取认证范围内复用结果而省去的提供者调用次数
+	 * @return
+	 */
+	public long getAvoidedSupplierCallCount() {
+		return this.avoidedSupplierCallCount.sum();
+	}
+	
+	/** 当前线程的认证范围，不保存在可继承的认证上下文中，避免子线程及线程池复用父线程的用户 */
+	private final ThreadLocal<AuthScope> scopeHolder = new ThreadLocal<>();
+	
+	@Override
+	public AuthScope openScope() {
+		if(this.scopeHolder.get() != null) {
+			return AuthScope.NONE;
+		}
+		AuthScope scope = new AuthScope(this.scopeHolder);
+		this.scopeHolder.set(scope);
+		return scope;
+	}
+	
+	@Override
+	public void resetScope() {
+		AuthScope scope = this.currentScope();
+		if(scope != null) {
+			scope.reset();
+		}
+	}
+	
+	/**
+	 * 获取当前认证范围
+	 * @return 未开启返回 null
+	 */
+	protected AuthScope currentScope() {
+		return this.scopeHolder.get();
+	}
+	
 	@Override
 	public AuthToken getLoginToken(boolean check) {
-		Supplier<AuthToken> supplier = this.getTokenSupplier();
-		AuthToken loginToken = supplier == null ? null : supplier.get();
+		AuthScope scope = this.currentScope();
+		AuthToken loginToken = scope == null ? null : scope.getToken();
+		if(loginToken != null) {
+			this.avoidedSupplierCallCount.increment();
+		} else {
+			Supplier<AuthToken> supplier = this.getTokenSupplier();
+			if(supplier != null) {
+				this.supplierCallCount.increment();
+				loginToken = supplier.get();
+				if(scope != null) {
+					scope.setToken(loginToken);
+				}
+			}
+		}
 		if(loginToken == null && check) {
 			throw new LoginAuthException("未提供token");
 		}
@@ -91,8 +160,20 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 
 	@Override
 	public AuthUser getLoginUser(boolean check) {
-		Supplier<AuthUser> supplier = this.getUserSupplier();
-		AuthUser loginUser = supplier == null ? null : supplier.get();
+		AuthScope scope = this.currentScope();
+		AuthUser loginUser = scope == null ? null : scope.getUser();
+		if(loginUser != null) {
+			this.avoidedSupplierCallCount.increment();
+		} else {
+			Supplier<AuthUser> supplier = this.getUserSupplier();
+			if(supplier != null) {
+				this.supplierCallCount.increment();
+				loginUser = supplier.get();
+				if(scope != null) {
+					scope.setUser(loginUser);
+				}
+			}
+		}
 		if(loginUser == null && check) {
 			throw new LoginAuthException("无效的token"); 
 		}
@@ -120,7 +201,7 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 	
 	@Override
 	public boolean hasRole(String role) {
-		return this.hasRole(this.getRoles(), role);
+		return this.getRoleMatcher().matches(role);
 	}
 	
 	@Override
@@ -141,9 +222,9 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 
 	@Override
 	public void checkRoleAnd(String... roles) {
-		Set<String> userRoles = this.getRoles();
+		PermissionMatcher matcher = this.getRoleMatcher();
 		for(String role : roles) {
-			if(!this.hasRole(userRoles, role)) {
+			if(!matcher.matches(role)) {
 				throw new RoleAuthException("权限不足");
 			}
 		}
@@ -151,9 +232,9 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 
 	@Override
 	public void checkRoleOr(String... roles) {
-		Set<String> userRoles = this.getRoles();
+		PermissionMatcher matcher = this.getRoleMatcher();
 		for(String role : roles) {
-			if(this.hasRole(userRoles, role)) {
+			if(matcher.matches(role)) {
 				return;
 			}
 		}
@@ -164,12 +245,12 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 
 	@Override
 	public boolean hasPermission(String permission) {
-		return this.hasPermission(this.getPermission(), permission);
+		return this.getPermissionMatcher().matches(permission);
 	}
 
 	@Override
 	public void checkPermission(String permission) {
-		if(!this.hasPermission(this.getPermission(), permission)) {
+		if(!this.hasPermission(permission)) {
 			throw new PermissionAuthException("权限不足");
 		}
 	}
@@ -185,9 +266,9 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 
 	@Override
 	public void checkPermissionAnd(String... permissions) {
-		Set<String> userPermissions = this.getPermission();
+		PermissionMatcher matcher = this.getPermissionMatcher();
 		for (String permission : permissions) {
-			if(!this.hasPermission(userPermissions, permission)) {
+			if(!matcher.matches(permission)) {
 				throw new PermissionAuthException("权限不足");
 			}
 		}
@@ -195,9 +276,9 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 
 	@Override
 	public void checkPermissionOr(String... permissions) {
-		Set<String> userPermissions = this.getPermission();
+		PermissionMatcher matcher = this.getPermissionMatcher();
 		for (String permission : permissions) {
-			if(this.hasPermission(userPermissions, permission)) {
+			if(matcher.matches(permission)) {
 				return;
 			}
 		}
@@ -242,6 +323,72 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 		}
 	}
 	
+	/**
+	 * 获取当前用户的角色匹配器
+	 * @return
+	 */
+	protected PermissionMatcher getRoleMatcher() {
+		return this.getMatcher("role:", this.getRoles(), this.getAdminRoleCode());
+	}
+	
+	/**
+	 * 获取当前用户的权限匹配器
+	 * @return
+	 */
+	protected PermissionMatcher getPermissionMatcher() {
+		return this.getMatcher("permission:", this.getPermission(), this.getAllPermissionCode());
+	}
+	
+	/**
+	 * 获取当前用户的匹配器，按用户缓存，权限代码变更时重新编译
+	 * @param prefix 缓存键前缀
+	 * @param codes 权限代码，由 {@link #getRoles()}、{@link #getPermission()} 获取
+	 * @param allCode 拥有全部权限的代码
+	 * @return
+	 */
+	private PermissionMatcher getMatcher(String prefix, Set<String> codes, String allCode) {
+		if(codes == null || codes.isEmpty()) {
+			return PermissionMatcher.EMPTY;
+		}
+		AuthUser user;
+		try {
+			user = this.getLoginUser(false);
+		} catch (Exception e) {
+			user = null;
+		}
+		if(user == null || user.getUserId() == null) {
+			return PermissionMatcher.compile(codes, allCode);
+		}
+		String key = prefix + user.getUserType() + ":" + user.getUserId();
+		Object cached = this.matcherCache.get(key);
+		if(cached instanceof PermissionMatcher && ((PermissionMatcher) cached).isCompiledFrom(codes, allCode)) {
+			return (PermissionMatcher) cached;
+		}
+		PermissionMatcher matcher = PermissionMatcher.compile(codes, allCode);
+		this.matcherCache.put(key, matcher);
+		return matcher;
+	}
+	
+	/**
+	 * 清除指定用户缓存的权限、角色匹配器，权限变更后可主动调用
+	 * @param user
+	 */
+	public void invalidateMatcher(AuthUser user) {
+		if(user == null || user.getUserId() == null) {
+			return;
+		}
+		String suffix = user.getUserType() + ":" + user.getUserId();
+		this.matcherCache.remove("role:" + suffix);
+		this.matcherCache.remove("permission:" + suffix);
+	}
+	
+	/**
+	 * 清除所有缓存的权限、角色匹配器
+	 */
+	public void invalidateMatchers() {
+		this.matcherCache.clear();
+	}
+	
 	/**
 	 * 是否包含角色
 	 * @param roles
@@ -249,7 +396,7 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 	 * @return
 	 */
 	protected boolean hasRole(Set<String> roles, String role) {
-		return CollectionUtils.anyMatch(roles, x -> StringUtils.isNotBlank(x) && (this.getAdminRoleCode().equalsIgnoreCase(x) || RegexUtils.simpleMatch(x, role)));
+		return PermissionMatcher.compile(roles, this.getAdminRoleCode()).matches(role);
 	}
 	
 	/**
@@ -259,7 +406,7 @@ public abstract class SimpleAuthLogic implements AuthLogic {
 	 * @return
 	 */
 	protected boolean hasPermission(Set<String> permissions, String permission) {
-		return CollectionUtils.anyMatch(permissions, x -> StringUtils.isNotBlank(x) && (this.getAllPermissionCode().equalsIgnoreCase(x) || RegexUtils.simpleMatch(x, permission)));
+		return PermissionMatcher.compile(permissions, this.getAllPermissionCode()).matches(permission);
 	}
 	
 	@Override
@@ -1,5 +1,10 @@
 package io.github.openguava.jvtool.lang.cache;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
 import io.github.openguava.jvtool.lang.constant.StringConstants;
 
 /**
@@ -34,6 +39,29 @@ public abstract class AbstractCache implements Cache {
 		this.timeout = timeout;
 	}
 	
+	/**
+	 * 提前刷新系数(XFetch beta)，越大越早刷新，小于等于 {@code 0} 表示不提前刷新
+	 */
+	protected volatile double refreshAheadBeta = 1.0D;
+	
+	public double getRefreshAheadBeta() {
+		return this.refreshAheadBeta;
+	}
+	
+	public void setRefreshAheadBeta(double refreshAheadBeta) {
+		this.refreshAheadBeta = refreshAheadBeta;
+	}
+	
+	/** 单飞加载器，合并同一 key 的并发加载 */
+	protected final transient SingleFlight singleFlight = new SingleFlight();
+	
+	/** 平均加载耗时(纳秒) */
+	private final AtomicLong averageLoadNanos = new AtomicLong();
+	
+	public long getAverageLoadNanos() {
+		return this.averageLoadNanos.get();
+	}
+	
 	/**
 	 * 初始化
 	 */
@@ -48,4 +76,34 @@ public abstract class AbstractCache implements Cache {
 	public AbstractCache(String name) {
 		this.name = name;
 	}
+	
+	/**
+	 * 调用加载方法并记录耗时
+	 * @param valueLoader
+	 * @return
+	 */
+	protected Object load(Supplier<Object> valueLoader) {
+		long startTime = System.nanoTime();
+		try {
+			return valueLoader.get();
+		} finally {
+			long elapsed = System.nanoTime() - startTime;
+			this.averageLoadNanos.updateAndGet(x -> x == 0L ? elapsed : x - (x >> 3) + (elapsed >> 3));
+		}
+	}
+	
+	/**
+	 * 按 XFetch 算法判断是否提前刷新：剩余生存时间越短、加载越慢，提前刷新的概率越高
+	 * @param remainingMillis 剩余生存时间(毫秒)
+	 * @return
+	 */
+	protected boolean shouldRefreshAhead(long remainingMillis) {
+		double beta = this.refreshAheadBeta;
+		long delta = this.averageLoadNanos.get();
+		if(beta <= 0D || delta <= 0L || remainingMillis <= 0L) {
+			return false;
+		}
+		double gap = -delta * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+		return gap >= TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+	}
 }
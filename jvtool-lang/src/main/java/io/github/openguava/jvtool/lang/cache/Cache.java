@@ -1,9 +1,13 @@
 package io.github.openguava.jvtool.lang.cache;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -32,7 +36,83 @@ public interface Cache extends Serializable {
 	 * @return
 	 */
 	Object get(String key, Supplier<Object> valueLoader);
+	
+	/**
+	 * 获取缓存值，加载后按指定生存时间写入<br>
+	 * 默认实现基于 {@link #get(String)} 及 {@link #put(String, Object, long)}，不合并并发加载；
+	 * {@link AbstractCache} 的子类同一 key 的并发加载只执行一次，临近过期时按概率提前刷新
+	 * @param key 键
+	 * @param valueLoader 如果不存在回调方法，用于生产值对象
+	 * @param ttl 加载后的生存时间(毫秒)，小于1表示永久
+	 * @return
+	 */
+	default Object get(String key, Supplier<Object> valueLoader, long ttl) {
+		Object value = this.get(key);
+		if(value == null && valueLoader != null) {
+			value = valueLoader.get();
+			if(value != null) {
+				this.put(key, value, ttl);
+			}
+		}
+		return value;
+	}
 
+	/**
+	 * 批量获取缓存值，默认逐个调用 {@link #get(String)}
+	 * @param keys 键集合
+	 * @return 存在的键值对，按传入顺序排列
+	 */
+	default Map<String, Object> getAll(Collection<String> keys) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		if(keys == null) {
+			return result;
+		}
+		for (String key : keys) {
+			Object value = this.get(key);
+			if(value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * 批量获取缓存值，不存在的键通过一次批量加载获取并写入缓存
+	 * @param keys 键集合
+	 * @param valueLoader 批量加载方法，参数为缺失的键集合，返回加载到的键值对
+	 * @param ttl 加载后的生存时间(毫秒)，小于1表示永久
+	 * @return 存在或加载到的键值对，按传入顺序排列
+	 */
+	default Map<String, Object> getAll(Collection<String> keys, Function<Collection<String>, Map<String, Object>> valueLoader, long ttl) {
+		Map<String, Object> present = this.getAll(keys);
+		if(keys == null || valueLoader == null || present.size() >= keys.size()) {
+			return present;
+		}
+		List<String> missingKeys = new ArrayList<>(keys.size() - present.size());
+		for (String key : keys) {
+			if(!present.containsKey(key)) {
+				missingKeys.add(key);
+			}
+		}
+		Map<String, Object> loaded = valueLoader.apply(missingKeys);
+		if(loaded == null || loaded.isEmpty()) {
+			return present;
+		}
+		this.putAll(loaded, ttl);
+		// 按传入顺序合并
+		Map<String, Object> result = new LinkedHashMap<>();
+		for (String key : keys) {
+			Object value = present.get(key);
+			if(value == null) {
+				value = loaded.get(key);
+			}
+			if(value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+	
 	/**
 	 * 获取字节数组缓存值
 	 * @param key
@@ -74,6 +154,20 @@ public interface Cache extends Serializable {
 	 */
 	void put(String key, Object value, long ttl);
 	
+	/**
+	 * 批量设置缓存，默认逐个调用 {@link #put(String, Object, long)}
+	 * @param map 键值对
+	 * @param ttl 生存时间(毫秒)，小于1表示永久
+	 */
+	default void putAll(Map<String, ?> map, long ttl) {
+		if(map == null) {
+			return;
+		}
+		for (Map.Entry<String, ?> entry : map.entrySet()) {
+			this.put(entry.getKey(), entry.getValue(), ttl);
+		}
+	}
+	
 	/**
 	 * 移除缓存
 	 * @param key 键
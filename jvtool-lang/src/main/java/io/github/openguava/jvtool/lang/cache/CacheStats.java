@@ -0,0 +1,111 @@
+package io.github.openguava.jvtool.lang.cache;
+
+import java.io.Serializable;
+
+/**
+ * 缓存统计快照
+ * @author openguava
+ *
+ */
+public class CacheStats implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** 命中次数 */
+	private final long hitCount;
+
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	/** 未命中次数 */
+	private final long missCount;
+
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/** 容量淘汰次数 */
+	private final long evictionCount;
+
+	public long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+	/** 容量淘汰权重总和 */
+	private final long evictionWeight;
+
+	public long getEvictionWeight() {
+		return this.evictionWeight;
+	}
+
+	/** 过期清理次数 */
+	private final long expiredCount;
+
+	public long getExpiredCount() {
+		return this.expiredCount;
+	}
+
+	/**
+	 * 初始化
+	 * @param hitCount 命中次数
+	 * @param missCount 未命中次数
+	 * @param evictionCount 容量淘汰次数
+	 * @param evictionWeight 容量淘汰权重总和
+	 * @param expiredCount 过期清理次数
+	 */
+	public CacheStats(long hitCount, long missCount, long evictionCount, long evictionWeight, long expiredCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.evictionWeight = evictionWeight;
+		this.expiredCount = expiredCount;
+	}
+
+	/**
+	 * 获取请求总次数
+	 * @return
+	 */
+	public long getRequestCount() {
+		return this.hitCount + this.missCount;
+	}
+
+	/**
+	 * 获取命中率，未发生请求时返回 {@code 1.0}
+	 * @return
+	 */
+	public double getHitRate() {
+		long requestCount = this.getRequestCount();
+		return requestCount == 0L ? 1.0D : (double) this.hitCount / requestCount;
+	}
+
+	/**
+	 * 获取未命中率，未发生请求时返回 {@code 0.0}
+	 * @return
+	 */
+	public double getMissRate() {
+		long requestCount = this.getRequestCount();
+		return requestCount == 0L ? 0.0D : (double) this.missCount / requestCount;
+	}
+
+	/**
+	 * 计算与另一快照之间的增量
+	 * @param other 较早的统计快照
+	 * @return
+	 */
+	public CacheStats minus(CacheStats other) {
+		return new CacheStats(
+				Math.max(0L, this.hitCount - other.hitCount),
+				Math.max(0L, this.missCount - other.missCount),
+				Math.max(0L, this.evictionCount - other.evictionCount),
+				Math.max(0L, this.evictionWeight - other.evictionWeight),
+				Math.max(0L, this.expiredCount - other.expiredCount));
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [hitCount=" + hitCount + ", missCount=" + missCount + ", hitRate=" + getHitRate()
+				+ ", evictionCount=" + evictionCount + ", evictionWeight=" + evictionWeight + ", expiredCount="
+				+ expiredCount + "]";
+	}
+}
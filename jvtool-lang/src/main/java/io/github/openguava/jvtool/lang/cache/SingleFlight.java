@@ -0,0 +1,96 @@
+package io.github.openguava.jvtool.lang.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.github.openguava.jvtool.lang.exception.UtilException;
+
+/**
+ * 单飞加载器<br>
+ * 同一 key 并发加载时只有首个线程执行加载，其余线程等待并共享其结果(包括异常)，避免缓存击穿。
+ * @author openguava
+ *
+ */
+public class SingleFlight {
+
+	/** 正在进行的加载 */
+	private final ConcurrentMap<String, Call> calls = new ConcurrentHashMap<>();
+
+	/**
+	 * 执行加载，同一 key 存在进行中的加载时等待其结果
+	 * @param key 键
+	 * @param loader 加载方法
+	 * @return
+	 */
+	public Object execute(String key, Supplier<Object> loader) {
+		Call call = new Call();
+		Call existing = this.calls.putIfAbsent(key, call);
+		if(existing != null) {
+			if(existing.owner == Thread.currentThread()) {
+				// 加载方法内重入同一 key，直接加载避免自身等待
+				return loader.get();
+			}
+			return await(existing);
+		}
+		try {
+			Object value = loader.get();
+			call.complete(value);
+			return value;
+		} catch (Throwable e) {
+			// 包括绕过编译检查抛出的受检异常，否则等待的线程无法结束
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.calls.remove(key, call);
+		}
+	}
+
+	/**
+	 * 指定 key 是否正在加载
+	 * @param key
+	 * @return
+	 */
+	public boolean isInFlight(String key) {
+		return this.calls.containsKey(key);
+	}
+
+	/**
+	 * 获取正在加载的 key 数量
+	 * @return
+	 */
+	public int size() {
+		return this.calls.size();
+	}
+
+	/**
+	 * 等待加载结果
+	 * @param call
+	 * @return
+	 */
+	private static Object await(Call call) {
+		try {
+			return call.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new UtilException(cause);
+		}
+	}
+
+	/**
+	 * 进行中的加载
+	 */
+	private static final class Call extends CompletableFuture<Object> {
+
+		/** 执行加载的线程 */
+		final Thread owner = Thread.currentThread();
+	}
+}
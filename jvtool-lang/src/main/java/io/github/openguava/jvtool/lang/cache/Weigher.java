@@ -0,0 +1,30 @@
+package io.github.openguava.jvtool.lang.cache;
+
+/**
+ * 缓存权重计算器，用于按权重(如估算字节数)限制缓存容量
+ * @author openguava
+ *
+ * @param <K>
+ * @param <V>
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+	/**
+	 * 计算缓存项权重
+	 * @param key 键
+	 * @param value 值
+	 * @return 权重，不能为负数
+	 */
+	int weigh(K key, V value);
+
+	/**
+	 * 每个缓存项权重均为1的计算器
+	 * @param <K>
+	 * @param <V>
+	 * @return
+	 */
+	static <K, V> Weigher<K, V> singleton() {
+		return (key, value) -> 1;
+	}
+}
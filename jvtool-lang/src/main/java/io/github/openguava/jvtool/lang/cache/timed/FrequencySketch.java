@@ -0,0 +1,131 @@
+package io.github.openguava.jvtool.lang.cache.timed;
+
+/**
+ * 基于 Count-Min Sketch 的访问频率估算器(TinyLFU)<br>
+ * 每个计数器占 4 bit(最大15)，访问次数达到采样上限时所有计数器减半，使历史热点逐步衰减。<br>
+ * 并发调用时允许少量计数丢失，估算结果仅用于淘汰决策。
+ * @author openguava
+ *
+ */
+class FrequencySketch {
+
+	/** 哈希种子 */
+	private static final long[] SEED = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+	/** 计数器减半掩码 */
+	private static final long RESET_MASK = 0x7777777777777777L;
+
+	/** 计数器表最大长度 */
+	private static final int MAXIMUM_CAPACITY = 1 << 22;
+
+	/** 计数器最低位掩码 */
+	private static final long ONE_MASK = 0x1111111111111111L;
+
+	/** 计数器表，每个 long 存放 16 个 4 bit 计数器 */
+	private final long[] table;
+
+	/** 表索引掩码 */
+	private final int tableMask;
+
+	/** 采样上限 */
+	private final int sampleSize;
+
+	/** 当前采样次数 */
+	private int size;
+
+	/**
+	 * 初始化
+	 * @param maximumSize 缓存最大容量
+	 */
+	FrequencySketch(long maximumSize) {
+		int maximum = (int) Math.min(Math.max(maximumSize, 16L), MAXIMUM_CAPACITY);
+		int tableSize = Integer.highestOneBit(maximum - 1) << 1;
+		this.table = new long[tableSize];
+		this.tableMask = tableSize - 1;
+		this.sampleSize = (int) Math.min(10L * maximum, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 估算访问频率
+	 * @param obj
+	 * @return 0~15
+	 */
+	int frequency(Object obj) {
+		int hash = spread(obj.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int index = this.indexOf(hash, i);
+			int count = (int) ((this.table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * 增加访问频率
+	 * @param obj
+	 */
+	void increment(Object obj) {
+		int hash = spread(obj.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= this.incrementAt(this.indexOf(hash, i), start + i);
+		}
+		if (added && (++this.size >= this.sampleSize)) {
+			this.reset();
+		}
+	}
+
+	/**
+	 * 指定计数器加一，已达上限时忽略
+	 * @param i 表索引
+	 * @param j 计数器序号
+	 * @return 是否增加
+	 */
+	private boolean incrementAt(int i, int j) {
+		int offset = j << 2;
+		long mask = (0xfL << offset);
+		if ((this.table[i] & mask) != mask) {
+			this.table[i] += (1L << offset);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 所有计数器减半
+	 */
+	private void reset() {
+		int count = 0;
+		for (int i = 0; i < this.table.length; i++) {
+			count += Long.bitCount(this.table[i] & ONE_MASK);
+			this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+		}
+		this.size = Math.max(0, (this.size >>> 1) - (count >>> 2));
+	}
+
+	/**
+	 * 计算第 i 个哈希函数对应的表索引
+	 * @param hash
+	 * @param i
+	 * @return
+	 */
+	private int indexOf(int hash, int i) {
+		long h = (hash + SEED[i]) * SEED[i];
+		h += (h >>> 32);
+		return ((int) h) & this.tableMask;
+	}
+
+	/**
+	 * 二次哈希，避免低质量 hashCode
+	 * @param x
+	 * @return
+	 */
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+}
@@ -0,0 +1,87 @@
+package io.github.openguava.jvtool.lang.cache.timed;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 分段有损读缓冲区<br>
+ * 读操作只记录被访问的缓存项而不获取锁，由持有淘汰锁的线程批量回放到淘汰策略；
+ * 缓冲区满或写入竞争失败时直接丢弃，读路径永不阻塞。
+ * @author openguava
+ *
+ */
+final class ReadBuffer {
+
+	/** 每段缓冲区大小 */
+	private static final int BUFFER_SIZE = 16;
+
+	/** 段内索引掩码 */
+	private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+	/** 缓冲区段数 */
+	private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1);
+
+	/** 段索引掩码 */
+	private static final int STRIPE_MASK = STRIPES - 1;
+
+	/** 缓冲区 */
+	private final AtomicReferenceArray<TimedValueWrapper<String, Object>> buffer = new AtomicReferenceArray<>(STRIPES * BUFFER_SIZE);
+
+	/** 各段写入计数 */
+	private final AtomicLongArray writeCounts = new AtomicLongArray(STRIPES);
+
+	/** 各段读取计数 */
+	private final AtomicLongArray readCounts = new AtomicLongArray(STRIPES);
+
+	/**
+	 * 记录一次访问
+	 * @param wrapper
+	 * @return 所在段已满返回 {@code false}，此时应尽快回放
+	 */
+	boolean offer(TimedValueWrapper<String, Object> wrapper) {
+		int stripe = stripe();
+		long head = this.readCounts.get(stripe);
+		long tail = this.writeCounts.get(stripe);
+		if(tail - head >= BUFFER_SIZE) {
+			return false;
+		}
+		if(this.writeCounts.compareAndSet(stripe, tail, tail + 1)) {
+			this.buffer.lazySet(stripe * BUFFER_SIZE + (int) (tail & BUFFER_MASK), wrapper);
+		}
+		return true;
+	}
+
+	/**
+	 * 回放所有已记录的访问(需持有淘汰锁)
+	 * @param consumer
+	 */
+	void drainTo(Consumer<TimedValueWrapper<String, Object>> consumer) {
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			long head = this.readCounts.get(stripe);
+			long tail = this.writeCounts.get(stripe);
+			while (head < tail) {
+				int index = stripe * BUFFER_SIZE + (int) (head & BUFFER_MASK);
+				TimedValueWrapper<String, Object> wrapper = this.buffer.get(index);
+				if(wrapper == null) {
+					// 写入方尚未发布
+					break;
+				}
+				this.buffer.lazySet(index, null);
+				consumer.accept(wrapper);
+				head++;
+			}
+			this.readCounts.lazySet(stripe, head);
+		}
+	}
+
+	/**
+	 * 当前线程对应的段
+	 * @return
+	 */
+	private static int stripe() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+		return (hash ^ (hash >>> 16)) & STRIPE_MASK;
+	}
+}
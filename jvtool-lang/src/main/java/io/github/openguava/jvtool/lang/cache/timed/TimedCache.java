@@ -2,19 +2,27 @@ package io.github.openguava.jvtool.lang.cache.timed;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 import io.github.openguava.jvtool.lang.cache.AbstractCache;
+import io.github.openguava.jvtool.lang.cache.CacheStats;
+import io.github.openguava.jvtool.lang.cache.Weigher;
 import io.github.openguava.jvtool.lang.constant.CharsetConstants;
 import io.github.openguava.jvtool.lang.map.SafeConcurrentHashMap;
+import io.github.openguava.jvtool.lang.time.Clock;
 import io.github.openguava.jvtool.lang.util.ByteUtils;
 import io.github.openguava.jvtool.lang.util.CollectionUtils;
 import io.github.openguava.jvtool.lang.util.JsonUtils;
@@ -22,16 +30,121 @@ import io.github.openguava.jvtool.lang.util.ObjectUtils;
 import io.github.openguava.jvtool.lang.util.RegexUtils;
 import io.github.openguava.jvtool.lang.util.StringUtils;
 
+/**
+ * 支持超时控制的本地缓存<br>
+ * 指定最大数量或最大权重时启用容量限制，按 W-TinyLFU 策略淘汰：新缓存项先进入窗口区(LRU)，
+ * 溢出后进入主区试用段，与试用段最久未访问项比较访问频率决定去留，再次访问后晋升到保护段(分段LRU)。<br>
+ * 读操作不获取任何锁，访问记录写入有损读缓冲区，由持有淘汰锁的线程批量回放；
+ * 设置了生存时间的缓存项由分层时间轮调度过期，定时任务或写操作推进时间轮。
+ * @author openguava
+ *
+ */
 public class TimedCache extends AbstractCache implements Closeable {
 
 	private static final long serialVersionUID = 1L;
 	
+	/** 窗口区占总容量比例 */
+	private static final double PERCENT_WINDOW = 0.01D;
+	
+	/** 保护段占主区容量比例 */
+	private static final double PERCENT_MAIN_PROTECTED = 0.80D;
+	
+	/** 不在淘汰队列中 */
+	static final byte QUEUE_NONE = 0;
+	
+	/** 窗口区 */
+	static final byte QUEUE_WINDOW = 1;
+	
+	/** 主区试用段 */
+	static final byte QUEUE_PROBATION = 2;
+	
+	/** 主区保护段 */
+	static final byte QUEUE_PROTECTED = 3;
+	
 	private final ConcurrentMap<String, TimedValueWrapper<String, Object>> map = new SafeConcurrentHashMap<>();
 	
+	/**
+	 * 最大缓存数量，小于1表示不限制
+	 */
+	private final long maximumSize;
+	
+	public long getMaximumSize() {
+		return this.maximumSize;
+	}
+	
+	/**
+	 * 最大缓存权重，小于1表示不限制
+	 */
+	private final long maximumWeight;
+	
+	public long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+	
+	/**
+	 * 权重计算器
+	 */
+	private final Weigher<String, Object> weigher;
+	
+	/** 访问频率估算器，仅在启用容量限制时存在 */
+	private final FrequencySketch sketch;
+	
+	/** 淘汰锁，容量限制下的写操作、淘汰队列及时间轮维护均在此锁内进行 */
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	
+	/** 读缓冲区，仅在启用容量限制时存在 */
+	private final ReadBuffer readBuffer;
+	
+	/** 时钟 */
+	private final Clock clock;
+	
+	/** 过期时间轮 */
+	private final TimerWheel timerWheel;
+	
+	/** 窗口区队列 */
+	private final AccessQueue windowQueue = new AccessQueue();
+	
+	/** 主区试用段队列 */
+	private final AccessQueue probationQueue = new AccessQueue();
+	
+	/** 主区保护段队列 */
+	private final AccessQueue protectedQueue = new AccessQueue();
+	
+	/** 窗口区最大容量 */
+	private final long windowMaximum;
+	
+	/** 保护段最大容量 */
+	private final long protectedMaximum;
+	
+	/** 当前缓存数量(容量限制下维护) */
+	private long entryCount;
+	
+	/** 当前缓存权重(容量限制下维护) */
+	private long weightedSize;
+	
+	/** 命中次数 */
+	private final LongAdder hitCount = new LongAdder();
+	
+	/** 未命中次数 */
+	private final LongAdder missCount = new LongAdder();
+	
+	/** 容量淘汰次数 */
+	private final LongAdder evictionCount = new LongAdder();
+	
+	/** 容量淘汰权重 */
+	private final LongAdder evictionWeight = new LongAdder();
+	
+	/** 过期清理次数 */
+	private final LongAdder expiredCount = new LongAdder();
+	
 	/**
 	 * 定时服务
 	 */
-	private ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1);
+	private ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1, r -> {
+		Thread thread = new Thread(r, "TimedCache-" + this.name);
+		thread.setDaemon(true);
+		return thread;
+	});
 	
 	/** 正在执行的定时任务 */
 	private ScheduledFuture<?> scheduledFuture;
@@ -41,6 +154,15 @@ public class TimedCache extends AbstractCache implements Closeable {
 	 */
 	public TimedCache() {
 		super();
+		this.clock = Clock.SYSTEM;
+		this.timerWheel = new TimerWheel(this.clock.currentTimeMillis());
+		this.maximumSize = 0L;
+		this.maximumWeight = 0L;
+		this.weigher = null;
+		this.sketch = null;
+		this.readBuffer = null;
+		this.windowMaximum = 0L;
+		this.protectedMaximum = 0L;
 	}
 	
 	/**
@@ -48,28 +170,99 @@ public class TimedCache extends AbstractCache implements Closeable {
 	 * @param name
 	 */
 	public TimedCache(String name) {
+		this(name, 0L);
+	}
+	
+	/**
+	 * 初始化
+	 * @param name
+	 * @param maximumSize 最大缓存数量，小于1表示不限制
+	 */
+	public TimedCache(String name, long maximumSize) {
+		this(name, maximumSize, 0L, null);
+	}
+	
+	/**
+	 * 初始化
+	 * @param name
+	 * @param maximumSize 最大缓存数量，小于1表示不限制
+	 * @param maximumWeight 最大缓存权重，小于1表示不限制
+	 * @param weigher 权重计算器，为 {@code null} 时每项权重为1
+	 */
+	public TimedCache(String name, long maximumSize, long maximumWeight, Weigher<String, Object> weigher) {
+		this(name, maximumSize, maximumWeight, weigher, Clock.SYSTEM);
+	}
+	
+	/**
+	 * 初始化
+	 * @param name
+	 * @param maximumSize 最大缓存数量，小于1表示不限制
+	 * @param maximumWeight 最大缓存权重，小于1表示不限制
+	 * @param weigher 权重计算器，为 {@code null} 时每项权重为1
+	 * @param clock 判断过期使用的时钟，测试时可使用 {@link io.github.openguava.jvtool.lang.time.FakeClock}
+	 */
+	public TimedCache(String name, long maximumSize, long maximumWeight, Weigher<String, Object> weigher, Clock clock) {
 		super(name);
+		this.clock = clock;
+		this.timerWheel = new TimerWheel(clock.currentTimeMillis());
+		this.maximumSize = Math.max(maximumSize, 0L);
+		this.maximumWeight = Math.max(maximumWeight, 0L);
+		this.weigher = weigher;
+		long capacity = this.maximumWeight > 0L ? this.maximumWeight : this.maximumSize;
+		if(capacity > 0L) {
+			this.sketch = new FrequencySketch(this.maximumSize > 0L ? this.maximumSize : capacity);
+			this.readBuffer = new ReadBuffer();
+			this.windowMaximum = Math.max(1L, (long) (capacity * PERCENT_WINDOW));
+			this.protectedMaximum = (long) ((capacity - this.windowMaximum) * PERCENT_MAIN_PROTECTED);
+		} else {
+			this.sketch = null;
+			this.readBuffer = null;
+			this.windowMaximum = 0L;
+			this.protectedMaximum = 0L;
+		}
+	}
+	
+	/**
+	 * 是否启用容量限制
+	 * @return
+	 */
+	public boolean isBounded() {
+		return this.sketch != null;
 	}
 
 	@Override
 	public Object get(String key) {
-		synchronized (this.map) {
-			TimedValueWrapper<String, Object> wrapper = this.map.get(key);
-			if(wrapper == null) {
-				return null;
-			}
-			if(wrapper.isExpired()) {
-				this.map.remove(key);
-				return null;
-			}
-			return wrapper.get();
-		}
+		TimedValueWrapper<String, Object> wrapper = this.getIfPresent(key);
+		return wrapper != null ? wrapper.get() : null;
 	}
 
 	@Override
 	public Object get(String key, Supplier<Object> valueLoader) {
-		TimedValueWrapper<String, Object> wrapper = this.map.computeIfAbsent(key, x -> new TimedValueWrapper<>(key, valueLoader.get()));
-		return wrapper != null ? wrapper.get() : null;
+		return this.get(key, valueLoader, 0L);
+	}
+	
+	@Override
+	public Object get(String key, Supplier<Object> valueLoader, long ttl) {
+		TimedValueWrapper<String, Object> wrapper = this.getIfPresent(key);
+		if(wrapper != null) {
+			// 临近过期的热点项由单个线程提前刷新，其余线程继续读取旧值
+			if(wrapper.expireTime != 0L && !this.singleFlight.isInFlight(key)
+					&& this.shouldRefreshAhead(wrapper.expireTime - this.clock.currentTimeMillis())) {
+				return this.singleFlight.execute(key, () -> this.loadEntry(key, valueLoader, ttl));
+			}
+			return wrapper.get();
+		}
+		if(valueLoader == null) {
+			return null;
+		}
+		return this.singleFlight.execute(key, () -> {
+			// 等待期间其他加载可能已完成
+			TimedValueWrapper<String, Object> current = this.map.get(key);
+			if(current != null && !this.isExpired(current)) {
+				return current.get();
+			}
+			return this.loadEntry(key, valueLoader, ttl);
+		});
 	}
 	
 	@Override
@@ -105,17 +298,52 @@ public class TimedCache extends AbstractCache implements Closeable {
 
 	@Override
 	public void put(String key, Object value) {
-		this.map.put(key, new TimedValueWrapper<>(key, value));
+		this.putEntry(key, new TimedValueWrapper<>(key, value, 0L, this.clock));
 	}
 
 	@Override
 	public void put(String key, Object value, long ttl) {
-		this.map.put(key, new TimedValueWrapper<>(key, value, ttl));
+		this.putEntry(key, new TimedValueWrapper<>(key, value, ttl, this.clock));
+	}
+
+	@Override
+	public void putAll(Map<String, ?> map, long ttl) {
+		if(CollectionUtils.isEmpty(map)) {
+			return;
+		}
+		if(!this.isBounded() && ttl < 1) {
+			for (Map.Entry<String, ?> entry : map.entrySet()) {
+				this.putEntry(entry.getKey(), new TimedValueWrapper<>(entry.getKey(), entry.getValue(), 0L, this.clock));
+			}
+			return;
+		}
+		List<TimedValueWrapper<String, Object>> wrappers = new ArrayList<>(map.size());
+		for (Map.Entry<String, ?> entry : map.entrySet()) {
+			TimedValueWrapper<String, Object> wrapper = new TimedValueWrapper<>(entry.getKey(), entry.getValue(), ttl, this.clock);
+			if(this.isBounded()) {
+				wrapper.weight = this.weigh(wrapper.getKey(), wrapper.get());
+			}
+			wrappers.add(wrapper);
+		}
+		// 一次加锁写入全部缓存项，最后统一淘汰
+		this.evictionLock.lock();
+		try {
+			for (TimedValueWrapper<String, Object> wrapper : wrappers) {
+				TimedValueWrapper<String, Object> oldWrapper = this.map.put(wrapper.getKey(), wrapper);
+				if(oldWrapper != null) {
+					this.unlink(oldWrapper);
+				}
+				this.link(wrapper);
+			}
+			this.maintenance();
+		} finally {
+			this.evictionLock.unlock();
+		}
 	}
 
 	@Override
 	public boolean remove(String key) {
-		return this.map.remove(key) != null;
+		return this.removeEntry(key) != null;
 	}
 	
 	@Override
@@ -124,8 +352,8 @@ public class TimedCache extends AbstractCache implements Closeable {
 			return 0L;
 		}
 		long count = 0L;
-		for (Object key : keys) {
-			if(this.map.remove(key) != null) {
+		for (String key : keys) {
+			if(this.removeEntry(key) != null) {
 				count++;
 			}
 		}
@@ -134,7 +362,8 @@ public class TimedCache extends AbstractCache implements Closeable {
 	
 	@Override
 	public boolean exists(String key) {
-		return this.map.containsKey(key);
+		TimedValueWrapper<String, Object> wrapper = this.map.get(key);
+		return wrapper != null && !this.isExpired(wrapper);
 	}
 
 	@Override
@@ -157,7 +386,65 @@ public class TimedCache extends AbstractCache implements Closeable {
 
 	@Override
 	public void clear() {
-		this.map.clear();
+		this.evictionLock.lock();
+		try {
+			this.map.clear();
+			this.timerWheel.clear();
+			this.windowQueue.clear();
+			this.probationQueue.clear();
+			this.protectedQueue.clear();
+			this.entryCount = 0L;
+			this.weightedSize = 0L;
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * 获取缓存统计快照
+	 * @return
+	 */
+	public CacheStats stats() {
+		return new CacheStats(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum(), this.evictionWeight.sum(), this.expiredCount.sum());
+	}
+	
+	/**
+	 * 获取当前缓存数量(包含尚未清理的过期项)
+	 * @return
+	 */
+	public long estimatedSize() {
+		return this.map.size();
+	}
+	
+	/**
+	 * 获取当前缓存权重，未启用容量限制时返回缓存数量
+	 * @return
+	 */
+	public long weightedSize() {
+		if(!this.isBounded()) {
+			return this.map.size();
+		}
+		this.evictionLock.lock();
+		try {
+			return this.weightedSize;
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * 执行维护任务：回放读缓冲区、推进时间轮清理过期项、按容量淘汰
+	 * @return 本次清理的过期项数量
+	 */
+	public long cleanUp() {
+		this.evictionLock.lock();
+		try {
+			long expired = this.expiredCount.sum();
+			this.maintenance();
+			return this.expiredCount.sum() - expired;
+		} finally {
+			this.evictionLock.unlock();
+		}
 	}
 	
 	/**
@@ -184,10 +471,355 @@ public class TimedCache extends AbstractCache implements Closeable {
 	}
 	
 	/**
-	 * 定时任务
+	 * 定时任务，推进时间轮清理过期缓存项
 	 */
 	protected void schedule() {
-		
+		this.cleanUp();
+	}
+	
+	/**
+	 * 读取未过期的缓存项并记录访问
+	 * @param key
+	 * @return
+	 */
+	private TimedValueWrapper<String, Object> getIfPresent(String key) {
+		TimedValueWrapper<String, Object> wrapper = this.map.get(key);
+		if(wrapper == null) {
+			this.missCount.increment();
+			return null;
+		}
+		if(this.isExpired(wrapper)) {
+			// 过期项由时间轮清理，此处仅尝试触发维护
+			this.missCount.increment();
+			this.tryMaintenance();
+			return null;
+		}
+		this.hitCount.increment();
+		this.afterRead(wrapper);
+		return wrapper;
+	}
+	
+	/**
+	 * 缓存项是否已过期
+	 * @param wrapper
+	 * @return
+	 */
+	private boolean isExpired(TimedValueWrapper<String, Object> wrapper) {
+		return wrapper.expireTime != 0L && wrapper.isExpired(this.clock.currentTimeMillis());
+	}
+	
+	/**
+	 * 写入缓存项
+	 * @param key
+	 * @param wrapper
+	 */
+	private void putEntry(String key, TimedValueWrapper<String, Object> wrapper) {
+		if(!this.isBounded() && wrapper.expireTime == 0L) {
+			TimedValueWrapper<String, Object> oldWrapper = this.map.put(key, wrapper);
+			if(oldWrapper != null) {
+				this.deschedule(oldWrapper);
+			}
+			return;
+		}
+		wrapper.weight = this.weigh(key, wrapper.get());
+		this.evictionLock.lock();
+		try {
+			TimedValueWrapper<String, Object> oldWrapper = this.map.put(key, wrapper);
+			if(oldWrapper != null) {
+				this.unlink(oldWrapper);
+			}
+			this.link(wrapper);
+			this.maintenance();
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * 调用加载方法并写入缓存
+	 * @param key
+	 * @param valueLoader
+	 * @param ttl
+	 * @return
+	 */
+	private Object loadEntry(String key, Supplier<Object> valueLoader, long ttl) {
+		Object value = this.load(valueLoader);
+		this.putEntry(key, new TimedValueWrapper<>(key, value, ttl, this.clock));
+		return value;
+	}
+	
+	/**
+	 * 移除缓存项
+	 * @param key
+	 * @return 被移除的缓存项
+	 */
+	private TimedValueWrapper<String, Object> removeEntry(String key) {
+		if(!this.isBounded()) {
+			TimedValueWrapper<String, Object> wrapper = this.map.remove(key);
+			if(wrapper != null) {
+				this.deschedule(wrapper);
+			}
+			return wrapper;
+		}
+		this.evictionLock.lock();
+		try {
+			TimedValueWrapper<String, Object> wrapper = this.map.remove(key);
+			if(wrapper != null) {
+				this.unlink(wrapper);
+			}
+			return wrapper;
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * 未启用容量限制时，将已移除的缓存项移出时间轮
+	 * @param wrapper
+	 */
+	private void deschedule(TimedValueWrapper<String, Object> wrapper) {
+		if(wrapper.expireTime == 0L) {
+			return;
+		}
+		this.evictionLock.lock();
+		try {
+			this.timerWheel.deschedule(wrapper);
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * 读取命中后记录到读缓冲区，缓冲区已满时尝试回放
+	 * @param wrapper
+	 */
+	private void afterRead(TimedValueWrapper<String, Object> wrapper) {
+		if(this.readBuffer != null && !this.readBuffer.offer(wrapper)) {
+			this.tryMaintenance();
+		}
+	}
+	
+	/**
+	 * 淘汰锁空闲时执行维护任务，不阻塞当前线程
+	 */
+	private void tryMaintenance() {
+		if(!this.evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			this.maintenance();
+		} finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * 执行维护任务(需持有淘汰锁)
+	 */
+	private void maintenance() {
+		if(this.readBuffer != null) {
+			this.readBuffer.drainTo(this::onRead);
+		}
+		this.timerWheel.advance(this.clock.currentTimeMillis(), this::expire);
+		if(this.isBounded()) {
+			this.evictEntries();
+		}
+	}
+	
+	/**
+	 * 回放一次读访问(需持有淘汰锁)
+	 * @param wrapper
+	 */
+	private void onRead(TimedValueWrapper<String, Object> wrapper) {
+		this.sketch.increment(wrapper.getKey());
+		this.onAccess(wrapper);
+	}
+	
+	/**
+	 * 移除时间轮到期的缓存项(需持有淘汰锁)
+	 * @param wrapper
+	 */
+	private void expire(TimedValueWrapper<String, Object> wrapper) {
+		if(this.map.remove(wrapper.getKey(), wrapper)) {
+			this.unlink(wrapper);
+			this.expiredCount.increment();
+		}
+	}
+	
+	/**
+	 * 计算缓存项权重
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	private int weigh(String key, Object value) {
+		if(this.weigher == null) {
+			return 1;
+		}
+		int weight = this.weigher.weigh(key, value);
+		if(weight < 0) {
+			throw new IllegalArgumentException("weight must not be negative: " + weight);
+		}
+		return weight;
+	}
+	
+	/**
+	 * 缓存项在淘汰队列中占用的容量，限制权重时为权重，否则为1
+	 * @param wrapper
+	 * @return
+	 */
+	private long policyWeight(TimedValueWrapper<String, Object> wrapper) {
+		return this.maximumWeight > 0L ? wrapper.weight : 1L;
+	}
+	
+	/**
+	 * 新缓存项加入时间轮及窗口区(需持有淘汰锁)
+	 * @param wrapper
+	 */
+	private void link(TimedValueWrapper<String, Object> wrapper) {
+		if(wrapper.expireTime != 0L) {
+			this.timerWheel.schedule(wrapper);
+		}
+		if(!this.isBounded()) {
+			return;
+		}
+		this.sketch.increment(wrapper.getKey());
+		wrapper.queue = QUEUE_WINDOW;
+		this.windowQueue.addLast(wrapper, this.policyWeight(wrapper));
+		this.entryCount++;
+		this.weightedSize += wrapper.weight;
+	}
+	
+	/**
+	 * 缓存项移出时间轮及淘汰队列(需持有淘汰锁)
+	 * @param wrapper
+	 */
+	private void unlink(TimedValueWrapper<String, Object> wrapper) {
+		this.timerWheel.deschedule(wrapper);
+		AccessQueue queue = this.queueOf(wrapper);
+		if(queue == null) {
+			return;
+		}
+		queue.remove(wrapper, this.policyWeight(wrapper));
+		wrapper.queue = QUEUE_NONE;
+		this.entryCount--;
+		this.weightedSize -= wrapper.weight;
+	}
+	
+	/**
+	 * 缓存项被访问后调整所在队列(需持有淘汰锁)
+	 * @param wrapper
+	 */
+	private void onAccess(TimedValueWrapper<String, Object> wrapper) {
+		long weight = this.policyWeight(wrapper);
+		switch (wrapper.queue) {
+		case QUEUE_WINDOW:
+			this.windowQueue.moveToLast(wrapper);
+			break;
+		case QUEUE_PROBATION:
+			// 试用段再次被访问，晋升到保护段
+			this.probationQueue.remove(wrapper, weight);
+			wrapper.queue = QUEUE_PROTECTED;
+			this.protectedQueue.addLast(wrapper, weight);
+			// 保护段溢出，最久未访问项降级到试用段
+			while (this.protectedQueue.weight > this.protectedMaximum && this.protectedQueue.first != wrapper) {
+				TimedValueWrapper<String, Object> demoted = this.protectedQueue.first;
+				this.protectedQueue.remove(demoted, this.policyWeight(demoted));
+				demoted.queue = QUEUE_PROBATION;
+				this.probationQueue.addLast(demoted, this.policyWeight(demoted));
+			}
+			break;
+		case QUEUE_PROTECTED:
+			this.protectedQueue.moveToLast(wrapper);
+			break;
+		default:
+			break;
+		}
+	}
+	
+	/**
+	 * 超出容量时淘汰缓存项(需持有淘汰锁)
+	 */
+	private void evictEntries() {
+		// 窗口区溢出，最久未访问项进入试用段成为候选者
+		while (this.windowQueue.weight > this.windowMaximum && this.windowQueue.first != null) {
+			TimedValueWrapper<String, Object> candidate = this.windowQueue.first;
+			this.windowQueue.remove(candidate, this.policyWeight(candidate));
+			candidate.queue = QUEUE_PROBATION;
+			this.probationQueue.addLast(candidate, this.policyWeight(candidate));
+		}
+		while (this.isOverCapacity()) {
+			TimedValueWrapper<String, Object> victim = this.probationQueue.first;
+			TimedValueWrapper<String, Object> candidate = this.probationQueue.last;
+			if(victim == null) {
+				victim = this.protectedQueue.first != null ? this.protectedQueue.first : this.windowQueue.first;
+				if(victim == null) {
+					break;
+				}
+				this.evict(victim);
+			} else if(candidate != victim && this.admit(candidate.getKey(), victim.getKey())) {
+				this.evict(victim);
+			} else {
+				this.evict(candidate);
+			}
+		}
+	}
+	
+	/**
+	 * 是否超出容量(需持有淘汰锁)
+	 * @return
+	 */
+	private boolean isOverCapacity() {
+		return (this.maximumSize > 0L && this.entryCount > this.maximumSize)
+				|| (this.maximumWeight > 0L && this.weightedSize > this.maximumWeight);
+	}
+	
+	/**
+	 * TinyLFU 准入判断，候选者访问频率高于淘汰者时准入
+	 * @param candidateKey
+	 * @param victimKey
+	 * @return
+	 */
+	private boolean admit(String candidateKey, String victimKey) {
+		int candidateFreq = this.sketch.frequency(candidateKey);
+		int victimFreq = this.sketch.frequency(victimKey);
+		if(candidateFreq > victimFreq) {
+			return true;
+		}
+		if(candidateFreq <= 5) {
+			return false;
+		}
+		// 随机准入少量高频候选者，避免哈希碰撞攻击导致热点项无法进入
+		return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+	}
+	
+	/**
+	 * 淘汰缓存项(需持有淘汰锁)
+	 * @param wrapper
+	 */
+	private void evict(TimedValueWrapper<String, Object> wrapper) {
+		this.map.remove(wrapper.getKey(), wrapper);
+		this.unlink(wrapper);
+		this.evictionCount.increment();
+		this.evictionWeight.add(wrapper.weight);
+	}
+	
+	/**
+	 * 获取缓存项所在队列
+	 * @param wrapper
+	 * @return
+	 */
+	private AccessQueue queueOf(TimedValueWrapper<String, Object> wrapper) {
+		switch (wrapper.queue) {
+		case QUEUE_WINDOW:
+			return this.windowQueue;
+		case QUEUE_PROBATION:
+			return this.probationQueue;
+		case QUEUE_PROTECTED:
+			return this.protectedQueue;
+		default:
+			return null;
+		}
 	}
 
 	@Override
@@ -200,4 +832,71 @@ public class TimedCache extends AbstractCache implements Closeable {
 	public static void main(String[] args) {
 		
 	}
+	
+	/**
+	 * 按访问顺序排列的淘汰队列(双向链表)，仅在淘汰锁内访问
+	 */
+	private static final class AccessQueue {
+		
+		/** 最久未访问项 */
+		TimedValueWrapper<String, Object> first;
+		
+		/** 最近访问项 */
+		TimedValueWrapper<String, Object> last;
+		
+		/** 队列容量 */
+		long weight;
+		
+		void addLast(TimedValueWrapper<String, Object> wrapper, long weight) {
+			wrapper.prev = this.last;
+			wrapper.next = null;
+			if(this.last == null) {
+				this.first = wrapper;
+			} else {
+				this.last.next = wrapper;
+			}
+			this.last = wrapper;
+			this.weight += weight;
+		}
+		
+		void remove(TimedValueWrapper<String, Object> wrapper, long weight) {
+			TimedValueWrapper<String, Object> prev = wrapper.prev;
+			TimedValueWrapper<String, Object> next = wrapper.next;
+			if(prev == null) {
+				this.first = next;
+			} else {
+				prev.next = next;
+			}
+			if(next == null) {
+				this.last = prev;
+			} else {
+				next.prev = prev;
+			}
+			wrapper.prev = null;
+			wrapper.next = null;
+			this.weight -= weight;
+		}
+		
+		void moveToLast(TimedValueWrapper<String, Object> wrapper) {
+			if(wrapper == this.last) {
+				return;
+			}
+			this.remove(wrapper, 0L);
+			this.addLast(wrapper, 0L);
+		}
+		
+		void clear() {
+			TimedValueWrapper<String, Object> wrapper = this.first;
+			while (wrapper != null) {
+				TimedValueWrapper<String, Object> next = wrapper.next;
+				wrapper.prev = null;
+				wrapper.next = null;
+				wrapper.queue = QUEUE_NONE;
+				wrapper = next;
+			}
+			this.first = null;
+			this.last = null;
+			this.weight = 0L;
+		}
+	}
 }
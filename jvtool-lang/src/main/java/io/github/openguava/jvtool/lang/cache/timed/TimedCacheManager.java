@@ -2,6 +2,7 @@ package io.github.openguava.jvtool.lang.cache.timed;
 
 import io.github.openguava.jvtool.lang.cache.AbstractCacheManager;
 import io.github.openguava.jvtool.lang.cache.Cache;
+import io.github.openguava.jvtool.lang.cache.Weigher;
 
 public class TimedCacheManager extends AbstractCacheManager {
 
@@ -11,9 +12,57 @@ public class TimedCacheManager extends AbstractCacheManager {
 		return instance;
 	}
 	
+	/** 新建缓存的最大数量，小于1表示不限制 */
+	private volatile long maximumSize;
+	
+	public long getMaximumSize() {
+		return this.maximumSize;
+	}
+	
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+	
+	/** 新建缓存的最大权重，小于1表示不限制 */
+	private volatile long maximumWeight;
+	
+	public long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+	
+	public void setMaximumWeight(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+	}
+	
+	/** 新建缓存的权重计算器 */
+	private volatile Weigher<String, Object> weigher;
+	
+	public Weigher<String, Object> getWeigher() {
+		return this.weigher;
+	}
+	
+	public void setWeigher(Weigher<String, Object> weigher) {
+		this.weigher = weigher;
+	}
+	
+	/** 新建缓存的过期清理间隔(毫秒)，小于1表示不启动定时清理 */
+	private volatile int cleanUpInterval;
+	
+	public int getCleanUpInterval() {
+		return this.cleanUpInterval;
+	}
+	
+	public void setCleanUpInterval(int cleanUpInterval) {
+		this.cleanUpInterval = cleanUpInterval;
+	}
+	
 	@Override
 	protected Cache getMissingCache(String name) {
-		return new TimedCache(name);
+		TimedCache cache = new TimedCache(name, this.maximumSize, this.maximumWeight, this.weigher);
+		if(this.cleanUpInterval > 0) {
+			cache.startSchedule(this.cleanUpInterval);
+		}
+		return cache;
 	}
 	
 	public TimedCacheManager() {
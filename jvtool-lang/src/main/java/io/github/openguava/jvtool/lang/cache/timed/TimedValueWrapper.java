@@ -4,6 +4,7 @@ import java.util.Date;
 import java.util.concurrent.atomic.AtomicLong;
 
 import io.github.openguava.jvtool.lang.cache.ValueWrapper;
+import io.github.openguava.jvtool.lang.time.Clock;
 
 /**
  * 支持超时控制的缓存值封装
@@ -38,6 +39,11 @@ public class TimedValueWrapper<K, T> implements ValueWrapper<T> {
 		return this.ttl;
 	}
 	
+	/**
+	 * 过期时间，{@code 0} 表示永不过期
+	 */
+	protected final long expireTime;
+	
 	/**
 	 * 上次访问时间
 	 */
@@ -53,6 +59,30 @@ public class TimedValueWrapper<K, T> implements ValueWrapper<T> {
 	 */
 	protected AtomicLong accessCount = new AtomicLong();
 	
+	/**
+	 * 权重，由所属缓存的 {@link io.github.openguava.jvtool.lang.cache.Weigher} 计算
+	 */
+	int weight = 1;
+	
+	public int getWeight() {
+		return this.weight;
+	}
+	
+	/** 所在淘汰队列，仅在所属缓存的淘汰锁内访问 */
+	byte queue;
+	
+	/** 淘汰队列前驱节点 */
+	TimedValueWrapper<K, T> prev;
+	
+	/** 淘汰队列后继节点 */
+	TimedValueWrapper<K, T> next;
+	
+	/** 时间轮前驱节点 */
+	TimedValueWrapper<K, T> timerPrev;
+	
+	/** 时间轮后继节点 */
+	TimedValueWrapper<K, T> timerNext;
+	
 	/**
 	 * 初始化
 	 * @param key
@@ -69,14 +99,26 @@ public class TimedValueWrapper<K, T> implements ValueWrapper<T> {
 	 * @param ttl
 	 */
 	public TimedValueWrapper(K key, T value, long ttl) {
+		this(key, value, ttl, Clock.SYSTEM);
+	}
+	
+	/**
+	 * 初始化
+	 * @param key
+	 * @param value
+	 * @param ttl
+	 * @param clock 读取创建时间的时钟，判断过期时应使用同一时钟的时间调用 {@link #isExpired(long)}
+	 */
+	public TimedValueWrapper(K key, T value, long ttl, Clock clock) {
 		this.key = key;
 		this.value = value;
 		this.ttl = ttl;
-		this.lastAccess = System.currentTimeMillis();
+		this.lastAccess = clock.currentTimeMillis();
+		this.expireTime = ttl < 1 ? 0L : this.lastAccess + ttl;
 	}
 	
 	/**
-	 * 判断是否过期
+	 * 按系统时钟判断是否过期
 	 *
 	 * @return 是否过期
 	 */
@@ -84,8 +126,18 @@ public class TimedValueWrapper<K, T> implements ValueWrapper<T> {
 		if(this.ttl < 1) {
 			return false;
 		}
+		return this.isExpired(System.currentTimeMillis());
+	}
+	
+	/**
+	 * 判断在指定时间是否过期
+	 *
+	 * @param currentTime 当前时间
+	 * @return 是否过期
+	 */
+	public boolean isExpired(long currentTime) {
 		// 此处不考虑时间回拨
-		return (System.currentTimeMillis() - this.lastAccess) > this.ttl;
+		return this.ttl > 0 && (currentTime - this.expireTime) > 0L;
 	}
 	
 	/**
@@ -0,0 +1,212 @@
+package io.github.openguava.jvtool.lang.cache.timed;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，用于按过期时间调度缓存项<br>
+ * 每层时间轮由若干时间桶(双向循环链表)组成，添加、取消均为 O(1)；
+ * 推进时间时处理经过的时间桶，已过期项回调处理，未过期项降级到更精细的时间轮；
+ * 是否过期按 {@link TimedValueWrapper#isExpired(long)} 判断，即当前时间晚于过期时间。<br>
+ * 非线程安全，由所属缓存在淘汰锁内访问。
+ * @author openguava
+ *
+ */
+final class TimerWheel {
+
+	/** 各层时间桶数量 */
+	private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+
+	/** 各层时间桶跨度(毫秒)，约 1秒、1分钟、1小时、18小时、3天 */
+	private static final long[] SPANS = {
+			1L << 10,
+			1L << 16,
+			1L << 22,
+			1L << 26,
+			1L << 28,
+			1L << 28
+	};
+
+	/** 各层时间桶跨度对应的位移 */
+	private static final long[] SHIFT = {
+			Long.numberOfTrailingZeros(SPANS[0]),
+			Long.numberOfTrailingZeros(SPANS[1]),
+			Long.numberOfTrailingZeros(SPANS[2]),
+			Long.numberOfTrailingZeros(SPANS[3]),
+			Long.numberOfTrailingZeros(SPANS[4])
+	};
+
+	/** 时间桶，每个桶为一个哨兵节点 */
+	private final TimedValueWrapper<String, Object>[][] wheel;
+
+	/** 上次推进时间 */
+	private long time;
+
+	/**
+	 * 初始化
+	 * @param time 当前时间
+	 */
+	TimerWheel(long time) {
+		this.time = time;
+		this.wheel = newWheel(BUCKETS.length);
+		for (int i = 0; i < BUCKETS.length; i++) {
+			this.wheel[i] = newBuckets(BUCKETS[i]);
+			for (int j = 0; j < BUCKETS[i]; j++) {
+				TimedValueWrapper<String, Object> sentinel = new TimedValueWrapper<>(null, null);
+				sentinel.timerPrev = sentinel;
+				sentinel.timerNext = sentinel;
+				this.wheel[i][j] = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * 添加到时间轮
+	 * @param wrapper
+	 */
+	void schedule(TimedValueWrapper<String, Object> wrapper) {
+		TimedValueWrapper<String, Object> sentinel = this.findBucket(wrapper.expireTime);
+		link(sentinel, wrapper);
+	}
+
+	/**
+	 * 从时间轮移除，不在时间轮中时忽略
+	 * @param wrapper
+	 */
+	void deschedule(TimedValueWrapper<String, Object> wrapper) {
+		if(wrapper.timerNext != null) {
+			unlink(wrapper);
+		}
+	}
+
+	/**
+	 * 推进时间轮，处理所有已过期项
+	 * @param currentTime 当前时间
+	 * @param expirer 过期处理回调
+	 */
+	void advance(long currentTime, Consumer<TimedValueWrapper<String, Object>> expirer) {
+		long previousTime = this.time;
+		this.time = currentTime;
+		for (int i = 0; i < SHIFT.length; i++) {
+			long previousTicks = previousTime >>> SHIFT[i];
+			long currentTicks = currentTime >>> SHIFT[i];
+			long delta = currentTicks - previousTicks;
+			if(delta <= 0L) {
+				break;
+			}
+			this.expire(i, previousTicks, delta, expirer);
+		}
+	}
+
+	/**
+	 * 清空时间轮
+	 */
+	void clear() {
+		for (TimedValueWrapper<String, Object>[] buckets : this.wheel) {
+			for (TimedValueWrapper<String, Object> sentinel : buckets) {
+				TimedValueWrapper<String, Object> node = sentinel.timerNext;
+				while (node != sentinel) {
+					TimedValueWrapper<String, Object> next = node.timerNext;
+					node.timerPrev = null;
+					node.timerNext = null;
+					node = next;
+				}
+				sentinel.timerPrev = sentinel;
+				sentinel.timerNext = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * 处理指定层经过的时间桶
+	 * @param index 层
+	 * @param previousTicks 上次推进的刻度
+	 * @param delta 经过的刻度数
+	 * @param expirer 过期处理回调
+	 */
+	private void expire(int index, long previousTicks, long delta, Consumer<TimedValueWrapper<String, Object>> expirer) {
+		TimedValueWrapper<String, Object>[] buckets = this.wheel[index];
+		int mask = buckets.length - 1;
+		int steps = (int) Math.min(1L + delta, buckets.length);
+		int start = (int) (previousTicks & mask);
+		int end = start + steps;
+		for (int i = start; i < end; i++) {
+			TimedValueWrapper<String, Object> sentinel = buckets[i & mask];
+			TimedValueWrapper<String, Object> node = sentinel.timerNext;
+			sentinel.timerPrev = sentinel;
+			sentinel.timerNext = sentinel;
+			while (node != sentinel) {
+				TimedValueWrapper<String, Object> next = node.timerNext;
+				node.timerPrev = null;
+				node.timerNext = null;
+				if(node.isExpired(this.time)) {
+					expirer.accept(node);
+				} else {
+					this.schedule(node);
+				}
+				node = next;
+			}
+		}
+	}
+
+	/**
+	 * 查找过期时间对应的时间桶
+	 * @param expireTime
+	 * @return 时间桶哨兵节点
+	 */
+	private TimedValueWrapper<String, Object> findBucket(long expireTime) {
+		long duration = expireTime - this.time;
+		int length = this.wheel.length - 1;
+		for (int i = 0; i < length; i++) {
+			if(duration < SPANS[i + 1]) {
+				long ticks = expireTime >>> SHIFT[i];
+				int index = (int) (ticks & (this.wheel[i].length - 1));
+				return this.wheel[i][index];
+			}
+		}
+		return this.wheel[length][0];
+	}
+
+	/**
+	 * 创建时间轮数组
+	 * @param length 层数
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private static TimedValueWrapper<String, Object>[][] newWheel(int length) {
+		return (TimedValueWrapper<String, Object>[][]) new TimedValueWrapper<?, ?>[length][];
+	}
+
+	/**
+	 * 创建时间桶数组
+	 * @param length 时间桶数量
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private static TimedValueWrapper<String, Object>[] newBuckets(int length) {
+		return (TimedValueWrapper<String, Object>[]) new TimedValueWrapper<?, ?>[length];
+	}
+
+	/**
+	 * 添加到时间桶尾部
+	 * @param sentinel
+	 * @param wrapper
+	 */
+	private static void link(TimedValueWrapper<String, Object> sentinel, TimedValueWrapper<String, Object> wrapper) {
+		wrapper.timerPrev = sentinel.timerPrev;
+		wrapper.timerNext = sentinel;
+		sentinel.timerPrev.timerNext = wrapper;
+		sentinel.timerPrev = wrapper;
+	}
+
+	/**
+	 * 从所在时间桶移除
+	 * @param wrapper
+	 */
+	private static void unlink(TimedValueWrapper<String, Object> wrapper) {
+		TimedValueWrapper<String, Object> next = wrapper.timerNext;
+		next.timerPrev = wrapper.timerPrev;
+		wrapper.timerPrev.timerNext = next;
+		wrapper.timerPrev = null;
+		wrapper.timerNext = null;
+	}
+}
@@ -13,9 +13,15 @@ public class HttpConstants {
 	/** http状态码 200 请求已成功 */
 	public static final int HTTP_STATUSCODE_OK = 200;
 	
+	/** http状态码 206 服务器已经成功处理了部分 GET 请求 */
+	public static final int HTTP_STATUSCODE_PARTIAL_CONTENT = 206;
+	
 	/** http状态码 301 被请求的资源已永久移动到新位置 */
 	public static final int HTTP_STATUSCODE_MOVED_PERMANENTLY = 301;
 	
+	/** http状态码 304 资源未修改，客户端可使用缓存 */
+	public static final int HTTP_STATUSCODE_NOT_MODIFIED = 304;
+	
 	/** http状态码 400 语义有误，当前请求无法被服务器理解  */
 	public static final int HTTP_STATUSCODE_BAD_REQUEST = 400;
 	
@@ -28,6 +34,12 @@ public class HttpConstants {
 	/** http状态码 404 请求失败，请求所希望得到的资源未被在服务器上发现 */
 	public static final int HTTP_STATUSCODE_NOT_FOUND = 404;
 	
+	/** http状态码 412 请求头中指定的前提条件校验失败 */
+	public static final int HTTP_STATUSCODE_PRECONDITION_FAILED = 412;
+	
+	/** http状态码 416 请求的范围无效 */
+	public static final int HTTP_STATUSCODE_RANGE_NOT_SATISFIABLE = 416;
+	
 	/** http状态码 500 服务器遇到了一个未曾预料的状况，导致了它无法完成对请求的处理 */
 	public static final int HTTP_STATUSCODE_INTERNAL_SERVER_ERROR = 500;
 	
@@ -155,6 +167,22 @@ public class HttpConstants {
 	
 	public static final String HTTP_HEADER_CONTENT_RANGE = "Content-Range";
 	
+	public static final String HTTP_HEADER_RANGE = "Range";
+	
+	public static final String HTTP_HEADER_IF_RANGE = "If-Range";
+	
+	public static final String HTTP_HEADER_ETAG = "ETag";
+	
+	public static final String HTTP_HEADER_LAST_MODIFIED = "Last-Modified";
+	
+	public static final String HTTP_HEADER_IF_MATCH = "If-Match";
+	
+	public static final String HTTP_HEADER_IF_NONE_MATCH = "If-None-Match";
+	
+	public static final String HTTP_HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+	
+	public static final String HTTP_HEADER_IF_UNMODIFIED_SINCE = "If-Unmodified-Since";
+	
 	public static final String HTTP_HEADER_X_REQUESTED_WITH = "X-Requested-With";
 	
 	public static final String HTTP_HEADER_UPGRADE = "Upgrade";
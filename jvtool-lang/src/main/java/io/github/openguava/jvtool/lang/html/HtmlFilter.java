@@ -1,7 +1,6 @@
 package io.github.openguava.jvtool.lang.html;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +14,7 @@ import io.github.openguava.jvtool.lang.map.SafeConcurrentHashMap;
  * HTML过滤器，用于去除XSS(Cross Site Scripting) 漏洞隐患。
  *
  * <p>
- * 此类中的方法非线程安全
+ * 此类中的方法非线程安全，多线程共享时使用 {@link HtmlFilterPolicy}
  * </p>
  *
  * <pre>
@@ -112,40 +111,16 @@ public final class HtmlFilter {
 	 */
 	private final boolean alwaysMakeTags;
 
+	/**
+	 * compiled policy this filter was created from
+	 **/
+	private final HtmlFilterPolicy policy;
+
 	/**
 	 * Default constructor.
 	 */
 	public HtmlFilter() {
-		vAllowed = new HashMap<>();
-
-		final ArrayList<String> a_atts = new ArrayList<>();
-		a_atts.add("href");
-		a_atts.add("target");
-		vAllowed.put("a", a_atts);
-
-		final ArrayList<String> img_atts = new ArrayList<>();
-		img_atts.add("src");
-		img_atts.add("width");
-		img_atts.add("height");
-		img_atts.add("alt");
-		vAllowed.put("img", img_atts);
-
-		final ArrayList<String> no_atts = new ArrayList<>();
-		vAllowed.put("b", no_atts);
-		vAllowed.put("strong", no_atts);
-		vAllowed.put("i", no_atts);
-		vAllowed.put("em", no_atts);
-
-		vSelfClosingTags = new String[]{"img"};
-		vNeedClosingTags = new String[]{"a", "b", "strong", "i", "em"};
-		vDisallowed = new String[]{};
-		vAllowedProtocols = new String[]{"http", "mailto", "https"}; // no ftp.
-		vProtocolAtts = new String[]{"src", "href"};
-		vRemoveBlanks = new String[]{"a", "b", "strong", "i", "em"};
-		vAllowedEntities = new String[]{"amp", "gt", "lt", "quot"};
-		stripComment = true;
-		encodeQuotes = true;
-		alwaysMakeTags = true;
+		this(HtmlFilterPolicy.DEFAULT);
 	}
 
 	/**
@@ -164,29 +139,32 @@ public final class HtmlFilter {
 	 *
 	 * @param conf map containing configuration. keys match field names.
 	 */
-	@SuppressWarnings("unchecked")
 	public HtmlFilter(final Map<String, Object> conf) {
+		this(HtmlFilterPolicy.of(conf));
+	}
 
-		assert conf.containsKey("vAllowed") : "configuration requires vAllowed";
-		assert conf.containsKey("vSelfClosingTags") : "configuration requires vSelfClosingTags";
-		assert conf.containsKey("vNeedClosingTags") : "configuration requires vNeedClosingTags";
-		assert conf.containsKey("vDisallowed") : "configuration requires vDisallowed";
-		assert conf.containsKey("vAllowedProtocols") : "configuration requires vAllowedProtocols";
-		assert conf.containsKey("vProtocolAtts") : "configuration requires vProtocolAtts";
-		assert conf.containsKey("vRemoveBlanks") : "configuration requires vRemoveBlanks";
-		assert conf.containsKey("vAllowedEntities") : "configuration requires vAllowedEntities";
-
-		vAllowed = Collections.unmodifiableMap((HashMap<String, List<String>>) conf.get("vAllowed"));
-		vSelfClosingTags = (String[]) conf.get("vSelfClosingTags");
-		vNeedClosingTags = (String[]) conf.get("vNeedClosingTags");
-		vDisallowed = (String[]) conf.get("vDisallowed");
-		vAllowedProtocols = (String[]) conf.get("vAllowedProtocols");
-		vProtocolAtts = (String[]) conf.get("vProtocolAtts");
-		vRemoveBlanks = (String[]) conf.get("vRemoveBlanks");
-		vAllowedEntities = (String[]) conf.get("vAllowedEntities");
-		stripComment = conf.containsKey("stripComment") ? (Boolean) conf.get("stripComment") : true;
-		encodeQuotes = conf.containsKey("encodeQuotes") ? (Boolean) conf.get("encodeQuotes") : true;
-		alwaysMakeTags = conf.containsKey("alwaysMakeTags") ? (Boolean) conf.get("alwaysMakeTags") : true;
+	/**
+	 * Compiled policy constructor, shares the immutable configuration of the policy.
+	 *
+	 * @param policy compiled policy
+	 */
+	public HtmlFilter(final HtmlFilterPolicy policy) {
+		this.policy = policy;
+		vAllowed = policy.vAllowed;
+		vSelfClosingTags = policy.vSelfClosingTags;
+		vNeedClosingTags = policy.vNeedClosingTags;
+		vDisallowed = policy.vDisallowed;
+		vAllowedProtocols = policy.vAllowedProtocols;
+		vProtocolAtts = policy.vProtocolAtts;
+		vRemoveBlanks = policy.vRemoveBlanks;
+		vAllowedEntities = policy.vAllowedEntities;
+		stripComment = policy.stripComment;
+		encodeQuotes = policy.encodeQuotes;
+		alwaysMakeTags = policy.alwaysMakeTags;
+	}
+
+	public HtmlFilterPolicy getPolicy() {
+		return policy;
 	}
 
 	private void reset() {
@@ -223,6 +201,9 @@ public final class HtmlFilter {
 	 * @return "clean" version of input, with only valid, whitelisted html elements allowed
 	 */
 	public String filter(final String input) {
+		if (!policy.containsMarkup(input, true)) {
+			return input;
+		}
 		reset();
 		String s = input;
 
@@ -256,6 +237,9 @@ public final class HtmlFilter {
 	 * @return "clean" version of input, with only valid, whitelisted html elements allowed
 	 */
 	public String filter(final String input, boolean validateEntity) {
+		if (!policy.containsMarkup(input, validateEntity)) {
+			return input;
+		}
 		reset();
 		String s = input;
 
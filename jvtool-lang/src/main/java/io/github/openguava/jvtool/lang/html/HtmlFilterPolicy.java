@@ -0,0 +1,205 @@
+package io.github.openguava.jvtool.lang.html;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * 编译后的 {@link HtmlFilter} 过滤策略<br>
+ * 允许的标签、属性、协议等配置只构建一次，构建后不可变，可在多线程间共享；
+ * 每次过滤只创建记录标签计数的 {@link HtmlFilter}，不含标签及实体相关字符的输入直接返回原对象。
+ *
+ * <pre>
+ *     String clean = HtmlFilterPolicy.DEFAULT.filter(input);
+ * </pre>
+ * @author openguava
+ *
+ */
+public final class HtmlFilterPolicy {
+
+	/** 默认策略(与 {@link HtmlFilter#HtmlFilter()} 一致) */
+	public static final HtmlFilterPolicy DEFAULT = createDefault();
+
+	/** 允许的标签及各标签允许的属性 */
+	final Map<String, List<String>> vAllowed;
+
+	/** 必须自闭合的标签 */
+	final String[] vSelfClosingTags;
+
+	/** 必须成对出现的标签 */
+	final String[] vNeedClosingTags;
+
+	/** 禁止的标签 */
+	final String[] vDisallowed;
+
+	/** 需要校验协议的属性 */
+	final String[] vProtocolAtts;
+
+	/** 允许的协议 */
+	final String[] vAllowedProtocols;
+
+	/** 内容为空时移除的标签 */
+	final String[] vRemoveBlanks;
+
+	/** 允许的实体 */
+	final String[] vAllowedEntities;
+
+	/** 是否去除注释 */
+	final boolean stripComment;
+
+	/** 是否编码引号 */
+	final boolean encodeQuotes;
+
+	/** 是否尝试补全不平衡的尖括号 */
+	final boolean alwaysMakeTags;
+
+	private HtmlFilterPolicy(Map<String, List<String>> vAllowed, String[] vSelfClosingTags, String[] vNeedClosingTags,
+			String[] vDisallowed, String[] vProtocolAtts, String[] vAllowedProtocols, String[] vRemoveBlanks,
+			String[] vAllowedEntities, boolean stripComment, boolean encodeQuotes, boolean alwaysMakeTags) {
+		Map<String, List<String>> allowed = new HashMap<>(vAllowed.size() * 4 / 3 + 1);
+		for (Entry<String, List<String>> entry : vAllowed.entrySet()) {
+			allowed.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+		}
+		this.vAllowed = Collections.unmodifiableMap(allowed);
+		this.vSelfClosingTags = vSelfClosingTags.clone();
+		this.vNeedClosingTags = vNeedClosingTags.clone();
+		this.vDisallowed = vDisallowed.clone();
+		this.vProtocolAtts = vProtocolAtts.clone();
+		this.vAllowedProtocols = vAllowedProtocols.clone();
+		this.vRemoveBlanks = vRemoveBlanks.clone();
+		this.vAllowedEntities = vAllowedEntities.clone();
+		this.stripComment = stripComment;
+		this.encodeQuotes = encodeQuotes;
+		this.alwaysMakeTags = alwaysMakeTags;
+	}
+
+	/**
+	 * 按配置编译过滤策略
+	 * @param conf 配置，键与 {@link HtmlFilter#HtmlFilter(Map)} 一致
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static HtmlFilterPolicy of(final Map<String, Object> conf) {
+		assert conf.containsKey("vAllowed") : "configuration requires vAllowed";
+		assert conf.containsKey("vSelfClosingTags") : "configuration requires vSelfClosingTags";
+		assert conf.containsKey("vNeedClosingTags") : "configuration requires vNeedClosingTags";
+		assert conf.containsKey("vDisallowed") : "configuration requires vDisallowed";
+		assert conf.containsKey("vAllowedProtocols") : "configuration requires vAllowedProtocols";
+		assert conf.containsKey("vProtocolAtts") : "configuration requires vProtocolAtts";
+		assert conf.containsKey("vRemoveBlanks") : "configuration requires vRemoveBlanks";
+		assert conf.containsKey("vAllowedEntities") : "configuration requires vAllowedEntities";
+
+		return new HtmlFilterPolicy(
+				(Map<String, List<String>>) conf.get("vAllowed"),
+				(String[]) conf.get("vSelfClosingTags"),
+				(String[]) conf.get("vNeedClosingTags"),
+				(String[]) conf.get("vDisallowed"),
+				(String[]) conf.get("vProtocolAtts"),
+				(String[]) conf.get("vAllowedProtocols"),
+				(String[]) conf.get("vRemoveBlanks"),
+				(String[]) conf.get("vAllowedEntities"),
+				conf.containsKey("stripComment") ? (Boolean) conf.get("stripComment") : true,
+				conf.containsKey("encodeQuotes") ? (Boolean) conf.get("encodeQuotes") : true,
+				conf.containsKey("alwaysMakeTags") ? (Boolean) conf.get("alwaysMakeTags") : true);
+	}
+
+	/**
+	 * 默认策略
+	 * @return
+	 */
+	private static HtmlFilterPolicy createDefault() {
+		final Map<String, List<String>> vAllowed = new HashMap<>();
+
+		final ArrayList<String> a_atts = new ArrayList<>();
+		a_atts.add("href");
+		a_atts.add("target");
+		vAllowed.put("a", a_atts);
+
+		final ArrayList<String> img_atts = new ArrayList<>();
+		img_atts.add("src");
+		img_atts.add("width");
+		img_atts.add("height");
+		img_atts.add("alt");
+		vAllowed.put("img", img_atts);
+
+		final ArrayList<String> no_atts = new ArrayList<>();
+		vAllowed.put("b", no_atts);
+		vAllowed.put("strong", no_atts);
+		vAllowed.put("i", no_atts);
+		vAllowed.put("em", no_atts);
+
+		return new HtmlFilterPolicy(vAllowed,
+				new String[]{"img"},
+				new String[]{"a", "b", "strong", "i", "em"},
+				new String[]{},
+				new String[]{"src", "href"},
+				new String[]{"http", "mailto", "https"}, // no ftp.
+				new String[]{"a", "b", "strong", "i", "em"},
+				new String[]{"amp", "gt", "lt", "quot"},
+				true, true, true);
+	}
+
+	/**
+	 * 过滤 html
+	 * @param input 用户输入
+	 * @return 过滤后的内容，无需过滤时返回原对象
+	 */
+	public String filter(final String input) {
+		if(!this.containsMarkup(input, true)) {
+			return input;
+		}
+		return new HtmlFilter(this).filter(input);
+	}
+
+	/**
+	 * 过滤 html
+	 * @param input 用户输入
+	 * @param validateEntity 是否校验实体
+	 * @return 过滤后的内容，无需过滤时返回原对象
+	 */
+	public String filter(final String input, boolean validateEntity) {
+		if(!this.containsMarkup(input, validateEntity)) {
+			return input;
+		}
+		return new HtmlFilter(this).filter(input, validateEntity);
+	}
+
+	/**
+	 * 是否包含会被过滤改变的字符<br>
+	 * 标签处理只作用于 '&lt;'、'&gt;'，实体校验只作用于 '&amp;'，引号编码只作用于 '"'，均不存在时过滤结果与输入相同。
+	 * @param input 用户输入
+	 * @param validateEntity 是否校验实体
+	 * @return
+	 */
+	public boolean containsMarkup(final String input, boolean validateEntity) {
+		if(input == null) {
+			return false;
+		}
+		boolean quotes = validateEntity && this.encodeQuotes;
+		for (int i = 0, len = input.length(); i < len; i++) {
+			char c = input.charAt(i);
+			if(c == '<' || c == '>') {
+				return true;
+			}
+			if(validateEntity && (c == '&' || (quotes && c == '"'))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isAlwaysMakeTags() {
+		return this.alwaysMakeTags;
+	}
+
+	public boolean isStripComments() {
+		return this.stripComment;
+	}
+
+	public boolean isEncodeQuotes() {
+		return this.encodeQuotes;
+	}
+}
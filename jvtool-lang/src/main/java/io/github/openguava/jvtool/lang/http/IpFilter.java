@@ -0,0 +1,481 @@
+package io.github.openguava.jvtool.lang.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.openguava.jvtool.lang.util.StringUtils;
+
+/**
+ * 预编译的 IP 过滤器<br>
+ * 由过滤串一次性编译，多个规则以 ';' 分隔，支持：
+ * <ul>
+ * <li>单个地址，如 {@code 10.10.10.1}、{@code 2001:db8::1}</li>
+ * <li>后缀通配，如 {@code 10.10.*.*}、{@code *.*.*.*}、{@code *}</li>
+ * <li>地址段，如 {@code 10.10.10.1-10.10.10.99}、{@code 2001:db8::1-2001:db8::ff}</li>
+ * <li>CIDR，如 {@code 10.10.0.0/16}、{@code 2001:db8::/32}</li>
+ * </ul>
+ * 所有规则转换为按起始地址排序并合并后的区间，匹配时二分查找；
+ * IPv4 地址各段不接受前导零，解析不产生任何对象，IPv4 映射的 IPv6 地址(::ffff:a.b.c.d)同时按 IPv4 规则匹配。无法识别的规则被忽略。<br>
+ * 编译后不可变，可在多线程间共享。
+ * @author openguava
+ *
+ */
+public final class IpFilter {
+
+	/** 规则分隔符 */
+	private static final char SEPARATOR = ';';
+
+	/** 无效地址 */
+	private static final long INVALID = -1L;
+
+	/** 解析 IPv6 高 64 位 */
+	private static final int HIGH = 0;
+
+	/** 解析 IPv6 低 64 位 */
+	private static final int LOW = 1;
+
+	/** 校验 IPv6 地址，有效返回 1 */
+	private static final int VALID = 2;
+
+	/** 空过滤器 */
+	public static final IpFilter EMPTY = new IpFilter(new long[0], new long[0], new long[4][0]);
+
+	/** IPv4 区间起始 */
+	private final long[] v4Starts;
+
+	/** IPv4 区间结束 */
+	private final long[] v4Ends;
+
+	/** IPv6 区间，依次为起始高位、起始低位、结束高位、结束低位 */
+	private final long[][] v6Ranges;
+
+	private IpFilter(long[] v4Starts, long[] v4Ends, long[][] v6Ranges) {
+		this.v4Starts = v4Starts;
+		this.v4Ends = v4Ends;
+		this.v6Ranges = v6Ranges;
+	}
+
+	/**
+	 * 编译过滤串
+	 * @param filter 过滤串，多个规则以 ';' 分隔
+	 * @return
+	 */
+	public static IpFilter compile(String filter) {
+		if(StringUtils.isBlank(filter)) {
+			return EMPTY;
+		}
+		List<long[]> v4 = new ArrayList<>();
+		List<long[]> v6 = new ArrayList<>();
+		int start = 0;
+		int length = filter.length();
+		while (start <= length) {
+			int end = filter.indexOf(SEPARATOR, start);
+			if(end < 0) {
+				end = length;
+			}
+			String rule = filter.substring(start, end).trim();
+			if(!rule.isEmpty()) {
+				parseRule(rule, v4, v6);
+			}
+			start = end + 1;
+		}
+		if(v4.isEmpty() && v6.isEmpty()) {
+			return EMPTY;
+		}
+		// IPv4 区间排序合并
+		v4.sort((a, b) -> Long.compare(a[0], b[0]));
+		List<long[]> mergedV4 = new ArrayList<>(v4.size());
+		for (long[] range : v4) {
+			long[] last = mergedV4.isEmpty() ? null : mergedV4.get(mergedV4.size() - 1);
+			if(last != null && range[0] <= last[1] + 1L) {
+				last[1] = Math.max(last[1], range[1]);
+			} else {
+				mergedV4.add(range);
+			}
+		}
+		long[] v4Starts = new long[mergedV4.size()];
+		long[] v4Ends = new long[mergedV4.size()];
+		for (int i = 0; i < v4Starts.length; i++) {
+			v4Starts[i] = mergedV4.get(i)[0];
+			v4Ends[i] = mergedV4.get(i)[1];
+		}
+		// IPv6 区间排序合并
+		v6.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+		List<long[]> mergedV6 = new ArrayList<>(v6.size());
+		for (long[] range : v6) {
+			long[] last = mergedV6.isEmpty() ? null : mergedV6.get(mergedV6.size() - 1);
+			if(last != null && compare(range[0], range[1], last[2], last[3]) <= 0) {
+				if(compare(range[2], range[3], last[2], last[3]) > 0) {
+					last[2] = range[2];
+					last[3] = range[3];
+				}
+			} else {
+				mergedV6.add(range);
+			}
+		}
+		long[][] v6Ranges = new long[4][mergedV6.size()];
+		for (int i = 0; i < mergedV6.size(); i++) {
+			long[] range = mergedV6.get(i);
+			for (int j = 0; j < 4; j++) {
+				v6Ranges[j][i] = range[j];
+			}
+		}
+		return new IpFilter(v4Starts, v4Ends, v6Ranges);
+	}
+
+	/**
+	 * 是否没有任何有效规则
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return this.v4Starts.length == 0 && this.v6Ranges[0].length == 0;
+	}
+
+	/**
+	 * 校验 IP 是否匹配任一规则
+	 * @param ip IPv4 或 IPv6 地址
+	 * @return
+	 */
+	public boolean matches(String ip) {
+		if(ip == null || ip.isEmpty()) {
+			return false;
+		}
+		long v4 = parseIpv4(ip, 0, ip.length());
+		if(v4 != INVALID) {
+			return this.matchesIpv4(v4);
+		}
+		if(ip.indexOf(':') < 0 || parseIpv6(ip, 0, ip.length(), VALID) != 1L) {
+			return false;
+		}
+		long high = parseIpv6(ip, 0, ip.length(), HIGH);
+		long low = parseIpv6(ip, 0, ip.length(), LOW);
+		if(high == 0L && (low >>> 32) == 0xFFFFL && this.matchesIpv4(low & 0xFFFFFFFFL)) {
+			// IPv4 映射地址
+			return true;
+		}
+		return this.matchesIpv6(high, low);
+	}
+
+	/**
+	 * 校验 IPv4 地址
+	 * @param ip 无符号 32 位地址
+	 * @return
+	 */
+	private boolean matchesIpv4(long ip) {
+		int index = Arrays.binarySearch(this.v4Starts, ip);
+		if(index >= 0) {
+			return true;
+		}
+		// 起始地址不大于 ip 的最后一个区间
+		index = -index - 2;
+		return index >= 0 && ip <= this.v4Ends[index];
+	}
+
+	/**
+	 * 校验 IPv6 地址
+	 * @param high 高 64 位
+	 * @param low 低 64 位
+	 * @return
+	 */
+	private boolean matchesIpv6(long high, long low) {
+		long[] startHighs = this.v6Ranges[0];
+		long[] startLows = this.v6Ranges[1];
+		int lo = 0;
+		int hi = startHighs.length - 1;
+		int index = -1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if(compare(startHighs[mid], startLows[mid], high, low) <= 0) {
+				index = mid;
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return index >= 0 && compare(high, low, this.v6Ranges[2][index], this.v6Ranges[3][index]) <= 0;
+	}
+
+	/**
+	 * 解析单条规则
+	 * @param rule
+	 * @param v4 IPv4 区间
+	 * @param v6 IPv6 区间
+	 */
+	private static void parseRule(String rule, List<long[]> v4, List<long[]> v6) {
+		if(rule.indexOf('*') >= 0) {
+			long[] range = parseIpv4Wildcard(rule);
+			if(range != null) {
+				v4.add(range);
+			}
+			return;
+		}
+		int slash = rule.indexOf('/');
+		if(slash > 0) {
+			parseCidr(rule, slash, v4, v6);
+			return;
+		}
+		int dash = rule.indexOf('-');
+		if(dash > 0) {
+			String from = rule.substring(0, dash).trim();
+			String to = rule.substring(dash + 1).trim();
+			long start = parseIpv4(from, 0, from.length());
+			long end = parseIpv4(to, 0, to.length());
+			if(start != INVALID && end != INVALID) {
+				v4.add(new long[] { Math.min(start, end), Math.max(start, end) });
+				return;
+			}
+			if(isIpv6(from) && isIpv6(to)) {
+				long[] a = { parseIpv6(from, 0, from.length(), HIGH), parseIpv6(from, 0, from.length(), LOW) };
+				long[] b = { parseIpv6(to, 0, to.length(), HIGH), parseIpv6(to, 0, to.length(), LOW) };
+				if(compare(a[0], a[1], b[0], b[1]) > 0) {
+					long[] t = a;
+					a = b;
+					b = t;
+				}
+				v6.add(new long[] { a[0], a[1], b[0], b[1] });
+			}
+			return;
+		}
+		long ip = parseIpv4(rule, 0, rule.length());
+		if(ip != INVALID) {
+			v4.add(new long[] { ip, ip });
+		} else if(isIpv6(rule)) {
+			long high = parseIpv6(rule, 0, rule.length(), HIGH);
+			long low = parseIpv6(rule, 0, rule.length(), LOW);
+			v6.add(new long[] { high, low, high, low });
+		}
+	}
+
+	/**
+	 * 解析 IPv4 后缀通配规则，如 10.10.*.*
+	 * @param rule
+	 * @return 无效返回 null
+	 */
+	private static long[] parseIpv4Wildcard(String rule) {
+		if("*".equals(rule)) {
+			return new long[] { 0L, 0xFFFFFFFFL };
+		}
+		String[] parts = rule.split("\\.");
+		if(parts.length != 4) {
+			return null;
+		}
+		long prefix = 0L;
+		int fixed = 0;
+		for (String part : parts) {
+			if("*".equals(part)) {
+				break;
+			}
+			long value = parseIpv4Part(part, 0, part.length());
+			if(value == INVALID) {
+				return null;
+			}
+			prefix = (prefix << 8) | value;
+			fixed++;
+		}
+		for (int i = fixed; i < 4; i++) {
+			if(!"*".equals(parts[i])) {
+				// 仅支持后缀通配
+				return null;
+			}
+		}
+		int hostBits = (4 - fixed) * 8;
+		long start = prefix << hostBits;
+		return new long[] { start, start | ((1L << hostBits) - 1L) };
+	}
+
+	/**
+	 * 解析 CIDR 规则
+	 * @param rule
+	 * @param slash '/' 所在位置
+	 * @param v4 IPv4 区间
+	 * @param v6 IPv6 区间
+	 */
+	private static void parseCidr(String rule, int slash, List<long[]> v4, List<long[]> v6) {
+		String address = rule.substring(0, slash).trim();
+		int bits;
+		try {
+			bits = Integer.parseInt(rule.substring(slash + 1).trim());
+		} catch (NumberFormatException e) {
+			return;
+		}
+		long ip = parseIpv4(address, 0, address.length());
+		if(ip != INVALID) {
+			if(bits < 0 || bits > 32) {
+				return;
+			}
+			long mask = bits == 0 ? 0L : (0xFFFFFFFFL << (32 - bits)) & 0xFFFFFFFFL;
+			long start = ip & mask;
+			v4.add(new long[] { start, start | (~mask & 0xFFFFFFFFL) });
+			return;
+		}
+		if(!isIpv6(address) || bits < 0 || bits > 128) {
+			return;
+		}
+		long high = parseIpv6(address, 0, address.length(), HIGH);
+		long low = parseIpv6(address, 0, address.length(), LOW);
+		long highMask = bits >= 64 ? -1L : (bits == 0 ? 0L : -1L << (64 - bits));
+		long lowMask = bits <= 64 ? 0L : (bits == 128 ? -1L : -1L << (128 - bits));
+		v6.add(new long[] { high & highMask, low & lowMask, high | ~highMask, low | ~lowMask });
+	}
+
+	/**
+	 * 是否为有效的 IPv6 地址
+	 * @param ip
+	 * @return
+	 */
+	private static boolean isIpv6(String ip) {
+		return ip.indexOf(':') >= 0 && parseIpv6(ip, 0, ip.length(), VALID) == 1L;
+	}
+
+	/**
+	 * 解析 IPv4 地址，不产生任何对象
+	 * @param s
+	 * @param from 起始位置
+	 * @param to 结束位置(不含)
+	 * @return 无符号 32 位地址，无效返回 -1
+	 */
+	public static long parseIpv4(CharSequence s, int from, int to) {
+		long value = 0L;
+		int parts = 0;
+		int start = from;
+		for (int i = from; i <= to; i++) {
+			if(i == to || s.charAt(i) == '.') {
+				long part = parseIpv4Part(s, start, i);
+				if(part == INVALID || ++parts > 4) {
+					return INVALID;
+				}
+				value = (value << 8) | part;
+				start = i + 1;
+			}
+		}
+		return parts == 4 ? value : INVALID;
+	}
+
+	/**
+	 * 解析 IPv4 地址的一段
+	 * @param s
+	 * @param from
+	 * @param to
+	 * @return 0 ~ 255，无效返回 -1
+	 */
+	private static long parseIpv4Part(CharSequence s, int from, int to) {
+		int length = to - from;
+		if(length < 1 || length > 3) {
+			return INVALID;
+		}
+		if(length > 1 && s.charAt(from) == '0') {
+			// 与原实现一致，不接受前导零
+			return INVALID;
+		}
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			char c = s.charAt(i);
+			if(c < '0' || c > '9') {
+				return INVALID;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value > 255 ? INVALID : value;
+	}
+
+	/**
+	 * 解析 IPv6 地址，支持 '::' 压缩及末尾内嵌 IPv4，不产生任何对象
+	 * @param s
+	 * @param from 起始位置
+	 * @param to 结束位置(不含)
+	 * @param mode {@link #HIGH} 返回高 64 位，{@link #LOW} 返回低 64 位，{@link #VALID} 有效返回 1 否则返回 0
+	 * @return
+	 */
+	private static long parseIpv6(CharSequence s, int from, int to, int mode) {
+		// '::' 之前的分组按位置写入，之后的分组移位累加(右对齐)
+		long headHigh = 0L, headLow = 0L, tailHigh = 0L, tailLow = 0L;
+		int headGroups = 0, tailGroups = 0;
+		boolean compressed = false;
+		int i = from;
+		if(to - from >= 2 && s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+			compressed = true;
+			i += 2;
+		} else if(to > from && s.charAt(i) == ':') {
+			return mode == VALID ? 0L : INVALID;
+		}
+		boolean valid = true;
+		while (i < to && valid) {
+			int start = i;
+			int group = 0;
+			while (i < to && Character.digit(s.charAt(i), 16) >= 0 && i - start < 4) {
+				group = (group << 4) | Character.digit(s.charAt(i), 16);
+				i++;
+			}
+			int groupCount = 1;
+			if(i < to && s.charAt(i) == '.') {
+				// 内嵌 IPv4
+				long v4 = parseIpv4(s, start, to);
+				if(v4 == INVALID) {
+					valid = false;
+					break;
+				}
+				i = to;
+				groupCount = 2;
+				group = (int) v4;
+			} else if(i == start || (i < to && s.charAt(i) != ':')) {
+				valid = false;
+				break;
+			}
+			long value = groupCount == 2 ? group & 0xFFFFFFFFL : group;
+			int bits = groupCount * 16;
+			if(compressed) {
+				tailHigh = (tailHigh << bits) | (tailLow >>> (64 - bits));
+				tailLow = (tailLow << bits) | value;
+				tailGroups += groupCount;
+			} else {
+				for (int g = groupCount - 1; g >= 0; g--) {
+					int position = headGroups++;
+					long part = (value >>> (g * 16)) & 0xFFFFL;
+					if(position < 4) {
+						headHigh |= part << ((3 - position) * 16);
+					} else if(position < 8) {
+						headLow |= part << ((7 - position) * 16);
+					}
+				}
+			}
+			if(i < to) {
+				// 跳过 ':'
+				i++;
+				if(i < to && s.charAt(i) == ':') {
+					if(compressed) {
+						valid = false;
+						break;
+					}
+					compressed = true;
+					i++;
+				} else if(i == to) {
+					// 以单个 ':' 结尾
+					valid = false;
+				}
+			}
+		}
+		int groups = headGroups + tailGroups;
+		valid = valid && (compressed ? groups < 8 : groups == 8);
+		if(mode == VALID) {
+			return valid ? 1L : 0L;
+		}
+		if(!valid) {
+			return INVALID;
+		}
+		return mode == HIGH ? headHigh | tailHigh : headLow | tailLow;
+	}
+
+	/**
+	 * 按无符号比较 128 位地址
+	 * @param aHigh
+	 * @param aLow
+	 * @param bHigh
+	 * @param bLow
+	 * @return
+	 */
+	private static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+		int result = Long.compareUnsigned(aHigh, bHigh);
+		return result != 0 ? result : Long.compareUnsigned(aLow, bLow);
+	}
+}
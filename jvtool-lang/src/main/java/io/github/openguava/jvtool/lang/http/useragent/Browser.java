@@ -1,6 +1,7 @@
 package io.github.openguava.jvtool.lang.http.useragent;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -445,12 +446,16 @@ public enum Browser {
         return StringUtils.containsAny(agentStringLowerCase, aliases);
     }
 
-    private Browser checkUserAgentLowercase(String agentLowercaseString) {
-        if (this.isInUserAgentLowercaseString(agentLowercaseString)) {
+    /*
+     * Same as checking the aliases and exclude list of every browser with StringUtils.containsAny,
+     * but uses the keywords found by a single scan of the user-agent string.
+     */
+    private Browser checkUserAgentLowercase(BitSet keywordMatches) {
+        if (keywordMatches.get(this.ordinal() << 1)) {
 
             if (this.children.size() > 0) {
                 for (Browser childBrowser : this.children) {
-                    Browser match = childBrowser.checkUserAgentLowercase(agentLowercaseString);
+                    Browser match = childBrowser.checkUserAgentLowercase(keywordMatches);
                     if (match != null) {
                         return match;
                     }
@@ -458,7 +463,7 @@ public enum Browser {
             }
 
             // if children didn't match we continue checking the current to prevent false positives
-            if (!StringUtils.containsAny(agentLowercaseString, excludeList)) {
+            if (!keywordMatches.get((this.ordinal() << 1) + 1)) {
                 return this;
             }
 
@@ -509,8 +514,9 @@ public enum Browser {
     }
 
     private static Browser parseUserAgentLowercaseString(String agentLowercaseString, List<Browser> browsers) {
+        BitSet keywordMatches = KeywordMatcherHolder.MATCHER.match(agentLowercaseString);
         for (Browser browser : browsers) {
-            Browser match = browser.checkUserAgentLowercase(agentLowercaseString);
+            Browser match = browser.checkUserAgentLowercase(keywordMatches);
             if (match != null) {
                 return match; // either current operatingSystem or a child object
             }
@@ -518,6 +524,25 @@ public enum Browser {
         return Browser.UNKNOWN;
     }
 
+	/*
+	 * Aho-Corasick automaton over the aliases (group 2 * ordinal) and exclude list (group 2 * ordinal + 1)
+	 * of all browsers. Built on first use, after all enum constants are initialized.
+	 */
+	private static final class KeywordMatcherHolder {
+
+		static final KeywordMatcher MATCHER;
+
+		static {
+			Browser[] browsers = Browser.values();
+			String[][] groups = new String[browsers.length << 1][];
+			for (Browser browser : browsers) {
+				groups[browser.ordinal() << 1] = browser.aliases;
+				groups[(browser.ordinal() << 1) + 1] = browser.excludeList;
+			}
+			MATCHER = new KeywordMatcher(groups);
+		}
+	}
+
 	/**
 	 * Returns the enum constant of this type with the specified id.
 	 * Throws IllegalArgumentException if the value does not exist.
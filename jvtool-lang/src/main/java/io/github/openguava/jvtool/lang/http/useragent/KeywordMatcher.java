@@ -0,0 +1,169 @@
+package io.github.openguava.jvtool.lang.http.useragent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over groups of keywords.
+ * A single scan of the text reports every group with at least one keyword contained in the text,
+ * which is the same as calling {@code StringUtils.containsAny(text, group)} for each group.
+ * The automaton is compiled to a transition table over the characters used by the keywords,
+ * so each character of the text costs one table lookup. Instances are immutable and thread-safe.
+ */
+final class KeywordMatcher {
+
+	private static final int[] EMPTY = new int[0];
+
+	/** characters used by the keywords, sorted; character class is index + 1, class 0 is any other character */
+	private final char[] alphabet;
+
+	/** character class of ASCII characters */
+	private final int[] asciiClasses;
+
+	/** number of character classes */
+	private final int width;
+
+	/** next state by state * width + character class */
+	private final int[] transitions;
+
+	/** number of groups */
+	private final int groupCount;
+
+	/** groups having a keyword that ends at the state, including those ending at its failure states */
+	private final int[][] outputs;
+
+	/**
+	 * Builds the automaton.
+	 * @param groups keyword groups, indexed by group id; a null group never matches
+	 */
+	KeywordMatcher(String[][] groups) {
+		this.groupCount = groups.length;
+		TreeSet<Character> chars = new TreeSet<Character>();
+		for (String[] keywords : groups) {
+			if (keywords != null) {
+				for (String keyword : keywords) {
+					for (int i = 0; i < keyword.length(); i++) {
+						chars.add(keyword.charAt(i));
+					}
+				}
+			}
+		}
+		this.alphabet = new char[chars.size()];
+		int index = 0;
+		for (Character c : chars) {
+			this.alphabet[index++] = c;
+		}
+		this.asciiClasses = new int[128];
+		for (int i = 0; i < this.alphabet.length && this.alphabet[i] < 128; i++) {
+			this.asciiClasses[this.alphabet[i]] = i + 1;
+		}
+		this.width = this.alphabet.length + 1;
+
+		// trie of all keywords
+		List<Map<Integer, Integer>> trie = new ArrayList<Map<Integer, Integer>>();
+		List<int[]> ends = new ArrayList<int[]>();
+		trie.add(new TreeMap<Integer, Integer>());
+		ends.add(EMPTY);
+		for (int group = 0; group < groups.length; group++) {
+			if (groups[group] == null) {
+				continue;
+			}
+			for (String keyword : groups[group]) {
+				int state = 0;
+				for (int i = 0; i < keyword.length(); i++) {
+					int charClass = this.charClass(keyword.charAt(i));
+					Integer next = trie.get(state).get(charClass);
+					if (next == null) {
+						next = trie.size();
+						trie.add(new TreeMap<Integer, Integer>());
+						ends.add(EMPTY);
+						trie.get(state).put(charClass, next);
+					}
+					state = next;
+				}
+				ends.set(state, union(ends.get(state), new int[] { group }));
+			}
+		}
+
+		// breadth first, so the failure state of a node is always complete before the node itself
+		int size = trie.size();
+		this.transitions = new int[size * this.width];
+		this.outputs = new int[size][];
+		int[] failures = new int[size];
+		int[] queue = new int[size];
+		int head = 0;
+		int tail = 0;
+		this.outputs[0] = ends.get(0);
+		for (Map.Entry<Integer, Integer> edge : trie.get(0).entrySet()) {
+			int child = edge.getValue();
+			this.transitions[edge.getKey()] = child;
+			this.outputs[child] = union(ends.get(child), this.outputs[0]);
+			queue[tail++] = child;
+		}
+		while (head < tail) {
+			int state = queue[head++];
+			int base = state * this.width;
+			int failureBase = failures[state] * this.width;
+			System.arraycopy(this.transitions, failureBase, this.transitions, base, this.width);
+			for (Map.Entry<Integer, Integer> edge : trie.get(state).entrySet()) {
+				int child = edge.getValue();
+				failures[child] = this.transitions[failureBase + edge.getKey()];
+				this.transitions[base + edge.getKey()] = child;
+				this.outputs[child] = union(ends.get(child), this.outputs[failures[child]]);
+				queue[tail++] = child;
+			}
+		}
+	}
+
+	/**
+	 * Scans the text once and returns the ids of all groups found in it.
+	 * @param text text to scan, may be null
+	 * @return matched group ids
+	 */
+	BitSet match(String text) {
+		BitSet matches = new BitSet(this.groupCount);
+		if (text == null || text.isEmpty()) {
+			return matches;
+		}
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			state = this.transitions[state * this.width + this.charClass(text.charAt(i))];
+			int[] groups = this.outputs[state];
+			for (int j = 0; j < groups.length; j++) {
+				matches.set(groups[j]);
+			}
+		}
+		return matches;
+	}
+
+	private int charClass(char c) {
+		if (c < 128) {
+			return this.asciiClasses[c];
+		}
+		int index = Arrays.binarySearch(this.alphabet, c);
+		return index < 0 ? 0 : index + 1;
+	}
+
+	private static int[] union(int[] a, int[] b) {
+		if (b.length == 0) {
+			return a;
+		}
+		if (a.length == 0) {
+			return b;
+		}
+		int[] result = Arrays.copyOf(a, a.length + b.length);
+		int size = a.length;
+		for (int value : b) {
+			if (Arrays.binarySearch(result, 0, size, value) < 0) {
+				result[size++] = value;
+				Arrays.sort(result, 0, size);
+			}
+		}
+		return size == result.length ? result : Arrays.copyOf(result, size);
+	}
+}
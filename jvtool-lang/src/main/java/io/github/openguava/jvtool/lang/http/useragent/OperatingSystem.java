@@ -1,6 +1,7 @@
 package io.github.openguava.jvtool.lang.http.useragent;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -304,25 +305,29 @@ public enum OperatingSystem {
     /**
      * Checks if the given user-agent does not contain one of the tokens which should not match.
      * In most cases there are no excluding tokens, so the impact should be small.
-     * @param agentLowerCaseString Lower case version of the user-agent string
+     * @param keywordMatches Keyword groups found in the lower case version of the user-agent string
      * @return true or false
      */
-    private boolean containsExcludeTokenLowercase(final String agentLowerCaseString) {
-        return StringUtils.containsAny(agentLowerCaseString, excludeList);
+    private boolean containsExcludeTokenLowercase(final BitSet keywordMatches) {
+        return keywordMatches.get((this.ordinal() << 1) + 1);
     }
 		
-    private OperatingSystem checkUserAgentLowercase(String agentStringLowercase) {
-        if (this.isInUserAgentStringLowercase(agentStringLowercase)) {
+    /*
+     * Same as checking the aliases and exclude list of every operating system with StringUtils.containsAny,
+     * but uses the keywords found by a single scan of the user-agent string.
+     */
+    private OperatingSystem checkUserAgentLowercase(BitSet keywordMatches) {
+        if (keywordMatches.get(this.ordinal() << 1)) {
             if (this.children.size() > 0) {
                 for (OperatingSystem childOperatingSystem : this.children) {
-                    OperatingSystem match = childOperatingSystem.checkUserAgentLowercase(agentStringLowercase);
+                    OperatingSystem match = childOperatingSystem.checkUserAgentLowercase(keywordMatches);
                     if (match != null) {
                         return match;
                     }
                 }
             }
             // if children didn't match we continue checking the current to prevent false positives
-            if (!this.containsExcludeTokenLowercase(agentStringLowercase)) {
+            if (!this.containsExcludeTokenLowercase(keywordMatches)) {
                 return this;
             }
 
@@ -367,9 +372,10 @@ public enum OperatingSystem {
 
     private static OperatingSystem parseUserAgentLowercaseString(final String agentLowercaseString,
         List<OperatingSystem> operatingSystems) {
+        BitSet keywordMatches = KeywordMatcherHolder.MATCHER.match(agentLowercaseString);
         for (OperatingSystem operatingSystem : operatingSystems)
         {
-            OperatingSystem match = operatingSystem.checkUserAgentLowercase(agentLowercaseString);
+            OperatingSystem match = operatingSystem.checkUserAgentLowercase(keywordMatches);
             if (match != null) {
                 return match; // either current operatingSystem or a child object
             }
@@ -377,6 +383,25 @@ public enum OperatingSystem {
         return OperatingSystem.UNKNOWN;
     }
 		
+	/*
+	 * Aho-Corasick automaton over the aliases (group 2 * ordinal) and exclude list (group 2 * ordinal + 1)
+	 * of all operating systems. Built on first use, after all enum constants are initialized.
+	 */
+	private static final class KeywordMatcherHolder {
+
+		static final KeywordMatcher MATCHER;
+
+		static {
+			OperatingSystem[] operatingSystems = OperatingSystem.values();
+			String[][] groups = new String[operatingSystems.length << 1][];
+			for (OperatingSystem operatingSystem : operatingSystems) {
+				groups[operatingSystem.ordinal() << 1] = operatingSystem.aliases;
+				groups[(operatingSystem.ordinal() << 1) + 1] = operatingSystem.excludeList;
+			}
+			MATCHER = new KeywordMatcher(groups);
+		}
+	}
+
 	/**
 	 * Returns the enum constant of this type with the specified id.
 	 * Throws IllegalArgumentException if the value does not exist.
@@ -2,6 +2,8 @@ package io.github.openguava.jvtool.lang.http.useragent;
 
 import java.io.Serializable;
 
+import io.github.openguava.jvtool.lang.cache.timed.TimedCache;
+
 /**
  * Container class for user-agent information with operating system and browser details. 
  * Can decode user-agent strings.
@@ -32,6 +34,16 @@ public class UserAgent implements Serializable
 {
 	
 	private static final long serialVersionUID = 7025462762784240212L;
+	
+	/** Maximum number of distinct user-agent strings whose parse result is kept */
+	private static final int PARSE_CACHE_SIZE = 1024;
+	
+	/** Longer user-agent strings are parsed every time, so odd clients can not flood the cache */
+	private static final int PARSE_CACHE_MAX_LENGTH = 512;
+	
+	/** Parse results by user-agent string, real traffic only has a small set of distinct values */
+	private static final TimedCache PARSE_CACHE = new TimedCache(UserAgent.class.getSimpleName(), PARSE_CACHE_SIZE);
+	
 	private OperatingSystem operatingSystem;
 	private Browser browser;
 	private int id;
@@ -58,6 +70,25 @@ public class UserAgent implements Serializable
 	
     public UserAgent(String userAgentString)
     {
+        UserAgent parsed = parse(userAgentString);
+        this.operatingSystem = parsed.operatingSystem;
+        this.browser = parsed.browser;
+        this.id = parsed.id;
+        this.userAgentString = userAgentString;
+    }
+
+    /*
+     * Returns the cached result for the user-agent string, parsing it on a miss.
+     */
+    private static UserAgent parse(String userAgentString)
+    {
+        boolean cacheable = userAgentString != null && userAgentString.length() <= PARSE_CACHE_MAX_LENGTH;
+        if (cacheable) {
+            Object cached = PARSE_CACHE.get(userAgentString);
+            if (cached != null)
+                return (UserAgent) cached;
+        }
+
         String userAgentLowercaseString = userAgentString == null ? null : userAgentString.toLowerCase();
         Browser browser = Browser.parseUserAgentLowercaseString(userAgentLowercaseString);
 
@@ -67,14 +98,15 @@ public class UserAgent implements Serializable
         if (browser != Browser.BOT)
             operatingSystem = OperatingSystem.parseUserAgentLowercaseString(userAgentLowercaseString);
 
-        this.operatingSystem = operatingSystem;
-        this.browser = browser;
-        this.id = ((operatingSystem.getId() << 16) + browser.getId());
-        this.userAgentString = userAgentString;
+        UserAgent parsed = new UserAgent(operatingSystem, browser);
+        if (cacheable)
+            PARSE_CACHE.put(userAgentString, parsed);
+        return parsed;
     }
 
 	
 	/**
+	 * Parse results are cached per user-agent string.
 	 * @param userAgentString  User-agent string as provided in the request.
 	 * @return UserAgent
 	 */
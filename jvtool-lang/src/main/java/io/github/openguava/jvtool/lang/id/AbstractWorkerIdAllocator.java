@@ -0,0 +1,319 @@
+package io.github.openguava.jvtool.lang.id;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.github.openguava.jvtool.lang.util.IdUtils;
+import io.github.openguava.jvtool.lang.util.LogUtils;
+
+/**
+ * 抽象 Snowflake 机器标识分配器<br>
+ * 从随机位置开始依次尝试租用标识，租用成功后按租期的三分之一定期续租，
+ * 并注册 JVM 关闭钩子释放租用。<br>
+ * 租期过后仍未续租成功(如 redis 不可用)或租用已被其他节点取得时不再视为持有标识，
+ * {@link #createSnowflake()} 创建的 Snowflake 生成ID时引发 {@link IllegalStateException}，避免与其他节点重复。
+ * @author openguava
+ *
+ */
+public abstract class AbstractWorkerIdAllocator implements WorkerIdAllocator {
+
+	/** 默认终端ID位数 */
+	public static final int DEFAULT_WORKER_ID_BITS = 5;
+
+	/** 默认数据中心ID位数 */
+	public static final int DEFAULT_DATACENTER_ID_BITS = 5;
+
+	/** 默认租期(毫秒) */
+	public static final long DEFAULT_LEASE_MILLIS = 30000L;
+
+	/** 终端ID位数 */
+	private final int workerIdBits;
+
+	public int getWorkerIdBits() {
+		return this.workerIdBits;
+	}
+
+	/** 数据中心ID位数 */
+	private final int datacenterIdBits;
+
+	public int getDatacenterIdBits() {
+		return this.datacenterIdBits;
+	}
+
+	/** 租期(毫秒) */
+	private final long leaseMillis;
+
+	public long getLeaseMillis() {
+		return this.leaseMillis;
+	}
+
+	/** 租用者标识 */
+	private final String owner = IdUtils.fastSimpleUUID();
+
+	public String getOwner() {
+		return this.owner;
+	}
+
+	/** 当前租用的标识 */
+	private volatile long id = -1L;
+
+	/** 租期截止时间({@link System#nanoTime()}) */
+	private volatile long leaseDeadline;
+
+	/** 租用是否已被其他节点取得，取得后不再续租，需释放后重新租用 */
+	private volatile boolean fenced;
+
+	/** 续租调度器 */
+	private ScheduledExecutorService scheduledExecutorService;
+
+	/** 续租任务 */
+	private ScheduledFuture<?> scheduledFuture;
+
+	/** 关闭钩子 */
+	private Thread shutdownHook;
+
+	protected AbstractWorkerIdAllocator(long leaseMillis) {
+		this(DEFAULT_WORKER_ID_BITS, DEFAULT_DATACENTER_ID_BITS, leaseMillis);
+	}
+
+	protected AbstractWorkerIdAllocator(int workerIdBits, int datacenterIdBits, long leaseMillis) {
+		if(workerIdBits < 0 || datacenterIdBits < 0 || workerIdBits + datacenterIdBits > 20) {
+			throw new IllegalArgumentException("illegal worker id bits " + workerIdBits + " or datacenter id bits " + datacenterIdBits);
+		}
+		if(leaseMillis < 3L) {
+			throw new IllegalArgumentException("lease millis must be greater than 2");
+		}
+		this.workerIdBits = workerIdBits;
+		this.datacenterIdBits = datacenterIdBits;
+		this.leaseMillis = leaseMillis;
+	}
+
+	/**
+	 * 获取最大标识
+	 * @return
+	 */
+	public long getMaxId() {
+		return (1L << (this.workerIdBits + this.datacenterIdBits)) - 1L;
+	}
+
+	@Override
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * 获取当前租用标识对应的终端ID
+	 * @return
+	 * @throws IllegalStateException 未租用
+	 */
+	public long getWorkerId() {
+		return this.requireId() & ((1L << this.workerIdBits) - 1L);
+	}
+
+	/**
+	 * 获取当前租用标识对应的数据中心ID
+	 * @return
+	 * @throws IllegalStateException 未租用
+	 */
+	public long getDatacenterId() {
+		return this.requireId() >>> this.workerIdBits;
+	}
+
+	/**
+	 * 租用标识(已租用时使用当前标识)并创建 Snowflake<br>
+	 * 生成ID前检查租用，租用失效时引发 {@link IllegalStateException}
+	 * @return
+	 */
+	public Snowflake createSnowflake() {
+		long current = this.allocate();
+		return new LeasedSnowflake(this, current & ((1L << this.workerIdBits) - 1L), current >>> this.workerIdBits);
+	}
+
+	/**
+	 * 租用是否有效：已租用、未被其他节点取得且未超过租期
+	 * @return
+	 */
+	public boolean isLeaseValid() {
+		return this.id >= 0L && !this.fenced && this.leaseDeadline - System.nanoTime() > 0L;
+	}
+
+	/**
+	 * 检查租用是否有效
+	 * @throws IllegalStateException 租用无效
+	 */
+	public void checkLease() {
+		if(!this.isLeaseValid()) {
+			long current = this.id;
+			if(current < 0L) {
+				throw new IllegalStateException("Worker id not allocated");
+			}
+			throw new IllegalStateException("Worker id " + current + (this.fenced ? " lease taken by another node" : " lease expired without renewal"));
+		}
+	}
+
+	/**
+	 * 获取当前租用的标识
+	 * @return
+	 * @throws IllegalStateException 未租用
+	 */
+	private long requireId() {
+		long current = this.id;
+		if(current < 0L) {
+			throw new IllegalStateException("Worker id not allocated, call allocate() first");
+		}
+		return current;
+	}
+
+	@Override
+	public synchronized long allocate() {
+		if(this.id >= 0L) {
+			return this.id;
+		}
+		long count = this.getMaxId() + 1L;
+		long start = ThreadLocalRandom.current().nextLong(count);
+		for (long i = 0; i < count; i++) {
+			long candidate = (start + i) % count;
+			long now = System.nanoTime();
+			if(this.tryAcquire(candidate)) {
+				this.leaseDeadline = now + TimeUnit.MILLISECONDS.toNanos(this.leaseMillis);
+				this.fenced = false;
+				this.id = candidate;
+				this.startRenew();
+				return candidate;
+			}
+		}
+		throw new IllegalStateException("No worker id available, all " + count + " ids are leased");
+	}
+
+	@Override
+	public synchronized void release() {
+		if(this.scheduledFuture != null) {
+			this.scheduledFuture.cancel(false);
+			this.scheduledFuture = null;
+		}
+		if(this.scheduledExecutorService != null) {
+			this.scheduledExecutorService.shutdownNow();
+			this.scheduledExecutorService = null;
+		}
+		if(this.shutdownHook != null) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+			} catch (IllegalStateException e) {
+				// 正在关闭
+			}
+			this.shutdownHook = null;
+		}
+		long current = this.id;
+		if(current < 0L) {
+			return;
+		}
+		this.id = -1L;
+		this.fenced = false;
+		try {
+			this.doRelease(current);
+		} catch (Exception e) {
+			LogUtils.warn(this.getClass(), "release worker id " + current + " failed", e);
+		}
+	}
+
+	/**
+	 * 启动续租
+	 */
+	private void startRenew() {
+		long interval = this.leaseMillis / 3L;
+		this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "WorkerIdAllocator-" + this.id);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduledFuture = this.scheduledExecutorService.scheduleWithFixedDelay(this::renew, interval, interval, TimeUnit.MILLISECONDS);
+		this.shutdownHook = new Thread(this::release, "WorkerIdAllocator-release");
+		Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+	}
+
+	/**
+	 * 续租，续租失败时尝试重新租用原标识；
+	 * 租期过后才重新取得的标识期间未生成ID，可继续使用，已被其他节点取得时停止生成ID；
+	 * 与 {@link #release()} 互斥，避免释放后重新租用
+	 */
+	private synchronized void renew() {
+		long current = this.id;
+		if(current < 0L || this.fenced) {
+			return;
+		}
+		try {
+			long now = System.nanoTime();
+			if(this.tryRenew(current) || this.tryAcquire(current)) {
+				this.leaseDeadline = now + TimeUnit.MILLISECONDS.toNanos(this.leaseMillis);
+			} else {
+				this.fenced = true;
+				LogUtils.error(this.getClass(), "worker id {} lease lost and taken by another node, id generation stopped until released and allocated again", current);
+			}
+		} catch (Exception e) {
+			LogUtils.warn(this.getClass(), "renew worker id " + current + " failed, id generation stops when the lease expires", e);
+		}
+	}
+
+	/**
+	 * 生成ID前检查租用的 Snowflake
+	 */
+	private static class LeasedSnowflake extends Snowflake {
+
+		/** 分配器 */
+		private final AbstractWorkerIdAllocator allocator;
+
+		/** 创建时租用的标识 */
+		private final long id;
+
+		LeasedSnowflake(AbstractWorkerIdAllocator allocator, long workerId, long datacenterId) {
+			super(workerId, datacenterId, allocator.workerIdBits, allocator.datacenterIdBits, Snowflake.DEFAULT_STARTTIMESTAMP);
+			this.allocator = allocator;
+			this.id = (datacenterId << allocator.workerIdBits) | workerId;
+		}
+
+		@Override
+		public long nextId() {
+			this.checkLease();
+			return super.nextId();
+		}
+
+		@Override
+		public long[] nextIds(int n) {
+			this.checkLease();
+			return super.nextIds(n);
+		}
+
+		/**
+		 * 检查租用有效且仍为创建时的标识
+		 */
+		private void checkLease() {
+			this.allocator.checkLease();
+			if(this.allocator.getId() != this.id) {
+				throw new IllegalStateException("Worker id " + this.id + " no longer leased, create a new Snowflake");
+			}
+		}
+	}
+
+	/**
+	 * 尝试租用标识
+	 * @param id 标识
+	 * @return 是否成功
+	 */
+	protected abstract boolean tryAcquire(long id);
+
+	/**
+	 * 续租标识
+	 * @param id 标识
+	 * @return 仍由当前租用者持有返回 {@code true}
+	 */
+	protected abstract boolean tryRenew(long id);
+
+	/**
+	 * 释放标识
+	 * @param id 标识
+	 */
+	protected abstract void doRelease(long id);
+}
@@ -0,0 +1,102 @@
+package io.github.openguava.jvtool.lang.id;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.openguava.jvtool.lang.constant.CharsetConstants;
+import io.github.openguava.jvtool.lang.util.IoUtils;
+
+/**
+ * 基于本地文件锁的 Snowflake 机器标识分配器<br>
+ * 每个标识对应目录下的一个租用文件，持有文件独占锁即持有租用；
+ * 进程退出时操作系统自动释放文件锁，适用于同一主机(或共享文件系统)上的多个进程。
+ * @author openguava
+ *
+ */
+public class FileWorkerIdAllocator extends AbstractWorkerIdAllocator {
+
+	/** 租用文件目录 */
+	private final File directory;
+
+	public File getDirectory() {
+		return this.directory;
+	}
+
+	/** 持有的文件锁 */
+	private final Map<Long, FileLock> locks = new ConcurrentHashMap<>();
+
+	/**
+	 * 初始化
+	 * @param directory 租用文件目录
+	 */
+	public FileWorkerIdAllocator(File directory) {
+		this(directory, DEFAULT_WORKER_ID_BITS, DEFAULT_DATACENTER_ID_BITS);
+	}
+
+	/**
+	 * 初始化
+	 * @param directory 租用文件目录
+	 * @param workerIdBits 终端ID位数
+	 * @param datacenterIdBits 数据中心ID位数
+	 */
+	public FileWorkerIdAllocator(File directory, int workerIdBits, int datacenterIdBits) {
+		super(workerIdBits, datacenterIdBits, DEFAULT_LEASE_MILLIS);
+		this.directory = directory;
+	}
+
+	@Override
+	protected boolean tryAcquire(long id) {
+		if(!this.directory.isDirectory() && !this.directory.mkdirs() && !this.directory.isDirectory()) {
+			throw new IllegalStateException("Could not create worker id directory " + this.directory);
+		}
+		File file = new File(this.directory, "worker-" + id + ".lease");
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			FileLock lock = channel.tryLock();
+			if(lock == null) {
+				IoUtils.close(channel);
+				return false;
+			}
+			channel.truncate(0L);
+			channel.write(ByteBuffer.wrap(this.getOwner().getBytes(CharsetConstants.CHARSET_UTF_8)));
+			this.locks.put(id, lock);
+			return true;
+		} catch (OverlappingFileLockException e) {
+			// 同一进程内已被其他分配器持有
+			IoUtils.close(channel);
+			return false;
+		} catch (IOException e) {
+			IoUtils.close(channel);
+			throw new IllegalStateException("Could not lock worker id file " + file, e);
+		}
+	}
+
+	@Override
+	protected boolean tryRenew(long id) {
+		FileLock lock = this.locks.get(id);
+		return lock != null && lock.isValid();
+	}
+
+	@Override
+	protected void doRelease(long id) {
+		FileLock lock = this.locks.remove(id);
+		if(lock == null) {
+			return;
+		}
+		try {
+			lock.release();
+		} catch (IOException e) {
+			// ignore
+		} finally {
+			IoUtils.close(lock.channel());
+		}
+	}
+}
@@ -1,5 +1,9 @@
 package io.github.openguava.jvtool.lang.id;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.openguava.jvtool.lang.time.Clock;
+
 /**
  * Twitter的Snowflake 算法<br>
  * 分布式系统中，有一些需要使用全局唯一ID的场景，有些时候我们希望能使用一种简单一些的ID，并且希望ID能够按照时间有序生成。
@@ -13,13 +17,15 @@ package io.github.openguava.jvtool.lang.id;
  * 
  * 第一位为未使用，接下来的41位为毫秒级时间(41位的长度可以使用69年)<br>
  * 然后是5位datacenterId和5位workerId(10位的长度最多支持部署1024个节点）<br>
- * 最后12位是毫秒内的计数（12位的计数顺序号支持每个节点每毫秒产生4096个ID序号）
+ * 最后12位是毫秒内的计数（12位的计数顺序号支持每个节点每毫秒产生4096个ID序号）<br>
+ * 时间与序号合并保存在一个原子长整型中，通过 CAS 无锁分配；
+ * 允许借用未来时间时，毫秒内序号用尽或时钟小幅回拨均可继续生成，超出容忍范围才等待或报错。
  * @author openguava
  */
 public class Snowflake {
 	
 	/** 默认开始时间戳(写代码时间) */
-	private final static long DEFAULT_STARTTIMESTAMP = 1288834974657L;
+	final static long DEFAULT_STARTTIMESTAMP = 1288834974657L;
 	
 	private final static long DEFAULT_STARTTIMESTAMP2020 = 1577808000000L;
 	
@@ -51,8 +57,13 @@ public class Snowflake {
 	
 	private long workerId;
 	private long datacenterId;
-	private long sequence = 0L;
-	private long lastTimestamp = -1L;
+	/** 可借用的未来时间(毫秒)，即可容忍的时钟回拨范围 */
+	private final long maxBorrowMillis;
+	
+	/** 时钟 */
+	private final Clock clock;
+	/** 最近分配的 (时间 - twepoch) << sequenceBits | 序号 */
+	private final AtomicLong state = new AtomicLong(-1L);
 
 	/**
 	 * 构造
@@ -84,6 +95,35 @@ public class Snowflake {
 	 * @param startTimestamp 开始时间戳(写代码时间)
 	 */
 	public Snowflake(long workerId, long datacenterId, long workerIdBits, long datacenterIdBits, long startTimestamp) {
+		this(workerId, datacenterId, workerIdBits, datacenterIdBits, startTimestamp, 0L);
+	}
+	
+	/**
+	 * 构造
+	 * 
+	 * @param workerId 终端ID(0~31)
+	 * @param datacenterId 数据中心ID(0~31)
+	 * @param workerIdBits 机器标识占用的位数(默认5L)
+	 * @param datacenterIdBits 数据中心占用的位数(默认5L)
+	 * @param startTimestamp 开始时间戳(写代码时间)
+	 * @param maxBorrowMillis 可借用的未来时间(毫秒)，为0时序号用尽等待下一毫秒、时钟回拨报错
+	 */
+	public Snowflake(long workerId, long datacenterId, long workerIdBits, long datacenterIdBits, long startTimestamp, long maxBorrowMillis) {
+		this(workerId, datacenterId, workerIdBits, datacenterIdBits, startTimestamp, maxBorrowMillis, Clock.SYSTEM);
+	}
+	
+	/**
+	 * 构造
+	 * 
+	 * @param workerId 终端ID(0~31)
+	 * @param datacenterId 数据中心ID(0~31)
+	 * @param workerIdBits 机器标识占用的位数(默认5L)
+	 * @param datacenterIdBits 数据中心占用的位数(默认5L)
+	 * @param startTimestamp 开始时间戳(写代码时间)
+	 * @param maxBorrowMillis 可借用的未来时间(毫秒)，为0时序号用尽等待下一毫秒、时钟回拨报错
+	 * @param clock 时钟，如 {@link io.github.openguava.jvtool.lang.time.SystemClock}
+	 */
+	public Snowflake(long workerId, long datacenterId, long workerIdBits, long datacenterIdBits, long startTimestamp, long maxBorrowMillis, Clock clock) {
 		this.workerId = workerId;
 		this.datacenterId = datacenterId;
 		//this.workerIdBits = workerIdBits;
@@ -99,6 +139,14 @@ public class Snowflake {
 		if (datacenterId > maxDatacenterId || datacenterId < 0) {
 			throw new IllegalArgumentException("datacenter Id can't be greater than " + maxDatacenterId + " or less than 0");
 		}
+		if (maxBorrowMillis < 0) {
+			throw new IllegalArgumentException("max borrow millis can't be less than 0");
+		}
+		this.maxBorrowMillis = maxBorrowMillis;
+		if (clock == null) {
+			throw new IllegalArgumentException("clock can't be null");
+		}
+		this.clock = clock;
 	}
 
 	/**
@@ -106,38 +154,73 @@ public class Snowflake {
 	 * 
 	 * @return ID
 	 */
-	public synchronized long nextId() {
-		long timestamp = genTime();
-		if (timestamp < lastTimestamp) {
-			 //如果服务器时间有问题(时钟后退) 报错。
-			throw new IllegalStateException("Clock moved backwards. Refusing to generate id for " + (lastTimestamp - timestamp) + "ms");
+	public long nextId() {
+		return this.toId(this.reserve(1));
+	}
+	
+	/**
+	 * 批量获取连续的ID，一次 CAS 预留整段序号
+	 * 
+	 * @param n 数量
+	 * @return ID数组
+	 */
+	public long[] nextIds(int n) {
+		long maxBatch = (this.maxBorrowMillis + 1L) << sequenceBits;
+		if (n < 1 || n > maxBatch) {
+			throw new IllegalArgumentException("batch size must be between 1 and " + maxBatch);
 		}
-		if (lastTimestamp == timestamp) {
-			sequence = (sequence + 1) & sequenceMask;
-			if (sequence == 0) {
-				timestamp = tilNextMillis(lastTimestamp);
-			}
-		} else {
-			sequence = 0L;
+		long start = this.reserve(n);
+		long[] ids = new long[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = this.toId(start + i);
 		}
-
-		lastTimestamp = timestamp;
-
-		return ((timestamp - twepoch) << timestampLeftShift) | (datacenterId << datacenterIdShift) | (workerId << workerIdShift) | sequence;
+		return ids;
 	}
-
+	
 	/**
-	 * 循环等待下一个时间
+	 * 预留连续的时间序号
 	 * 
-	 * @param lastTimestamp 上次记录的时间
-	 * @return 下一个时间
+	 * @param n 数量
+	 * @return 起始时间序号
 	 */
-	private long tilNextMillis(long lastTimestamp) {
-		long timestamp = genTime();
-		while (timestamp <= lastTimestamp) {
-			timestamp = genTime();
+	private long reserve(int n) {
+		for (;;) {
+			// 先读状态再读时钟，保证状态中的时间不会晚于本次读取的时钟加借用范围
+			long current = state.get();
+			long timestamp = genTime() - twepoch;
+			long lastTimestamp = current >> sequenceBits;
+			long start;
+			if (timestamp > lastTimestamp) {
+				start = timestamp << sequenceBits;
+			} else {
+				if (lastTimestamp - timestamp > maxBorrowMillis) {
+					//如果服务器时间有问题(时钟后退超出容忍范围) 报错。
+					throw new IllegalStateException("Clock moved backwards. Refusing to generate id for " + (lastTimestamp - timestamp) + "ms");
+				}
+				// 序号溢出时自动进位到下一毫秒
+				start = current + 1L;
+			}
+			long end = start + n - 1L;
+			if ((end >> sequenceBits) - timestamp > maxBorrowMillis) {
+				// 超出可借用范围，等待时钟前进
+				Thread.yield();
+				continue;
+			}
+			if (state.compareAndSet(current, end)) {
+				return start;
+			}
 		}
-		return timestamp;
+	}
+	
+	/**
+	 * 时间序号转ID
+	 * 
+	 * @param value 时间序号
+	 * @return ID
+	 */
+	private long toId(long value) {
+		long timestamp = value >> sequenceBits;
+		return (timestamp << timestampLeftShift) | (datacenterId << datacenterIdShift) | (workerId << workerIdShift) | (value & sequenceMask);
 	}
 	
 	/**
@@ -145,6 +228,6 @@ public class Snowflake {
 	 * @return 时间戳
 	 */
 	private long genTime() {
-		return System.currentTimeMillis();
+		return this.clock.currentTimeMillis();
 	}
 }
@@ -5,6 +5,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.github.openguava.jvtool.lang.exception.UtilException;
 
@@ -36,7 +37,7 @@ import io.github.openguava.jvtool.lang.exception.UtilException;
  * variant 字段包含一个表示 UUID 布局的值。以上描述的位布局仅在 UUID 的 variant 值为 2（表示 Leach-Salz 变体）时才有效。 *
  * <p>
  * version 字段保存描述此 UUID 类型的值。有 4 种不同的基本 UUID 类型：基于时间的 UUID、DCE 安全 UUID、基于名称的 UUID 和随机生成的 UUID。<br>
- * 这些类型的 version 值分别为 1、2、3 和 4。
+ * 这些类型的 version 值分别为 1、2、3 和 4。另外支持按时间排序的 version 7 (RFC 9562)。
  *
  * @since hutool 4.1.11
  */
@@ -50,7 +51,16 @@ public class UUID implements java.io.Serializable, Comparable<UUID> {
 	 */
 	private static class Holder {
 		static final SecureRandom NUMBER_GENERATOR = getSecureRandom();
+		
+		/** 分段的 {@link SecureRandom}，降低多线程竞争 */
+		static final SecureRandom[] STRIPED_GENERATORS = createStripedSecureRandom();
 	}
+	
+	/** 十六进制字符 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	/** 最近生成的 version 7 UUID 的 unix 毫秒时间 << 12 | 计数 */
+	private static final AtomicLong V7_STATE = new AtomicLong();
 
 	/**
 	 * 此UUID的最高64有效位
@@ -117,7 +127,13 @@ public class UUID implements java.io.Serializable, Comparable<UUID> {
 	 * @return 随机生成的 {@code UUID}
 	 */
 	public static UUID randomUUID(boolean isSecure) {
-		final Random ng = isSecure ? Holder.NUMBER_GENERATOR : getRandom();
+		if (false == isSecure) {
+			final ThreadLocalRandom random = getRandom();
+			return new UUID(//
+					(random.nextLong() & ~0xF000L) | 0x4000L, /* set to version 4 */
+					(random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L); /* set to IETF variant */
+		}
+		final Random ng = stripedSecureRandom();
 
 		final byte[] randomBytes = new byte[16];
 		ng.nextBytes(randomBytes);
@@ -130,6 +146,29 @@ public class UUID implements java.io.Serializable, Comparable<UUID> {
 		return new UUID(randomBytes);
 	}
 
+	/**
+	 * 获取类型 7（按时间排序的）UUID 的静态工厂。<br>
+	 * 高 48 位为 unix 毫秒时间，随后 12 位为毫秒内递增计数(同一进程内严格递增)，其余为随机数，适合作为数据库主键。
+	 *
+	 * @return 按时间排序的 {@code UUID}
+	 */
+	public static UUID timeOrderedUUID() {
+		final ThreadLocalRandom random = getRandom();
+		long state;
+		for (;;) {
+			long current = V7_STATE.get();
+			long timestamp = System.currentTimeMillis() << 12;
+			// 新的毫秒从随机计数开始，保留一半计数空间用于递增
+			state = timestamp > current ? timestamp | random.nextInt(0x800) : current + 1L;
+			if (V7_STATE.compareAndSet(current, state)) {
+				break;
+			}
+		}
+		long mostSigBits = ((state >>> 12) << 16) | 0x7000L | (state & 0x0FFFL); /* set to version 7 */
+		long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; /* set to IETF variant */
+		return new UUID(mostSigBits, leastSigBits);
+	}
+
 	/**
 	 * 根据指定的字节数组获取类型 3（基于名称的）UUID 的静态工厂。
 	 *
@@ -344,31 +383,70 @@ public class UUID implements java.io.Serializable, Comparable<UUID> {
 	 * @return 此{@code UUID} 的字符串表现形式
 	 */
 	public String toString(boolean isSimple) {
-		final StringBuilder builder = new StringBuilder(isSimple ? 32 : 36);
+		final char[] chars = new char[isSimple ? 32 : 36];
+		formatTo(chars, 0, isSimple);
+		return new String(chars);
+	}
+
+	/**
+	 * 将此{@code UUID} 的字符串表现形式写入字符数组，不产生中间对象。
+	 *
+	 * @param dest     目标字符数组，剩余长度需不少于 32(简单模式) 或 36
+	 * @param offset   写入位置
+	 * @param isSimple 是否简单模式，简单模式为不带'-'的UUID字符串
+	 * @return 写入后的位置
+	 */
+	public int formatTo(char[] dest, int offset, boolean isSimple) {
 		// time_low
-		builder.append(digits(mostSigBits >> 32, 8));
+		offset = hexDigits(dest, offset, mostSigBits >>> 32, 8);
 		if (false == isSimple) {
-			builder.append('-');
+			dest[offset++] = '-';
 		}
 		// time_mid
-		builder.append(digits(mostSigBits >> 16, 4));
+		offset = hexDigits(dest, offset, mostSigBits >>> 16, 4);
 		if (false == isSimple) {
-			builder.append('-');
+			dest[offset++] = '-';
 		}
 		// time_high_and_version
-		builder.append(digits(mostSigBits, 4));
+		offset = hexDigits(dest, offset, mostSigBits, 4);
 		if (false == isSimple) {
-			builder.append('-');
+			dest[offset++] = '-';
 		}
 		// variant_and_sequence
-		builder.append(digits(leastSigBits >> 48, 4));
+		offset = hexDigits(dest, offset, leastSigBits >>> 48, 4);
 		if (false == isSimple) {
-			builder.append('-');
+			dest[offset++] = '-';
 		}
 		// node
-		builder.append(digits(leastSigBits, 12));
+		return hexDigits(dest, offset, leastSigBits, 12);
+	}
 
-		return builder.toString();
+	/**
+	 * 将此{@code UUID} 的字符串表现形式追加到 {@link StringBuilder}，不产生中间对象。
+	 *
+	 * @param builder  目标
+	 * @param isSimple 是否简单模式，简单模式为不带'-'的UUID字符串
+	 * @return 目标
+	 */
+	public StringBuilder appendTo(StringBuilder builder, boolean isSimple) {
+		appendHexDigits(builder, mostSigBits >>> 32, 8);
+		if (false == isSimple) {
+			builder.append('-');
+		}
+		appendHexDigits(builder, mostSigBits >>> 16, 4);
+		if (false == isSimple) {
+			builder.append('-');
+		}
+		appendHexDigits(builder, mostSigBits, 4);
+		if (false == isSimple) {
+			builder.append('-');
+		}
+		appendHexDigits(builder, leastSigBits >>> 48, 4);
+		if (false == isSimple) {
+			builder.append('-');
+		}
+		appendHexDigits(builder, leastSigBits, 12);
+		return builder;
 	}
 
 	/**
@@ -424,15 +502,33 @@ public class UUID implements java.io.Serializable, Comparable<UUID> {
 	// ------------------------------------------------------------------------------------------------------------------- Private method start
 
 	/**
-	 * 返回指定数字对应的hex值
+	 * 写入指定数字对应的hex值
 	 *
+	 * @param dest   目标字符数组
+	 * @param offset 写入位置
 	 * @param val    值
 	 * @param digits 位
-	 * @return 值
+	 * @return 写入后的位置
+	 */
+	private static int hexDigits(char[] dest, int offset, long val, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			dest[i] = HEX_DIGITS[(int) (val & 0x0F)];
+			val >>>= 4;
+		}
+		return offset + digits;
+	}
+
+	/**
+	 * 追加指定数字对应的hex值
+	 *
+	 * @param builder 目标
+	 * @param val     值
+	 * @param digits  位
 	 */
-	private static String digits(long val, int digits) {
-		long hi = 1L << (digits * 4);
-		return Long.toHexString(hi | (val & (hi - 1))).substring(1);
+	private static void appendHexDigits(StringBuilder builder, long val, int digits) {
+		for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+			builder.append(HEX_DIGITS[(int) ((val >>> shift) & 0x0F)]);
+		}
 	}
 
 	/**
@@ -458,6 +554,34 @@ public class UUID implements java.io.Serializable, Comparable<UUID> {
 		}
 	}
 	
+	/**
+	 * 获取当前线程对应的分段 {@link SecureRandom}
+	 *
+	 * @return {@link SecureRandom}
+	 */
+	private static SecureRandom stripedSecureRandom() {
+		final SecureRandom[] generators = Holder.STRIPED_GENERATORS;
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+		return generators[(hash ^ (hash >>> 16)) & (generators.length - 1)];
+	}
+
+	/**
+	 * 创建分段 {@link SecureRandom}，段数为不小于 CPU 核数的 2 的幂
+	 *
+	 * @return {@link SecureRandom} 数组
+	 */
+	private static SecureRandom[] createStripedSecureRandom() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int stripes = Math.min(64, processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1);
+		final SecureRandom[] generators = new SecureRandom[stripes];
+		generators[0] = Holder.NUMBER_GENERATOR;
+		for (int i = 1; i < stripes; i++) {
+			generators[i] = getSecureRandom();
+		}
+		return generators;
+	}
+	
 	/**
 	 * 获取随机数生成器对象<br>
 	 * ThreadLocalRandom是JDK 7之后提供并发产生随机数，能够解决多个线程发生的竞争争夺。
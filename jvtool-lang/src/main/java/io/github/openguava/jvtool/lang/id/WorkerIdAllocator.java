@@ -0,0 +1,34 @@
+package io.github.openguava.jvtool.lang.id;
+
+import java.io.Closeable;
+
+/**
+ * Snowflake 机器标识分配器<br>
+ * 启动时租用一个未被占用的标识，后台定期续租，关闭时释放，避免多节点手工配置标识冲突。
+ * @author openguava
+ *
+ */
+public interface WorkerIdAllocator extends Closeable {
+
+	/**
+	 * 租用标识，已租用时直接返回
+	 * @return 标识(0 ~ 最大标识)，高位为数据中心ID，低位为终端ID
+	 */
+	long allocate();
+
+	/**
+	 * 获取当前租用的标识
+	 * @return 未租用返回-1
+	 */
+	long getId();
+
+	/**
+	 * 释放租用的标识
+	 */
+	void release();
+
+	@Override
+	default void close() {
+		this.release();
+	}
+}
@@ -0,0 +1,267 @@
+package io.github.openguava.jvtool.lang.servlet.repeat;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.openguava.jvtool.lang.util.IoUtils;
+import io.github.openguava.jvtool.lang.util.LogUtils;
+
+/**
+ * 可重复读取的请求体缓存<br>
+ * 内容不超过内存阈值时保存在内存中，超过后整体转存到临时文件并释放内存；
+ * 使用完毕需调用 {@link #close()} 删除临时文件。
+ * @author openguava
+ *
+ */
+public class RepeatableBody implements Closeable {
+
+	/** 默认内存阈值(256KB) */
+	public static final int DEFAULT_MEMORY_THRESHOLD = 256 * 1024;
+
+	/** 临时文件前缀 */
+	private static final String TEMP_FILE_PREFIX = "jvtool-body-";
+
+	/** 初始内存缓冲区大小 */
+	private static final int INITIAL_CAPACITY = 8192;
+
+	/** 累计缓存到内存的字节数 */
+	private static final LongAdder MEMORY_BYTES = new LongAdder();
+
+	/** 累计转存到临时文件的字节数 */
+	private static final LongAdder SPILLED_BYTES = new LongAdder();
+
+	/** 累计转存次数 */
+	private static final LongAdder SPILL_COUNT = new LongAdder();
+
+	/** 当前占用的内存缓冲区字节数 */
+	private static final AtomicLong MEMORY_BYTES_IN_USE = new AtomicLong();
+
+	/** 内存阈值 */
+	private final int memoryThreshold;
+
+	/** 临时文件目录，为 null 时使用系统临时目录 */
+	private final File tempDirectory;
+
+	/** 预期长度，未知时为 -1 */
+	private final long expectedLength;
+
+	/** 内存缓冲区 */
+	private byte[] memory;
+
+	/** 临时文件 */
+	private File file;
+
+	/** 临时文件输出流 */
+	private OutputStream fileOutput;
+
+	/** 内容长度 */
+	private long length;
+
+	/** 是否已缓存完整内容 */
+	private boolean complete;
+
+	/**
+	 * 初始化，首次写入时才分配内存缓冲区
+	 * @param memoryThreshold 内存阈值，超过后转存到临时文件
+	 * @param tempDirectory 临时文件目录，为 null 时使用系统临时目录
+	 * @param expectedLength 预期长度(Content-Length)，未知时传 -1，超过内存阈值时直接写入临时文件
+	 */
+	public RepeatableBody(int memoryThreshold, File tempDirectory, long expectedLength) {
+		this.memoryThreshold = Math.max(0, memoryThreshold);
+		this.tempDirectory = tempDirectory;
+		this.expectedLength = expectedLength;
+	}
+
+	/**
+	 * 追加内容
+	 * @param b
+	 * @param off
+	 * @param len
+	 * @throws IOException
+	 */
+	public void write(byte[] b, int off, int len) throws IOException {
+		if(len <= 0) {
+			return;
+		}
+		if(this.fileOutput == null
+				&& (this.length + len > this.memoryThreshold || this.expectedLength > this.memoryThreshold)) {
+			this.spill();
+		}
+		if(this.fileOutput != null) {
+			this.fileOutput.write(b, off, len);
+			SPILLED_BYTES.add(len);
+		} else {
+			int required = (int) this.length + len;
+			if(this.memory == null) {
+				// 长度已知时按实际长度一次分配
+				this.allocate(Math.max(required, this.expectedLength >= 0 ? (int) this.expectedLength : Math.min(INITIAL_CAPACITY, this.memoryThreshold)));
+			} else if(required > this.memory.length) {
+				this.allocate(Math.min(this.memoryThreshold, Math.max(required, this.memory.length << 1)));
+			}
+			System.arraycopy(b, off, this.memory, (int) this.length, len);
+			MEMORY_BYTES.add(len);
+		}
+		this.length += len;
+	}
+
+	/**
+	 * 标记内容已完整缓存
+	 * @throws IOException
+	 */
+	public void complete() throws IOException {
+		if(this.complete) {
+			return;
+		}
+		this.complete = true;
+		if(this.fileOutput != null) {
+			this.fileOutput.flush();
+		}
+	}
+
+	/**
+	 * 是否已缓存完整内容
+	 * @return
+	 */
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	/**
+	 * 是否已转存到临时文件
+	 * @return
+	 */
+	public boolean isSpilled() {
+		return this.file != null;
+	}
+
+	/**
+	 * 已缓存的内容长度
+	 * @return
+	 */
+	public long length() {
+		return this.length;
+	}
+
+	/**
+	 * 打开已缓存内容的输入流
+	 * @return
+	 * @throws IOException
+	 */
+	public InputStream openInputStream() throws IOException {
+		if(this.file != null) {
+			if(this.fileOutput != null) {
+				this.fileOutput.flush();
+			}
+			return new BufferedInputStream(new FileInputStream(this.file), INITIAL_CAPACITY);
+		}
+		return new ByteArrayInputStream(this.memory != null ? this.memory : new byte[0], 0, (int) this.length);
+	}
+
+	/**
+	 * 读取已缓存的全部内容
+	 * @return
+	 * @throws IOException
+	 */
+	public byte[] toByteArray() throws IOException {
+		if(this.file == null) {
+			return this.memory != null ? Arrays.copyOf(this.memory, (int) this.length) : new byte[0];
+		}
+		InputStream inputStream = this.openInputStream();
+		try {
+			return IoUtils.toByteArray(inputStream);
+		} finally {
+			IoUtils.close(inputStream);
+		}
+	}
+
+	/**
+	 * 释放内存并删除临时文件
+	 */
+	@Override
+	public void close() {
+		this.release();
+		IoUtils.close(this.fileOutput);
+		this.fileOutput = null;
+		if(this.file != null && !this.file.delete() && this.file.exists()) {
+			LogUtils.warn(RepeatableBody.class, "delete temp file failed: {}", this.file.getAbsolutePath());
+		}
+		this.file = null;
+	}
+
+	/**
+	 * 转存到临时文件
+	 * @throws IOException
+	 */
+	private void spill() throws IOException {
+		this.file = File.createTempFile(TEMP_FILE_PREFIX, ".tmp", this.tempDirectory);
+		this.fileOutput = new FileOutputStream(this.file);
+		if(this.length > 0) {
+			this.fileOutput.write(this.memory, 0, (int) this.length);
+			SPILLED_BYTES.add(this.length);
+		}
+		this.release();
+		SPILL_COUNT.increment();
+	}
+
+	/**
+	 * 分配内存缓冲区
+	 * @param capacity
+	 */
+	private void allocate(int capacity) {
+		byte[] old = this.memory;
+		this.memory = old == null ? new byte[capacity] : Arrays.copyOf(old, capacity);
+		MEMORY_BYTES_IN_USE.addAndGet(capacity - (old == null ? 0 : old.length));
+	}
+
+	/**
+	 * 释放内存缓冲区
+	 */
+	private void release() {
+		if(this.memory != null) {
+			MEMORY_BYTES_IN_USE.addAndGet(-this.memory.length);
+			this.memory = null;
+		}
+	}
+
+	/**
+	 * 累计缓存到内存的字节数
+	 * @return
+	 */
+	public static long getMemoryBytes() {
+		return MEMORY_BYTES.sum();
+	}
+
+	/**
+	 * 累计转存到临时文件的字节数
+	 * @return
+	 */
+	public static long getSpilledBytes() {
+		return SPILLED_BYTES.sum();
+	}
+
+	/**
+	 * 累计转存次数
+	 * @return
+	 */
+	public static long getSpillCount() {
+		return SPILL_COUNT.sum();
+	}
+
+	/**
+	 * 当前占用的内存缓冲区字节数
+	 * @return
+	 */
+	public static long getMemoryBytesInUse() {
+		return MEMORY_BYTES_IN_USE.get();
+	}
+}
@@ -1,9 +1,13 @@
 package io.github.openguava.jvtool.lang.servlet.repeat;
 
+import java.io.File;
 import java.io.IOException;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -19,20 +23,97 @@ import io.github.openguava.jvtool.lang.util.StringUtils;
  */
 public class RepeatableFilter implements Filter {
 
+	/** 内存阈值，请求体超过后转存到临时文件 */
+	private int memoryThreshold = RepeatableBody.DEFAULT_MEMORY_THRESHOLD;
+
+	public int getMemoryThreshold() {
+		return this.memoryThreshold;
+	}
+
+	public void setMemoryThreshold(int memoryThreshold) {
+		this.memoryThreshold = memoryThreshold;
+	}
+
+	/** 临时文件目录，为 null 时使用系统临时目录 */
+	private File tempDirectory;
+
+	public File getTempDirectory() {
+		return this.tempDirectory;
+	}
+
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+		String memoryThreshold = filterConfig.getInitParameter("memoryThreshold");
+		if(StringUtils.isNotBlank(memoryThreshold)) {
+			this.memoryThreshold = Integer.parseInt(memoryThreshold.trim());
+		}
+		String tempDirectory = filterConfig.getInitParameter("tempDirectory");
+		if(StringUtils.isNotBlank(tempDirectory)) {
+			this.tempDirectory = new File(tempDirectory.trim());
+		}
+	}
+
 	@Override
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
 			throws IOException, ServletException {
-		ServletRequest requestWrapper = null;
+		RepeatedlyRequestWrapper requestWrapper = null;
 		if (request instanceof HttpServletRequest
 				// MediaType.APPLICATION_JSON_VALUE
 				&& StringUtils.startsWithIgnoreCase(request.getContentType(), HttpConstants.HTTP_CONTENTTYPE_APPLICATION_JSON)) {
-			requestWrapper = new RepeatedlyRequestWrapper((HttpServletRequest) request, response);
+			requestWrapper = new RepeatedlyRequestWrapper((HttpServletRequest) request, response, this.memoryThreshold, this.tempDirectory);
 		}
 		if (requestWrapper == null) {
 			chain.doFilter(request, response);
-		} else {
+			return;
+		}
+		boolean async = false;
+		try {
 			chain.doFilter(requestWrapper, response);
+			async = request.isAsyncStarted();
+		} finally {
+			if(async) {
+				// 异步请求结束后释放
+				request.getAsyncContext().addListener(new ReleaseListener(requestWrapper));
+			} else {
+				requestWrapper.close();
+			}
 		}
 	}
 
+	/**
+	 * 异步请求结束后释放请求体缓存
+	 */
+	private static class ReleaseListener implements AsyncListener {
+
+		private final RepeatedlyRequestWrapper requestWrapper;
+
+		ReleaseListener(RepeatedlyRequestWrapper requestWrapper) {
+			this.requestWrapper = requestWrapper;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) throws IOException {
+			this.requestWrapper.close();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) throws IOException {
+			this.requestWrapper.close();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) throws IOException {
+			this.requestWrapper.close();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) throws IOException {
+			// 重新开始异步处理时监听器会被移除，需重新注册
+			event.getAsyncContext().addListener(this);
+		}
+	}
 }
@@ -1,8 +1,10 @@
 package io.github.openguava.jvtool.lang.servlet.repeat;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 
 import javax.servlet.ReadListener;
@@ -12,62 +14,224 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 
 import io.github.openguava.jvtool.lang.constant.CharsetConstants;
-import io.github.openguava.jvtool.lang.util.ServletUtils;
+import io.github.openguava.jvtool.lang.util.IoUtils;
 
 /**
- * 构建可重复读取 inputStream 的 request 封装
- * 
+ * 构建可重复读取 inputStream 的 request 封装<br>
+ * 构造时不读取请求体；首次 {@link #getInputStream()} 边读取原始输入流边缓存，
+ * 之后的读取先补齐未读完的内容，再从缓存重放。缓存超过内存阈值时转存到临时文件，
+ * 请求结束后需调用 {@link #close()} 释放(由 {@link RepeatableFilter} 负责)。
+ *
  * @author openguava
  */
-public class RepeatedlyRequestWrapper extends HttpServletRequestWrapper {
+public class RepeatedlyRequestWrapper extends HttpServletRequestWrapper implements Closeable {
 
-	private final byte[] body;
+	/** 请求体缓存 */
+	private final RepeatableBody body;
 
+	/** 原始输入流 */
+	private ServletInputStream source;
+
+	/**
+	 * 获取完整请求体(全部加载到内存)
+	 * @return
+	 */
 	public byte[] getBody() {
-		return this.body;
+		try {
+			this.drain();
+			return this.body.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 
 	public RepeatedlyRequestWrapper(HttpServletRequest request, ServletResponse response) throws IOException {
+		this(request, response, RepeatableBody.DEFAULT_MEMORY_THRESHOLD, null);
+	}
+
+	/**
+	 * 初始化
+	 * @param request 请求对象
+	 * @param response 响应对象
+	 * @param memoryThreshold 内存阈值，超过后转存到临时文件
+	 * @param tempDirectory 临时文件目录，为 null 时使用系统临时目录
+	 * @throws IOException
+	 */
+	public RepeatedlyRequestWrapper(HttpServletRequest request, ServletResponse response, int memoryThreshold, File tempDirectory) throws IOException {
 		super(request);
 		request.setCharacterEncoding(CharsetConstants.UTF_8);
 		response.setCharacterEncoding(CharsetConstants.UTF_8);
 
-		this.body = ServletUtils.getRequestBody(request);
+		this.body = new RepeatableBody(memoryThreshold, tempDirectory, request.getContentLengthLong());
 	}
 
 	@Override
 	public BufferedReader getReader() throws IOException {
-		return new BufferedReader(new InputStreamReader(this.getInputStream()));
+		return new BufferedReader(new InputStreamReader(this.getInputStream(), CharsetConstants.CHARSET_UTF_8));
 	}
 
 	@Override
 	public ServletInputStream getInputStream() throws IOException {
-		final ByteArrayInputStream bais = new ByteArrayInputStream(this.body);
-		return new ServletInputStream() {
-			@Override
-			public int read() throws IOException {
-				return bais.read();
-			}
+		// 首次读取: 边读边缓存
+		if(this.source == null) {
+			this.source = super.getInputStream();
+			return new CachingInputStream(this.source, this.body);
+		}
+		// 再次读取: 从缓存重放
+		this.drain();
+		return new ReplayInputStream(this.body.openInputStream(), this.body.length());
+	}
+
+	/**
+	 * 释放请求体缓存
+	 */
+	@Override
+	public void close() {
+		this.body.close();
+	}
+
+	/**
+	 * 读取原始输入流中剩余的内容到缓存
+	 * @throws IOException
+	 */
+	private void drain() throws IOException {
+		if(this.body.isComplete()) {
+			return;
+		}
+		if(this.source == null) {
+			this.source = super.getInputStream();
+		}
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = this.source.read(buffer, 0, buffer.length)) >= 0) {
+			this.body.write(buffer, 0, n);
+		}
+		this.body.complete();
+	}
+
+	/**
+	 * 边读取边缓存的输入流
+	 */
+	private static class CachingInputStream extends ServletInputStream {
+
+		private final ServletInputStream source;
+
+		private final RepeatableBody body;
+
+		CachingInputStream(ServletInputStream source, RepeatableBody body) {
+			this.source = source;
+			this.body = body;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return this.read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
 
-			@Override
-			public int available() throws IOException {
-				return body.length;
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			// 其他读取已补齐缓存，原始输入流已读完
+			if(this.body.isComplete()) {
+				return -1;
 			}
+			int n = this.source.read(b, off, len);
+			if(n > 0) {
+				this.body.write(b, off, n);
+			} else if(n < 0) {
+				this.body.complete();
+			}
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return this.body.isComplete() ? 0 : this.source.available();
+		}
+
+		@Override
+		public boolean isFinished() {
+			return this.body.isComplete() || this.source.isFinished();
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.body.isComplete() || this.source.isReady();
+		}
+
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			this.source.setReadListener(readListener);
+		}
+	}
+
+	/**
+	 * 从缓存重放的输入流
+	 */
+	private static class ReplayInputStream extends ServletInputStream {
 
-			@Override
-			public boolean isFinished() {
-				return false;
+		private final InputStream delegate;
+
+		private final long length;
+
+		private long position;
+
+		ReplayInputStream(InputStream delegate, long length) {
+			this.delegate = delegate;
+			this.length = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int c = this.delegate.read();
+			if(c >= 0) {
+				this.position++;
 			}
+			return c;
+		}
 
-			@Override
-			public boolean isReady() {
-				return false;
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = this.delegate.read(b, off, len);
+			if(n > 0) {
+				this.position += n;
 			}
+			return n;
+		}
 
-			@Override
-			public void setReadListener(ReadListener readListener) {
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(Integer.MAX_VALUE, this.length - this.position);
+		}
 
+		@Override
+		public boolean isFinished() {
+			return this.position >= this.length;
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			// 内容已全部可读，直接通知
+			try {
+				if(!this.isFinished()) {
+					readListener.onDataAvailable();
+				}
+				if(this.isFinished()) {
+					readListener.onAllDataRead();
+				}
+			} catch (Throwable e) {
+				readListener.onError(e);
 			}
-		};
+		}
+
+		@Override
+		public void close() throws IOException {
+			IoUtils.close(this.delegate);
+		}
 	}
 }
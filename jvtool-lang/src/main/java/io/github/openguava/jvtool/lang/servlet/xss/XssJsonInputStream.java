@@ -0,0 +1,395 @@
+package io.github.openguava.jvtool.lang.servlet.xss;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+import io.github.openguava.jvtool.lang.constant.CharsetConstants;
+import io.github.openguava.jvtool.lang.html.HtmlFilter;
+import io.github.openguava.jvtool.lang.html.HtmlFilterPolicy;
+
+/**
+ * json 请求体 xss 过滤输入流<br>
+ * 边读取边对 json 做一次词法扫描，只对字符串值(不含键名)执行 {@link HtmlFilter} 过滤，其余内容原样输出；
+ * 不含 '&lt;'、'&gt;'、'&amp;'、'"' 的字符串值直接按原始字节输出，不做解码及过滤。<br>
+ * json 的结构字符均为 ASCII，按字节扫描对 UTF-8 内容是安全的；内容不是合法 json 时按原样输出。
+ * @author openguava
+ *
+ */
+public class XssJsonInputStream extends ServletInputStream {
+
+	/** 读取缓冲区大小 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** 容器类型: 对象 */
+	private static final byte CONTAINER_OBJECT = 1;
+
+	/** 容器类型: 数组 */
+	private static final byte CONTAINER_ARRAY = 2;
+
+	/** 源输入流 */
+	private final InputStream source;
+
+	/** 读取缓冲区 */
+	private final byte[] input = new byte[BUFFER_SIZE];
+
+	/** 输出缓冲区 */
+	private byte[] output = new byte[BUFFER_SIZE];
+
+	/** 输出缓冲区读取位置 */
+	private int outputPos;
+
+	/** 输出缓冲区有效长度 */
+	private int outputLimit;
+
+	/** 当前字符串值内容(不含引号) */
+	private byte[] value = new byte[256];
+
+	/** 当前字符串值长度 */
+	private int valueLength;
+
+	/** 容器栈 */
+	private byte[] containers = new byte[16];
+
+	/** 容器栈深度 */
+	private int depth;
+
+	/** 当前对象是否等待键名 */
+	private boolean expectKey;
+
+	/** 是否在字符串内 */
+	private boolean inString;
+
+	/** 当前字符串是否为键名 */
+	private boolean inKey;
+
+	/** 上一字节是否为转义符 */
+	private boolean escape;
+
+	/** 当前字符串值是否需要过滤检查 */
+	private boolean suspicious;
+
+	/** 源输入流是否已读完 */
+	private boolean eof;
+
+	public XssJsonInputStream(InputStream source) {
+		this.source = source;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(!this.fill()) {
+			return -1;
+		}
+		return this.output[this.outputPos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0) {
+			return 0;
+		}
+		if(!this.fill()) {
+			return -1;
+		}
+		int n = Math.min(len, this.outputLimit - this.outputPos);
+		System.arraycopy(this.output, this.outputPos, b, off, n);
+		this.outputPos += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return this.outputLimit - this.outputPos;
+	}
+
+	@Override
+	public boolean isFinished() {
+		if(this.outputPos < this.outputLimit) {
+			return false;
+		}
+		if(this.eof) {
+			return true;
+		}
+		return this.source instanceof ServletInputStream && ((ServletInputStream) this.source).isFinished();
+	}
+
+	@Override
+	public boolean isReady() {
+		if(this.outputPos < this.outputLimit || this.eof) {
+			return true;
+		}
+		return !(this.source instanceof ServletInputStream) || ((ServletInputStream) this.source).isReady();
+	}
+
+	@Override
+	public void setReadListener(ReadListener readListener) {
+		if(this.source instanceof ServletInputStream) {
+			((ServletInputStream) this.source).setReadListener(readListener);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.source.close();
+	}
+
+	/**
+	 * 填充输出缓冲区
+	 * @return 无更多数据返回 false
+	 * @throws IOException
+	 */
+	private boolean fill() throws IOException {
+		while (this.outputPos >= this.outputLimit) {
+			if(this.eof) {
+				return false;
+			}
+			this.outputPos = 0;
+			this.outputLimit = 0;
+			int n = this.source.read(this.input, 0, this.input.length);
+			if(n < 0) {
+				this.eof = true;
+				// 未结束的字符串值原样输出
+				if(this.inString && !this.inKey) {
+					this.write(this.value, 0, this.valueLength);
+					this.valueLength = 0;
+				}
+			} else {
+				this.process(this.input, n);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 扫描一段输入
+	 * @param b
+	 * @param len
+	 */
+	private void process(byte[] b, int len) {
+		for (int i = 0; i < len; i++) {
+			byte c = b[i];
+			if(this.inString) {
+				if(this.escape) {
+					this.escape = false;
+				} else if(c == '"') {
+					this.inString = false;
+					if(!this.inKey) {
+						this.writeValue();
+					}
+				} else if(c == '\\') {
+					this.escape = true;
+					this.suspicious = true;
+				} else if(c == '<' || c == '>' || c == '&') {
+					this.suspicious = true;
+				}
+				if(this.inKey || !this.inString) {
+					this.write(c);
+				} else {
+					this.appendValue(c);
+				}
+				continue;
+			}
+			switch (c) {
+			case '"':
+				this.inString = true;
+				this.inKey = this.depth > 0 && this.containers[this.depth - 1] == CONTAINER_OBJECT && this.expectKey;
+				this.suspicious = false;
+				this.valueLength = 0;
+				break;
+			case '{':
+				this.push(CONTAINER_OBJECT);
+				this.expectKey = true;
+				break;
+			case '[':
+				this.push(CONTAINER_ARRAY);
+				break;
+			case '}':
+			case ']':
+				if(this.depth > 0) {
+					this.depth--;
+				}
+				this.expectKey = false;
+				break;
+			case ',':
+				this.expectKey = this.depth > 0 && this.containers[this.depth - 1] == CONTAINER_OBJECT;
+				break;
+			case ':':
+				this.expectKey = false;
+				break;
+			default:
+				break;
+			}
+			this.write(c);
+		}
+	}
+
+	/**
+	 * 输出已结束的字符串值(不含结束引号)
+	 */
+	private void writeValue() {
+		if(this.suspicious) {
+			String text = decodeJsonString(this.value, this.valueLength);
+			if(text != null && isMarkup(text)) {
+				String filtered = HtmlFilterPolicy.DEFAULT.filter(text);
+				if(!filtered.equals(text)) {
+					byte[] bytes = encodeJsonString(filtered).getBytes(CharsetConstants.CHARSET_UTF_8);
+					this.write(bytes, 0, bytes.length);
+					this.valueLength = 0;
+					return;
+				}
+			}
+		}
+		this.write(this.value, 0, this.valueLength);
+		this.valueLength = 0;
+	}
+
+	private void push(byte container) {
+		if(this.depth == this.containers.length) {
+			this.containers = Arrays.copyOf(this.containers, this.depth << 1);
+		}
+		this.containers[this.depth++] = container;
+	}
+
+	private void appendValue(byte c) {
+		if(this.valueLength == this.value.length) {
+			this.value = Arrays.copyOf(this.value, this.valueLength << 1);
+		}
+		this.value[this.valueLength++] = c;
+	}
+
+	private void write(byte c) {
+		if(this.outputLimit == this.output.length) {
+			this.output = Arrays.copyOf(this.output, this.outputLimit << 1);
+		}
+		this.output[this.outputLimit++] = c;
+	}
+
+	private void write(byte[] b, int off, int len) {
+		if(this.outputLimit + len > this.output.length) {
+			this.output = Arrays.copyOf(this.output, Math.max(this.output.length << 1, this.outputLimit + len));
+		}
+		System.arraycopy(b, off, this.output, this.outputLimit, len);
+		this.outputLimit += len;
+	}
+
+	/**
+	 * 是否包含需要过滤的字符
+	 * @param text
+	 * @return
+	 */
+	private static boolean isMarkup(String text) {
+		for (int i = 0, len = text.length(); i < len; i++) {
+			char c = text.charAt(i);
+			if(c == '<' || c == '>' || c == '&' || c == '"') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 解码 json 字符串内容(不含引号)
+	 * @param b
+	 * @param len
+	 * @return 转义格式错误返回 null
+	 */
+	private static String decodeJsonString(byte[] b, int len) {
+		String s = new String(b, 0, len, CharsetConstants.CHARSET_UTF_8);
+		int slash = s.indexOf('\\');
+		if(slash < 0) {
+			return s;
+		}
+		StringBuilder sb = new StringBuilder(s.length());
+		sb.append(s, 0, slash);
+		for (int i = slash, n = s.length(); i < n; i++) {
+			char c = s.charAt(i);
+			if(c != '\\') {
+				sb.append(c);
+				continue;
+			}
+			if(++i >= n) {
+				return null;
+			}
+			c = s.charAt(i);
+			switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				sb.append(c);
+				break;
+			case 'b':
+				sb.append('\b');
+				break;
+			case 'f':
+				sb.append('\f');
+				break;
+			case 'n':
+				sb.append('\n');
+				break;
+			case 'r':
+				sb.append('\r');
+				break;
+			case 't':
+				sb.append('\t');
+				break;
+			case 'u':
+				if(i + 4 >= n) {
+					return null;
+				}
+				try {
+					sb.append((char) Integer.parseInt(s.substring(i + 1, i + 5), 16));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+				i += 4;
+				break;
+			default:
+				return null;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 编码 json 字符串内容(不含引号)
+	 * @param s
+	 * @return
+	 */
+	private static String encodeJsonString(String s) {
+		StringBuilder sb = new StringBuilder(s.length() + 16);
+		for (int i = 0, n = s.length(); i < n; i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if(c < 0x20) {
+					sb.append("\\u00");
+					sb.append(Character.forDigit(c >> 4, 16));
+					sb.append(Character.forDigit(c & 0xF, 16));
+				} else {
+					sb.append(c);
+				}
+				break;
+			}
+		}
+		return sb.toString();
+	}
+}
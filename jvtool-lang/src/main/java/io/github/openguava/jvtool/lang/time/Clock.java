@@ -0,0 +1,39 @@
+package io.github.openguava.jvtool.lang.time;
+
+/**
+ * 时钟<br>
+ * 按精度需要选择实现：{@link #SYSTEM} 直接读取系统时间，{@link SystemClock} 由后台定时刷新的粗粒度时间，
+ * 测试时可使用 {@link FakeClock} 手动控制时间
+ * @author openguava
+ *
+ */
+public interface Clock {
+
+	/**
+	 * 系统时钟，直接调用 {@link System#currentTimeMillis()} 及 {@link System#nanoTime()}
+	 */
+	Clock SYSTEM = new Clock() {
+
+		@Override
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+
+		@Override
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+	};
+
+	/**
+	 * 当前时间戳(毫秒)
+	 * @return
+	 */
+	long currentTimeMillis();
+
+	/**
+	 * 用于计算时间间隔的纳秒时间，与 {@link System#nanoTime()} 含义相同
+	 * @return
+	 */
+	long nanoTime();
+}
@@ -0,0 +1,67 @@
+package io.github.openguava.jvtool.lang.time;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 手动控制的时钟，仅在调用 {@link #advance(long, TimeUnit)} 或 {@link #setTime(long)} 时变化，用于编写确定性的测试
+ * @author openguava
+ *
+ */
+public class FakeClock implements Clock {
+
+	/** 纳秒时间 */
+	private final AtomicLong nanos = new AtomicLong();
+
+	/** 纳秒时间为0时对应的时间戳(毫秒) */
+	private volatile long originMillis;
+
+	/**
+	 * 初始化，当前时间戳为0
+	 */
+	public FakeClock() {
+		this(0L);
+	}
+
+	/**
+	 * 初始化
+	 * @param currentTimeMillis 当前时间戳(毫秒)
+	 */
+	public FakeClock(long currentTimeMillis) {
+		this.originMillis = currentTimeMillis;
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return this.originMillis + TimeUnit.NANOSECONDS.toMillis(this.nanos.get());
+	}
+
+	@Override
+	public long nanoTime() {
+		return this.nanos.get();
+	}
+
+	/**
+	 * 设置当前时间戳，不影响 {@link #nanoTime()}，可用于模拟时钟回拨
+	 * @param currentTimeMillis 当前时间戳(毫秒)
+	 * @return this
+	 */
+	public FakeClock setTime(long currentTimeMillis) {
+		this.originMillis = currentTimeMillis - TimeUnit.NANOSECONDS.toMillis(this.nanos.get());
+		return this;
+	}
+
+	/**
+	 * 时间前进
+	 * @param duration 时长，不能小于0
+	 * @param unit 时长单位
+	 * @return this
+	 */
+	public FakeClock advance(long duration, TimeUnit unit) {
+		if (duration < 0) {
+			throw new IllegalArgumentException("duration can't be less than 0");
+		}
+		this.nanos.addAndGet(unit.toNanos(duration));
+		return this;
+	}
+}
@@ -9,7 +9,7 @@ import java.util.concurrent.TimeUnit;
  * Simple stop watch, allowing for timing of a number of tasks, exposing total
  * running time and running time for each named task.
  *
- * <p>Conceals use of {@link System#nanoTime()}, improving the readability of
+ * <p>Conceals use of {@link System#nanoTime()} (or the given {@link Clock}), improving the readability of
  * application code and reducing the likelihood of calculation errors.
  *
  * <p>Note that this object is not designed to be thread-safe and does not use
@@ -35,6 +35,9 @@ public class StopWatch {
 	 */
 	private final String id;
 
+	/** Clock providing {@link Clock#nanoTime()}. */
+	private final Clock clock;
+
 	private boolean keepTaskList = true;
 
 	private final List<TaskInfo> taskList = new ArrayList<>(1);
@@ -69,7 +72,18 @@ public class StopWatch {
 	 * @param id identifier for this stop watch
 	 */
 	public StopWatch(String id) {
+		this(id, Clock.SYSTEM);
+	}
+
+	/**
+	 * Construct a new {@code StopWatch} with the given ID and clock.
+	 * <p>Does not start any task.
+	 * @param id identifier for this stop watch
+	 * @param clock the clock to read nano time from, e.g. a {@link FakeClock} in tests
+	 */
+	public StopWatch(String id, Clock clock) {
 		this.id = id;
+		this.clock = clock;
 	}
 
 
@@ -119,7 +133,7 @@ public class StopWatch {
 			throw new IllegalStateException("Can't start StopWatch: it's already running");
 		}
 		this.currentTaskName = taskName;
-		this.startTimeNanos = System.nanoTime();
+		this.startTimeNanos = this.clock.nanoTime();
 	}
 
 	/**
@@ -133,7 +147,7 @@ public class StopWatch {
 		if (this.currentTaskName == null) {
 			throw new IllegalStateException("Can't stop StopWatch: it's not running");
 		}
-		long lastTime = System.nanoTime() - this.startTimeNanos;
+		long lastTime = this.clock.nanoTime() - this.startTimeNanos;
 		this.totalTimeNanos += lastTime;
 		this.lastTaskInfo = new TaskInfo(this.currentTaskName, lastTime);
 		if (this.keepTaskList) {
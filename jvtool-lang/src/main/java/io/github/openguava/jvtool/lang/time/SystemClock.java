@@ -1,76 +1,236 @@
 package io.github.openguava.jvtool.lang.time;
 
-import java.sql.Timestamp;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 高并发场景下System.currentTimeMillis()的性能问题的优化
  * <p><p>
  * System.currentTimeMillis()的调用比new一个普通对象要耗时的多（具体耗时高出多少我还没测试过，有人说是100倍左右）<p>
  * System.currentTimeMillis()之所以慢是因为去跟系统打了一次交道<p>
- * 后台定时更新时钟，JVM退出时，线程自动回收<p>
+ * 后台按指定周期刷新时钟，首次读取时才开始刷新，连续约1秒(至少2个周期)无人读取后停止刷新，
+ * 所有实例共用一个后台线程，该线程空闲一段时间后自动回收<p>
  * 10亿：43410,206,210.72815533980582%<p>
  * 1亿：4699,29,162.0344827586207%<p>
  * 1000万：480,12,40.0%<p>
  * 100万：50,10,5.0%<p>
  */
-public class SystemClock {
-	
-    private final long period;
-    
-    private final AtomicLong now;
-    
-    ExecutorService executor = Executors.newSingleThreadExecutor();
-
-    private SystemClock(long period) {
-        this.period = period;
-        this.now = new AtomicLong(System.currentTimeMillis());
-        scheduleClockUpdating();
-    }
-
-    private static class InstanceHolder {
-        public static final SystemClock INSTANCE = new SystemClock(1);
-    }
-
-    private static SystemClock instance() {
-        return InstanceHolder.INSTANCE;
-    }
-
-    private void scheduleClockUpdating() {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable runnable) {
-                Thread thread = new Thread(runnable, "System Clock");
-                thread.setDaemon(true);
-                return thread;
-            }
-        });
-        scheduler.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                now.set(System.currentTimeMillis());
-            }
-        }, period, period, TimeUnit.MILLISECONDS);
-    }
-
-    private long currentTimeMillis() {
-        return now.get();
-    }
-
-    /**
-     * 当前时间戳
-     * @return
-     */
-    public static long now() {
-        return instance().currentTimeMillis();
-    }
-
-    public static String nowDate() {
-        return new Timestamp(instance().currentTimeMillis()).toString();
-    }
-}
\ No newline at end of file
+public class SystemClock implements Clock {
+
+	/** 无人读取多久后停止刷新(毫秒) */
+	private static final long IDLE_MILLIS = 1000L;
+
+	/** 后台线程空闲多久后回收(秒) */
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	/** 秒级时间格式 */
+	private static final String SECOND_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+	/** 共用的刷新线程池 */
+	private static volatile ScheduledThreadPoolExecutor scheduler;
+
+	/** 最近一次格式化的秒 */
+	private static volatile FormattedSecond formattedSecond;
+
+	/** 刷新周期(毫秒) */
+	private final long period;
+
+	/** 连续多少个周期无人读取后停止刷新 */
+	private final int idlePeriods;
+
+	/** 当前时间 */
+	private volatile long now;
+
+	/** 自上次刷新后是否被读取过 */
+	private volatile boolean accessed;
+
+	/** 是否正在刷新 */
+	private volatile boolean running;
+
+	/** 刷新任务，由 this 保护 */
+	private ScheduledFuture<?> future;
+
+	/** 连续无人读取的周期数，仅由刷新任务访问 */
+	private int idleCount;
+
+	/**
+	 * 初始化
+	 * @param period 刷新周期，即时钟精度
+	 * @param unit 周期单位
+	 */
+	public SystemClock(long period, TimeUnit unit) {
+		this.period = Math.max(1L, unit.toMillis(period));
+		this.idlePeriods = (int) Math.max(2L, IDLE_MILLIS / this.period);
+		this.now = System.currentTimeMillis();
+	}
+
+	private static class InstanceHolder {
+		public static final SystemClock INSTANCE = new SystemClock(1L, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 毫秒精度的共享实例
+	 * @return
+	 */
+	public static SystemClock getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		if (!this.running) {
+			return this.start();
+		}
+		// 已标记时不再写，避免多核间反复争用同一缓存行
+		if (!this.accessed) {
+			this.accessed = true;
+		}
+		return this.now;
+	}
+
+	/**
+	 * 纳秒时间用于计算间隔，不做缓存
+	 */
+	@Override
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * 刷新周期(毫秒)
+	 * @return
+	 */
+	public long getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * 是否正在刷新
+	 * @return
+	 */
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * 开始刷新，并返回当前时间
+	 * @return
+	 */
+	private synchronized long start() {
+		long time = System.currentTimeMillis();
+		this.now = time;
+		if (!this.running) {
+			this.idleCount = 0;
+			this.future = scheduler().scheduleAtFixedRate(this::tick, this.period, this.period, TimeUnit.MILLISECONDS);
+			this.running = true;
+		}
+		return time;
+	}
+
+	/**
+	 * 刷新时间，长时间无人读取时停止
+	 */
+	private void tick() {
+		this.now = System.currentTimeMillis();
+		if (this.accessed) {
+			this.accessed = false;
+			this.idleCount = 0;
+			return;
+		}
+		if (++this.idleCount >= this.idlePeriods) {
+			synchronized (this) {
+				this.running = false;
+				this.future.cancel(false);
+				this.future = null;
+			}
+		}
+	}
+
+	private static ScheduledThreadPoolExecutor scheduler() {
+		ScheduledThreadPoolExecutor executor = scheduler;
+		if (executor == null) {
+			synchronized (SystemClock.class) {
+				executor = scheduler;
+				if (executor == null) {
+					executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+						Thread thread = new Thread(runnable, "System Clock");
+						thread.setDaemon(true);
+						return thread;
+					});
+					executor.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+					executor.allowCoreThreadTimeOut(true);
+					executor.setRemoveOnCancelPolicy(true);
+					scheduler = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * 当前时间戳
+	 * @return
+	 */
+	public static long now() {
+		return getInstance().currentTimeMillis();
+	}
+
+	/**
+	 * 当前时间，格式与 {@link java.sql.Timestamp#toString()} 相同，如 2024-01-02 03:04:05.6
+	 * @return
+	 */
+	public static String nowDate() {
+		long millis = now();
+		String second = formatSecond(millis);
+		int fraction = (int) Math.floorMod(millis, 1000L);
+		if (fraction == 0) {
+			return second + ".0";
+		}
+		// 毫秒补足3位后去掉末尾的0
+		char[] digits = { (char) ('0' + fraction / 100), (char) ('0' + fraction / 10 % 10), (char) ('0' + fraction % 10) };
+		int length = digits.length;
+		while (digits[length - 1] == '0') {
+			length--;
+		}
+		return new StringBuilder(second.length() + 1 + length).append(second).append('.').append(digits, 0, length).toString();
+	}
+
+	/**
+	 * 当前时间(秒级)，格式为 yyyy-MM-dd HH:mm:ss，同一秒内返回缓存的字符串，适用于日志等场景
+	 * @return
+	 */
+	public static String nowDateTime() {
+		return formatSecond(now());
+	}
+
+	/**
+	 * 格式化到秒，同一秒内复用上次结果
+	 * @param millis
+	 * @return
+	 */
+	private static String formatSecond(long millis) {
+		long second = Math.floorDiv(millis, 1000L);
+		FormattedSecond formatted = formattedSecond;
+		if (formatted == null || formatted.second != second) {
+			formatted = new FormattedSecond(second, FastDateFormat.getInstance(SECOND_PATTERN).format(second * 1000L));
+			formattedSecond = formatted;
+		}
+		return formatted.text;
+	}
+
+	/**
+	 * 已格式化的秒
+	 */
+	private static final class FormattedSecond {
+
+		private final long second;
+
+		private final String text;
+
+		FormattedSecond(long second, String text) {
+			this.second = second;
+			this.text = text;
+		}
+	}
+}
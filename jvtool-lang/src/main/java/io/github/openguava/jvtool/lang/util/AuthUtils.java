@@ -4,6 +4,7 @@ import java.util.function.Supplier;
 
 import io.github.openguava.jvtool.lang.auth.AuthContext;
 import io.github.openguava.jvtool.lang.auth.AuthLogic;
+import io.github.openguava.jvtool.lang.auth.AuthScope;
 import io.github.openguava.jvtool.lang.auth.AuthToken;
 import io.github.openguava.jvtool.lang.auth.AuthUser;
 import io.github.openguava.jvtool.lang.auth.annotation.RequiresAnonymous;
@@ -95,6 +96,7 @@ public class AuthUtils {
 	 */
 	public static void login(AuthUser user) {
 		getAuthLogic().login(user);
+		getAuthLogic().resetScope();
 	}
 	
 	/**
@@ -103,6 +105,16 @@ public class AuthUtils {
 	 */
 	public static void logout(AuthToken token) {
 		getAuthLogic().logout(token);
+		getAuthLogic().resetScope();
+	}
+	
+	/**
+	 * 开启认证范围，范围内认证令牌及用户只解析一次，需在 try-with-resources 中使用
+	 * @return
+	 */
+	public static AuthScope openScope() {
+		AuthLogic logic = getAuthLogic();
+		return logic == null ? AuthScope.NONE : logic.openScope();
 	}
 	
 	/**
@@ -2,7 +2,9 @@ package io.github.openguava.jvtool.lang.util;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import io.github.openguava.jvtool.lang.cache.AbstractCacheManager;
@@ -77,6 +79,37 @@ public class CacheUtils {
 		return getCache().get(key, valueLoader);
 	}
 	
+	/**
+	 * 获取缓存值，同一 key 的并发加载只执行一次，临近过期时按概率提前刷新
+	 * @param key 键
+	 * @param valueLoader 如果不存在回调方法，用于生产值对象
+	 * @param ttl 加载后的生存时间(毫秒)，小于1表示永久
+	 * @return
+	 */
+	public static Object get(String key, Supplier<Object> valueLoader, long ttl) {
+		return getCache().get(key, valueLoader, ttl);
+	}
+	
+	/**
+	 * 批量获取缓存值
+	 * @param keys 键集合
+	 * @return 存在的键值对，按传入顺序排列
+	 */
+	public static Map<String, Object> getAll(Collection<String> keys) {
+		return getCache().getAll(keys);
+	}
+	
+	/**
+	 * 批量获取缓存值，不存在的键通过一次批量加载获取并写入缓存
+	 * @param keys 键集合
+	 * @param valueLoader 批量加载方法，参数为缺失的键集合，返回加载到的键值对
+	 * @param ttl 加载后的生存时间(毫秒)，小于1表示永久
+	 * @return 存在或加载到的键值对，按传入顺序排列
+	 */
+	public static Map<String, Object> getAll(Collection<String> keys, Function<Collection<String>, Map<String, Object>> valueLoader, long ttl) {
+		return getCache().getAll(keys, valueLoader, ttl);
+	}
+	
 	/**
 	 * 获取字节数组缓存值
 	 * @param key 键
@@ -139,6 +172,15 @@ public class CacheUtils {
 		getCache().put(key, value, ttl);
 	}
 	
+	/**
+	 * 批量设置缓存
+	 * @param map 键值对
+	 * @param ttl 生存时间(毫秒)，小于1表示永久
+	 */
+	public static void putAll(Map<String, ?> map, long ttl) {
+		getCache().putAll(map, ttl);
+	}
+	
 	/**
 	 * 移除缓存
 	 * @param key 键
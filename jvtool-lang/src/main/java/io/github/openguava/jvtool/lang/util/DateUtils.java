@@ -18,6 +18,7 @@ import java.util.Locale;
 import java.util.TimeZone;
 
 import io.github.openguava.jvtool.lang.exception.UtilException;
+import io.github.openguava.jvtool.lang.time.FastDateFormat;
 import io.github.openguava.jvtool.lang.time.FastDateParser;
 import io.github.openguava.jvtool.lang.time.enums.DateField;
 import io.github.openguava.jvtool.lang.time.enums.DateWeek;
@@ -94,7 +95,7 @@ public class DateUtils {
 	}
 	
 	/**
-	 * 根据特定格式格式化日期
+	 * 根据特定格式格式化日期(格式化器按格式、时区、区域缓存复用)
 	 * @param date 被格式化的日期
 	 * @param format 日期格式
 	 * @param timeZone 时区
@@ -104,11 +105,7 @@ public class DateUtils {
 		if (null == date || StringUtils.isBlank(format)) {
 			return null;
 		}
-		final SimpleDateFormat sdf = new SimpleDateFormat(format);
-		if(timeZone != null) {
-			sdf.setTimeZone(timeZone);
-		}
-		return format(date, sdf);
+		return FastDateFormat.getInstance(format, timeZone).format(date);
 	}
 	
 	/**
@@ -154,18 +151,18 @@ public class DateUtils {
 	}
 	
 	/**
-	 * 将特定格式的日期转换为Date对象
+	 * 将特定格式的日期转换为Date对象(解析器按格式、时区、区域缓存复用)
 	 * @param dateStr 特定格式的日期
 	 * @param format 格式，例如yyyy-MM-dd
 	 * @param timeZone 时区
 	 * @return
 	 */
 	public static Date parse(String dateStr, String format, TimeZone timeZone){
-		SimpleDateFormat dateFormat = new SimpleDateFormat(format);
-		if(timeZone != null) {
-			dateFormat.setTimeZone(timeZone);
+		try {
+			return FastDateFormat.getInstance(format, timeZone).parse(dateStr);
+		} catch (Exception e) {
+			throw new UtilException(StringUtils.format("Parse [{}] with format [{}] error!", dateStr, format), e);
 		}
-		return parse(dateStr, dateFormat);
 	}
 	
 	/**
@@ -188,6 +185,74 @@ public class DateUtils {
 		}
 	}
 	
+	/**
+	 * 根据日期字符串的长度及分隔符，一次扫描确定 {@link #FORMAT_PATTERNS} 中对应的格式
+	 * @param str 日期字符串
+	 * @return 无法确定时返回 null
+	 */
+	private static String getParsePattern(String str) {
+		int length = str.length();
+		if(length < 6 || length > 23) {
+			return null;
+		}
+		for (int i = 0; i < 4; i++) {
+			if(!isDigit(str.charAt(i))) {
+				return null;
+			}
+		}
+		// FORMAT_PATTERNS 按分隔符 '-'、'/'、'.' 分组，每组依次为 日期时间、日期时分、日期、年月、日期时间毫秒
+		int group;
+		char separator = str.charAt(4);
+		if(separator == '-') {
+			group = 0;
+		} else if(separator == '/') {
+			group = 5;
+		} else if(separator == '.') {
+			group = 10;
+		} else {
+			return null;
+		}
+		int dateParts = 2;
+		int colons = 0;
+		boolean time = false;
+		boolean millis = false;
+		for (int i = 5; i < length; i++) {
+			char c = str.charAt(i);
+			if(isDigit(c)) {
+				continue;
+			}
+			if(!time) {
+				if(c == separator) {
+					dateParts++;
+				} else if(c == ' ' && dateParts == 3) {
+					time = true;
+				} else {
+					return null;
+				}
+			} else if(c == ':' && !millis) {
+				colons++;
+			} else if(c == '.' && colons == 2 && !millis) {
+				millis = true;
+			} else {
+				return null;
+			}
+		}
+		if(!time) {
+			return dateParts == 3 ? FORMAT_PATTERNS[group + 2] : dateParts == 2 ? FORMAT_PATTERNS[group + 3] : null;
+		}
+		if(colons == 1) {
+			return FORMAT_PATTERNS[group + 1];
+		}
+		if(colons == 2) {
+			return FORMAT_PATTERNS[group + (millis ? 4 : 0)];
+		}
+		return null;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
 	/**
 	 * 智能解析 date 格式
 	 * @param str
@@ -205,6 +270,14 @@ public class DateUtils {
     			return DateUtils.getDate(NumberUtils.parseLong(str));
     		}
     	}
+    	// 按长度及分隔符确定格式，只解析一次
+    	String pattern = getParsePattern(str);
+    	if(pattern != null) {
+    		Date date = parse(str, pattern, TimeZone.getDefault(), Locale.getDefault(), true);
+    		if(date != null) {
+    			return date;
+    		}
+    	}
     	try {
     		return parse(str, FORMAT_PATTERNS);
 		} catch (Exception e) {
@@ -278,24 +351,43 @@ public class DateUtils {
 
         final TimeZone tz = TimeZone.getDefault();
         final Locale lcl = locale != null ? locale : Locale.getDefault();
-        final ParsePosition pos = new ParsePosition(0);
-        final Calendar calendar = Calendar.getInstance(tz, lcl);
-        calendar.setLenient(lenient);
 
         for (final String parsePattern : parsePatterns) {
-            final FastDateParser fdp = new FastDateParser(parsePattern, tz, lcl);
-            calendar.clear();
-            try {
-                if (fdp.parse(str, pos, calendar) && pos.getIndex() == str.length()) {
-                    return calendar.getTime();
-                }
-            } catch (final IllegalArgumentException ignore) {
-                // leniency is preventing calendar from being set
+            final Date date = parse(str, parsePattern, tz, lcl, lenient);
+            if (date != null) {
+                return date;
             }
-            pos.setIndex(0);
         }
         throw new ParseException("Unable to parse the date: " + str, -1);
     }
+
+    /**
+     * <p>Parses a string representing a date with a single cached parser.</p>
+     * A parse is only deemed successful if it parses the whole of the input string.
+     *
+     * @param str  the date to parse, not null
+     * @param parsePattern  the date format pattern to use
+     * @param tz  the time zone to use
+     * @param lcl  the locale to use
+     * @param lenient Specify whether or not date/time parsing is to be lenient.
+     * @return the parsed date, or null if the pattern is not suitable
+     */
+    private static Date parse(final String str, final String parsePattern, final TimeZone tz, final Locale lcl,
+        final boolean lenient) {
+        final FastDateParser fdp = FastDateFormat.getInstance(parsePattern, tz, lcl).getParser();
+        final ParsePosition pos = new ParsePosition(0);
+        final Calendar calendar = Calendar.getInstance(tz, lcl);
+        calendar.setLenient(lenient);
+        calendar.clear();
+        try {
+            if (fdp.parse(str, pos, calendar) && pos.getIndex() == str.length()) {
+                return calendar.getTime();
+            }
+        } catch (final IllegalArgumentException ignore) {
+            // leniency is preventing calendar from being set
+        }
+        return null;
+    }
 	
 	/**
 	 * 解析日期格式化字符
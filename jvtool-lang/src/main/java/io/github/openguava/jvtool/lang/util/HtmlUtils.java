@@ -3,7 +3,7 @@ package io.github.openguava.jvtool.lang.util;
 import io.github.openguava.jvtool.lang.Validate;
 import io.github.openguava.jvtool.lang.html.HtmlCharacterEntityDecoder;
 import io.github.openguava.jvtool.lang.html.HtmlCharacterEntityReferences;
-import io.github.openguava.jvtool.lang.html.HtmlFilter;
+import io.github.openguava.jvtool.lang.html.HtmlFilterPolicy;
 
 /**
  * html 工具类
@@ -199,7 +199,7 @@ public class HtmlUtils {
 	 * @return
 	 */
 	public static String htmlClean(String input) {
-		return new HtmlFilter().filter(input);
+		return HtmlFilterPolicy.DEFAULT.filter(input);
 	}
 	
 	/**
@@ -209,7 +209,7 @@ public class HtmlUtils {
 	 * @return
 	 */
 	public static String htmlClean(String input, boolean validateEntity) {
-		return new HtmlFilter().filter(input, validateEntity);
+		return HtmlFilterPolicy.DEFAULT.filter(input, validateEntity);
 	}
 	
 	/**
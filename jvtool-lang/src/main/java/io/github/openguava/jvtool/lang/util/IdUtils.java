@@ -69,7 +69,25 @@ public class IdUtils {
 	public static String fastSimpleUUID() {
 		return UUID.fastUUID().toString(true);
 	}
-	
+
+	/**
+	 * 获取按时间排序的UUID(version 7)，适合作为数据库主键
+	 *
+	 * @return 按时间排序的UUID
+	 */
+	public static String timeOrderedUUID() {
+		return UUID.timeOrderedUUID().toString();
+	}
+
+	/**
+	 * 简化的按时间排序的UUID(version 7)，去掉了横线
+	 *
+	 * @return 简化的按时间排序的UUID，去掉了横线
+	 */
+	public static String timeOrderedSimpleUUID() {
+		return UUID.timeOrderedUUID().toString(true);
+	}
+
 	/**
 	 * 序列循环递增字符串[1, 10 的 (length)幂次方), 用0左补齐length位数
 	 * 
@@ -1,5 +1,8 @@
 package io.github.openguava.jvtool.lang.util;
 
+import io.github.openguava.jvtool.lang.cache.timed.TimedCache;
+import io.github.openguava.jvtool.lang.http.IpFilter;
+
 /**
  * ip 地址工具类
  * 
@@ -18,6 +21,19 @@ public class IpUtils {
 
 	/** ip 网段正则 */
 	public final static String REGX_IP_SEG = "(" + REGX_IP + "\\-" + REGX_IP + ")";
+	
+	/** 过滤器缓存最大数量 */
+	private static final long IP_FILTER_CACHE_SIZE = 256L;
+	
+	/** 过滤器缓存最大权重(过滤串字符总数) */
+	private static final long IP_FILTER_CACHE_WEIGHT = 256L * 1024L;
+	
+	/**
+	 * 已编译的过滤器缓存，按数量及过滤串总长度限制容量<br>
+	 * 按 W-TinyLFU 淘汰，不断变化的过滤串访问频率低，难以挤出常用过滤器
+	 */
+	private static final TimedCache IP_FILTER_CACHE = new TimedCache(IpUtils.class.getSimpleName(),
+			IP_FILTER_CACHE_SIZE, IP_FILTER_CACHE_WEIGHT, (key, value) -> key.length());
 
 	protected IpUtils() {
 
@@ -238,7 +254,7 @@ public class IpUtils {
 	/**
 	 * 校验ip是否符合过滤串规则
 	 * 
-	 * @param filter 过滤IP列表,支持后缀'*'通配,支持网段如:`10.10.10.1-10.10.10.99`
+	 * @param filter 过滤IP列表,支持后缀'*'通配,支持网段如:`10.10.10.1-10.10.10.99`,支持CIDR及IPv6
 	 * @param ip     校验IP地址
 	 * @return boolean 结果
 	 */
@@ -246,16 +262,27 @@ public class IpUtils {
 		if (StringUtils.isEmpty(filter) || StringUtils.isEmpty(ip)) {
 			return false;
 		}
-		String[] ips = filter.split(";");
-		for (String iStr : ips) {
-			if (isIP(iStr) && iStr.equals(ip)) {
-				return true;
-			} else if (isIpWildcard(iStr) && isIpInWildcardNoCheck(iStr, ip)) {
-				return true;
-			} else if (isIpSegment(iStr) && isIpInSegmentNoCheck(iStr, ip)) {
-				return true;
-			}
+		return getIpFilter(filter).matches(ip);
+	}
+	
+	/**
+	 * 获取已编译的ip过滤器(按过滤串缓存)
+	 * 
+	 * @param filter 过滤IP列表
+	 * @return {@link IpFilter}
+	 */
+	public static IpFilter getIpFilter(String filter) {
+		if (StringUtils.isEmpty(filter)) {
+			return IpFilter.EMPTY;
+		}
+		Object cached = IP_FILTER_CACHE.get(filter);
+		if (cached instanceof IpFilter) {
+			return (IpFilter) cached;
+		}
+		IpFilter ipFilter = IpFilter.compile(filter);
+		if (filter.length() <= IP_FILTER_CACHE_WEIGHT) {
+			IP_FILTER_CACHE.put(filter, ipFilter);
 		}
-		return false;
+		return ipFilter;
 	}
 }
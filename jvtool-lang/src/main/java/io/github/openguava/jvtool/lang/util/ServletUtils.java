@@ -1,17 +1,24 @@
 package io.github.openguava.jvtool.lang.util;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import javax.servlet.ServletContext;
@@ -1050,37 +1057,312 @@ public class ServletUtils {
 	 * 输出响应文件
 	 * @param response 响应对象
 	 * @param contentType 内容类型
-	 * @param inputStream 流对象
-	 * @param bufferSize 缓冲区大小
+	 * @param file 文件
+	 * @param fileName 下载文件名
 	 * @return
 	 */
 	public static long writeResponseFile(HttpServletResponse response, String contentType, File file, String fileName) {
+		return writeResponseFile(null, response, contentType, file, fileName);
+	}
+	
+	/**
+	 * 输出响应文件<br>
+	 * 支持 ETag/Last-Modified 条件请求(304/412)及单段 Range/If-Range 断点续传(206/416)；
+	 * 文件内容通过 {@link FileChannel#transferTo(long, long, WritableByteChannel)} 直接写入响应流，
+	 * 无法传输时改用池化的直接缓冲区复制。
+	 * @param request 请求对象，为 null 时取当前请求，仍为 null 时不处理条件请求及范围请求
+	 * @param response 响应对象
+	 * @param contentType 内容类型
+	 * @param file 文件
+	 * @param fileName 下载文件名
+	 * @return 输出字节数，未修改返回 0，失败返回 -1
+	 */
+	public static long writeResponseFile(HttpServletRequest request, HttpServletResponse response, String contentType, File file, String fileName) {
 		if(response == null && (response = getResponse()) == null) {
 			return -1;
 		}
-		InputStream inputStream = null;
+		if(request == null) {
+			request = getRequest();
+		}
+		FileChannel fileChannel = null;
 		try {
 			// 文件长度
 			Long fileLength = FileUtils.getFileLength(file);
 			if(fileLength == null) {
 				return -1;
 			}
-			response.setHeader(HttpConstants.HTTP_HEADER_CONTENT_LENGTH, String.valueOf(fileLength));
+			// 缓存校验
+			long lastModified = file.lastModified();
+			String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(fileLength) + "\"";
+			response.setHeader(HttpConstants.HTTP_HEADER_ETAG, etag);
+			if(lastModified > 0) {
+				response.setDateHeader(HttpConstants.HTTP_HEADER_LAST_MODIFIED, lastModified);
+			}
+			response.setHeader(HttpConstants.HTTP_HEADER_ACCEPT_RANGES, "bytes");
+			if(request != null) {
+				int status = checkRequestPreconditions(request, etag, lastModified);
+				if(status != HttpConstants.HTTP_STATUSCODE_OK) {
+					response.setStatus(status);
+					return 0;
+				}
+			}
+			// 请求范围
+			long start = 0;
+			long end = fileLength - 1;
+			long[] range = request != null ? getRequestRange(request, etag, lastModified, fileLength) : null;
+			if(range == RANGE_NOT_SATISFIABLE) {
+				response.setHeader(HttpConstants.HTTP_HEADER_CONTENT_RANGE, "bytes */" + fileLength);
+				response.setStatus(HttpConstants.HTTP_STATUSCODE_RANGE_NOT_SATISFIABLE);
+				return 0;
+			}
+			if(range != null) {
+				start = range[0];
+				end = range[1];
+				response.setStatus(HttpConstants.HTTP_STATUSCODE_PARTIAL_CONTENT);
+				response.setHeader(HttpConstants.HTTP_HEADER_CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength);
+			}
+			long count = end - start + 1;
+			response.setHeader(HttpConstants.HTTP_HEADER_CONTENT_LENGTH, String.valueOf(count));
 			// 文件名
 			if(StringUtils.isEmpty(fileName)){
 				fileName = FileUtils.getFileName(file.getAbsolutePath());
 			}
 			response.setHeader(HttpConstants.HTTP_HEADER_CONTENT_DISPOSITION, "attachment;filename=" + UrlUtils.encode(fileName, DEFAULT_CHARSET));
-			// 准备输入流
-			inputStream = new BufferedInputStream(new FileInputStream(file));
-			// 输出二进制流
-			return writeResponseStream(response, contentType, inputStream, DEFAULT_BUFFER_SIZE);
+			// 响应字符集
+			response.setCharacterEncoding(DEFAULT_CHARSET);
+			// 内容类型
+			if(!StringUtils.isEmpty(contentType)) {
+				response.setContentType(contentType);
+			}
+			if(request != null && HttpConstants.HTTP_REQUEST_METHOD_HEAD.equalsIgnoreCase(request.getMethod())) {
+				return 0;
+			}
+			// 输出文件内容
+			fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			ServletOutputStream outputStream = response.getOutputStream();
+			long writeBytes = transferFile(fileChannel, start, count, Channels.newChannel(outputStream));
+			outputStream.flush();
+			return writeBytes;
 		} catch (Exception e) {
 			LogUtils.error(ServletUtils.class, e.getMessage(), e);
 			return -1;
 		} finally {
-			IoUtils.close(inputStream);
+			IoUtils.close(fileChannel);
+		}
+	}
+	
+	/** 请求范围无效 */
+	private static final long[] RANGE_NOT_SATISFIABLE = new long[0];
+	
+	/** 传输缓冲区大小 */
+	private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+	
+	/** 传输缓冲区池最大数量 */
+	private static final int TRANSFER_BUFFER_POOL_SIZE = 32;
+	
+	/** 传输缓冲区池(直接缓冲区) */
+	private static final Queue<ByteBuffer> TRANSFER_BUFFER_POOL = new ConcurrentLinkedQueue<>();
+	
+	/** 传输缓冲区池当前数量 */
+	private static final AtomicInteger TRANSFER_BUFFER_POOL_COUNT = new AtomicInteger();
+	
+	/**
+	 * 校验条件请求
+	 * @param request 请求对象
+	 * @param etag 实体标签
+	 * @param lastModified 最后修改时间(毫秒)
+	 * @return 200 继续输出，304 未修改，412 前提条件失败
+	 */
+	private static int checkRequestPreconditions(HttpServletRequest request, String etag, long lastModified) {
+		String ifMatch = request.getHeader(HttpConstants.HTTP_HEADER_IF_MATCH);
+		if(ifMatch != null) {
+			if(!matchesETag(ifMatch, etag)) {
+				return HttpConstants.HTTP_STATUSCODE_PRECONDITION_FAILED;
+			}
+		} else {
+			long ifUnmodifiedSince = getRequestDateHeader(request, HttpConstants.HTTP_HEADER_IF_UNMODIFIED_SINCE);
+			if(ifUnmodifiedSince != -1 && lastModified / 1000 > ifUnmodifiedSince / 1000) {
+				return HttpConstants.HTTP_STATUSCODE_PRECONDITION_FAILED;
+			}
+		}
+		String ifNoneMatch = request.getHeader(HttpConstants.HTTP_HEADER_IF_NONE_MATCH);
+		if(ifNoneMatch != null) {
+			if(matchesETag(ifNoneMatch, etag)) {
+				String method = request.getMethod();
+				return HttpConstants.HTTP_REQUEST_METHOD_GET.equalsIgnoreCase(method) || HttpConstants.HTTP_REQUEST_METHOD_HEAD.equalsIgnoreCase(method)
+						? HttpConstants.HTTP_STATUSCODE_NOT_MODIFIED : HttpConstants.HTTP_STATUSCODE_PRECONDITION_FAILED;
+			}
+		} else {
+			long ifModifiedSince = getRequestDateHeader(request, HttpConstants.HTTP_HEADER_IF_MODIFIED_SINCE);
+			if(ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000) {
+				return HttpConstants.HTTP_STATUSCODE_NOT_MODIFIED;
+			}
+		}
+		return HttpConstants.HTTP_STATUSCODE_OK;
+	}
+	
+	/**
+	 * 获取请求范围(仅支持单段范围，多段范围按完整内容输出)
+	 * @param request 请求对象
+	 * @param etag 实体标签
+	 * @param lastModified 最后修改时间(毫秒)
+	 * @param length 内容长度
+	 * @return 范围 [start, end]，输出完整内容返回 null，范围无效返回 {@link #RANGE_NOT_SATISFIABLE}
+	 */
+	private static long[] getRequestRange(HttpServletRequest request, String etag, long lastModified, long length) {
+		String range = request.getHeader(HttpConstants.HTTP_HEADER_RANGE);
+		if(range == null || !range.regionMatches(true, 0, "bytes=", 0, 6) || range.indexOf(',') >= 0) {
+			return null;
+		}
+		// If-Range 不匹配时输出完整内容
+		String ifRange = request.getHeader(HttpConstants.HTTP_HEADER_IF_RANGE);
+		if(ifRange != null) {
+			ifRange = ifRange.trim();
+			if(ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+				if(!ifRange.equals(etag)) {
+					return null;
+				}
+			} else {
+				long ifRangeTime = getRequestDateHeader(request, HttpConstants.HTTP_HEADER_IF_RANGE);
+				if(ifRangeTime == -1 || lastModified / 1000 != ifRangeTime / 1000) {
+					return null;
+				}
+			}
+		}
+		int dash = range.indexOf('-', 6);
+		if(dash < 0) {
+			return null;
+		}
+		String startText = range.substring(6, dash).trim();
+		String endText = range.substring(dash + 1).trim();
+		long start;
+		long end;
+		try {
+			if(startText.isEmpty()) {
+				// 后缀范围 bytes=-n
+				long suffix = Long.parseLong(endText);
+				if(suffix <= 0) {
+					return RANGE_NOT_SATISFIABLE;
+				}
+				start = Math.max(0, length - suffix);
+				end = length - 1;
+			} else {
+				start = Long.parseLong(startText);
+				end = endText.isEmpty() ? length - 1 : Math.min(Long.parseLong(endText), length - 1);
+				if(end < start) {
+					return start < length ? null : RANGE_NOT_SATISFIABLE;
+				}
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if(start >= length || start < 0) {
+			return RANGE_NOT_SATISFIABLE;
+		}
+		return new long[] { start, end };
+	}
+	
+	/**
+	 * 实体标签是否匹配(弱比较)
+	 * @param header If-Match/If-None-Match 请求头
+	 * @param etag 实体标签
+	 * @return
+	 */
+	private static boolean matchesETag(String header, String etag) {
+		for (String value : header.split(",")) {
+			value = value.trim();
+			if(value.equals("*") || value.equals(etag) || (value.startsWith("W/") && value.substring(2).equals(etag))) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 获取日期请求头
+	 * @param request 请求对象
+	 * @param name 请求头名称
+	 * @return 不存在或格式错误返回 -1
+	 */
+	private static long getRequestDateHeader(HttpServletRequest request, String name) {
+		try {
+			return request.getDateHeader(name);
+		} catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * 传输文件内容
+	 * @param fileChannel 文件通道
+	 * @param position 起始位置
+	 * @param count 传输字节数
+	 * @param target 目标通道
+	 * @return 传输字节数
+	 * @throws IOException
+	 */
+	private static long transferFile(FileChannel fileChannel, long position, long count, WritableByteChannel target) throws IOException {
+		long remaining = count;
+		while (remaining > 0) {
+			long transferred = fileChannel.transferTo(position, remaining, target);
+			if(transferred <= 0) {
+				break;
+			}
+			position += transferred;
+			remaining -= transferred;
+		}
+		if(remaining <= 0) {
+			return count;
+		}
+		// 无法继续传输时改用缓冲区复制
+		ByteBuffer buffer = acquireTransferBuffer();
+		try {
+			while (remaining > 0) {
+				buffer.clear();
+				if(remaining < buffer.capacity()) {
+					buffer.limit((int) remaining);
+				}
+				int read = fileChannel.read(buffer, position);
+				if(read < 0) {
+					break;
+				}
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					target.write(buffer);
+				}
+				position += read;
+				remaining -= read;
+			}
+		} finally {
+			releaseTransferBuffer(buffer);
+		}
+		return count - remaining;
+	}
+	
+	/**
+	 * 获取传输缓冲区
+	 * @return
+	 */
+	private static ByteBuffer acquireTransferBuffer() {
+		ByteBuffer buffer = TRANSFER_BUFFER_POOL.poll();
+		if(buffer != null) {
+			TRANSFER_BUFFER_POOL_COUNT.decrementAndGet();
+			return buffer;
+		}
+		return ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+	}
+	
+	/**
+	 * 归还传输缓冲区
+	 * @param buffer
+	 */
+	private static void releaseTransferBuffer(ByteBuffer buffer) {
+		if(TRANSFER_BUFFER_POOL_COUNT.incrementAndGet() > TRANSFER_BUFFER_POOL_SIZE) {
+			TRANSFER_BUFFER_POOL_COUNT.decrementAndGet();
+			return;
 		}
+		buffer.clear();
+		TRANSFER_BUFFER_POOL.offer(buffer);
 	}
 	
 	/**
@@ -0,0 +1,162 @@
+package io.github.openguava.jvtool.lang.auth.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import io.github.openguava.jvtool.lang.auth.AuthScope;
+import io.github.openguava.jvtool.lang.auth.AuthToken;
+import io.github.openguava.jvtool.lang.auth.AuthUser;
+
+/**
+ * {@link SimpleAuthLogic} 测试
+ * @author openguava
+ *
+ */
+public class SimpleAuthLogicTest {
+
+	@Test
+	public void testScopeMemoizesUser() {
+		TestAuthLogic logic = new TestAuthLogic();
+		logic.current.set(user("1"));
+		try (AuthScope scope = logic.openScope()) {
+			assertSame(AuthScope.NONE, logic.openScope());
+			assertEquals("1", logic.getLoginUser(false).getUserId());
+			logic.current.set(user("2"));
+			assertEquals("1", logic.getLoginUser(false).getUserId());
+			assertEquals(1, logic.getSupplierCallCount());
+		}
+		assertEquals("2", logic.getLoginUser(false).getUserId());
+	}
+
+	@Test
+	public void testScopeNotInheritedByChildThread() throws Exception {
+		TestAuthLogic logic = new TestAuthLogic();
+		logic.current.set(user("1"));
+		ExecutorService executor;
+		try (AuthScope scope = logic.openScope()) {
+			assertEquals("1", logic.getLoginUser(false).getUserId());
+			// 范围内创建的线程池线程
+			executor = Executors.newSingleThreadExecutor();
+			executor.submit(() -> { }).get();
+		}
+		try {
+			logic.current.set(user("2"));
+			AtomicReference<String> userId = new AtomicReference<>();
+			executor.submit(() -> userId.set(logic.getLoginUser(false).getUserId())).get();
+			assertEquals("2", userId.get());
+			executor.submit(() -> userId.set(logic.currentScope() == null ? null : "scope")).get();
+			assertNull(userId.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testScopeIgnoredOnOtherThread() throws Exception {
+		TestAuthLogic logic = new TestAuthLogic();
+		logic.current.set(user("1"));
+		try (AuthScope scope = logic.openScope()) {
+			assertEquals("1", logic.getLoginUser(false).getUserId());
+			AtomicReference<AuthUser> leaked = new AtomicReference<>();
+			Thread thread = new Thread(() -> leaked.set(scope.getUser()));
+			thread.start();
+			thread.join();
+			assertNull(leaked.get());
+		}
+	}
+
+	@Test
+	public void testMatcherUsesOverriddenHooks() {
+		TestAuthLogic logic = new TestAuthLogic() {
+			@Override
+			protected Set<String> getRoles() {
+				return new HashSet<>(Arrays.asList("auditor"));
+			}
+
+			@Override
+			protected Set<String> getPermission() {
+				return new HashSet<>(Arrays.asList("system:user:*"));
+			}
+		};
+		SimpleAuthUser user = user("1");
+		user.setRoles(new HashSet<>(Arrays.asList("guest")));
+		user.setPermissions(new HashSet<>(Arrays.asList("system:role:list")));
+		logic.current.set(user);
+		assertTrue(logic.hasRole("auditor"));
+		assertFalse(logic.hasRole("guest"));
+		logic.checkRoleAnd("auditor");
+		assertTrue(logic.hasPermission("system:user:edit"));
+		assertFalse(logic.hasPermission("system:role:list"));
+		logic.checkPermissionOr("system:role:list", "system:user:list");
+	}
+
+	@Test
+	public void testMatcherRecompiledOnInPlaceChange() {
+		TestAuthLogic logic = new TestAuthLogic();
+		Set<String> permissions = new HashSet<>(Arrays.asList("system:user:*", "system:role:list"));
+		SimpleAuthUser user = user("1");
+		user.setPermissions(permissions);
+		logic.current.set(user);
+		assertTrue(logic.hasPermission("system:user:edit"));
+		assertFalse(logic.hasPermission("system:dept:list"));
+		// 原地修改同一集合
+		permissions.add("system:dept:list");
+		permissions.remove("system:user:*");
+		assertTrue(logic.hasPermission("system:dept:list"));
+		assertFalse(logic.hasPermission("system:user:edit"));
+	}
+
+	@Test
+	public void testMatcherRecompiledOnHashCollision() {
+		TestAuthLogic logic = new TestAuthLogic();
+		SimpleAuthUser user = user("1");
+		user.setPermissions(new HashSet<>(Arrays.asList("Aa")));
+		logic.current.set(user);
+		assertTrue(logic.hasPermission("Aa"));
+		// 数量与哈希值相同的不同集合
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		user.setPermissions(new HashSet<>(Arrays.asList("BB")));
+		assertFalse(logic.hasPermission("Aa"));
+		assertTrue(logic.hasPermission("BB"));
+	}
+
+	private static SimpleAuthUser user(String userId) {
+		SimpleAuthUser user = new SimpleAuthUser();
+		user.setUserId(userId);
+		return user;
+	}
+
+	private static class TestAuthLogic extends SimpleAuthLogic {
+
+		/** 当前请求的用户 */
+		final AtomicReference<AuthUser> current = new AtomicReference<>();
+
+		TestAuthLogic() {
+			this.setUserSupplier(this.current::get);
+		}
+
+		@Override
+		public void login(AuthUser user) {
+		}
+
+		@Override
+		public void logout() {
+		}
+
+		@Override
+		public void logout(AuthToken token) {
+		}
+	}
+}
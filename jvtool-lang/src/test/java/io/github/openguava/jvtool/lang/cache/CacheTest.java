@@ -0,0 +1,138 @@
+package io.github.openguava.jvtool.lang.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ * {@link Cache} 默认方法测试
+ * @author openguava
+ *
+ */
+public class CacheTest {
+
+	@Test
+	public void testGetWithTtl() {
+		MapCache cache = new MapCache();
+		List<String> loads = new ArrayList<>();
+		assertEquals("v", cache.get("k", () -> {
+			loads.add("k");
+			return "v";
+		}, 1000L));
+		assertEquals("v", cache.get("k", () -> "other", 1000L));
+		assertEquals(Arrays.asList("k"), loads);
+		assertEquals(Long.valueOf(1000L), cache.ttls.get("k"));
+	}
+
+	@Test
+	public void testGetAllLoadsMissing() {
+		MapCache cache = new MapCache();
+		cache.put("b", "B");
+		List<Collection<String>> loads = new ArrayList<>();
+		Map<String, Object> result = cache.getAll(Arrays.asList("a", "b", "c"), keys -> {
+			loads.add(new ArrayList<>(keys));
+			Map<String, Object> loaded = new HashMap<>();
+			loaded.put("a", "A");
+			return loaded;
+		}, 500L);
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("a", "A");
+		expected.put("b", "B");
+		assertEquals(expected, result);
+		assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(result.keySet()));
+		assertEquals(Arrays.asList(Arrays.asList("a", "c")), loads);
+		assertEquals(Long.valueOf(500L), cache.ttls.get("a"));
+	}
+
+	/**
+	 * 只实现抽象方法的缓存
+	 */
+	@SuppressWarnings("serial")
+	private static class MapCache implements Cache {
+
+		final Map<String, Object> values = new HashMap<>();
+
+		final Map<String, Long> ttls = new HashMap<>();
+
+		@Override
+		public String getName() {
+			return "map";
+		}
+
+		@Override
+		public Object get(String key) {
+			return this.values.get(key);
+		}
+
+		@Override
+		public Object get(String key, Supplier<Object> valueLoader) {
+			return this.get(key, valueLoader, 0L);
+		}
+
+		@Override
+		public byte[] getBytes(String key) {
+			return (byte[]) this.values.get(key);
+		}
+
+		@Override
+		public <T> T getItem(String key, Class<T> clazz) {
+			return clazz.cast(this.values.get(key));
+		}
+
+		@Override
+		public <T> List<T> getList(String key, Class<T> clazz) {
+			return null;
+		}
+
+		@Override
+		public void put(String key, Object value) {
+			this.put(key, value, 0L);
+		}
+
+		@Override
+		public void put(String key, Object value, long ttl) {
+			this.values.put(key, value);
+			this.ttls.put(key, ttl);
+		}
+
+		@Override
+		public boolean remove(String key) {
+			return this.values.remove(key) != null;
+		}
+
+		@Override
+		public long removes(Collection<String> keys) {
+			return keys.stream().filter(this::remove).count();
+		}
+
+		@Override
+		public boolean exists(String key) {
+			return this.values.containsKey(key);
+		}
+
+		@Override
+		public Set<String> keys(String pattern) {
+			return this.values.keySet();
+		}
+
+		@Override
+		public long size(String pattern) {
+			return this.values.size();
+		}
+
+		@Override
+		public void clear() {
+			this.values.clear();
+		}
+	}
+}
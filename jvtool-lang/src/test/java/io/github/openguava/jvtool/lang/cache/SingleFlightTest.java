@@ -0,0 +1,104 @@
+package io.github.openguava.jvtool.lang.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.github.openguava.jvtool.lang.exception.UtilException;
+
+/**
+ * {@link SingleFlight} 测试
+ * @author openguava
+ *
+ */
+public class SingleFlightTest {
+
+	@Test
+	public void testWaiterSharesValue() throws Exception {
+		SingleFlight singleFlight = new SingleFlight();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> owner = executor.submit(() -> singleFlight.execute("k", () -> {
+				await(release);
+				return "v";
+			}));
+			Future<Object> waiter = submitWaiter(executor, singleFlight);
+			release.countDown();
+			assertEquals("v", owner.get(5, TimeUnit.SECONDS));
+			assertEquals("v", waiter.get(5, TimeUnit.SECONDS));
+			assertEquals(0, singleFlight.size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testSneakyCheckedExceptionReleasesWaiters() throws Exception {
+		SingleFlight singleFlight = new SingleFlight();
+		IOException error = new IOException("load failed");
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> owner = executor.submit(() -> singleFlight.execute("k", () -> {
+				await(release);
+				return SingleFlightTest.<RuntimeException>sneakyThrow(error);
+			}));
+			Future<Object> waiter = submitWaiter(executor, singleFlight);
+			release.countDown();
+			try {
+				owner.get(5, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertSame(error, e.getCause());
+			}
+			try {
+				waiter.get(5, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof UtilException);
+				assertSame(error, e.getCause().getCause());
+			}
+			assertEquals(0, singleFlight.size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 在首个加载进行中时提交同一 key 的加载
+	 */
+	private static Future<Object> submitWaiter(ExecutorService executor, SingleFlight singleFlight) throws InterruptedException {
+		while (!singleFlight.isInFlight("k")) {
+			Thread.sleep(1L);
+		}
+		Future<Object> waiter = executor.submit(() -> singleFlight.execute("k", () -> "other"));
+		// 等待线程进入等待
+		Thread.sleep(100L);
+		return waiter;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> Object sneakyThrow(Throwable e) throws E {
+		throw (E) e;
+	}
+}
@@ -0,0 +1,93 @@
+package io.github.openguava.jvtool.lang.cache.timed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.github.openguava.jvtool.lang.time.FakeClock;
+
+/**
+ * {@link TimedCache} 测试
+ * @author openguava
+ *
+ */
+public class TimedCacheTest {
+
+	@Test
+	public void testColdCandidateEvictedBeforeOldest() throws Exception {
+		try (TimedCache cache = new TimedCache("test", 100L)) {
+			for (int i = 0; i < 100; i++) {
+				cache.put("k" + i, i);
+			}
+			// 窗口区溢出的 k99 与试用段最久未访问的 k0 频率相同，不准入
+			cache.put("k100", 100);
+			assertFalse(cache.exists("k99"));
+			assertTrue(cache.exists("k0"));
+			assertTrue(cache.exists("k100"));
+			assertEquals(1L, cache.stats().getEvictionCount());
+		}
+	}
+
+	@Test
+	public void testFrequentCandidateAdmitted() throws Exception {
+		try (TimedCache cache = new TimedCache("test", 100L)) {
+			for (int i = 0; i < 100; i++) {
+				cache.put("k" + i, i);
+			}
+			cache.put("hot", -1);
+			for (int i = 0; i < 5; i++) {
+				assertEquals(-1, cache.get("hot"));
+			}
+			// 回放访问后 hot 在窗口区中晚于 a，a 先离开窗口区且频率不高于 k0，不准入
+			cache.put("a", -2);
+			assertFalse(cache.exists("a"));
+			assertTrue(cache.exists("hot"));
+			// hot 离开窗口区时访问频率高于试用段最久未访问的 k0，淘汰 k0
+			cache.put("b", -3);
+			assertTrue(cache.exists("hot"));
+			assertFalse(cache.exists("k0"));
+			assertTrue(cache.exists("k1"));
+			assertTrue(cache.exists("b"));
+		}
+	}
+
+	@Test
+	public void testProtectedEntrySurvivesScan() throws Exception {
+		try (TimedCache cache = new TimedCache("test", 100L)) {
+			for (int i = 0; i < 100; i++) {
+				cache.put("k" + i, i);
+			}
+			// 再次访问后晋升到保护段
+			for (int i = 0; i < 3; i++) {
+				assertEquals(0, cache.get("k0"));
+			}
+			for (int i = 0; i < 1000; i++) {
+				cache.put("scan" + i, i);
+			}
+			assertTrue(cache.exists("k0"));
+			assertEquals(100L, cache.keys(null).size());
+		}
+	}
+
+	@Test
+	public void testExpiredAfterTtl() throws Exception {
+		FakeClock clock = new FakeClock(1000000L);
+		try (TimedCache cache = new TimedCache("test", 100L, 0L, null, clock)) {
+			cache.put("a", 1, 1000L);
+			clock.advance(1000L, TimeUnit.MILLISECONDS);
+			// 等于过期时间时未过期
+			assertEquals(1, cache.get("a"));
+			clock.advance(1L, TimeUnit.MILLISECONDS);
+			assertNull(cache.get("a"));
+			// 时间轮推进后清理
+			clock.advance(2048L, TimeUnit.MILLISECONDS);
+			cache.put("b", 2);
+			assertEquals(1L, cache.stats().getExpiredCount());
+		}
+	}
+}
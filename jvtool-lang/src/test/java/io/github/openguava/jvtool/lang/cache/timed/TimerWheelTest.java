@@ -0,0 +1,106 @@
+package io.github.openguava.jvtool.lang.cache.timed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.github.openguava.jvtool.lang.time.FakeClock;
+
+/**
+ * {@link TimerWheel} 测试
+ * @author openguava
+ *
+ */
+public class TimerWheelTest {
+
+	/** 各层时间轮的过期时长：1秒内、分钟级、小时级、18小时级及超出时间轮范围 */
+	private static final long[] DURATIONS = {
+			500L,
+			TimeUnit.SECONDS.toMillis(70L),
+			TimeUnit.MINUTES.toMillis(90L),
+			TimeUnit.HOURS.toMillis(20L),
+			TimeUnit.DAYS.toMillis(10L)
+	};
+
+	@Test
+	public void testCascadeExpiresAfterExpireTime() {
+		for (long duration : DURATIONS) {
+			TimerWheel wheel = new TimerWheel(0L);
+			TimedValueWrapper<String, Object> wrapper = wrapper("k", duration);
+			wheel.schedule(wrapper);
+			List<String> expired = new ArrayList<>();
+			// 逐级降级到更精细的时间轮，到期前不会过期
+			long time = 0L;
+			while (time < duration) {
+				time = Math.min(duration, time + Math.max(1L, (duration - time) / 2L));
+				wheel.advance(time, w -> expired.add(w.getKey()));
+				assertTrue("duration " + duration + " time " + time, expired.isEmpty());
+			}
+			// 与 TimedValueWrapper#isExpired 一致，晚于过期时间才过期
+			wheel.advance(duration + 1L, w -> expired.add(w.getKey()));
+			wheel.advance(duration + 2048L, w -> expired.add(w.getKey()));
+			assertEquals("duration " + duration, Arrays.asList("k"), expired);
+			assertTrue(wrapper.isExpired(duration + 1L));
+		}
+	}
+
+	@Test
+	public void testNotExpiredAtExpireTime() {
+		// 过期时间恰好在时间桶边界上，推进到过期时间时会处理其所在时间桶
+		for (long duration : new long[] { 1024L, 1024L * 70L }) {
+			TimerWheel wheel = new TimerWheel(0L);
+			TimedValueWrapper<String, Object> wrapper = wrapper("k", duration);
+			wheel.schedule(wrapper);
+			List<String> expired = new ArrayList<>();
+			wheel.advance(duration, w -> expired.add(w.getKey()));
+			assertTrue(expired.isEmpty());
+			assertFalse(wrapper.isExpired(duration));
+			wheel.advance(duration + 1024L, w -> expired.add(w.getKey()));
+			assertEquals(Arrays.asList("k"), expired);
+		}
+	}
+
+	@Test
+	public void testAdvanceOverWholeWheel() {
+		TimerWheel wheel = new TimerWheel(0L);
+		for (int i = 0; i < DURATIONS.length; i++) {
+			wheel.schedule(wrapper("k" + i, DURATIONS[i]));
+		}
+		List<String> expired = new ArrayList<>();
+		wheel.advance(TimeUnit.HOURS.toMillis(21L), w -> expired.add(w.getKey()));
+		assertEquals(Arrays.asList("k0", "k1", "k2", "k3"), sorted(expired));
+		wheel.advance(TimeUnit.DAYS.toMillis(11L), w -> expired.add(w.getKey()));
+		assertEquals(Arrays.asList("k0", "k1", "k2", "k3", "k4"), sorted(expired));
+	}
+
+	@Test
+	public void testDeschedule() {
+		TimerWheel wheel = new TimerWheel(0L);
+		TimedValueWrapper<String, Object> a = wrapper("a", 100L);
+		TimedValueWrapper<String, Object> b = wrapper("b", 100L);
+		wheel.schedule(a);
+		wheel.schedule(b);
+		wheel.deschedule(a);
+		wheel.deschedule(a);
+		List<String> expired = new ArrayList<>();
+		wheel.advance(5000L, w -> expired.add(w.getKey()));
+		assertEquals(Arrays.asList("b"), expired);
+	}
+
+	private static TimedValueWrapper<String, Object> wrapper(String key, long ttl) {
+		return new TimedValueWrapper<>(key, (Object) key, ttl, new FakeClock());
+	}
+
+	private static List<String> sorted(List<String> keys) {
+		List<String> list = new ArrayList<>(keys);
+		list.sort(null);
+		return list;
+	}
+}
@@ -0,0 +1,102 @@
+package io.github.openguava.jvtool.lang.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * {@link HtmlFilterPolicy} 测试
+ * @author openguava
+ *
+ */
+public class HtmlFilterPolicyTest {
+
+	/** 输入、过滤结果、不校验实体的过滤结果(由未加快速路径的 HtmlFilter 生成) */
+	private static final String[][] CASES = {
+		// 纯文本
+		{ "", "", "" },
+		{ "plain text", "plain text", "plain text" },
+		{ "中文 😀 é", "中文 😀 é", "中文 😀 é" },
+		{ "line\nbreak\ttab", "line\nbreak\ttab", "line\nbreak\ttab" },
+		{ "a + b = c; 100%", "a + b = c; 100%", "a + b = c; 100%" },
+		{ "it's", "it's", "it's" },
+		{ "path/to/file?x=1", "path/to/file?x=1", "path/to/file?x=1" },
+		// 标签
+		{ "<script>alert(1)</script>", "alert(1)", "alert(1)" },
+		{ "<b>bold</b>", "<b>bold</b>", "<b>bold</b>" },
+		{ "<B>bold</B>", "<b>bold</b>", "<b>bold</b>" },
+		{ "<a href=\"http://x.com\" onclick=\"y\">link</a>", "<a href=\"http://x.com\">link</a>", "<a href=\"http://x.com\">link</a>" },
+		{ "<a href=\"javascript:alert(1)\">x</a>", "<a href=\"#alert(1)\">x</a>", "<a href=\"#alert(1)\">x</a>" },
+		{ "<img src=x onerror=alert(1)>", "<img src=\"x\" />", "<img src=\"x\" />" },
+		{ "<i>unclosed", "<i>unclosed</i>", "<i>unclosed</i>" },
+		{ "</b>stray", "stray", "stray" },
+		{ "1 < 2", "1 ", "1 " },
+		{ "2 > 1", " 1", " 1" },
+		{ "<<b>>", "", "" },
+		{ "<!-- comment <b> -->", "", "" },
+		{ "<p>para</p>", "para", "para" },
+		{ "<b title=\"x\">t</b>", "<b>t</b>", "<b>t</b>" },
+		// 实体
+		{ "&", "&amp;", "&" },
+		{ "a & b", "a &amp; b", "a & b" },
+		{ "&amp;", "&amp;", "&amp;" },
+		{ "&lt;&gt;", "&lt;&gt;", "&lt;&gt;" },
+		{ "&nbsp;", "&amp;nbsp;", "&nbsp;" },
+		{ "&#60;", "&amp;#60;", "&#60;" },
+		{ "&#x3c;", "&amp;#x3c;", "&#x3c;" },
+		{ "&unknown;", "&amp;unknown;", "&unknown;" },
+		{ "AT&T", "AT&amp;T", "AT&T" },
+		// 引号
+		{ "\"quoted\"", "&quot;quoted&quot;", "\"quoted\"" },
+		{ "say \"hi\"", "say &quot;hi&quot;", "say \"hi\"" },
+		{ "'single'", "'single'", "'single'" },
+		{ "\"<b>\"&", "&quot;<b>&quot;&amp;</b>", "\"<b>\"&</b>" },
+	};
+
+	@Test
+	public void testMatchesHtmlFilter() {
+		for (String[] c : CASES) {
+			assertEquals(c[0], c[1], HtmlFilterPolicy.DEFAULT.filter(c[0]));
+			assertEquals(c[0], c[1], new HtmlFilter().filter(c[0]));
+			assertEquals(c[0], c[2], HtmlFilterPolicy.DEFAULT.filter(c[0], false));
+			assertEquals(c[0], c[2], new HtmlFilter().filter(c[0], false));
+		}
+	}
+
+	@Test
+	public void testPlainInputReturnsSameInstance() {
+		for (String[] c : CASES) {
+			// 构造新对象，避免与常量池中的期望值相同
+			String input = new String(c[0]);
+			if(!HtmlFilterPolicy.DEFAULT.containsMarkup(input, true)) {
+				assertEquals(input, c[1]);
+				assertSame(input, HtmlFilterPolicy.DEFAULT.filter(input));
+			}
+			if(!HtmlFilterPolicy.DEFAULT.containsMarkup(input, false)) {
+				assertEquals(input, c[2]);
+				assertSame(input, HtmlFilterPolicy.DEFAULT.filter(input, false));
+			}
+		}
+		String plain = new String("plain text");
+		assertSame(plain, HtmlFilterPolicy.DEFAULT.filter(plain));
+		String unchecked = new String("AT&T \"x\"");
+		assertSame(unchecked, HtmlFilterPolicy.DEFAULT.filter(unchecked, false));
+		assertNull(HtmlFilterPolicy.DEFAULT.filter(null));
+	}
+
+	@Test
+	public void testContainsMarkup() {
+		assertFalse(HtmlFilterPolicy.DEFAULT.containsMarkup(null, true));
+		assertFalse(HtmlFilterPolicy.DEFAULT.containsMarkup("plain 'text'", true));
+		assertTrue(HtmlFilterPolicy.DEFAULT.containsMarkup("a<b", false));
+		assertTrue(HtmlFilterPolicy.DEFAULT.containsMarkup("a>b", false));
+		assertTrue(HtmlFilterPolicy.DEFAULT.containsMarkup("a&b", true));
+		assertFalse(HtmlFilterPolicy.DEFAULT.containsMarkup("a&b", false));
+		assertTrue(HtmlFilterPolicy.DEFAULT.containsMarkup("\"a\"", true));
+		assertFalse(HtmlFilterPolicy.DEFAULT.containsMarkup("\"a\"", false));
+	}
+}
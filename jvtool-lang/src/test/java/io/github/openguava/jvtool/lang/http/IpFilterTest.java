@@ -0,0 +1,257 @@
+package io.github.openguava.jvtool.lang.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.github.openguava.jvtool.lang.util.IpUtils;
+
+/**
+ * {@link IpFilter} 测试
+ * @author openguava
+ *
+ */
+public class IpFilterTest {
+
+	@Test
+	public void testExact() {
+		IpFilter filter = IpFilter.compile("10.10.10.1");
+		assertTrue(filter.matches("10.10.10.1"));
+		assertFalse(filter.matches("10.10.10.2"));
+		assertFalse(filter.matches("10.10.10.10"));
+		// 原实现按字符串比较，前导零不匹配
+		assertFalse(filter.matches("10.10.10.01"));
+		assertFalse(filter.matches(""));
+		assertFalse(filter.matches(null));
+		assertTrue(IpFilter.compile("010.10.10.1").isEmpty());
+	}
+
+	@Test
+	public void testSuffixWildcard() {
+		IpFilter filter = IpFilter.compile("10.10.*.*");
+		assertTrue(filter.matches("10.10.0.0"));
+		assertTrue(filter.matches("10.10.255.255"));
+		assertFalse(filter.matches("10.11.0.1"));
+		assertFalse(filter.matches("010.10.1.1"));
+		assertTrue(IpFilter.compile("10.*.*.*").matches("10.200.3.4"));
+		assertFalse(IpFilter.compile("10.*.*.*").matches("11.0.0.0"));
+		assertTrue(IpFilter.compile("10.10.10.*").matches("10.10.10.0"));
+		assertFalse(IpFilter.compile("10.10.10.*").matches("10.10.11.0"));
+		assertTrue(IpFilter.compile("*.*.*.*").matches("255.255.255.255"));
+		assertTrue(IpFilter.compile("*.*.*.*").matches("0.0.0.0"));
+		// 仅支持后缀通配
+		assertTrue(IpFilter.compile("10.*.10.*").isEmpty());
+		assertTrue(IpFilter.compile("*.10.*.*").isEmpty());
+	}
+
+	@Test
+	public void testRange() {
+		IpFilter filter = IpFilter.compile("10.10.10.1-10.10.10.99");
+		assertTrue(filter.matches("10.10.10.1"));
+		assertTrue(filter.matches("10.10.10.50"));
+		assertTrue(filter.matches("10.10.10.99"));
+		assertFalse(filter.matches("10.10.10.0"));
+		assertFalse(filter.matches("10.10.10.100"));
+		// 起止颠倒时交换
+		IpFilter reversed = IpFilter.compile("10.10.10.99-10.10.10.1");
+		assertTrue(reversed.matches("10.10.10.1"));
+		assertTrue(reversed.matches("10.10.10.99"));
+		assertFalse(reversed.matches("10.10.10.100"));
+		// 跨段
+		IpFilter wide = IpFilter.compile("10.0.255.250-10.1.0.5");
+		assertTrue(wide.matches("10.0.255.255"));
+		assertTrue(wide.matches("10.1.0.0"));
+		assertFalse(wide.matches("10.1.0.6"));
+	}
+
+	@Test
+	public void testMultipleRules() {
+		IpFilter filter = IpFilter.compile("127.0.0.1;192.168.*.*;10.0.0.0-10.0.0.10;10.0.0.5-10.0.0.20;10.0.0.22");
+		assertTrue(filter.matches("127.0.0.1"));
+		assertTrue(filter.matches("192.168.1.1"));
+		assertTrue(filter.matches("10.0.0.0"));
+		assertTrue(filter.matches("10.0.0.20"));
+		assertFalse(filter.matches("10.0.0.21"));
+		assertTrue(filter.matches("10.0.0.22"));
+		assertFalse(filter.matches("10.0.0.23"));
+		assertFalse(filter.matches("127.0.0.2"));
+		// 无法识别的规则被忽略
+		IpFilter invalid = IpFilter.compile("abc;10.10.10.256;;10.0.0.1");
+		assertTrue(invalid.matches("10.0.0.1"));
+		assertFalse(invalid.matches("abc"));
+		assertTrue(IpFilter.compile(" ; ").isEmpty());
+		assertSame(IpFilter.EMPTY, IpFilter.compile(null));
+	}
+
+	@Test
+	public void testInvalidAddress() {
+		IpFilter filter = IpFilter.compile("*.*.*.*");
+		assertFalse(filter.matches("unknown"));
+		assertFalse(filter.matches("10.10.10"));
+		assertFalse(filter.matches("10.10.10.10.10"));
+		assertFalse(filter.matches("10.10.10.256"));
+		assertFalse(filter.matches("10..10.10"));
+		assertFalse(filter.matches("10.10.10.1 "));
+	}
+
+	@Test
+	public void testCidr() {
+		IpFilter filter = IpFilter.compile("10.10.0.0/16");
+		assertTrue(filter.matches("10.10.0.0"));
+		assertTrue(filter.matches("10.10.255.255"));
+		assertFalse(filter.matches("10.11.0.0"));
+		assertFalse(filter.matches("10.9.255.255"));
+		// 主机位被忽略
+		assertTrue(IpFilter.compile("10.10.1.5/16").matches("10.10.200.1"));
+		assertTrue(IpFilter.compile("10.10.10.1/32").matches("10.10.10.1"));
+		assertFalse(IpFilter.compile("10.10.10.1/32").matches("10.10.10.2"));
+		assertTrue(IpFilter.compile("0.0.0.0/0").matches("255.255.255.255"));
+		assertTrue(IpFilter.compile("172.16.0.0/12").matches("172.31.255.255"));
+		assertFalse(IpFilter.compile("172.16.0.0/12").matches("172.32.0.0"));
+		assertTrue(IpFilter.compile("10.0.0.0/33").isEmpty());
+		assertTrue(IpFilter.compile("10.0.0.0/x").isEmpty());
+	}
+
+	@Test
+	public void testIpv6() {
+		IpFilter exact = IpFilter.compile("2001:db8::1");
+		assertTrue(exact.matches("2001:db8::1"));
+		assertTrue(exact.matches("2001:0DB8:0:0:0:0:0:1"));
+		assertFalse(exact.matches("2001:db8::2"));
+		IpFilter cidr = IpFilter.compile("2001:db8::/32");
+		assertTrue(cidr.matches("2001:db8::"));
+		assertTrue(cidr.matches("2001:db8:ffff:ffff:ffff:ffff:ffff:ffff"));
+		assertFalse(cidr.matches("2001:db9::"));
+		assertFalse(cidr.matches("2001:db7:ffff::1"));
+		assertTrue(IpFilter.compile("::/0").matches("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+		assertTrue(IpFilter.compile("fe80::/64").matches("fe80::1:2:3:4"));
+		assertFalse(IpFilter.compile("fe80::/64").matches("fe80:0:0:1::"));
+		assertTrue(IpFilter.compile("::1/128").matches("0:0:0:0:0:0:0:1"));
+		IpFilter range = IpFilter.compile("2001:db8::1-2001:db8::ff");
+		assertTrue(range.matches("2001:db8::1"));
+		assertTrue(range.matches("2001:db8::80"));
+		assertTrue(range.matches("2001:db8::ff"));
+		assertFalse(range.matches("2001:db8::100"));
+		assertFalse(range.matches("2001:db8::"));
+		// 高位跨越符号位
+		IpFilter high = IpFilter.compile("8000::-ffff::");
+		assertTrue(high.matches("9000::1"));
+		assertFalse(high.matches("7fff::"));
+		// IPv4 规则与 IPv6 地址互不匹配
+		assertFalse(IpFilter.compile("*.*.*.*").matches("2001:db8::1"));
+		assertFalse(cidr.matches("10.10.10.1"));
+	}
+
+	@Test
+	public void testIpv6Syntax() {
+		IpFilter filter = IpFilter.compile("::/0");
+		assertTrue(filter.matches("::"));
+		assertTrue(filter.matches("1:2:3:4:5:6:7:8"));
+		assertTrue(filter.matches("1::8"));
+		assertTrue(filter.matches("::ffff:1.2.3.4"));
+		assertFalse(filter.matches("1:2:3:4:5:6:7:8:9"));
+		assertFalse(filter.matches("1:2:3:4:5:6:7"));
+		assertFalse(filter.matches("1::2::3"));
+		assertFalse(filter.matches("2001:db8:::1"));
+		assertFalse(filter.matches(":1::"));
+		assertFalse(filter.matches("1::2:"));
+		assertFalse(filter.matches("12345::"));
+		assertFalse(filter.matches("g::"));
+		assertFalse(filter.matches("::1.2.3"));
+	}
+
+	@Test
+	public void testIpv4Mapped() {
+		IpFilter filter = IpFilter.compile("10.10.0.0/16");
+		assertTrue(filter.matches("::ffff:10.10.1.1"));
+		assertTrue(filter.matches("::ffff:a0a:101"));
+		assertFalse(filter.matches("::ffff:10.11.1.1"));
+		// 非映射地址不按 IPv4 规则匹配
+		assertFalse(filter.matches("::10.10.1.1"));
+	}
+
+	@Test
+	public void testMatchesLegacyImplementation() {
+		Random random = new Random(20260101L);
+		for (int round = 0; round < 2000; round++) {
+			StringBuilder filter = new StringBuilder();
+			int rules = 1 + random.nextInt(4);
+			for (int i = 0; i < rules; i++) {
+				if(i > 0) {
+					filter.append(';');
+				}
+				switch (random.nextInt(3)) {
+				case 0:
+					filter.append(randomIp(random));
+					break;
+				case 1:
+					String[] parts = randomIp(random).split("\\.");
+					int fixed = random.nextInt(4);
+					for (int j = 0; j < 4; j++) {
+						filter.append(j > 0 ? "." : "").append(j < fixed ? parts[j] : "*");
+					}
+					break;
+				default:
+					filter.append(randomIp(random)).append('-').append(randomIp(random));
+					break;
+				}
+			}
+			IpFilter compiled = IpFilter.compile(filter.toString());
+			for (int i = 0; i < 20; i++) {
+				String ip = randomIp(random);
+				assertEquals(filter + " " + ip, legacyMatches(filter.toString(), ip), compiled.matches(ip));
+			}
+		}
+	}
+
+	@Test
+	public void testIpUtilsUsesCachedFilter() {
+		String filter = "10.10.*.*;192.168.1.1-192.168.1.9";
+		assertSame(IpUtils.getIpFilter(filter), IpUtils.getIpFilter(filter));
+		assertTrue(IpUtils.isMatchedIp(filter, "10.10.3.4"));
+		assertTrue(IpUtils.isMatchedIp(filter, "192.168.1.9"));
+		assertFalse(IpUtils.isMatchedIp(filter, "192.168.1.10"));
+		assertFalse(IpUtils.isMatchedIp("", "10.10.3.4"));
+		assertFalse(IpUtils.isMatchedIp(filter, null));
+	}
+
+	/**
+	 * 随机 IPv4 地址，各段取值集中在少数几个值上以便命中规则
+	 * @param random
+	 * @return
+	 */
+	private static String randomIp(Random random) {
+		StringBuilder ip = new StringBuilder();
+		for (int i = 0; i < 4; i++) {
+			if(i > 0) {
+				ip.append('.');
+			}
+			ip.append(random.nextBoolean() ? random.nextInt(3) : random.nextInt(256));
+		}
+		return ip.toString();
+	}
+
+	/**
+	 * 原 {@link IpUtils#isMatchedIp(String, String)} 实现
+	 * @param filter
+	 * @param ip
+	 * @return
+	 */
+	private static boolean legacyMatches(String filter, String ip) {
+		for (String rule : filter.split(";")) {
+			if(IpUtils.isIP(rule) && rule.equals(ip)) {
+				return true;
+			} else if(IpUtils.isIpWildcard(rule) && IpUtils.isIpInWildcardNoCheck(rule, ip)) {
+				return true;
+			} else if(IpUtils.isIpSegment(rule) && IpUtils.isIpInSegmentNoCheck(rule, ip)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,169 @@
+package io.github.openguava.jvtool.lang.id;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * {@link AbstractWorkerIdAllocator} 测试
+ * @author openguava
+ *
+ */
+public class AbstractWorkerIdAllocatorTest {
+
+	@Test
+	public void testGetterDoesNotAllocate() {
+		try (TestAllocator allocator = new TestAllocator(300L)) {
+			try {
+				allocator.getWorkerId();
+				fail();
+			} catch (IllegalStateException e) {
+				// expected
+			}
+			assertEquals(-1L, allocator.getId());
+			assertEquals(0, allocator.acquireCount);
+		}
+	}
+
+	@Test
+	public void testLeaseTakenStopsGeneration() throws Exception {
+		try (TestAllocator allocator = new TestAllocator(300L)) {
+			Snowflake snowflake = allocator.createSnowflake();
+			assertTrue(snowflake.nextId() > 0L);
+			// 租用被其他节点取得
+			allocator.renewable = false;
+			allocator.acquirable = false;
+			assertFailsWithin(snowflake, 1000L);
+			Thread.sleep(250L);
+			// 恢复后仍拒绝，需重新租用
+			allocator.renewable = true;
+			allocator.acquirable = true;
+			assertFalse(allocator.isLeaseValid());
+			allocator.release();
+			assertTrue(allocator.createSnowflake().nextId() > 0L);
+		}
+	}
+
+	@Test
+	public void testUnreachableStoreStopsAfterLease() throws Exception {
+		try (TestAllocator allocator = new TestAllocator(300L)) {
+			Snowflake snowflake = allocator.createSnowflake();
+			allocator.unreachable = true;
+			// 租期内仍可生成
+			assertTrue(snowflake.nextId() > 0L);
+			assertFailsWithin(snowflake, 1000L);
+			// 恢复后续租成功，可继续生成
+			allocator.unreachable = false;
+			long deadline = System.currentTimeMillis() + 1000L;
+			while (!allocator.isLeaseValid() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10L);
+			}
+			assertTrue(snowflake.nextId() > 0L);
+		}
+	}
+
+	@Test
+	public void testRenewDoesNotReacquireAfterRelease() throws Exception {
+		try (TestAllocator allocator = new TestAllocator(30L)) {
+			allocator.createSnowflake();
+			assertEquals(1, allocator.held.size());
+			// 续租进行中时释放
+			allocator.renewable = false;
+			allocator.renewEntered = new CountDownLatch(1);
+			allocator.renewProceed = new CountDownLatch(1);
+			assertTrue(allocator.renewEntered.await(1L, TimeUnit.SECONDS));
+			Thread release = new Thread(allocator::release);
+			release.start();
+			release.join(100L);
+			allocator.renewProceed.countDown();
+			release.join(1000L);
+			assertFalse(release.isAlive());
+			Thread.sleep(50L);
+			assertEquals(-1L, allocator.getId());
+			assertTrue(allocator.held.isEmpty());
+		}
+	}
+
+	private static void assertFailsWithin(Snowflake snowflake, long millis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + millis;
+		while (System.currentTimeMillis() < deadline) {
+			try {
+				snowflake.nextId();
+			} catch (IllegalStateException e) {
+				return;
+			}
+			Thread.sleep(10L);
+		}
+		fail("snowflake still generating ids");
+	}
+
+	private static class TestAllocator extends AbstractWorkerIdAllocator {
+
+		volatile boolean renewable = true;
+
+		volatile boolean acquirable = true;
+
+		volatile boolean unreachable;
+
+		volatile int acquireCount;
+
+		/** 当前持有的标识 */
+		final Set<Long> held = ConcurrentHashMap.newKeySet();
+
+		/** 续租开始时计数 */
+		volatile CountDownLatch renewEntered;
+
+		/** 续租等待继续 */
+		volatile CountDownLatch renewProceed;
+
+		TestAllocator(long leaseMillis) {
+			super(leaseMillis);
+		}
+
+		@Override
+		protected boolean tryAcquire(long id) {
+			this.check();
+			this.acquireCount++;
+			if(this.acquirable) {
+				this.held.add(id);
+			}
+			return this.acquirable;
+		}
+
+		@Override
+		protected boolean tryRenew(long id) {
+			this.check();
+			CountDownLatch entered = this.renewEntered;
+			CountDownLatch proceed = this.renewProceed;
+			if(entered != null && proceed != null) {
+				this.renewEntered = null;
+				entered.countDown();
+				try {
+					proceed.await(1L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					// 释放时中断续租线程
+				}
+			}
+			return this.renewable;
+		}
+
+		@Override
+		protected void doRelease(long id) {
+			this.held.remove(id);
+		}
+
+		private void check() {
+			if(this.unreachable) {
+				throw new IllegalStateException("unreachable");
+			}
+		}
+	}
+}
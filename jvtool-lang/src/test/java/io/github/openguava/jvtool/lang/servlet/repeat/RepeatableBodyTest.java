@@ -0,0 +1,74 @@
+package io.github.openguava.jvtool.lang.servlet.repeat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * {@link RepeatableBody} 测试
+ * @author openguava
+ *
+ */
+public class RepeatableBodyTest {
+
+	@Test
+	public void testAllocateOnFirstWrite() throws Exception {
+		long inUse = RepeatableBody.getMemoryBytesInUse();
+		try (RepeatableBody body = new RepeatableBody(RepeatableBody.DEFAULT_MEMORY_THRESHOLD, null, 100L)) {
+			// 未读取的请求体不占用内存
+			assertEquals(inUse, RepeatableBody.getMemoryBytesInUse());
+			assertEquals(0, body.toByteArray().length);
+			byte[] data = bytes(10);
+			body.write(data, 0, data.length);
+			// 按预期长度一次分配
+			assertEquals(inUse + 100L, RepeatableBody.getMemoryBytesInUse());
+			body.complete();
+			assertArrayEquals(data, body.toByteArray());
+		}
+		assertEquals(inUse, RepeatableBody.getMemoryBytesInUse());
+	}
+
+	@Test
+	public void testUnknownLengthGrows() throws Exception {
+		long inUse = RepeatableBody.getMemoryBytesInUse();
+		try (RepeatableBody body = new RepeatableBody(1024, null, -1L)) {
+			assertEquals(inUse, RepeatableBody.getMemoryBytesInUse());
+			byte[] data = bytes(600);
+			body.write(data, 0, data.length);
+			body.write(data, 0, 400);
+			assertFalse(body.isSpilled());
+			assertEquals(1000L, body.length());
+			body.write(data, 0, 100);
+			assertTrue(body.isSpilled());
+			assertEquals(inUse, RepeatableBody.getMemoryBytesInUse());
+			body.complete();
+			assertEquals(1100, body.toByteArray().length);
+		}
+	}
+
+	@Test
+	public void testExpectedLengthAboveThresholdSpills() throws Exception {
+		long inUse = RepeatableBody.getMemoryBytesInUse();
+		try (RepeatableBody body = new RepeatableBody(1024, null, 4096L)) {
+			assertFalse(body.isSpilled());
+			byte[] data = bytes(10);
+			body.write(data, 0, data.length);
+			// 首次写入即转存，不分配内存
+			assertTrue(body.isSpilled());
+			assertEquals(inUse, RepeatableBody.getMemoryBytesInUse());
+			body.complete();
+			assertArrayEquals(data, body.toByteArray());
+		}
+	}
+
+	private static byte[] bytes(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) i;
+		}
+		return bytes;
+	}
+}
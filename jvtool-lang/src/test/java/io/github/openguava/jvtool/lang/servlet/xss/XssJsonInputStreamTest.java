@@ -0,0 +1,169 @@
+package io.github.openguava.jvtool.lang.servlet.xss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import io.github.openguava.jvtool.lang.constant.CharsetConstants;
+
+/**
+ * {@link XssJsonInputStream} 测试
+ * @author openguava
+ *
+ */
+public class XssJsonInputStreamTest {
+
+	@Test
+	public void testValuesFilteredKeysKept() throws IOException {
+		assertEquals("{\"<script>k</script>\":\"alert(1)\",\"n\":1,\"b\":true,\"z\":null}",
+				filter("{\"<script>k</script>\":\"<script>alert(1)</script>\",\"n\":1,\"b\":true,\"z\":null}"));
+		assertEquals("{\"a\":\"a &amp; b\",\"q\":\"say &quot;hi&quot;\"}", filter("{\"a\":\"a & b\",\"q\":\"say \\\"hi\\\"\"}"));
+		// 允许的标签保留
+		assertEquals("{\"a\":\"<b>x</b>\"}", filter("{\"a\":\"<b>x</b>\"}"));
+		// 无需过滤的内容按原始字节输出
+		String plain = "{ \"a\" : \"plain\\/text\\n\" , \"b\" : [ 1, 2.5e3, -1 ] }";
+		assertEquals(plain, filter(plain));
+	}
+
+	@Test
+	public void testEscapes() throws IOException {
+		// 转义后再过滤
+		assertEquals("{\"u\":\"x\"}", filter("{\"u\":\"\\u003cscript\\u003ex\\u003c/script\\u003e\"}"));
+		assertEquals("{\"u\":\"x\"}", filter("{\"u\":\"\\u003Cscript\\u003Ex\\u003C\\/script\\u003E\"}"));
+		// 过滤结果重新转义
+		assertEquals("{\"a\":\"<img src=\\\"x\\\" />\"}", filter("{\"a\":\"<img src=x onerror=alert(1)>\"}"));
+		assertEquals("{\"a\":\"a\\nb\\t<i>c</i>\\\\\"}", filter("{\"a\":\"a\\nb\\t<i>c</i><script>\\\\\"}"));
+		// 转义格式错误时原样输出
+		assertEquals("{\"a\":\"<script>\\x\"}", filter("{\"a\":\"<script>\\x\"}"));
+	}
+
+	@Test
+	public void testNested() throws IOException {
+		assertEquals("{\"a\":[\"x\",{\"b\":{\"<i>c</i>\":[\"y\",[\"z\"]]}},\"<b>w</b>\"],\"d\":{}}",
+				filter("{\"a\":[\"<script>x</script>\",{\"b\":{\"<i>c</i>\":[\"<script>y</script>\",[\"z<script>\"]]}},\"<b>w</b>\"],\"d\":{}}"));
+		// 数组中的字符串均为值
+		assertEquals("[\"x\",\"y\"]", filter("[\"<script>x</script>\",\"<script>y</script>\"]"));
+		// 对象中值之后的下一个字符串为键
+		assertEquals("[{\"<i>k</i>\":\"v\",\"<script>\":\"v\"}]",
+				filter("[{\"<i>k</i>\":\"<script>v</script>\",\"<script>\":\"v\"}]"));
+		StringBuilder deep = new StringBuilder();
+		for (int i = 0; i < 40; i++) {
+			deep.append("{\"a\":[");
+		}
+		deep.append("\"<script>x</script>\"");
+		for (int i = 0; i < 40; i++) {
+			deep.append("]}");
+		}
+		assertEquals(deep.toString().replace("<script>x</script>", "x"), filter(deep.toString()));
+	}
+
+	@Test
+	public void testTopLevelString() throws IOException {
+		assertEquals("\"x\"", filter("\"<script>x</script>\""));
+		assertEquals("\"<b>x</b>\"", filter("\"<b>x</b>\""));
+		assertEquals("123", filter("123"));
+	}
+
+	@Test
+	public void testNotJson() throws IOException {
+		assertEquals("", filter(""));
+		assertEquals("not json <script>x</script>", filter("not json <script>x</script>"));
+		assertEquals("a=<script>x</script>&b=1", filter("a=<script>x</script>&b=1"));
+		// 未结束的字符串原样输出
+		assertEquals("{\"a\":\"<script>x", filter("{\"a\":\"<script>x"));
+		assertEquals("{\"a\":\"<script>\\", filter("{\"a\":\"<script>\\"));
+		assertEquals("{\"<script>", filter("{\"<script>"));
+		// 多余的结束符不影响后续扫描
+		assertEquals("]}{\"a\":\"x\"}", filter("]}{\"a\":\"<script>x</script>\"}"));
+	}
+
+	@Test
+	public void testMultibyte() throws IOException {
+		assertEquals("{\"名称\":\"中文x文😀\"}", filter("{\"名称\":\"中文<script>x</script>文😀\"}"));
+		assertEquals("{\"a\":\"é &amp; ü\"}", filter("{\"a\":\"é & ü\"}"));
+		assertEquals("{\"a\":\"中\"}", filter("{\"a\":\"\\u4e2d<script>\"}"));
+		String plain = "{\"a\":\"中文😀\"}";
+		assertEquals(plain, filter(plain));
+	}
+
+	@Test
+	public void testSplitReads() throws IOException {
+		String json = "{\"名称\":\"中文<script>x</script>文\",\"u\":\"\\u003cscript\\u003e\",\"a\":[\"<img src=x onerror=alert(1)>\",{\"q\":\"say \\\"hi\\\"\"}],\"n\":1}";
+		String expected = filter(json);
+		assertTrue(expected.contains("\"中文x文\""));
+		for (int chunk = 1; chunk <= 16; chunk++) {
+			assertEquals("chunk " + chunk, expected, filter(json, chunk, false));
+			assertEquals("chunk " + chunk, expected, filter(json, chunk, true));
+		}
+		// 超过读取缓冲区大小的值
+		StringBuilder large = new StringBuilder("{\"a\":\"");
+		for (int i = 0; i < 5000; i++) {
+			large.append("<script>x</script>");
+		}
+		large.append("\",\"b\":\"<b>y</b>\"}");
+		StringBuilder expectedLarge = new StringBuilder("{\"a\":\"");
+		for (int i = 0; i < 5000; i++) {
+			expectedLarge.append('x');
+		}
+		expectedLarge.append("\",\"b\":\"<b>y</b>\"}");
+		assertEquals(expectedLarge.toString(), filter(large.toString()));
+		assertEquals(expectedLarge.toString(), filter(large.toString(), 1000, false));
+	}
+
+	private static String filter(String json) throws IOException {
+		return filter(json, Integer.MAX_VALUE, false);
+	}
+
+	/**
+	 * 过滤 json
+	 * @param json
+	 * @param chunk 源输入流每次最多返回的字节数
+	 * @param single 是否逐字节读取
+	 * @return
+	 * @throws IOException
+	 */
+	private static String filter(String json, int chunk, boolean single) throws IOException {
+		InputStream source = new ChunkedInputStream(json.getBytes(CharsetConstants.CHARSET_UTF_8), chunk);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (XssJsonInputStream inputStream = new XssJsonInputStream(source)) {
+			if(single) {
+				int c;
+				while ((c = inputStream.read()) >= 0) {
+					output.write(c);
+				}
+			} else {
+				byte[] buffer = new byte[7];
+				int n;
+				while ((n = inputStream.read(buffer, 0, buffer.length)) >= 0) {
+					output.write(buffer, 0, n);
+				}
+			}
+			assertTrue(inputStream.isFinished());
+		}
+		return new String(output.toByteArray(), CharsetConstants.CHARSET_UTF_8);
+	}
+
+	/**
+	 * 每次最多返回指定字节数的输入流
+	 */
+	private static class ChunkedInputStream extends ByteArrayInputStream {
+
+		private final int chunk;
+
+		ChunkedInputStream(byte[] buf, int chunk) {
+			super(buf);
+			this.chunk = chunk;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, this.chunk));
+		}
+	}
+}
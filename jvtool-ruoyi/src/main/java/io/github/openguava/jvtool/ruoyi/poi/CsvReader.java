@@ -0,0 +1,191 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分隔符文本读取(RFC 4180)，支持引号内的分隔符、换行及转义引号，行可以 CRLF、LF 或 CR 结束，忽略开头的 BOM
+ * <p>
+ * 内部使用字符缓冲区批量读取，按段复制字段内容，非线程安全
+ *
+ * @author openguava
+ */
+public class CsvReader implements Closeable
+{
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+
+    private final char separator;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private final StringBuilder field = new StringBuilder();
+
+    private int position;
+
+    private int limit;
+
+    private boolean started;
+
+    public CsvReader(Reader in, char separator)
+    {
+        if (separator == '"' || separator == '\r' || separator == '\n')
+        {
+            throw new IllegalArgumentException("Invalid separator: " + separator);
+        }
+        this.in = in;
+        this.separator = separator;
+    }
+
+    /**
+     * 读取一行
+     *
+     * @return 字段值，空行为包含1个空字符串的集合，已读完时返回 null
+     */
+    public List<String> readRow() throws IOException
+    {
+        if (peek() < 0)
+        {
+            return null;
+        }
+        List<String> row = new ArrayList<String>();
+        while (true)
+        {
+            field.setLength(0);
+            if (peek() == '"')
+            {
+                position++;
+                readQuoted();
+            }
+            else
+            {
+                readUnquoted();
+            }
+            row.add(field.toString());
+            int c = peek();
+            if (c < 0)
+            {
+                return row;
+            }
+            position++;
+            if (c == '\r')
+            {
+                if (peek() == '\n')
+                {
+                    position++;
+                }
+                return row;
+            }
+            if (c == '\n')
+            {
+                return row;
+            }
+        }
+    }
+
+    /**
+     * 读取到分隔符或行尾
+     */
+    private void readUnquoted() throws IOException
+    {
+        while (peek() >= 0)
+        {
+            int start = position;
+            while (position < limit)
+            {
+                char c = buffer[position];
+                if (c == separator || c == '\r' || c == '\n')
+                {
+                    break;
+                }
+                position++;
+            }
+            field.append(buffer, start, position - start);
+            if (position < limit)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 读取引号内的内容，结束引号之后到分隔符前的字符按原样追加
+     */
+    private void readQuoted() throws IOException
+    {
+        while (peek() >= 0)
+        {
+            int start = position;
+            while (position < limit && buffer[position] != '"')
+            {
+                position++;
+            }
+            field.append(buffer, start, position - start);
+            if (position < limit)
+            {
+                position++;
+                if (peek() == '"')
+                {
+                    // 两个引号转义为一个引号
+                    field.append('"');
+                    position++;
+                }
+                else
+                {
+                    readUnquoted();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 下一个字符，不移动位置
+     *
+     * @return 字符，已读完时返回 -1
+     */
+    private int peek() throws IOException
+    {
+        if (position >= limit && !fill())
+        {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException
+    {
+        int count;
+        do
+        {
+            count = in.read(buffer, 0, buffer.length);
+        }
+        while (count == 0);
+        if (count < 0)
+        {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        if (!started)
+        {
+            started = true;
+            if (buffer[0] == '\uFEFF')
+            {
+                position = 1;
+                return limit > 1 || fill();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+}
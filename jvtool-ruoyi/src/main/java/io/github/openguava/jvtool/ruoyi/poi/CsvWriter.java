@@ -0,0 +1,214 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 分隔符文本写入(RFC 4180)，字段含分隔符、引号或换行时加引号，行以 CRLF 结束
+ * <p>
+ * 以表达式触发字符 =-+@ 开头且不是数字的字段前加 tab 字符，防止CSV注入
+ * <p>
+ * 内部使用字符缓冲区批量写出，非线程安全
+ *
+ * @author openguava
+ */
+public class CsvWriter implements Closeable, Flushable
+{
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer out;
+
+    private final char separator;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    /** 当前行是否还没有字段 */
+    private boolean rowStart = true;
+
+    public CsvWriter(Writer out, char separator)
+    {
+        if (separator == '"' || separator == '\r' || separator == '\n')
+        {
+            throw new IllegalArgumentException("Invalid separator: " + separator);
+        }
+        this.out = out;
+        this.separator = separator;
+    }
+
+    /**
+     * 写入一个字段
+     *
+     * @param value 字段值，null 写为空
+     * @return this
+     */
+    public CsvWriter writeField(String value) throws IOException
+    {
+        if (!rowStart)
+        {
+            write(separator);
+        }
+        rowStart = false;
+        if (value == null || value.isEmpty())
+        {
+            return this;
+        }
+        if (isFormula(value))
+        {
+            value = '\t' + value;
+        }
+        if (needsQuote(value))
+        {
+            write('"');
+            int start = 0;
+            int index;
+            while ((index = value.indexOf('"', start)) >= 0)
+            {
+                // 引号转义为两个引号
+                write(value, start, index + 1 - start);
+                write('"');
+                start = index + 1;
+            }
+            write(value, start, value.length() - start);
+            write('"');
+        }
+        else
+        {
+            write(value, 0, value.length());
+        }
+        return this;
+    }
+
+    /**
+     * 结束当前行
+     *
+     * @return this
+     */
+    public CsvWriter endRow() throws IOException
+    {
+        write('\r');
+        write('\n');
+        rowStart = true;
+        return this;
+    }
+
+    /**
+     * 写入一行
+     *
+     * @param values 字段值
+     * @return this
+     */
+    public CsvWriter writeRow(String... values) throws IOException
+    {
+        for (String value : values)
+        {
+            writeField(value);
+        }
+        return endRow();
+    }
+
+    /**
+     * 是否以表达式触发字符开头，带符号的数字除外
+     */
+    private static boolean isFormula(String value)
+    {
+        char first = value.charAt(0);
+        if (first == '=' || first == '@')
+        {
+            return true;
+        }
+        if (first != '-' && first != '+')
+        {
+            return false;
+        }
+        boolean digit = false;
+        boolean point = false;
+        for (int i = 1; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9')
+            {
+                digit = true;
+            }
+            else if (c == '.' && !point)
+            {
+                point = true;
+            }
+            else
+            {
+                return true;
+            }
+        }
+        return !digit;
+    }
+
+    private boolean needsQuote(String value)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == separator || c == '"' || c == '\r' || c == '\n')
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(char c) throws IOException
+    {
+        if (position == buffer.length)
+        {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    private void write(String value, int offset, int length) throws IOException
+    {
+        while (length > 0)
+        {
+            if (position == buffer.length)
+            {
+                flushBuffer();
+            }
+            int count = Math.min(length, buffer.length - position);
+            value.getChars(offset, offset + count, buffer, position);
+            position += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        if (position > 0)
+        {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flushBuffer();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.openguava.jvtool.lang.enums.BasicType;
+import io.github.openguava.jvtool.lang.util.ReflectUtils;
+import io.github.openguava.jvtool.lang.util.StringUtils;
+import io.github.openguava.jvtool.lang.util.TypeUtils;
+import io.github.openguava.jvtool.ruoyi.poi.annotation.Excel;
+import io.github.openguava.jvtool.ruoyi.poi.annotation.Excel.ColumnType;
+import io.github.openguava.jvtool.ruoyi.poi.annotation.Excels;
+
+/**
+ * Excel列模型，按类缓存注解信息、字段及 set 方法句柄，逐个单元格读写时不再查找方法及解析注解
+ *
+ * @author openguava
+ */
+final class ExcelColumn
+{
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /** 类的列模型 */
+    private static final Map<Class<?>, List<ExcelColumn>> COLUMNS = new ConcurrentHashMap<Class<?>, List<ExcelColumn>>();
+
+    /** 字段 */
+    final Field field;
+
+    /** 注解 */
+    final Excel attr;
+
+    /** 表头样式 */
+    final String headerStyleKey;
+
+    /** 数据样式 */
+    final String dataStyleKey;
+
+    final boolean export;
+
+    final boolean needMerge;
+
+    final boolean statistics;
+
+    final String dateFormat;
+
+    final String readConverterExp;
+
+    final String separator;
+
+    final int scale;
+
+    final int roundingMode;
+
+    final String defaultValue;
+
+    final String suffix;
+
+    final ColumnType cellType;
+
+    /** 是否指定了数据处理器 */
+    final boolean hasHandler;
+
+    /** 是否为带 {@link Excel} 注解的集合字段(子列表) */
+    final boolean subList;
+
+    /** 子列表元素中带注解的字段 */
+    final List<Field> subFields;
+
+    /** 导入时字符串字段使用的日期格式 */
+    final String importDateFormat;
+
+    /** 是否指定了 targetAttr */
+    final boolean hasTargetAttr;
+
+    /** 导入时设置的属性，指定 targetAttr 时为多级属性 */
+    final String propertyName;
+
+    /** 列模型所属的类 */
+    private final Class<?> owner;
+
+    /** targetAttr 各级属性名称、所在的类及字段 */
+    private final String[] targetNames;
+
+    private final Class<?>[] targetTypes;
+
+    private final Field[] targetFields;
+
+    /** 名称匹配的 set 方法参数类型及句柄 */
+    private final Class<?>[] setterTypes;
+
+    private final MethodHandle[] setters;
+
+    private ExcelColumn(Class<?> clazz, Field field, Excel attr)
+    {
+        this.owner = clazz;
+        this.field = field;
+        this.attr = attr;
+        this.headerStyleKey = StringUtils.format("header_{}_{}", attr.headerColor(), attr.headerBackgroundColor());
+        this.dataStyleKey = StringUtils.format("data_{}_{}_{}", attr.align(), attr.color(), attr.backgroundColor());
+        this.export = attr.isExport();
+        this.needMerge = attr.needMerge();
+        this.statistics = attr.isStatistics();
+        this.dateFormat = attr.dateFormat();
+        this.readConverterExp = attr.readConverterExp();
+        this.separator = attr.separator();
+        this.scale = attr.scale();
+        this.roundingMode = attr.roundingMode();
+        this.defaultValue = attr.defaultValue();
+        this.suffix = attr.suffix();
+        this.cellType = attr.cellType();
+        this.hasHandler = !attr.handler().equals(ExcelHandlerAdapter.class);
+        Excel fieldAttr = field.getAnnotation(Excel.class);
+        this.importDateFormat = fieldAttr != null ? fieldAttr.dateFormat() : attr.dateFormat();
+        String targetAttr = attr.targetAttr();
+        this.hasTargetAttr = StringUtils.isNotEmpty(targetAttr);
+        this.propertyName = hasTargetAttr ? field.getName() + "." + targetAttr : field.getName();
+
+        if (fieldAttr != null && Collection.class.isAssignableFrom(field.getType()))
+        {
+            ParameterizedType pt = (ParameterizedType) field.getGenericType();
+            Class<?> subClass = (Class<?>) pt.getActualTypeArguments()[0];
+            this.subList = true;
+            this.subFields = ReflectUtils.getFieldsListWithAnnotation(subClass, Excel.class);
+        }
+        else
+        {
+            this.subList = false;
+            this.subFields = null;
+        }
+
+        field.setAccessible(true);
+
+        // 按声明类型预先解析 targetAttr，运行时类型不同时按原方式反射读取
+        this.targetNames = hasTargetAttr ? targetAttr.split("[.]") : new String[0];
+        this.targetTypes = new Class<?>[targetNames.length];
+        this.targetFields = new Field[targetNames.length];
+        Class<?> type = field.getType();
+        for (int i = 0; i < targetNames.length && type != null; i++)
+        {
+            this.targetTypes[i] = type;
+            try
+            {
+                Field target = type.getDeclaredField(targetNames[i]);
+                target.setAccessible(true);
+                this.targetFields[i] = target;
+                type = target.getType();
+            }
+            catch (Exception e)
+            {
+                type = null;
+            }
+        }
+
+        // 与 ReflectUtils.invokeSetterMethod 相同，按名称查找，调用时按参数类型选择
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Method> methods = new ArrayList<Method>();
+        if (!hasTargetAttr)
+        {
+            String setterName = "set" + StringUtils.capitalize(field.getName());
+            for (Method method : ReflectUtils.getMethodsCached(clazz))
+            {
+                if (setterName.equals(method.getName()) && method.getParameterCount() == 1 && !method.isBridge())
+                {
+                    methods.add(method);
+                }
+            }
+        }
+        this.setterTypes = new Class<?>[methods.size()];
+        this.setters = new MethodHandle[methods.size()];
+        for (int i = 0; i < methods.size(); i++)
+        {
+            Method method = methods.get(i);
+            this.setterTypes[i] = method.getParameterTypes()[0];
+            try
+            {
+                this.setters[i] = lookup.unreflect(method).asType(SETTER_TYPE);
+            }
+            catch (IllegalAccessException e)
+            {
+                this.setters[i] = null;
+            }
+        }
+    }
+
+    /**
+     * 获取类的全部列，包括父类中声明的字段
+     *
+     * @param clazz 类
+     * @return 列模型
+     */
+    static List<ExcelColumn> forClass(Class<?> clazz)
+    {
+        List<ExcelColumn> columns = COLUMNS.get(clazz);
+        if (columns == null)
+        {
+            columns = COLUMNS.computeIfAbsent(clazz, ExcelColumn::createColumns);
+        }
+        return columns;
+    }
+
+    /**
+     * 获取字段注解对应的列
+     *
+     * @param field 字段
+     * @param attr 注解
+     * @return 列模型
+     */
+    static ExcelColumn of(Field field, Excel attr)
+    {
+        for (ExcelColumn column : forClass(field.getDeclaringClass()))
+        {
+            if (column.attr == attr && column.field.equals(field))
+            {
+                return column;
+            }
+        }
+        return new ExcelColumn(field.getDeclaringClass(), field, attr);
+    }
+
+    private static List<ExcelColumn> createColumns(Class<?> clazz)
+    {
+        List<ExcelColumn> columns = new ArrayList<ExcelColumn>();
+        List<Field> tempFields = new ArrayList<Field>();
+        if (clazz.getSuperclass() != null)
+        {
+            tempFields.addAll(Arrays.asList(clazz.getSuperclass().getDeclaredFields()));
+        }
+        tempFields.addAll(Arrays.asList(clazz.getDeclaredFields()));
+        for (Field field : tempFields)
+        {
+            // 单注解
+            Excel attr = field.getAnnotation(Excel.class);
+            if (attr != null)
+            {
+                columns.add(new ExcelColumn(clazz, field, attr));
+            }
+            // 多注解
+            Excels attrs = field.getAnnotation(Excels.class);
+            if (attrs != null)
+            {
+                for (Excel excel : attrs.value())
+                {
+                    columns.add(new ExcelColumn(clazz, field, excel));
+                }
+            }
+        }
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * 读取属性值，包括 targetAttr 指定的下级属性
+     *
+     * @param vo 实体对象
+     * @return 属性值
+     */
+    Object getValue(Object vo) throws Exception
+    {
+        Object o = field.get(vo);
+        for (int i = 0; i < targetTypes.length; i++)
+        {
+            if (o == null)
+            {
+                break;
+            }
+            if (o.getClass() == targetTypes[i] && targetFields[i] != null)
+            {
+                o = targetFields[i].get(o);
+            }
+            else
+            {
+                Field target = o.getClass().getDeclaredField(targetNames[i]);
+                target.setAccessible(true);
+                o = target.get(o);
+            }
+        }
+        return o;
+    }
+
+    /**
+     * 设置属性值，规则与 {@link ReflectUtils#invokeSetterMethod(Object, String, Object)} 相同：
+     * 选择第1个参数类型与值匹配的 set 方法，没有匹配的方法时不设置；值为 null 时不设置，保留实体中的原值
+     *
+     * @param entity 实体对象
+     * @param value 属性值
+     */
+    void setValue(Object entity, Object value) throws Exception
+    {
+        if (value == null)
+        {
+            return;
+        }
+        if (hasTargetAttr || entity.getClass() != owner)
+        {
+            ReflectUtils.invokeSetterMethod(entity, propertyName, value);
+            return;
+        }
+        for (int i = 0; i < setters.length; i++)
+        {
+            if (isAssignable(setterTypes[i], value))
+            {
+                if (setters[i] == null)
+                {
+                    ReflectUtils.invokeSetterMethod(entity, propertyName, value);
+                    return;
+                }
+                try
+                {
+                    setters[i].invokeExact(entity, value);
+                }
+                catch (Throwable e)
+                {
+                    throw new InvocationTargetException(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private static boolean isAssignable(Class<?> type, Object value)
+    {
+        Class<?> valueType = value.getClass();
+        if (TypeUtils.isBasicType(type) && TypeUtils.isBasicType(valueType))
+        {
+            // 原始类型和包装类型视为相同
+            return BasicType.unWrap(type) == BasicType.unWrap(valueType);
+        }
+        return type.isAssignableFrom(valueType);
+    }
+}
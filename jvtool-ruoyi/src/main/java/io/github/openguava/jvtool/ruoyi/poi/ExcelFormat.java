@@ -0,0 +1,85 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+/**
+ * 导入导出文件格式
+ *
+ * @author openguava
+ */
+public enum ExcelFormat
+{
+    /**
+     * Excel 2007+
+     */
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", ','),
+
+    /**
+     * 逗号分隔
+     */
+    CSV("csv", "text/csv", ','),
+
+    /**
+     * 制表符分隔
+     */
+    TSV("tsv", "text/tab-separated-values", '\t');
+
+    private final String extension;
+
+    private final String contentType;
+
+    private final char separator;
+
+    ExcelFormat(String extension, String contentType, char separator)
+    {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.separator = separator;
+    }
+
+    public String getExtension()
+    {
+        return this.extension;
+    }
+
+    public String getContentType()
+    {
+        return this.contentType;
+    }
+
+    /**
+     * 字段分隔符，仅文本格式有效
+     */
+    public char getSeparator()
+    {
+        return this.separator;
+    }
+
+    /**
+     * 是否为分隔符文本格式
+     */
+    public boolean isText()
+    {
+        return this != XLSX;
+    }
+
+    /**
+     * 按名称或扩展名获取格式，忽略大小写
+     *
+     * @param name 名称或扩展名，如 csv、.tsv
+     * @return 格式，为空或无法识别时为 {@link #XLSX}
+     */
+    public static ExcelFormat of(String name)
+    {
+        if (name != null)
+        {
+            String extension = name.startsWith(".") ? name.substring(1) : name;
+            for (ExcelFormat format : values())
+            {
+                if (format.extension.equalsIgnoreCase(extension))
+                {
+                    return format;
+                }
+            }
+        }
+        return XLSX;
+    }
+}
@@ -0,0 +1,348 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import io.github.openguava.jvtool.lang.util.IoUtils;
+import io.github.openguava.jvtool.lang.util.StringUtils;
+
+/**
+ * 基于 XSSF 事件模型逐行读取 xlsx 工作表，不构建整个工作簿对象，内存占用与行数无关
+ *
+ * @author ruoyi
+ */
+final class ExcelStreamReader
+{
+    /**
+     * 行处理
+     */
+    interface RowHandler
+    {
+        /**
+         * 处理一行
+         *
+         * @param rowIndex 行下标(从0开始)
+         * @param values 非空单元格的值(列下标 -> 值)，与 {@link ExcelUtils#getCellValue} 的取值规则一致，仅在回调期间有效
+         */
+        void handleRow(int rowIndex, Map<Integer, Object> values) throws Exception;
+    }
+
+    private ExcelStreamReader()
+    {
+    }
+
+    /**
+     * 读取工作表
+     *
+     * @param file xlsx 文件
+     * @param sheetName 工作表名称，为空时读取第1个工作表
+     * @param handler 行处理
+     * @return 是否找到工作表
+     */
+    static boolean read(File file, String sheetName, RowHandler handler) throws Exception
+    {
+        OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+        try
+        {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext())
+            {
+                InputStream sheet = sheets.next();
+                try
+                {
+                    if (StringUtils.isEmpty(sheetName) || sheetName.equals(sheets.getSheetName()))
+                    {
+                        parse(sheet, new SheetHandler(strings, styles, handler));
+                        return true;
+                    }
+                }
+                finally
+                {
+                    IoUtils.close(sheet);
+                }
+            }
+            return false;
+        }
+        finally
+        {
+            pkg.revert();
+        }
+    }
+
+    private static void parse(InputStream sheet, SheetHandler handler) throws Exception
+    {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+        xmlReader.setContentHandler(handler);
+        try
+        {
+            xmlReader.parse(new InputSource(sheet));
+        }
+        catch (SAXException e)
+        {
+            // 还原行处理中抛出的异常
+            if (e.getException() != null)
+            {
+                throw e.getException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 工作表 XML 处理
+     */
+    private static final class SheetHandler extends DefaultHandler
+    {
+        private final ReadOnlySharedStringsTable strings;
+
+        private final StylesTable styles;
+
+        private final RowHandler handler;
+
+        /** 样式是否为日期格式 */
+        private final Map<Integer, Boolean> dateStyles = new HashMap<Integer, Boolean>();
+
+        /** 当前行的非空单元格 */
+        private final Map<Integer, Object> values = new HashMap<Integer, Object>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private int rowIndex = -1;
+
+        private int column;
+
+        private String cellType;
+
+        private int styleIndex;
+
+        private boolean formula;
+
+        private String value;
+
+        private boolean inValue;
+
+        private boolean inInlineString;
+
+        private boolean inText;
+
+        SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, RowHandler handler)
+        {
+            this.strings = strings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+        {
+            if ("row".equals(localName))
+            {
+                String r = attributes.getValue("r");
+                rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                column = -1;
+                values.clear();
+            }
+            else if ("c".equals(localName))
+            {
+                String r = attributes.getValue("r");
+                column = r != null ? new CellReference(r).getCol() : column + 1;
+                cellType = attributes.getValue("t");
+                String s = attributes.getValue("s");
+                styleIndex = s != null ? Integer.parseInt(s) : 0;
+                formula = false;
+                value = null;
+            }
+            else if ("f".equals(localName))
+            {
+                formula = true;
+            }
+            else if ("v".equals(localName))
+            {
+                inValue = true;
+                text.setLength(0);
+            }
+            else if ("is".equals(localName))
+            {
+                inInlineString = true;
+                text.setLength(0);
+            }
+            else if ("t".equals(localName) && inInlineString)
+            {
+                inText = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length)
+        {
+            if (inValue || inText)
+            {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException
+        {
+            if ("v".equals(localName))
+            {
+                inValue = false;
+                value = text.toString();
+            }
+            else if ("t".equals(localName))
+            {
+                inText = false;
+            }
+            else if ("is".equals(localName))
+            {
+                inInlineString = false;
+                value = text.toString();
+            }
+            else if ("c".equals(localName))
+            {
+                Object cellValue = getCellValue();
+                if (cellValue != null)
+                {
+                    values.put(column, cellValue);
+                }
+            }
+            else if ("row".equals(localName))
+            {
+                try
+                {
+                    handler.handleRow(rowIndex, values);
+                }
+                catch (RuntimeException e)
+                {
+                    throw e;
+                }
+                catch (Exception e)
+                {
+                    throw new SAXException(e);
+                }
+            }
+        }
+
+        /**
+         * 单元格值，空白单元格返回 null
+         */
+        private Object getCellValue()
+        {
+            try
+            {
+                if (formula)
+                {
+                    // 公式单元格只取数值结果，其他结果类型取值失败
+                    return cellType == null || "n".equals(cellType) ? getNumericValue() : "";
+                }
+                if (cellType == null || "n".equals(cellType))
+                {
+                    return value == null ? null : getNumericValue();
+                }
+                if ("s".equals(cellType))
+                {
+                    return value == null ? "" : strings.getItemAt(Integer.parseInt(value)).getString();
+                }
+                if ("inlineStr".equals(cellType) || "str".equals(cellType))
+                {
+                    return value == null ? "" : value;
+                }
+                if ("b".equals(cellType))
+                {
+                    return "1".equals(value);
+                }
+                if ("e".equals(cellType))
+                {
+                    return value == null ? (byte) 0 : FormulaError.forString(value).getCode();
+                }
+                return "";
+            }
+            catch (Exception e)
+            {
+                return "";
+            }
+        }
+
+        private Object getNumericValue()
+        {
+            double d = value == null || value.isEmpty() ? 0.0 : Double.parseDouble(value);
+            if (DateUtil.isValidExcelDate(d) && isDateStyle(styleIndex))
+            {
+                // POI Excel 日期格式转换
+                return DateUtil.getJavaDate(d);
+            }
+            if (d % 1 != 0)
+            {
+                return new BigDecimal(Double.toString(d));
+            }
+            return new DecimalFormat("0").format(d);
+        }
+
+        private boolean isDateStyle(int index)
+        {
+            Boolean date = dateStyles.get(index);
+            if (date == null)
+            {
+                CellStyle style = styles != null && index < styles.getNumCellStyles() ? styles.getStyleAt(index) : null;
+                date = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+                dateStyles.put(index, date);
+            }
+            return date;
+        }
+    }
+
+    /**
+     * 是否为 xlsx(zip) 文件
+     *
+     * @param file 文件
+     * @return 文件头是否为 zip 标识
+     */
+    static boolean isOfficeXml(File file) throws IOException
+    {
+        byte[] header = new byte[4];
+        InputStream in = new FileInputStream(file);
+        try
+        {
+            int n = 0;
+            int count;
+            while (n < header.length && (count = in.read(header, n, header.length - n)) > 0)
+            {
+                n += count;
+            }
+            return n == header.length && header[0] == 0x50 && header[1] == 0x4B && header[2] == 0x03 && header[3] == 0x04;
+        }
+        finally
+        {
+            IoUtils.close(in);
+        }
+    }
+}
@@ -1,24 +1,44 @@
 package io.github.openguava.jvtool.ruoyi.poi;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.servlet.http.HttpServletResponse;
 
 import io.github.openguava.jvtool.lang.util.ArrayUtils;
@@ -104,6 +124,11 @@ public class ExcelUtils<T> {
      */
     private Map<String, CellStyle> styles;
 
+    /**
+     * 各列数据样式，与 fields 顺序一致
+     */
+    private CellStyle[] dataStyles;
+
     /**
      * 导入导出数据列表
      */
@@ -159,6 +184,21 @@ public class ExcelUtils<T> {
      */
     private static final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("######0.00");
 
+    /**
+     * 并行计算单元格值时每批的行数，需整除 {@link #sheetSize}
+     */
+    private static final int PARALLEL_BATCH_SIZE = 1024;
+
+    /**
+     * 并行计算单元格值时最多同时计算的批数
+     */
+    private static final int PARALLEL_MAX_PENDING = 16;
+
+    /**
+     * 单元格值读取失败
+     */
+    private static final Object CELL_ERROR = new Object();
+
     /**
      * 实体对象
      */
@@ -319,17 +359,7 @@ public class ExcelUtils<T> {
                 }
             }
             // 有数据时才处理 得到类的所有field.
-            List<Object[]> fields = this.getFields();
-            Map<Integer, Object[]> fieldsMap = new HashMap<Integer, Object[]>();
-            for (Object[] objects : fields)
-            {
-                Excel attr = (Excel) objects[1];
-                Integer column = cellMap.get(attr.name());
-                if (column != null)
-                {
-                    fieldsMap.put(column, objects);
-                }
-            }
+            Map<Integer, Object[]> fieldsMap = this.getFieldsMap(cellMap);
             for (int i = titleNum + 1; i <= rows; i++)
             {
                 // 从第2行开始取数据,默认第一行是表头.
@@ -346,206 +376,983 @@ public class ExcelUtils<T> {
 
                     // 如果不存在实例则新建.
                     entity = (entity == null ? clazz.newInstance() : entity);
-                    // 从map中得到对应列的field.
-                    Field field = (Field) entry.getValue()[0];
-                    Excel attr = (Excel) entry.getValue()[1];
-                    // 取得类型,并根据对象类型设置值.
-                    Class<?> fieldType = field.getType();
-                    if (String.class == fieldType)
-                    {
-                        String s = ConvertUtils.toStr(val);
-                        if (StringUtils.endsWith(s, ".0"))
-                        {
-                            val = StringUtils.substringBefore(s, ".0");
-                        }
-                        else
-                        {
-                            String dateFormat = field.getAnnotation(Excel.class).dateFormat();
-                            if (StringUtils.isNotEmpty(dateFormat))
-                            {
-                                val = parseDateToStr(dateFormat, val);
-                            }
-                            else
-                            {
-                                val = ConvertUtils.toStr(val);
-                            }
-                        }
-                    }
-                    else if ((Integer.TYPE == fieldType || Integer.class == fieldType) && StringUtils.isNumeric(ConvertUtils.toStr(val)))
-                    {
-                        val = ConvertUtils.toInt(val);
-                    }
-                    else if ((Long.TYPE == fieldType || Long.class == fieldType) && StringUtils.isNumeric(ConvertUtils.toStr(val)))
-                    {
-                        val = ConvertUtils.toLong(val);
-                    }
-                    else if (Double.TYPE == fieldType || Double.class == fieldType)
-                    {
-                        val = ConvertUtils.toDouble(val);
-                    }
-                    else if (Float.TYPE == fieldType || Float.class == fieldType)
-                    {
-                        val = ConvertUtils.toFloat(val);
-                    }
-                    else if (BigDecimal.class == fieldType)
-                    {
-                        val = ConvertUtils.toBigDecimal(val);
-                    }
-                    else if (Date.class == fieldType)
-                    {
-                        if (val instanceof String)
-                        {
-                            val = DateUtils.toDate(val);
-                        }
-                        else if (val instanceof Double)
-                        {
-                            val = DateUtil.getJavaDate((Double) val);
-                        }
-                    }
-                    else if (Boolean.TYPE == fieldType || Boolean.class == fieldType)
-                    {
-                        val = ConvertUtils.toBool(val, false);
-                    }
-                    if (StringUtils.isNotNull(fieldType))
+                    this.setFieldValue(entity, entry.getValue(), val);
+                }
+                list.add(entity);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 以流式方式读取excel表单默认第一个索引名，按批回调
+     * 
+     * @param is 输入流
+     * @param titleNum 标题占用行数
+     * @param batchSize 每批行数
+     * @param consumer 批处理
+     * @return 导入总行数
+     */
+    public int importExcel(InputStream is, int titleNum, int batchSize, Consumer<List<T>> consumer) throws Exception
+    {
+        return importExcel(StringUtils.STRING_EMPTY, is, titleNum, batchSize, consumer);
+    }
+
+    /**
+     * 以流式方式读取excel表单指定表格索引名，按批回调
+     * <p>
+     * xlsx 文件基于 XSSF 事件模型逐行解析，不构建整个工作簿，内存占用只与批大小有关；
+     * 列映射及类型转换与 {@link #importExcel(String, InputStream, int)} 相同。
+     * 输入流先写入临时文件以便按需读取压缩包中的条目，读取完成后删除。
+     * 
+     * @param sheetName 表格索引名
+     * @param is 输入流
+     * @param titleNum 标题占用行数
+     * @param batchSize 每批行数
+     * @param consumer 批处理，每批为新的集合
+     * @return 导入总行数
+     */
+    public int importExcel(String sheetName, InputStream is, int titleNum, int batchSize, Consumer<List<T>> consumer) throws Exception
+    {
+        if (batchSize <= 0)
+        {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.type = Type.IMPORT;
+        BatchRowHandler handler = new BatchRowHandler(titleNum, batchSize, consumer);
+        File file = Files.createTempFile("jvtool-excel-", ".tmp").toFile();
+        try
+        {
+            Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            boolean found;
+            if (ExcelStreamReader.isOfficeXml(file))
+            {
+                found = ExcelStreamReader.read(file, sheetName, handler);
+            }
+            else
+            {
+                // xls 不支持事件模型，行数有限，按行读取
+                found = this.readRows(file, sheetName, handler);
+            }
+            if (!found)
+            {
+                throw new IOException("文件sheet不存在");
+            }
+            handler.flush();
+            return handler.count;
+        }
+        finally
+        {
+            if (!file.delete())
+            {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * 按格式导入，csv/tsv 格式按 UTF-8 读取分隔符文本
+     * 
+     * @param sheetName 表格索引名，仅 xlsx 格式有效
+     * @param is 输入流
+     * @param titleNum 标题占用行数
+     * @param format 文件格式
+     * @return 转换后集合
+     */
+    public List<T> importExcel(String sheetName, InputStream is, int titleNum, ExcelFormat format) throws Exception
+    {
+        if (!format.isText())
+        {
+            return importExcel(sheetName, is, titleNum);
+        }
+        List<T> list = new ArrayList<T>();
+        importCsv(new InputStreamReader(is, StandardCharsets.UTF_8), format.getSeparator(), titleNum, 1000, list::addAll);
+        return list;
+    }
+
+    /**
+     * 按格式流式导入并按批回调，csv/tsv 格式按 UTF-8 读取分隔符文本
+     * 
+     * @param sheetName 表格索引名，仅 xlsx 格式有效
+     * @param is 输入流
+     * @param titleNum 标题占用行数
+     * @param batchSize 每批行数
+     * @param consumer 批处理，每批为新的集合
+     * @param format 文件格式
+     * @return 导入总行数
+     */
+    public int importExcel(String sheetName, InputStream is, int titleNum, int batchSize, Consumer<List<T>> consumer, ExcelFormat format) throws Exception
+    {
+        if (!format.isText())
+        {
+            return importExcel(sheetName, is, titleNum, batchSize, consumer);
+        }
+        return importCsv(new InputStreamReader(is, StandardCharsets.UTF_8), format.getSeparator(), titleNum, batchSize, consumer);
+    }
+
+    /**
+     * 读取分隔符文本并按批回调，列映射及类型转换与 excel 导入相同，空字段视为空单元格
+     * 
+     * @param reader 输入，读完后不关闭
+     * @param separator 分隔符
+     * @param titleNum 标题占用行数
+     * @param batchSize 每批行数
+     * @param consumer 批处理，每批为新的集合
+     * @return 导入总行数
+     */
+    public int importCsv(Reader reader, char separator, int titleNum, int batchSize, Consumer<List<T>> consumer) throws Exception
+    {
+        if (batchSize <= 0)
+        {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.type = Type.IMPORT;
+        BatchRowHandler handler = new BatchRowHandler(titleNum, batchSize, consumer);
+        CsvReader csv = new CsvReader(reader, separator);
+        Map<Integer, Object> values = new HashMap<Integer, Object>();
+        int rowIndex = 0;
+        List<String> row;
+        while ((row = csv.readRow()) != null)
+        {
+            values.clear();
+            for (int i = 0; i < row.size(); i++)
+            {
+                if (!row.get(i).isEmpty())
+                {
+                    values.put(i, row.get(i));
+                }
+            }
+            handler.handleRow(rowIndex++, values);
+        }
+        handler.flush();
+        return handler.count;
+    }
+
+    /**
+     * 按行读取 xls 文件
+     */
+    private boolean readRows(File file, String sheetName, ExcelStreamReader.RowHandler handler) throws Exception
+    {
+        Workbook workbook = WorkbookFactory.create(file, null, true);
+        try
+        {
+            Sheet sheet = StringUtils.isNotEmpty(sheetName) ? workbook.getSheet(sheetName) : workbook.getSheetAt(0);
+            if (sheet == null)
+            {
+                return false;
+            }
+            Map<Integer, Object> values = new HashMap<Integer, Object>();
+            for (Row row : sheet)
+            {
+                values.clear();
+                for (Cell cell : row)
+                {
+                    if (cell.getCellType() != CellType.BLANK)
                     {
-                        String propertyName = field.getName();
-                        if (StringUtils.isNotEmpty(attr.targetAttr()))
-                        {
-                            propertyName = field.getName() + "." + attr.targetAttr();
-                        }
-                        else if (StringUtils.isNotEmpty(attr.readConverterExp()))
-                        {
-                            val = reverseByExp(ConvertUtils.toStr(val), attr.readConverterExp(), attr.separator());
-                        }
-                        else if (!attr.handler().equals(ExcelHandlerAdapter.class))
-                        {
-                            val = dataFormatHandlerAdapter(val, attr);
-                        }
-                        ReflectUtils.invokeSetterMethod(entity, propertyName, val);
+                        values.put(cell.getColumnIndex(), this.getCellValue(row, cell.getColumnIndex()));
                     }
                 }
-                list.add(entity);
+                handler.handleRow(row.getRowNum(), values);
+            }
+            return true;
+        }
+        finally
+        {
+            IOUtils.closeQuietly(workbook);
+        }
+    }
+
+    /**
+     * 按批收集行数据
+     */
+    private class BatchRowHandler implements ExcelStreamReader.RowHandler
+    {
+        private final int titleNum;
+
+        private final int batchSize;
+
+        private final Consumer<List<T>> consumer;
+
+        private Map<Integer, Object[]> fieldsMap;
+
+        private List<T> batch;
+
+        private int count;
+
+        BatchRowHandler(int titleNum, int batchSize, Consumer<List<T>> consumer)
+        {
+            this.titleNum = titleNum;
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+            this.batch = new ArrayList<T>(batchSize);
+        }
+
+        @Override
+        public void handleRow(int rowIndex, Map<Integer, Object> values) throws Exception
+        {
+            if (rowIndex < titleNum)
+            {
+                return;
+            }
+            if (rowIndex == titleNum)
+            {
+                // 获取表头
+                Map<String, Integer> cellMap = new HashMap<String, Integer>();
+                for (Map.Entry<Integer, Object> entry : values.entrySet())
+                {
+                    cellMap.put(entry.getValue().toString(), entry.getKey());
+                }
+                fieldsMap = getFieldsMap(cellMap);
+                return;
+            }
+            // 判断当前行是否是空行
+            if (values.isEmpty())
+            {
+                return;
+            }
+            if (fieldsMap == null)
+            {
+                fieldsMap = getFieldsMap(new HashMap<String, Integer>());
+            }
+            T entity = null;
+            for (Map.Entry<Integer, Object[]> entry : fieldsMap.entrySet())
+            {
+                Object val = values.get(entry.getKey());
+                // 如果不存在实例则新建.
+                entity = (entity == null ? clazz.getDeclaredConstructor().newInstance() : entity);
+                setFieldValue(entity, entry.getValue(), val == null ? "" : val);
+            }
+            batch.add(entity);
+            count++;
+            if (batch.size() >= batchSize)
+            {
+                flush();
+            }
+        }
+
+        void flush()
+        {
+            if (!batch.isEmpty())
+            {
+                consumer.accept(batch);
+                batch = new ArrayList<T>(batchSize);
+            }
+        }
+    }
+
+    /**
+     * 按表头匹配列序号与field
+     * 
+     * @param cellMap 表头名称与列序号
+     * @return 列序号与field
+     */
+    private Map<Integer, Object[]> getFieldsMap(Map<String, Integer> cellMap)
+    {
+        List<Object[]> fields = this.getFields();
+        Map<Integer, Object[]> fieldsMap = new HashMap<Integer, Object[]>();
+        for (Object[] objects : fields)
+        {
+            Excel attr = (Excel) objects[1];
+            Integer column = cellMap.get(attr.name());
+            if (column != null)
+            {
+                fieldsMap.put(column, objects);
+            }
+        }
+        return fieldsMap;
+    }
+
+    /**
+     * 按field类型转换单元格值并设置到实体
+     * 
+     * @param entity 实体
+     * @param objects field及其注解
+     * @param val 单元格值
+     */
+    private void setFieldValue(T entity, Object[] objects, Object val) throws Exception
+    {
+        ExcelColumn column = (ExcelColumn) objects[2];
+        // 取得类型,并根据对象类型设置值.
+        Class<?> fieldType = column.field.getType();
+        if (String.class == fieldType)
+        {
+            String s = ConvertUtils.toStr(val);
+            if (StringUtils.endsWith(s, ".0"))
+            {
+                val = StringUtils.substringBefore(s, ".0");
+            }
+            else
+            {
+                if (StringUtils.isNotEmpty(column.importDateFormat))
+                {
+                    val = parseDateToStr(column.importDateFormat, val);
+                }
+                else
+                {
+                    val = ConvertUtils.toStr(val);
+                }
+            }
+        }
+        else if ((Integer.TYPE == fieldType || Integer.class == fieldType) && StringUtils.isNumeric(ConvertUtils.toStr(val)))
+        {
+            val = ConvertUtils.toInt(val);
+        }
+        else if ((Long.TYPE == fieldType || Long.class == fieldType) && StringUtils.isNumeric(ConvertUtils.toStr(val)))
+        {
+            val = ConvertUtils.toLong(val);
+        }
+        else if (Double.TYPE == fieldType || Double.class == fieldType)
+        {
+            val = ConvertUtils.toDouble(val);
+        }
+        else if (Float.TYPE == fieldType || Float.class == fieldType)
+        {
+            val = ConvertUtils.toFloat(val);
+        }
+        else if (BigDecimal.class == fieldType)
+        {
+            val = ConvertUtils.toBigDecimal(val);
+        }
+        else if (Date.class == fieldType)
+        {
+            if (val instanceof String)
+            {
+                val = DateUtils.toDate(val);
+            }
+            else if (val instanceof Double)
+            {
+                val = DateUtil.getJavaDate((Double) val);
+            }
+        }
+        else if (Boolean.TYPE == fieldType || Boolean.class == fieldType)
+        {
+            val = ConvertUtils.toBool(val, false);
+        }
+        if (StringUtils.isNotNull(fieldType))
+        {
+            // 设置下级属性时不做转换
+            if (!column.hasTargetAttr)
+            {
+                if (StringUtils.isNotEmpty(column.readConverterExp))
+                {
+                    val = reverseByExp(ConvertUtils.toStr(val), column.readConverterExp, column.separator);
+                }
+                else if (column.hasHandler)
+                {
+                    val = dataFormatHandlerAdapter(val, column.attr);
+                }
+            }
+            column.setValue(entity, val);
+        }
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单
+     *
+     * @param response 返回数据
+     * @param list 导出数据集合
+     * @param sheetName 工作表的名称
+     * @return 结果
+     */
+    public void exportExcel(HttpServletResponse response, List<T> list, String sheetName)
+    {
+        exportExcel(response, list, sheetName, StringUtils.STRING_EMPTY);
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单
+     *
+     * @param response 返回数据
+     * @param list 导出数据集合
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     * @return 结果
+     */
+    public void exportExcel(HttpServletResponse response, List<T> list, String sheetName, String title)
+    {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setCharacterEncoding("utf-8");
+        this.init(list, sheetName, title, Type.EXPORT);
+        exportExcel(response);
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单
+     *
+     * @param sheetName 工作表的名称
+     * @return 结果
+     */
+    public void importTemplateExcel(HttpServletResponse response, String sheetName)
+    {
+        importTemplateExcel(response, sheetName, StringUtils.STRING_EMPTY);
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单
+     *
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     * @return 结果
+     */
+    public void importTemplateExcel(HttpServletResponse response, String sheetName, String title)
+    {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setCharacterEncoding("utf-8");
+        this.init(null, sheetName, title, Type.IMPORT);
+        exportExcel(response);
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单
+     * 
+     * @return 结果
+     */
+    public void exportExcel(HttpServletResponse response)
+    {
+        try
+        {
+            writeSheet();
+            wb.write(response.getOutputStream());
+        }
+        catch (Exception e)
+        {
+            LogUtils.error(ExcelUtils.class, "导出Excel异常{}", e.getMessage());
+        }
+        finally
+        {
+            closeWorkbook();
+        }
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单，单元格值并行计算
+     *
+     * @param response 返回数据
+     * @param list 导出数据集合
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     * @param parallelism 并行计算的线程数
+     */
+    public void exportExcel(HttpServletResponse response, List<T> list, String sheetName, String title, int parallelism)
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "Excel Export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            exportExcel(response, list, sheetName, title, executor);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单，单元格值并行计算，生成的工作簿与顺序写入相同
+     *
+     * @param response 返回数据
+     * @param list 导出数据集合
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     * @param executor 执行器，并行度由其线程数决定
+     */
+    public void exportExcel(HttpServletResponse response, List<T> list, String sheetName, String title, Executor executor)
+    {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setCharacterEncoding("utf-8");
+        this.init(list, sheetName, title, Type.EXPORT);
+        try
+        {
+            writeSheet(executor);
+            wb.write(response.getOutputStream());
+        }
+        catch (Exception e)
+        {
+            LogUtils.error(ExcelUtils.class, "导出Excel异常{}", e.getMessage());
+        }
+        finally
+        {
+            closeWorkbook();
+        }
+    }
+
+    /**
+     * 对迭代器数据源逐条导入到excel表单，不需要一次性加载全部数据
+     *
+     * @param response 返回数据
+     * @param iterator 导出数据
+     * @param sheetName 工作表的名称
+     */
+    public void exportExcel(HttpServletResponse response, Iterator<T> iterator, String sheetName)
+    {
+        exportExcel(response, iterator, sheetName, StringUtils.STRING_EMPTY);
+    }
+
+    /**
+     * 对迭代器数据源逐条导入到excel表单，不需要一次性加载全部数据
+     * <p>
+     * 数据逐条写入 {@link SXSSFWorkbook}，内存中只保留最近的行，其余行压缩后写入临时文件，
+     * 每个sheet写满 {@link #sheetSize} 条数据后自动新建sheet
+     *
+     * @param response 返回数据
+     * @param iterator 导出数据
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     */
+    public void exportExcel(HttpServletResponse response, Iterator<T> iterator, String sheetName, String title)
+    {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setCharacterEncoding("utf-8");
+        this.init(null, sheetName, title, Type.EXPORT);
+        ((SXSSFWorkbook) wb).setCompressTempFiles(true);
+        try
+        {
+            writeSheet(iterator);
+            wb.write(response.getOutputStream());
+        }
+        catch (Exception e)
+        {
+            LogUtils.error(ExcelUtils.class, "导出Excel异常{}", e.getMessage());
+        }
+        finally
+        {
+            closeWorkbook();
+        }
+    }
+
+    /**
+     * 对流数据源逐条导入到excel表单，导出完成后关闭流
+     *
+     * @param response 返回数据
+     * @param stream 导出数据
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     */
+    public void exportExcel(HttpServletResponse response, Stream<T> stream, String sheetName, String title)
+    {
+        try
+        {
+            exportExcel(response, stream.iterator(), sheetName, title);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * 对分页数据源逐页导入到excel表单
+     *
+     * @param response 返回数据
+     * @param pageFetcher 按页码(从1开始)查询数据，返回空集合时结束
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     */
+    public void exportExcel(HttpServletResponse response, IntFunction<? extends Collection<T>> pageFetcher, String sheetName, String title)
+    {
+        exportExcel(response, new PageIterator<T>(pageFetcher), sheetName, title);
+    }
+
+    /**
+     * 按格式导出，csv/tsv 格式导出为分隔符文本
+     *
+     * @param response 返回数据
+     * @param list 导出数据集合
+     * @param sheetName 工作表的名称
+     * @param format 导出格式
+     */
+    public void exportData(HttpServletResponse response, List<T> list, String sheetName, ExcelFormat format)
+    {
+        if (format.isText())
+        {
+            exportData(response, list != null ? list.iterator() : Collections.<T>emptyIterator(), sheetName, StringUtils.STRING_EMPTY, format);
+        }
+        else
+        {
+            exportExcel(response, list, sheetName);
+        }
+    }
+
+    /**
+     * 按格式逐条导出，csv/tsv 格式导出为分隔符文本，不包含标题、子列表及统计行
+     *
+     * @param response 返回数据
+     * @param iterator 导出数据
+     * @param sheetName 工作表的名称
+     * @param title 标题
+     * @param format 导出格式
+     */
+    public void exportData(HttpServletResponse response, Iterator<T> iterator, String sheetName, String title, ExcelFormat format)
+    {
+        if (!format.isText())
+        {
+            exportExcel(response, iterator, sheetName, title);
+            return;
+        }
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("utf-8");
+        try
+        {
+            Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+            // BOM 使 Excel 按 UTF-8 打开
+            writer.write('\uFEFF');
+            exportCsv(writer, iterator, format.getSeparator());
+        }
+        catch (Exception e)
+        {
+            LogUtils.error(ExcelUtils.class, "导出Excel异常{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 逐条导出为分隔符文本，首行为列名
+     *
+     * @param writer 输出，写完后刷新但不关闭
+     * @param iterator 导出数据
+     * @param separator 分隔符
+     */
+    public void exportCsv(Writer writer, Iterator<T> iterator, char separator) throws IOException
+    {
+        this.type = Type.EXPORT;
+        createExcelField();
+        List<ExcelColumn> columns = new ArrayList<ExcelColumn>();
+        for (Object[] os : fields)
+        {
+            ExcelColumn excelColumn = (ExcelColumn) os[2];
+            if (!Collection.class.isAssignableFrom(excelColumn.field.getType()))
+            {
+                columns.add(excelColumn);
+            }
+        }
+        CsvWriter csv = new CsvWriter(writer, separator);
+        for (ExcelColumn excelColumn : columns)
+        {
+            csv.writeField(excelColumn.attr.name());
+        }
+        csv.endRow();
+        while (iterator.hasNext())
+        {
+            T vo = iterator.next();
+            for (ExcelColumn excelColumn : columns)
+            {
+                csv.writeField(getTextValue(excelColumn, vo));
+            }
+            csv.endRow();
+        }
+        csv.flush();
+    }
+
+    /**
+     * 获取导出到文本的值，转换规则与单元格相同
+     *
+     * @param excelColumn 列模型
+     * @param vo 实体对象
+     * @return 文本值
+     */
+    private String getTextValue(ExcelColumn excelColumn, T vo)
+    {
+        if (!excelColumn.export)
+        {
+            return null;
+        }
+        try
+        {
+            Object value = excelColumn.getValue(vo);
+            if (StringUtils.isNotEmpty(excelColumn.dateFormat) && StringUtils.isNotNull(value))
+            {
+                return parseDateToStr(excelColumn.dateFormat, value);
+            }
+            else if (StringUtils.isNotEmpty(excelColumn.readConverterExp) && StringUtils.isNotNull(value))
+            {
+                return convertByExp(ConvertUtils.toStr(value), excelColumn.readConverterExp, excelColumn.separator);
+            }
+            else if (value instanceof BigDecimal && -1 != excelColumn.scale)
+            {
+                return ((BigDecimal) value).setScale(excelColumn.scale, RoundingMode.valueOf(excelColumn.roundingMode)).toPlainString();
+            }
+            else if (excelColumn.hasHandler)
+            {
+                return dataFormatHandlerAdapter(value, excelColumn.attr);
+            }
+            else if (ColumnType.STRING == excelColumn.cellType)
+            {
+                return getStringCellValue(value, excelColumn.defaultValue, excelColumn.suffix);
+            }
+            else if (ColumnType.NUMERIC == excelColumn.cellType && StringUtils.isNotNull(value))
+            {
+                if (StringUtils.contains(ConvertUtils.toStr(value), "."))
+                {
+                    Double d = ConvertUtils.toDouble(value);
+                    return d != null ? BigDecimal.valueOf(d).stripTrailingZeros().toPlainString() : null;
+                }
+                return ConvertUtils.toStr(ConvertUtils.toInt(value));
+            }
+            else if (ColumnType.IMAGE == excelColumn.cellType)
+            {
+                return ConvertUtils.toStr(value);
+            }
+        }
+        catch (Exception e)
+        {
+            LogUtils.error(ExcelUtils.class, "导出Excel失败{}", e);
+        }
+        return null;
+    }
+
+    /**
+     * 关闭工作簿并删除临时文件
+     */
+    private void closeWorkbook()
+    {
+        if (wb instanceof SXSSFWorkbook)
+        {
+            ((SXSSFWorkbook) wb).dispose();
+        }
+        IOUtils.closeQuietly(wb);
+    }
+
+    /**
+     * 分页数据迭代器，当前页遍历完后才查询下一页
+     */
+    private static class PageIterator<T> implements Iterator<T>
+    {
+        private final IntFunction<? extends Collection<T>> pageFetcher;
+
+        private int pageNum;
+
+        private Iterator<T> page = Collections.emptyIterator();
+
+        private boolean finished;
+
+        PageIterator(IntFunction<? extends Collection<T>> pageFetcher)
+        {
+            this.pageFetcher = pageFetcher;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!page.hasNext() && !finished)
+            {
+                Collection<T> data = pageFetcher.apply(++pageNum);
+                if (data == null || data.isEmpty())
+                {
+                    finished = true;
+                }
+                else
+                {
+                    page = data.iterator();
+                }
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public T next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+
+    /**
+     * 创建写入数据到Sheet
+     */
+    public void writeSheet()
+    {
+        // 取出一共有多少个sheet.
+        int sheetNo = Math.max(1, (int) Math.ceil(list.size() * 1.0 / sheetSize));
+        for (int index = 0; index < sheetNo; index++)
+        {
+            createSheet(sheetNo, index);
+
+            // 产生一行
+            Row row = createHeadRow();
+            if (Type.EXPORT.equals(type))
+            {
+                fillExcelData(index, row);
+                addStatisticsRow();
             }
         }
-        return list;
     }
 
     /**
-     * 对list数据源将其里面的数据导入到excel表单
-     *
-     * @param response 返回数据
-     * @param list 导出数据集合
-     * @param sheetName 工作表的名称
-     * @return 结果
+     * 创建写入数据到Sheet，单元格值在 executor 中分批并行计算
+     * <p>
+     * 工作簿不是线程安全的，sheet、行、单元格及统计行仍在当前线程按 {@link #writeSheet()} 的顺序创建，
+     * 生成的工作簿与 {@link #writeSheet()} 相同。含子列表或数据不足1批时按顺序写入
+     * 
+     * @param executor 执行器，并行度由其线程数决定
      */
-    public void exportExcel(HttpServletResponse response, List<T> list, String sheetName)
+    public void writeSheet(Executor executor)
     {
-        exportExcel(response, list, sheetName, StringUtils.STRING_EMPTY);
+        if (!Type.EXPORT.equals(type) || isSubList() || list.size() <= PARALLEL_BATCH_SIZE)
+        {
+            writeSheet();
+            return;
+        }
+        int sheetNo = Math.max(1, (int) Math.ceil(list.size() * 1.0 / sheetSize));
+        int batchNo = (list.size() + PARALLEL_BATCH_SIZE - 1) / PARALLEL_BATCH_SIZE;
+        ArrayDeque<CompletableFuture<Object[][]>> pending = new ArrayDeque<CompletableFuture<Object[][]>>();
+        int nextBatch = 0;
+        for (int index = 0; index < sheetNo; index++)
+        {
+            createSheet(sheetNo, index);
+            createHeadRow();
+            int startNo = index * sheetSize;
+            int endNo = Math.min(startNo + sheetSize, list.size());
+            // sheetSize 为批大小的整数倍，每批都在同一个sheet内
+            for (int batchStart = startNo; batchStart < endNo; batchStart += PARALLEL_BATCH_SIZE)
+            {
+                while (nextBatch < batchNo && pending.size() < PARALLEL_MAX_PENDING)
+                {
+                    int from = nextBatch * PARALLEL_BATCH_SIZE;
+                    int to = Math.min(from + PARALLEL_BATCH_SIZE, list.size());
+                    pending.add(CompletableFuture.supplyAsync(() -> getRowsData(from, to), executor));
+                    nextBatch++;
+                }
+                Object[][] rows = pending.poll().join();
+                for (int i = 0; i < rows.length; i++)
+                {
+                    int rowIndex = batchStart + i;
+                    fillExcelRow(list.get(rowIndex), rowIndex + 1 + rownum - startNo, rows[i]);
+                }
+            }
+            addStatisticsRow();
+        }
     }
 
     /**
-     * 对list数据源将其里面的数据导入到excel表单
-     *
-     * @param response 返回数据
-     * @param list 导出数据集合
-     * @param sheetName 工作表的名称
-     * @param title 标题
-     * @return 结果
+     * 计算多行的单元格值，不访问工作簿，可在其他线程中执行
+     * 
+     * @param from 开始下标(包含)
+     * @param to 结束下标(不包含)
+     * @return 每行各列的属性值及单元格值，见 {@link #getRowData(Object)}
      */
-    public void exportExcel(HttpServletResponse response, List<T> list, String sheetName, String title)
+    private Object[][] getRowsData(int from, int to)
     {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setCharacterEncoding("utf-8");
-        this.init(list, sheetName, title, Type.EXPORT);
-        exportExcel(response);
+        Object[][] rows = new Object[to - from][];
+        for (int i = from; i < to; i++)
+        {
+            rows[i - from] = getRowData(list.get(i));
+        }
+        return rows;
     }
 
     /**
-     * 对list数据源将其里面的数据导入到excel表单
-     *
-     * @param sheetName 工作表的名称
-     * @return 结果
+     * 计算一行的单元格值，不访问工作簿
+     * 
+     * @param vo 实体对象
+     * @return 前半部分为各列的属性值，后半部分为对应的单元格值，读取失败的列为 {@link #CELL_ERROR}
      */
-    public void importTemplateExcel(HttpServletResponse response, String sheetName)
+    private Object[] getRowData(T vo)
     {
-        importTemplateExcel(response, sheetName, StringUtils.STRING_EMPTY);
+        int size = fields.size();
+        Object[] data = new Object[size * 2];
+        for (int i = 0; i < size; i++)
+        {
+            ExcelColumn excelColumn = (ExcelColumn) fields.get(i)[2];
+            data[i] = CELL_ERROR;
+            data[size + i] = CELL_ERROR;
+            if (excelColumn.export)
+            {
+                try
+                {
+                    Object value = excelColumn.getValue(vo);
+                    data[i] = value;
+                    data[size + i] = getCellData(excelColumn, value);
+                }
+                catch (Exception e)
+                {
+                    LogUtils.error(ExcelUtils.class, "导出Excel失败{}", e);
+                }
+            }
+        }
+        return data;
     }
 
     /**
-     * 对list数据源将其里面的数据导入到excel表单
-     *
-     * @param sheetName 工作表的名称
-     * @param title 标题
-     * @return 结果
+     * 使用已计算的单元格值填充一行，不含子列表
+     * 
+     * @param vo 实体对象
+     * @param rowNo 行号
+     * @param data {@link #getRowData(Object)} 的结果
      */
-    public void importTemplateExcel(HttpServletResponse response, String sheetName, String title)
+    private void fillExcelRow(T vo, int rowNo, Object[] data)
     {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setCharacterEncoding("utf-8");
-        this.init(null, sheetName, title, Type.IMPORT);
-        exportExcel(response);
+        Row row = sheet.createRow(rowNo);
+        int size = fields.size();
+        for (int i = 0; i < size; i++)
+        {
+            fillCell((ExcelColumn) fields.get(i)[2], dataStyles[i], row, vo, i, data[i], data[size + i]);
+        }
     }
 
     /**
-     * 对list数据源将其里面的数据导入到excel表单
+     * 逐条写入数据到Sheet，每个sheet写满 {@link #sheetSize} 条数据后新建sheet
+     * <p>
+     * 生成的工作簿与将全部数据放入集合后调用 {@link #writeSheet()} 相同
      * 
-     * @return 结果
+     * @param iterator 导出数据
      */
-    public void exportExcel(HttpServletResponse response)
+    public void writeSheet(Iterator<T> iterator)
     {
-        try
-        {
-            writeSheet();
-            wb.write(response.getOutputStream());
-        }
-        catch (Exception e)
-        {
-            LogUtils.error(ExcelUtils.class, "导出Excel异常{}", e.getMessage());
-        }
-        finally
+        int index = 0;
+        int count = 0;
+        createHeadRow();
+        int rowNo = rownum;
+        while (iterator.hasNext())
         {
-            IOUtils.closeQuietly(wb);
+            T vo = iterator.next();
+            if (count == sheetSize)
+            {
+                // 当前sheet已写满
+                addStatisticsRow();
+                index++;
+                createSheet(index + 1, index);
+                createHeadRow();
+                rowNo = rownum;
+                count = 0;
+            }
+            rowNo = fillExcelRow(vo, rowNo + 1);
+            count++;
         }
+        addStatisticsRow();
     }
 
     /**
-     * 创建写入数据到Sheet
+     * 写入各个字段的列头名称
+     * 
+     * @return 列头行
      */
-    public void writeSheet()
+    private Row createHeadRow()
     {
-        // 取出一共有多少个sheet.
-        int sheetNo = Math.max(1, (int) Math.ceil(list.size() * 1.0 / sheetSize));
-        for (int index = 0; index < sheetNo; index++)
+        Row row = sheet.createRow(rownum);
+        int column = 0;
+        for (Object[] os : fields)
         {
-            createSheet(sheetNo, index);
-
-            // 产生一行
-            Row row = sheet.createRow(rownum);
-            int column = 0;
-            // 写入各个字段的列头名称
-            for (Object[] os : fields)
-            {
-                Field field = (Field) os[0];
-                Excel excel = (Excel) os[1];
-                if (Collection.class.isAssignableFrom(field.getType()))
-                {
-                    for (Field subField : subFields)
-                    {
-                        Excel subExcel = subField.getAnnotation(Excel.class);
-                        this.createHeadCell(subExcel, row, column++);
-                    }
-                }
-                else
+            Field field = (Field) os[0];
+            Excel excel = (Excel) os[1];
+            if (Collection.class.isAssignableFrom(field.getType()))
+            {
+                for (Field subField : subFields)
                 {
-                    this.createHeadCell(excel, row, column++);
+                    Excel subExcel = subField.getAnnotation(Excel.class);
+                    this.createHeadCell(subExcel, row, column++);
                 }
             }
-            if (Type.EXPORT.equals(type))
+            else
             {
-                fillExcelData(index, row);
-                addStatisticsRow();
+                this.createHeadCell(excel, row, column++);
             }
         }
+        return row;
     }
 
     /**
@@ -563,60 +1370,74 @@ public class ExcelUtils<T> {
         for (int i = startNo; i < endNo; i++)
         {
             rowNo = isSubList() ? (i > 1 ? rowNo + 1 : rowNo + i) : i + 1 + rownum - startNo;
-            row = sheet.createRow(rowNo);
             // 得到导出对象.
             T vo = (T) list.get(i);
-            Collection<?> subList = null;
-            if (isSubList())
+            rowNo = fillExcelRow(vo, rowNo);
+        }
+    }
+
+    /**
+     * 填充一条数据
+     * 
+     * @param vo 导出对象
+     * @param rowNo 起始行号
+     * @return 最后写入的行号，对象含子列表时会占用多行
+     */
+    @SuppressWarnings("unchecked")
+    private int fillExcelRow(T vo, int rowNo)
+    {
+        Row row = sheet.createRow(rowNo);
+        Collection<?> subList = null;
+        if (isSubList())
+        {
+            if (isSubListValue(vo))
             {
-                if (isSubListValue(vo))
-                {
-                    subList = getListCellValue(vo);
-                    subMergedLastRowNum = subMergedLastRowNum + subList.size();
-                }
-                else
-                {
-                    subMergedFirstRowNum++;
-                    subMergedLastRowNum++;
-                }
+                subList = getListCellValue(vo);
+                subMergedLastRowNum = subMergedLastRowNum + subList.size();
             }
-            int column = 0;
-            for (Object[] os : fields)
+            else
+            {
+                subMergedFirstRowNum++;
+                subMergedLastRowNum++;
+            }
+        }
+        int column = 0;
+        for (int i = 0; i < fields.size(); i++)
+        {
+            Object[] os = fields.get(i);
+            Field field = (Field) os[0];
+            if (Collection.class.isAssignableFrom(field.getType()) && StringUtils.isNotNull(subList))
             {
-                Field field = (Field) os[0];
-                Excel excel = (Excel) os[1];
-                if (Collection.class.isAssignableFrom(field.getType()) && StringUtils.isNotNull(subList))
+                boolean subFirst = false;
+                for (Object obj : subList)
                 {
-                    boolean subFirst = false;
-                    for (Object obj : subList)
+                    if (subFirst)
                     {
-                        if (subFirst)
-                        {
-                            rowNo++;
-                            row = sheet.createRow(rowNo);
-                        }
-                        List<Field> subFields = ReflectUtils.getFieldsListWithAnnotation(obj.getClass(), Excel.class);
-                        int subIndex = 0;
-                        for (Field subField : subFields)
+                        rowNo++;
+                        row = sheet.createRow(rowNo);
+                    }
+                    List<Field> subFields = ReflectUtils.getFieldsListWithAnnotation(obj.getClass(), Excel.class);
+                    int subIndex = 0;
+                    for (Field subField : subFields)
+                    {
+                        if (subField.isAnnotationPresent(Excel.class))
                         {
-                            if (subField.isAnnotationPresent(Excel.class))
-                            {
-                                subField.setAccessible(true);
-                                Excel attr = subField.getAnnotation(Excel.class);
-                                this.addCell(attr, row, (T) obj, subField, column + subIndex);
-                            }
-                            subIndex++;
+                            subField.setAccessible(true);
+                            Excel attr = subField.getAnnotation(Excel.class);
+                            this.addCell(attr, row, (T) obj, subField, column + subIndex);
                         }
-                        subFirst = true;
+                        subIndex++;
                     }
-                    this.subMergedFirstRowNum = this.subMergedFirstRowNum + subList.size();
-                }
-                else
-                {
-                    this.addCell(excel, row, vo, field, column++);
+                    subFirst = true;
                 }
+                this.subMergedFirstRowNum = this.subMergedFirstRowNum + subList.size();
+            }
+            else
+            {
+                this.addCell((ExcelColumn) os[2], dataStyles[i], row, vo, column++);
             }
         }
+        return rowNo;
     }
 
     /**
@@ -684,7 +1505,7 @@ public class ExcelUtils<T> {
         for (Object[] os : fields)
         {
             Excel excel = (Excel) os[1];
-            String key = StringUtils.format("header_{}_{}", excel.headerColor(), excel.headerBackgroundColor());
+            String key = ((ExcelColumn) os[2]).headerStyleKey;
             if (!headerStyles.containsKey(key))
             {
                 CellStyle style = wb.createCellStyle();
@@ -717,7 +1538,7 @@ public class ExcelUtils<T> {
         for (Object[] os : fields)
         {
             Excel excel = (Excel) os[1];
-            String key = StringUtils.format("data_{}_{}_{}", excel.align(), excel.color(), excel.backgroundColor());
+            String key = ((ExcelColumn) os[2]).dataStyleKey;
             if (!styles.containsKey(key))
             {
                 CellStyle style = wb.createCellStyle();
@@ -776,37 +1597,79 @@ public class ExcelUtils<T> {
      */
     public void setCellVo(Object value, Excel attr, Cell cell)
     {
-        if (ColumnType.STRING == attr.cellType())
+        setCellVo(value, attr.cellType(), attr.defaultValue(), attr.suffix(), cell);
+    }
+
+    /**
+     * 设置单元格信息
+     * 
+     * @param value 单元格值
+     * @param cellType 导出类型
+     * @param defaultValue 默认值
+     * @param suffix 后缀
+     * @param cell 单元格信息
+     */
+    private void setCellVo(Object value, ColumnType cellType, String defaultValue, String suffix, Cell cell)
+    {
+        setCellData(getCellData(value, cellType, defaultValue, suffix), cell);
+    }
+
+    /**
+     * 按导出类型计算单元格值，不访问工作簿
+     * 
+     * @param value 属性值
+     * @param cellType 导出类型
+     * @param defaultValue 默认值
+     * @param suffix 后缀
+     * @return 单元格值：字符串、数值、图片路径({@link CellImage})，不写入时为 null
+     */
+    private Object getCellData(Object value, ColumnType cellType, String defaultValue, String suffix)
+    {
+        if (ColumnType.STRING == cellType)
         {
-            String cellValue = ConvertUtils.toStr(value);
-            // 对于任何以表达式触发字符 =-+@开头的单元格，直接使用tab字符作为前缀，防止CSV注入。
-            if (StringUtils.startsWithAny(cellValue, FORMULA_STR))
-            {
-                cellValue = RegexUtils.replaceFirst(cellValue, FORMULA_REGEX_STR, "\t$0");
-            }
-            if (value instanceof Collection && StringUtils.equals("[]", cellValue))
-            {
-                cellValue = StringUtils.STRING_EMPTY;
-            }
-            cell.setCellValue(StringUtils.isNull(cellValue) ? attr.defaultValue() : cellValue + attr.suffix());
+            return getStringCellValue(value, defaultValue, suffix);
         }
-        else if (ColumnType.NUMERIC == attr.cellType())
+        else if (ColumnType.NUMERIC == cellType)
         {
             if (StringUtils.isNotNull(value))
             {
-                cell.setCellValue(StringUtils.contains(ConvertUtils.toStr(value), ".") ? ConvertUtils.toDouble(value) : ConvertUtils.toInt(value));
+                double d = StringUtils.contains(ConvertUtils.toStr(value), ".") ? ConvertUtils.toDouble(value) : ConvertUtils.toInt(value);
+                return d;
             }
         }
-        else if (ColumnType.IMAGE == attr.cellType())
+        else if (ColumnType.IMAGE == cellType)
+        {
+            return new CellImage(ConvertUtils.toStr(value));
+        }
+        return null;
+    }
+
+    /**
+     * 写入单元格值
+     * 
+     * @param data 单元格值，见 {@link #getCellData(Object, ColumnType, String, String)}
+     * @param cell 单元格信息
+     */
+    private void setCellData(Object data, Cell cell)
+    {
+        if (data instanceof String)
+        {
+            cell.setCellValue((String) data);
+        }
+        else if (data instanceof Double)
+        {
+            cell.setCellValue((Double) data);
+        }
+        else if (data instanceof CellImage)
         {
             ClientAnchor anchor = new XSSFClientAnchor(0, 0, 0, 0, (short) cell.getColumnIndex(), cell.getRow().getRowNum(), (short) (cell.getColumnIndex() + 1), cell.getRow().getRowNum() + 1);
-            String imagePath = ConvertUtils.toStr(value);
+            String imagePath = ((CellImage) data).path;
             if (StringUtils.isNotEmpty(imagePath))
             {
             	try {
-            		byte[] data = FileUtils.readBytes(imagePath);
+            		byte[] bytes = FileUtils.readBytes(imagePath);
                     getDrawingPatriarch(cell.getSheet()).createPicture(anchor,
-                            cell.getSheet().getWorkbook().addPicture(data, getImageType(data)));
+                            cell.getSheet().getWorkbook().addPicture(bytes, getImageType(bytes)));
 				} catch (IOException e) {
 					LogUtils.error(ExcelUtils.class, e.getMessage(), e);
 				}
@@ -814,6 +1677,42 @@ public class ExcelUtils<T> {
         }
     }
 
+    /**
+     * 图片单元格值
+     */
+    private static final class CellImage
+    {
+        private final String path;
+
+        private CellImage(String path)
+        {
+            this.path = path;
+        }
+    }
+
+    /**
+     * 获取字符串类型的单元格值
+     * 
+     * @param value 属性值
+     * @param defaultValue 默认值
+     * @param suffix 后缀
+     * @return 单元格值
+     */
+    private String getStringCellValue(Object value, String defaultValue, String suffix)
+    {
+        String cellValue = ConvertUtils.toStr(value);
+        // 对于任何以表达式触发字符 =-+@开头的单元格，直接使用tab字符作为前缀，防止CSV注入。
+        if (StringUtils.startsWithAny(cellValue, FORMULA_STR))
+        {
+            cellValue = RegexUtils.replaceFirst(cellValue, FORMULA_REGEX_STR, "\t$0");
+        }
+        if (value instanceof Collection && StringUtils.equals("[]", cellValue))
+        {
+            cellValue = StringUtils.STRING_EMPTY;
+        }
+        return StringUtils.isNull(cellValue) ? defaultValue : cellValue + suffix;
+    }
+
     /**
      * 获取画布
      */
@@ -876,6 +1775,54 @@ public class ExcelUtils<T> {
      * 添加单元格
      */
     public Cell addCell(Excel attr, Row row, T vo, Field field, int column)
+    {
+        ExcelColumn excelColumn = ExcelColumn.of(field, attr);
+        return addCell(excelColumn, styles.get(excelColumn.dataStyleKey), row, vo, column);
+    }
+
+    /**
+     * 添加单元格
+     * 
+     * @param excelColumn 列模型
+     * @param style 数据样式
+     * @param row 行
+     * @param vo 实体对象
+     * @param column 列号
+     * @return 单元格
+     */
+    private Cell addCell(ExcelColumn excelColumn, CellStyle style, Row row, T vo, int column)
+    {
+        Object value = CELL_ERROR;
+        Object data = CELL_ERROR;
+        if (excelColumn.export)
+        {
+            try
+            {
+                // 用于读取对象中的属性
+                value = excelColumn.getValue(vo);
+                data = getCellData(excelColumn, value);
+            }
+            catch (Exception e)
+            {
+                LogUtils.error(ExcelUtils.class, "导出Excel失败{}", e);
+            }
+        }
+        return fillCell(excelColumn, style, row, vo, column, value, data);
+    }
+
+    /**
+     * 创建单元格并写入已计算的值
+     * 
+     * @param excelColumn 列模型
+     * @param style 数据样式
+     * @param row 行
+     * @param vo 实体对象
+     * @param column 列号
+     * @param value 属性值
+     * @param data 单元格值，见 {@link #getCellData(ExcelColumn, Object)}，读取失败时为 {@link #CELL_ERROR}
+     * @return 单元格
+     */
+    private Cell fillCell(ExcelColumn excelColumn, CellStyle style, Row row, T vo, int column, Object value, Object data)
     {
         Cell cell = null;
         try
@@ -883,44 +1830,24 @@ public class ExcelUtils<T> {
             // 设置行高
             row.setHeight(maxHeight);
             // 根据Excel中设置情况决定是否导出,有些情况需要保持为空,希望用户填写这一列.
-            if (attr.isExport())
+            if (excelColumn.export)
             {
                 // 创建cell
                 cell = row.createCell(column);
-                if (isSubListValue(vo) && getListCellValue(vo).size() > 1 && attr.needMerge())
+                if (excelColumn.needMerge && isSubListValue(vo) && getListCellValue(vo).size() > 1)
                 {
                     CellRangeAddress cellAddress = new CellRangeAddress(subMergedFirstRowNum, subMergedLastRowNum, column, column);
                     sheet.addMergedRegion(cellAddress);
                 }
-                cell.setCellStyle(styles.get(StringUtils.format("data_{}_{}_{}", attr.align(), attr.color(), attr.backgroundColor())));
-
-                // 用于读取对象中的属性
-                Object value = getTargetValue(vo, field, attr);
-                String dateFormat = attr.dateFormat();
-                String readConverterExp = attr.readConverterExp();
-                String separator = attr.separator();
-                if (StringUtils.isNotEmpty(dateFormat) && StringUtils.isNotNull(value))
-                {
-                    cell.setCellValue(parseDateToStr(dateFormat, value));
-                }
-                else if (StringUtils.isNotEmpty(readConverterExp) && StringUtils.isNotNull(value))
-                {
-                    cell.setCellValue(convertByExp(ConvertUtils.toStr(value), readConverterExp, separator));
-                }
-                else if (value instanceof BigDecimal && -1 != attr.scale())
+                cell.setCellStyle(style);
+                if (data != CELL_ERROR)
                 {
-                    cell.setCellValue((((BigDecimal) value).setScale(attr.scale(), attr.roundingMode())).doubleValue());
-                }
-                else if (!attr.handler().equals(ExcelHandlerAdapter.class))
-                {
-                    cell.setCellValue(dataFormatHandlerAdapter(value, attr));
-                }
-                else
-                {
-                    // 设置列类型
-                    setCellVo(value, attr, cell);
+                    setCellData(data, cell);
+                    if (excelColumn.statistics)
+                    {
+                        addStatisticsData(column, ConvertUtils.toStr(value), excelColumn.attr);
+                    }
                 }
-                addStatisticsData(column, ConvertUtils.toStr(value), attr);
             }
         }
         catch (Exception e)
@@ -930,6 +1857,35 @@ public class ExcelUtils<T> {
         return cell;
     }
 
+    /**
+     * 计算单元格值，不访问工作簿
+     * 
+     * @param excelColumn 列模型
+     * @param value 属性值
+     * @return 单元格值，见 {@link #getCellData(Object, ColumnType, String, String)}
+     */
+    private Object getCellData(ExcelColumn excelColumn, Object value)
+    {
+        if (StringUtils.isNotEmpty(excelColumn.dateFormat) && StringUtils.isNotNull(value))
+        {
+            return parseDateToStr(excelColumn.dateFormat, value);
+        }
+        else if (StringUtils.isNotEmpty(excelColumn.readConverterExp) && StringUtils.isNotNull(value))
+        {
+            return convertByExp(ConvertUtils.toStr(value), excelColumn.readConverterExp, excelColumn.separator);
+        }
+        else if (value instanceof BigDecimal && -1 != excelColumn.scale)
+        {
+            return (((BigDecimal) value).setScale(excelColumn.scale, RoundingMode.valueOf(excelColumn.roundingMode))).doubleValue();
+        }
+        else if (excelColumn.hasHandler)
+        {
+            return dataFormatHandlerAdapter(value, excelColumn.attr);
+        }
+        // 设置列类型
+        return getCellData(value, excelColumn.cellType, excelColumn.defaultValue, excelColumn.suffix);
+    }
+
     /**
      * 设置 POI XSSFSheet 单元格提示或选择框
      * 
@@ -1228,44 +2184,20 @@ public class ExcelUtils<T> {
     public List<Object[]> getFields()
     {
         List<Object[]> fields = new ArrayList<Object[]>();
-        List<Field> tempFields = new ArrayList<>();
-        tempFields.addAll(Arrays.asList(clazz.getSuperclass().getDeclaredFields()));
-        tempFields.addAll(Arrays.asList(clazz.getDeclaredFields()));
-        for (Field field : tempFields)
+        for (ExcelColumn column : ExcelColumn.forClass(clazz))
         {
+            Field field = column.field;
             if (!ArrayUtils.contains(this.excludeFields, field.getName()))
             {
-                // 单注解
-                if (field.isAnnotationPresent(Excel.class))
+                Excel attr = column.attr;
+                if (attr.type() == Type.ALL || attr.type() == type)
                 {
-                    Excel attr = field.getAnnotation(Excel.class);
-                    if (attr != null && (attr.type() == Type.ALL || attr.type() == type))
-                    {
-                        field.setAccessible(true);
-                        fields.add(new Object[] { field, attr });
-                    }
-                    if (Collection.class.isAssignableFrom(field.getType()))
-                    {
-                        subMethod = getSubMethod(field.getName(), clazz);
-                        ParameterizedType pt = (ParameterizedType) field.getGenericType();
-                        Class<?> subClass = (Class<?>) pt.getActualTypeArguments()[0];
-                        this.subFields = ReflectUtils.getFieldsListWithAnnotation(subClass, Excel.class);
-                    }
+                    fields.add(new Object[] { field, attr, column });
                 }
-
-                // 多注解
-                if (field.isAnnotationPresent(Excels.class))
+                if (column.subList)
                 {
-                    Excels attrs = field.getAnnotation(Excels.class);
-                    Excel[] excels = attrs.value();
-                    for (Excel attr : excels)
-                    {
-                        if (attr != null && (attr.type() == Type.ALL || attr.type() == type))
-                        {
-                            field.setAccessible(true);
-                            fields.add(new Object[] { field, attr });
-                        }
-                    }
+                    subMethod = getSubMethod(field.getName(), clazz);
+                    this.subFields = column.subFields;
                 }
             }
         }
@@ -1295,6 +2227,11 @@ public class ExcelUtils<T> {
         this.sheet = wb.createSheet();
         wb.setSheetName(0, sheetName);
         this.styles = createStyles(wb);
+        this.dataStyles = new CellStyle[fields.size()];
+        for (int i = 0; i < fields.size(); i++)
+        {
+            this.dataStyles[i] = styles.get(((ExcelColumn) fields.get(i)[2]).dataStyleKey);
+        }
     }
 
     /**
@@ -0,0 +1,45 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * {@link CsvWriter} 测试
+ *
+ * @author openguava
+ */
+public class CsvWriterTest
+{
+    @Test
+    public void testQuote() throws Exception
+    {
+        assertEquals("a,\"b,c\",\"d\"\"e\",\"f\r\ng\",\r\n", write(',', "a", "b,c", "d\"e", "f\r\ng", null));
+    }
+
+    @Test
+    public void testFormulaPrefixedWithTab() throws Exception
+    {
+        assertEquals("\t=1+1,\t+cmd,\t-cmd,\t@SUM(A1),\t-,\t+.,\t-1+2,\"\t=a\"\"b\"\r\n",
+                write(',', "=1+1", "+cmd", "-cmd", "@SUM(A1)", "-", "+.", "-1+2", "=a\"b"));
+        // tab分隔时前缀需要加引号
+        assertEquals("\"\t=1+1\"\t\"\t@a\"\r\n", write('\t', "=1+1", "@a"));
+    }
+
+    @Test
+    public void testNumberNotPrefixed() throws Exception
+    {
+        assertEquals("-1,+2,-1.5,-.5,1=1,a@b\r\n", write(',', "-1", "+2", "-1.5", "-.5", "1=1", "a@b"));
+    }
+
+    private static String write(char separator, String... values) throws Exception
+    {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out, separator);
+        csv.writeRow(values);
+        csv.flush();
+        return out.toString();
+    }
+}
@@ -0,0 +1,632 @@
+package io.github.openguava.jvtool.ruoyi.poi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import io.github.openguava.jvtool.ruoyi.poi.annotation.Excel;
+import io.github.openguava.jvtool.ruoyi.poi.annotation.Excel.ColumnType;
+
+/**
+ * {@link ExcelUtils} 测试
+ *
+ * @author openguava
+ */
+public class ExcelUtilsTest
+{
+    @Test
+    public void testParallelExportIdenticalToSequential() throws Exception
+    {
+        // 超过1个sheet
+        List<ExcelTestEntity> list = ExcelTestEntity.list(ExcelUtils.sheetSize + 3000);
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        new ExcelUtils<ExcelTestEntity>(ExcelTestEntity.class).exportExcel(response(sequential), list, "数据", "标题");
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            new ExcelUtils<ExcelTestEntity>(ExcelTestEntity.class).exportExcel(response(parallel), list, "数据", "标题", executor);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        Map<String, byte[]> expected = unzip(sequential.toByteArray());
+        Map<String, byte[]> actual = unzip(parallel.toByteArray());
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String name : expected.keySet())
+        {
+            assertArrayEquals(name, expected.get(name), actual.get(name));
+        }
+    }
+
+    @Test
+    public void testStreamImportRoundTrip() throws Exception
+    {
+        // 超过1个sheet
+        List<ExcelTestEntity> list = ExcelTestEntity.list(ExcelUtils.sheetSize + 500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExcelUtils<ExcelTestEntity>(ExcelTestEntity.class).exportExcel(response(out), list, "数据", "标题");
+        byte[] bytes = out.toByteArray();
+        List<ExcelTestEntity> first = streamImport("数据", bytes, 1);
+        List<ExcelTestEntity> second = streamImport("数据1", bytes, 1);
+        // 每个sheet末尾有合计行
+        assertEquals(ExcelUtils.sheetSize + 1, first.size());
+        assertEquals(500 + 1, second.size());
+        assertNull(first.get(ExcelUtils.sheetSize).getId());
+        assertNull(second.get(500).getId());
+        List<ExcelTestEntity> actual = new ArrayList<ExcelTestEntity>(first.subList(0, ExcelUtils.sheetSize));
+        actual.addAll(second.subList(0, 500));
+        for (int i = 0; i < list.size(); i++)
+        {
+            ExcelTestEntity expected = list.get(i);
+            ExcelTestEntity entity = actual.get(i);
+            assertEquals(expected.getId(), entity.getId());
+            assertEquals(expected.getName() == null ? "" : expected.getName(), entity.getName());
+            assertEquals(expected.getSex(), entity.getSex());
+            assertEquals(0, expected.getAmount().setScale(2, RoundingMode.HALF_EVEN).compareTo(entity.getAmount()));
+            assertEquals(expected.getRatio(), entity.getRatio());
+            assertEquals(expected.getTime(), entity.getTime());
+            assertEquals(expected.getRemark() == null ? "无" : expected.getRemark() + "条", entity.getRemark());
+            // 不导出的列只有表头
+            assertEquals("", entity.getHidden());
+        }
+    }
+
+    @Test
+    public void testStreamImportMatchesWorkbookImport() throws Exception
+    {
+        byte[] bytes;
+        try (XSSFWorkbook wb = new XSSFWorkbook())
+        {
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            for (String name : Arrays.asList("第一页", "第二页"))
+            {
+                Sheet sheet = wb.createSheet(name);
+                Row head = sheet.createRow(0);
+                String[] heads = { "编号", "名称", "性别", "金额", "比例", "日期", "备注" };
+                for (int i = 0; i < heads.length; i++)
+                {
+                    head.createCell(i).setCellValue(heads[i]);
+                }
+                for (int i = 1; i <= 50; i++)
+                {
+                    Row row = sheet.createRow(i);
+                    if (i % 10 == 0)
+                    {
+                        // 空行
+                        continue;
+                    }
+                    row.createCell(0).setCellValue(i);
+                    if (i % 4 == 1)
+                    {
+                        // 空单元格
+                        row.createCell(1);
+                    }
+                    else if (i % 4 != 2)
+                    {
+                        // 共享字符串
+                        row.createCell(1).setCellValue(name + (i % 3));
+                    }
+                    row.createCell(2).setCellValue(i % 2 == 0 ? "男" : "女");
+                    row.createCell(3).setCellValue(i + 0.25);
+                    row.createCell(4).setCellValue(i / 4.0);
+                    if (i % 5 != 0)
+                    {
+                        row.createCell(5).setCellValue(date(i));
+                        row.getCell(5).setCellStyle(dateStyle);
+                    }
+                    row.createCell(6).setCellValue("备注");
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            bytes = out.toByteArray();
+        }
+        for (String name : Arrays.asList("第一页", "第二页"))
+        {
+            List<ExcelTestEntity> expected = new ExcelUtils<ExcelTestEntity>(ExcelTestEntity.class).importExcel(name, new ByteArrayInputStream(bytes), 0);
+            List<ExcelTestEntity> actual = streamImport(name, bytes, 0);
+            assertEquals(45, expected.size());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++)
+            {
+                assertEquals(expected.get(i).values(), actual.get(i).values());
+            }
+            assertEquals(name + "0", actual.get(2).getName());
+            assertEquals(date(3), actual.get(2).getTime());
+            assertNull(actual.get(4).getTime());
+            assertEquals(new BigDecimal("1.25"), actual.get(0).getAmount());
+        }
+    }
+
+    @Test
+    public void testImportSetterCallsMatchBaseline() throws Exception
+    {
+        byte[] bytes;
+        try (XSSFWorkbook wb = new XSSFWorkbook())
+        {
+            Sheet sheet = wb.createSheet("导入");
+            String[] heads = { "s", "l", "n", "d", "b", "t", "z", "p", "c", "k" };
+            Row row = sheet.createRow(0);
+            for (int i = 0; i < heads.length; i++)
+            {
+                row.createCell(i).setCellValue(heads[i]);
+            }
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            row = sheet.createRow(1);
+            row.createCell(0).setCellValue("名称");
+            row.createCell(1).setCellValue(12);
+            row.createCell(2).setCellValue(3);
+            row.createCell(3).setCellValue(1.5);
+            row.createCell(4).setCellValue(2.25);
+            row.createCell(5).setCellValue(new GregorianCalendar(2021, Calendar.MARCH, 4).getTime());
+            row.getCell(5).setCellStyle(dateStyle);
+            row.createCell(6).setCellValue("true");
+            row.createCell(7).setCellValue(7);
+            row.createCell(8).setCellValue("女");
+            row.createCell(9).setCellValue(1.0);
+            // 类型不匹配的值
+            row = sheet.createRow(2);
+            row.createCell(0).setCellValue(5);
+            row.createCell(1).setCellValue("abc");
+            row.createCell(2).setCellValue("1.5");
+            row.createCell(3).setCellValue("2");
+            row.createCell(4).setCellValue("3.75");
+            row.createCell(5).setCellValue("2021-03-04 05:06:07");
+            row.createCell(6).setCellValue(1);
+            row.createCell(7).setCellValue("8");
+            row.createCell(8).setCellValue("其他");
+            row.createCell(9).setCellValue("x");
+            // 空单元格
+            row = sheet.createRow(3);
+            for (int i = 0; i < 9; i++)
+            {
+                row.createCell(i);
+            }
+            row.createCell(9).setCellValue("y");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            bytes = out.toByteArray();
+        }
+        // 前两行为缓存列模型之前按 ReflectUtils.invokeSetterMethod 逐个反射设置的结果
+        List<List<String>> expected = Arrays.asList(
+                Arrays.asList("s=名称", "l=12", "n=3", "d=1.5", "b=2.25", "t=" + new GregorianCalendar(2021, Calendar.MARCH, 4).getTimeInMillis(), "z=true", "p=7", "c=1", "k=1"),
+                Arrays.asList("s=5", "d=2.0", "b=3.75", "t=" + new GregorianCalendar(2021, Calendar.MARCH, 4, 5, 6, 7).getTimeInMillis(), "z=false", "p=8", "c=", "k=x"),
+                // 转换结果为 null 的列不调用 set 方法
+                Arrays.asList("s=", "z=false", "c=", "k=y"));
+        List<ImportTestEntity> list = new ExcelUtils<ImportTestEntity>(ImportTestEntity.class).importExcel(new ByteArrayInputStream(bytes));
+        List<ImportTestEntity> streamed = new ArrayList<ImportTestEntity>();
+        new ExcelUtils<ImportTestEntity>(ImportTestEntity.class).importExcel(new ByteArrayInputStream(bytes), 0, 10, streamed::addAll);
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected.size(), streamed.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i), list.get(i).calls);
+            assertEquals(expected.get(i), streamed.get(i).calls);
+        }
+    }
+
+    @Test
+    public void testCsvExportGuardsEveryField() throws Exception
+    {
+        List<CsvTestEntity> list = new ArrayList<CsvTestEntity>();
+        for (int i = 0; i < 3; i++)
+        {
+            CsvTestEntity entity = new CsvTestEntity();
+            entity.setType(String.valueOf(i));
+            entity.setAmount(-1.5 * i);
+            list.add(entity);
+        }
+        StringWriter out = new StringWriter();
+        new ExcelUtils<CsvTestEntity>(CsvTestEntity.class).exportCsv(out, list.iterator(), ',');
+        assertEquals("类型,金额\r\n正常,0\r\n\t+cmd,-1.5\r\n\t@cmd,-3\r\n", out.toString());
+    }
+
+    @Test
+    public void testExportDataByFormat() throws Exception
+    {
+        List<CsvTestEntity> list = new ArrayList<CsvTestEntity>();
+        for (int i = 0; i < 2; i++)
+        {
+            CsvTestEntity entity = new CsvTestEntity();
+            entity.setType(String.valueOf(i));
+            entity.setAmount(1.5 * i);
+            list.add(entity);
+        }
+        ByteArrayOutputStream tsv = new ByteArrayOutputStream();
+        new ExcelUtils<CsvTestEntity>(CsvTestEntity.class).exportData(response(tsv), list, "数据", ExcelFormat.TSV);
+        assertEquals("\uFEFF类型\t金额\r\n正常\t0\r\n\"\t+cmd\"\t1.5\r\n", new String(tsv.toByteArray(), StandardCharsets.UTF_8));
+        // 标题为 null 时仍按标题导出，不与按格式导出冲突
+        ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+        new ExcelUtils<CsvTestEntity>(CsvTestEntity.class).exportExcel(response(xlsx), list, "数据", null);
+        assertTrue(unzip(xlsx.toByteArray()).containsKey("xl/workbook.xml"));
+    }
+
+    /**
+     * 测试日期，精确到秒
+     */
+    static Date date(int i)
+    {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.MARCH, 4, 5, 6, 7);
+        calendar.add(Calendar.HOUR_OF_DAY, i);
+        return calendar.getTime();
+    }
+
+    /**
+     * 流式导入指定sheet
+     */
+    static List<ExcelTestEntity> streamImport(String sheetName, byte[] bytes, int titleNum) throws Exception
+    {
+        List<ExcelTestEntity> list = new ArrayList<ExcelTestEntity>();
+        int count = new ExcelUtils<ExcelTestEntity>(ExcelTestEntity.class).importExcel(sheetName, new ByteArrayInputStream(bytes), titleNum, 1000, list::addAll);
+        assertEquals(list.size(), count);
+        return list;
+    }
+
+    /**
+     * 解压，忽略包含创建时间的文档属性
+     */
+    static Map<String, byte[]> unzip(byte[] bytes) throws IOException
+    {
+        Map<String, byte[]> entries = new TreeMap<String, byte[]>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes)))
+        {
+            ZipEntry entry;
+            byte[] buffer = new byte[8192];
+            while ((entry = zip.getNextEntry()) != null)
+            {
+                if (entry.getName().startsWith("docProps/"))
+                {
+                    continue;
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int n;
+                while ((n = zip.read(buffer)) > 0)
+                {
+                    out.write(buffer, 0, n);
+                }
+                entries.put(entry.getName(), out.toByteArray());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 写入到指定输出的响应
+     */
+    static HttpServletResponse response(ByteArrayOutputStream out)
+    {
+        ServletOutputStream stream = new ServletOutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady()
+            {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener)
+            {
+            }
+        };
+        return (HttpServletResponse) Proxy.newProxyInstance(ExcelUtilsTest.class.getClassLoader(), new Class<?>[] { HttpServletResponse.class },
+                (proxy, method, args) -> "getOutputStream".equals(method.getName()) ? stream : null);
+    }
+
+    /**
+     * 测试数据
+     */
+    public static class ExcelTestEntity
+    {
+        @Excel(name = "编号", cellType = ColumnType.NUMERIC)
+        private Long id;
+
+        @Excel(name = "名称")
+        private String name;
+
+        @Excel(name = "公式")
+        private String formula;
+
+        @Excel(name = "性别", readConverterExp = "0=男,1=女,2=未知")
+        private String sex;
+
+        @Excel(name = "金额", scale = 2, isStatistics = true)
+        private BigDecimal amount;
+
+        @Excel(name = "比例", cellType = ColumnType.NUMERIC)
+        private Double ratio;
+
+        @Excel(name = "日期", dateFormat = "yyyy-MM-dd HH:mm:ss")
+        private Date time;
+
+        @Excel(name = "备注", defaultValue = "无", suffix = "条")
+        private String remark;
+
+        @Excel(name = "隐藏", isExport = false)
+        private String hidden;
+
+        public static List<ExcelTestEntity> list(int size)
+        {
+            List<ExcelTestEntity> list = new ArrayList<ExcelTestEntity>(size);
+            for (int i = 0; i < size; i++)
+            {
+                ExcelTestEntity entity = new ExcelTestEntity();
+                entity.setId((long) i);
+                entity.setName(i % 7 == 0 ? null : "名称" + (i % 500));
+                entity.setFormula(i % 11 == 0 ? "=1+" + i : "a" + i);
+                entity.setSex(String.valueOf(i % 3));
+                entity.setAmount(new BigDecimal(i).movePointLeft(3));
+                entity.setRatio(i % 5 == 0 ? null : i / 8.0);
+                entity.setTime(i % 17 == 0 ? null : new Date(1600000000000L + i * 60000L));
+                entity.setRemark(i % 3 == 0 ? null : "备注" + i);
+                entity.setHidden("h" + i);
+                list.add(entity);
+            }
+            return list;
+        }
+
+        public List<Object> values()
+        {
+            return Arrays.<Object> asList(id, name, formula, sex, amount, ratio, time, remark, hidden);
+        }
+
+        public Long getId()
+        {
+            return id;
+        }
+
+        public void setId(Long id)
+        {
+            this.id = id;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public String getFormula()
+        {
+            return formula;
+        }
+
+        public void setFormula(String formula)
+        {
+            this.formula = formula;
+        }
+
+        public String getSex()
+        {
+            return sex;
+        }
+
+        public void setSex(String sex)
+        {
+            this.sex = sex;
+        }
+
+        public BigDecimal getAmount()
+        {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount)
+        {
+            this.amount = amount;
+        }
+
+        public Double getRatio()
+        {
+            return ratio;
+        }
+
+        public void setRatio(Double ratio)
+        {
+            this.ratio = ratio;
+        }
+
+        public Date getTime()
+        {
+            return time;
+        }
+
+        public void setTime(Date time)
+        {
+            this.time = time;
+        }
+
+        public String getRemark()
+        {
+            return remark;
+        }
+
+        public void setRemark(String remark)
+        {
+            this.remark = remark;
+        }
+
+        public String getHidden()
+        {
+            return hidden;
+        }
+
+        public void setHidden(String hidden)
+        {
+            this.hidden = hidden;
+        }
+    }
+
+    /**
+     * 记录 set 方法调用的导入数据
+     */
+    public static class ImportTestEntity
+    {
+        @Excel(name = "s")
+        private String s;
+
+        @Excel(name = "l")
+        private Long l;
+
+        @Excel(name = "n")
+        private Integer n;
+
+        @Excel(name = "d")
+        private Double d;
+
+        @Excel(name = "b")
+        private BigDecimal b;
+
+        @Excel(name = "t")
+        private Date t;
+
+        @Excel(name = "z")
+        private Boolean z;
+
+        @Excel(name = "p")
+        private int p;
+
+        @Excel(name = "c", readConverterExp = "0=男,1=女")
+        private String c;
+
+        @Excel(name = "k")
+        private String k;
+
+        final List<String> calls = new ArrayList<String>();
+
+        public void setS(String s)
+        {
+            calls.add("s=" + s);
+        }
+
+        public void setL(Long l)
+        {
+            calls.add("l=" + l);
+        }
+
+        public void setN(Integer n)
+        {
+            calls.add("n=" + n);
+        }
+
+        public void setD(Double d)
+        {
+            calls.add("d=" + d);
+        }
+
+        public void setB(BigDecimal b)
+        {
+            calls.add("b=" + b);
+        }
+
+        public void setT(Date t)
+        {
+            calls.add("t=" + (t == null ? null : t.getTime()));
+        }
+
+        public void setZ(Boolean z)
+        {
+            calls.add("z=" + z);
+        }
+
+        public void setP(int p)
+        {
+            calls.add("p=" + p);
+        }
+
+        public void setC(String c)
+        {
+            calls.add("c=" + c);
+        }
+
+        public void setK(String k)
+        {
+            calls.add("k=" + k);
+        }
+    }
+
+    /**
+     * 分隔符文本导出数据
+     */
+    public static class CsvTestEntity
+    {
+        @Excel(name = "类型", readConverterExp = "0=正常,1=+cmd,2=@cmd")
+        private String type;
+
+        @Excel(name = "金额", cellType = ColumnType.NUMERIC)
+        private Double amount;
+
+        public String getType()
+        {
+            return type;
+        }
+
+        public void setType(String type)
+        {
+            this.type = type;
+        }
+
+        public Double getAmount()
+        {
+            return amount;
+        }
+
+        public void setAmount(Double amount)
+        {
+            this.amount = amount;
+        }
+    }
+}